@@ -27,14 +27,14 @@ import { useQuery } from 'react-query';
 import { useNavigate } from 'react-router-dom';
 import dayjs from 'dayjs';
 import { vehicleApi } from '../services/api';
-import { Vehicle, VehicleType, VehicleSearchParams } from '../types/vehicle';
+import { VehicleSummary, VehicleType, VehicleSearchParams } from '../types/vehicle';
 import { companyApi } from '../services/api';
 
 export const SearchPage: React.FC = () => {
   const navigate = useNavigate();
   const [searchParams, setSearchParams] = useState<VehicleSearchParams>({});
   const [page, setPage] = useState(1);
-  const [vehicles, setVehicles] = useState<Vehicle[]>([]);
+  const [vehicles, setVehicles] = useState<VehicleSummary[]>([]);
 
   const { data: companies } = useQuery('companies', companyApi.getActive);
 
@@ -255,11 +255,11 @@ export const SearchPage: React.FC = () => {
                   }}
                   onClick={() => handleVehicleClick(vehicle.id)}
                 >
-                  {vehicle.imageUrls && vehicle.imageUrls.length > 0 && (
+                  {vehicle.imageUrl && (
                     <CardMedia
                       component="img"
                       height="200"
-                      image={vehicle.imageUrls[0]}
+                      image={vehicle.imageUrl}
                       alt={`${vehicle.make} ${vehicle.model}`}
                     />
                   )}
@@ -268,7 +268,7 @@ export const SearchPage: React.FC = () => {
                       {vehicle.make} {vehicle.model} ({vehicle.year})
                     </Typography>
                     <Typography variant="body2" color="text.secondary" paragraph>
-                      {vehicle.company.companyName}
+                      {vehicle.companyName}
                     </Typography>
                     <Box sx={{ display: 'flex', gap: 1, flexWrap: 'wrap', mb: 2 }}>
                       <Chip
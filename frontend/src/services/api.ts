@@ -1,6 +1,6 @@
 import axios, { AxiosInstance, AxiosResponse } from 'axios';
 import { LoginRequest, RegisterRequest, User, AuthResponse } from '../types/auth';
-import { Vehicle, VehicleSearchParams } from '../types/vehicle';
+import { Vehicle, VehicleSearchParams, VehicleSummary } from '../types/vehicle';
 import { Company } from '../types/company';
 import { Reservation, ReservationCreateRequest } from '../types/reservation';
 
@@ -74,7 +74,7 @@ class ApiService {
   }
 
   // Vehicle endpoints
-  async searchVehicles(params: VehicleSearchParams): Promise<Vehicle[]> {
+  async searchVehicles(params: VehicleSearchParams): Promise<VehicleSummary[]> {
     const response: AxiosResponse<any> = await this.api.get('/search/vehicles', { params });
     // Backend returns { vehicles: [...], totalCount: 4, ... }
     // We need to extract just the vehicles array
@@ -86,8 +86,8 @@ class ApiService {
     return response.data;
   }
 
-  async getCompanyVehicles(companyId: string): Promise<Vehicle[]> {
-    const response: AxiosResponse<Vehicle[]> = await this.api.get(`/companies/${companyId}/vehicles`);
+  async getCompanyVehicles(companyId: string): Promise<VehicleSummary[]> {
+    const response: AxiosResponse<VehicleSummary[]> = await this.api.get(`/companies/${companyId}/vehicles`);
     return response.data;
   }
 
@@ -53,6 +53,26 @@ export interface Vehicle {
   updatedAt: string;
 }
 
+// Vehicle list and search result card (the backend's VehicleSummaryDto)
+export interface VehicleSummary {
+  id: number;
+  make: string;
+  model: string;
+  year: number;
+  licensePlate: string;
+  type: VehicleType;
+  status: VehicleStatus;
+  dailyRate: string | number;
+  fuelType: string;
+  transmission: string;
+  seatingCapacity: number;
+  imageUrl?: string;
+  currentLocation?: string;
+  averageRating?: number;
+  companyId: number;
+  companyName: string;
+}
+
 export enum VehicleType {
   CAR = 'CAR',
   SUV = 'SUV',
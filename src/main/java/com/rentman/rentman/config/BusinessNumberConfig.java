@@ -0,0 +1,32 @@
+package com.rentman.rentman.config;
+
+import com.rentman.rentman.entity.BusinessNumberGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+
+// The generator behind reservation, invoice, defect and maintenance numbers, on this instance's node ID
+@Configuration
+public class BusinessNumberConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(BusinessNumberConfig.class);
+
+    // Two instances with the same node ID can issue the same number, so outside the dev profile it must be set
+    @Bean
+    public BusinessNumberGenerator businessNumberGenerator(@Value("${rentman.node-id:#{null}}") Long nodeId,
+                                                           Environment environment) {
+        if (nodeId != null) {
+            return new BusinessNumberGenerator(nodeId);
+        }
+        if (environment.acceptsProfiles(Profiles.of("dev"))) {
+            logger.warn("rentman.node-id is not set, using 0 for the dev profile");
+            return new BusinessNumberGenerator(0);
+        }
+        throw new IllegalStateException("rentman.node-id is not set: give every running instance its own ID between 0 and "
+                + BusinessNumberGenerator.MAX_NODE_ID + ", or run with the dev profile");
+    }
+}
@@ -0,0 +1,95 @@
+package com.rentman.rentman.config;
+
+import com.rentman.rentman.service.SharedCaches;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.BatchStrategies;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import java.time.Duration;
+import java.util.Map;
+
+// Spring caches shared by all nodes: a local Caffeine tier in front of Redis (the docker-compose redis service),
+// kept consistent through pub/sub invalidation. Set rentman.cache.redis.enabled=false for local-only caches.
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    @Value("${rentman.cache.redis.enabled:false}")
+    private boolean redisEnabled;
+
+    @Value("${rentman.cache.local-ttl:30s}")
+    private Duration localTtl;
+
+    @Value("${rentman.cache.local-maximum-size:10000}")
+    private long localMaximumSize;
+
+    @Value("${rentman.cache.redis.retry-delay:30s}")
+    private Duration remoteRetryDelay;
+
+    @Value("${rentman.cache.ttl.search:60s}")
+    private Duration searchTtl;
+
+    @Value("${rentman.cache.ttl.company-lists:10m}")
+    private Duration companyListsTtl;
+
+    @Value("${rentman.cache.ttl.company-statistics:5m}")
+    private Duration companyStatisticsTtl;
+
+    @Value("${rentman.cache.ttl.platform-statistics:5m}")
+    private Duration platformStatisticsTtl;
+
+    @Bean
+    public TwoLevelCacheManager cacheManager(ObjectProvider<RedisConnectionFactory> connectionFactory,
+                                             ObjectProvider<MeterRegistry> meterRegistry) {
+        Map<String, Duration> ttls = Map.of(
+                SharedCaches.SEARCH, searchTtl,
+                SharedCaches.COMPANY_LISTS, companyListsTtl,
+                SharedCaches.COMPANY_STATISTICS, companyStatisticsTtl,
+                SharedCaches.PLATFORM_STATISTICS, platformStatisticsTtl);
+
+        RedisCacheManager remote = null;
+        StringRedisTemplate redisTemplate = null;
+        if (redisEnabled) {
+            RedisConnectionFactory factory = connectionFactory.getObject();
+            // Values are rendered JSON strings; clear() deletes by SCAN rather than KEYS
+            RedisCacheConfiguration defaults = RedisCacheConfiguration.defaultCacheConfig()
+                    .prefixCacheNameWith("rentman:cache:")
+                    .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(RedisSerializer.string()))
+                    .disableCachingNullValues()
+                    .entryTtl(searchTtl);
+            RedisCacheManager.RedisCacheManagerBuilder builder = RedisCacheManager
+                    .builder(RedisCacheWriter.nonLockingRedisCacheWriter(factory, BatchStrategies.scan(1000)))
+                    .cacheDefaults(defaults);
+            ttls.forEach((name, ttl) -> builder.withCacheConfiguration(name, defaults.entryTtl(ttl)));
+            remote = builder.build();
+            remote.initializeCaches();
+            redisTemplate = new StringRedisTemplate(factory);
+        }
+
+        return new TwoLevelCacheManager(remote, redisTemplate, meterRegistry.getIfAvailable(), ttls, searchTtl,
+                localTtl, localMaximumSize, remoteRetryDelay);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "rentman.cache.redis.enabled", havingValue = "true")
+    public RedisMessageListenerContainer cacheInvalidationListener(RedisConnectionFactory connectionFactory,
+                                                                   TwoLevelCacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheManager, new ChannelTopic(TwoLevelCacheManager.INVALIDATION_CHANNEL));
+        return container;
+    }
+}
@@ -0,0 +1,12 @@
+package com.rentman.rentman.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Background jobs (e.g. the overdue invoice sweep); set rentman.scheduling.enabled=false to run them only on demand
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(name = "rentman.scheduling.enabled", havingValue = "true", matchIfMissing = true)
+public class SchedulingConfig {
+}
@@ -1,8 +1,13 @@
 package com.rentman.rentman.config;
 
+import com.rentman.rentman.security.BoundedPasswordEncoder;
 import com.rentman.rentman.security.JwtAuthenticationFilter;
 import com.rentman.rentman.service.CustomUserDetailsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -33,16 +38,28 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    // BCrypt runs on its own bounded pool (see BoundedPasswordEncoder); 0 threads means one per core
+    @Value("${security.password-hashing.threads:0}")
+    private int passwordHashingThreads;
+
+    @Value("${security.password-hashing.queue-capacity:64}")
+    private int passwordHashingQueueCapacity;
+
+    @Value("${security.password-hashing.timeout-ms:2000}")
+    private long passwordHashingTimeoutMillis;
+
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(ObjectProvider<MeterRegistry> meterRegistry) {
+        int threads = passwordHashingThreads > 0 ? passwordHashingThreads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), threads, passwordHashingQueueCapacity,
+                passwordHashingTimeoutMillis, meterRegistry.getIfAvailable());
     }
 
     @Bean
-    public DaoAuthenticationProvider authenticationProvider() {
+    public DaoAuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
         return authProvider;
     }
 
@@ -52,11 +69,13 @@ public class SecurityConfig {
     }
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, DaoAuthenticationProvider authenticationProvider) throws Exception {
         http.cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .csrf(csrf -> csrf.disable())
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(authz -> authz
+                // Async dispatches only complete a response (e.g. a streaming export) already authorized on the original request
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 // Public endpoints - Must be first!
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/api/companies/register").permitAll()
@@ -66,12 +85,15 @@ public class SecurityConfig {
                 .requestMatchers("/api/companies/location").permitAll()
                 .requestMatchers("/api/vehicles/available").permitAll()
                 .requestMatchers("/api/vehicles/type/**").permitAll()
+                // Matched before /api/vehicles/{id}, which would otherwise take the path as an id
+                .requestMatchers("/api/vehicles/import").hasAnyRole("ADMIN", "COMPANY_ADMIN")
                 .requestMatchers("/api/vehicles/{id}").permitAll()
                 .requestMatchers("/api/companies/{id}").permitAll()
                 .requestMatchers("/api/companies/statistics/platform").permitAll()
                 
                 // Platform Admin only endpoints
                 .requestMatchers("/api/platform-admin/**").hasRole("ADMIN")
+                .requestMatchers("/actuator/metrics/**").hasRole("ADMIN")
                 
                 // Admin only endpoints
                 .requestMatchers("/api/companies/{id}/status").hasRole("ADMIN")
@@ -111,7 +133,7 @@ public class SecurityConfig {
                 // All other requests need authentication
                 .anyRequest().authenticated()
             )
-            .authenticationProvider(authenticationProvider())
+            .authenticationProvider(authenticationProvider)
             .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
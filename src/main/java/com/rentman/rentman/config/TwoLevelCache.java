@@ -0,0 +1,168 @@
+package com.rentman.rentman.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+// One cache of TwoLevelCacheManager: reads try the local tier, then Redis (copying a hit locally), then the loader.
+// Keys are compared by their string form, which is also what goes into Redis and the invalidation messages.
+public class TwoLevelCache extends AbstractValueAdaptingCache {
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+    private final Cache remote;
+    private final TwoLevelCacheManager manager;
+
+    // Bumped by every eviction; a load that raced with one is returned but not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Counter localHits;
+    private final Counter remoteHits;
+    private final Counter misses;
+
+    TwoLevelCache(String name, com.github.benmanes.caffeine.cache.Cache<String, Object> local, Cache remote,
+                  TwoLevelCacheManager manager, MeterRegistry meterRegistry) {
+        super(false);
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.manager = manager;
+        this.localHits = counter(meterRegistry, "local-hit");
+        this.remoteHits = counter(meterRegistry, "remote-hit");
+        this.misses = counter(meterRegistry, "miss");
+    }
+
+    private Counter counter(MeterRegistry meterRegistry, String result) {
+        return meterRegistry == null ? null : Counter.builder("rentman.cache.requests")
+                .tag("cache", name)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        String cacheKey = String.valueOf(key);
+        Object value = local.getIfPresent(cacheKey);
+        if (value != null) {
+            increment(localHits);
+            return value;
+        }
+        if (remote != null && manager.isRemoteAvailable()) {
+            try {
+                ValueWrapper wrapper = remote.get(cacheKey);
+                if (wrapper != null && wrapper.get() != null) {
+                    local.put(cacheKey, wrapper.get());
+                    increment(remoteHits);
+                    return wrapper.get();
+                }
+            } catch (RuntimeException e) {
+                manager.remoteFailed(name, e);
+            }
+        }
+        increment(misses);
+        return null;
+    }
+
+    // A loader returning null is not cached
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object value = lookup(key);
+        if (value != null) {
+            return (T) fromStoreValue(value);
+        }
+        long startGeneration = generation.get();
+        T loaded;
+        try {
+            loaded = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        if (loaded != null && generation.get() == startGeneration) {
+            String cacheKey = String.valueOf(key);
+            local.put(cacheKey, loaded);
+            putRemote(cacheKey, loaded);
+        }
+        return loaded;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null) {
+            evict(key);
+            return;
+        }
+        String cacheKey = String.valueOf(key);
+        local.put(cacheKey, value);
+        putRemote(cacheKey, value);
+        manager.publishInvalidation(name, cacheKey);
+    }
+
+    @Override
+    public void evict(Object key) {
+        String cacheKey = String.valueOf(key);
+        generation.incrementAndGet();
+        local.invalidate(cacheKey);
+        if (remote != null && manager.isRemoteAvailable()) {
+            try {
+                remote.evict(cacheKey);
+            } catch (RuntimeException e) {
+                manager.remoteFailed(name, e);
+            }
+        }
+        manager.publishInvalidation(name, cacheKey);
+    }
+
+    @Override
+    public void clear() {
+        generation.incrementAndGet();
+        local.invalidateAll();
+        if (remote != null && manager.isRemoteAvailable()) {
+            try {
+                remote.clear();
+            } catch (RuntimeException e) {
+                manager.remoteFailed(name, e);
+            }
+        }
+        manager.publishInvalidation(name, null);
+    }
+
+    // Another node changed the entry (null key: the whole cache); only the local copy is dropped
+    void invalidateLocal(String key) {
+        generation.incrementAndGet();
+        if (key == null) {
+            local.invalidateAll();
+        } else {
+            local.invalidate(key);
+        }
+    }
+
+    private void putRemote(String cacheKey, Object value) {
+        if (remote != null && manager.isRemoteAvailable()) {
+            try {
+                remote.put(cacheKey, value);
+            } catch (RuntimeException e) {
+                manager.remoteFailed(name, e);
+            }
+        }
+    }
+
+    private static void increment(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.rentman.rentman.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+// Caches with a per-node Caffeine tier in front of a shared Redis tier. Every eviction, clear and overwrite is
+// published on INVALIDATION_CHANNEL so the other nodes drop their local copy; the local expiry bounds the damage
+// of a missed message. Without Redis (remote == null) the caches are local only.
+public class TwoLevelCacheManager implements CacheManager, MessageListener {
+
+    // Messages are "<origin>|<cache>|<key>"; an empty key clears the whole cache
+    public static final String INVALIDATION_CHANNEL = "rentman:cache:invalidations";
+
+    private static final Logger logger = LoggerFactory.getLogger(TwoLevelCacheManager.class);
+
+    private final CacheManager remote;
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Duration> ttls;
+    private final Duration defaultTtl;
+    private final Duration localTtl;
+    private final long localMaximumSize;
+    private final Duration remoteRetryDelay;
+    private final String origin = UUID.randomUUID().toString();
+    private final Map<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+    // Per-node caches kept outside this manager (no Redis tier) that still follow the invalidation channel
+    private final Map<String, Consumer<String>> localOnlyCaches = new ConcurrentHashMap<>();
+
+    // While Redis is failing, skip it until this time instead of paying a failed round trip per request
+    private volatile long remoteRetryAtMillis;
+
+    public TwoLevelCacheManager(CacheManager remote, StringRedisTemplate redisTemplate, MeterRegistry meterRegistry,
+                                Map<String, Duration> ttls, Duration defaultTtl, Duration localTtl,
+                                long localMaximumSize, Duration remoteRetryDelay) {
+        this.remote = remote;
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.ttls = Map.copyOf(ttls);
+        this.defaultTtl = defaultTtl;
+        this.localTtl = localTtl;
+        this.localMaximumSize = localMaximumSize;
+        this.remoteRetryDelay = remoteRetryDelay;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return caches.keySet();
+    }
+
+    private TwoLevelCache createCache(String name) {
+        Duration ttl = ttls.getOrDefault(name, defaultTtl);
+        // A local entry never outlives the shared one
+        Duration expiry = ttl.compareTo(localTtl) < 0 ? ttl : localTtl;
+        com.github.benmanes.caffeine.cache.Cache<String, Object> local = Caffeine.newBuilder()
+                .maximumSize(localMaximumSize)
+                .expireAfterWrite(expiry)
+                .build();
+        return new TwoLevelCache(name, local, remote != null ? remote.getCache(name) : null, this, meterRegistry);
+    }
+
+    // ========== REMOTE TIER ==========
+
+    boolean isRemoteAvailable() {
+        return remote != null && System.currentTimeMillis() >= remoteRetryAtMillis;
+    }
+
+    void remoteFailed(String cacheName, RuntimeException e) {
+        if (System.currentTimeMillis() >= remoteRetryAtMillis) {
+            logger.warn("Redis cache tier unavailable (cache {}), serving from the local tier for {} s: {}",
+                    cacheName, remoteRetryDelay.toSeconds(), e.getMessage());
+        }
+        remoteRetryAtMillis = System.currentTimeMillis() + remoteRetryDelay.toMillis();
+    }
+
+    // ========== INVALIDATION MESSAGES ==========
+
+    // Registers a cache that lives on each node only. The invalidator drops one key, or everything for null.
+    public void registerLocalOnly(String cacheName, Consumer<String> invalidator) {
+        localOnlyCaches.put(cacheName, invalidator);
+    }
+
+    // Tells the other nodes to drop a key (null: everything) of a local-only cache; the caller drops its own copy
+    public void evictOnOtherNodes(String cacheName, String key) {
+        publishInvalidation(cacheName, key);
+    }
+
+    void publishInvalidation(String cacheName, String key) {
+        if (redisTemplate == null || !isRemoteAvailable()) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, origin + "|" + cacheName + "|" + (key == null ? "" : key));
+        } catch (RuntimeException e) {
+            remoteFailed(cacheName, e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 3);
+        if (parts.length != 3 || parts[0].equals(origin)) {
+            return;
+        }
+        String key = parts[2].isEmpty() ? null : parts[2];
+        TwoLevelCache cache = caches.get(parts[1]);
+        if (cache != null) {
+            cache.invalidateLocal(key);
+        }
+        Consumer<String> localOnly = localOnlyCaches.get(parts[1]);
+        if (localOnly != null) {
+            localOnly.accept(key);
+        }
+    }
+}
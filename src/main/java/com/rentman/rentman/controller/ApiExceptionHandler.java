@@ -0,0 +1,24 @@
+package com.rentman.rentman.controller;
+
+import com.rentman.rentman.security.BoundedPasswordEncoder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import java.util.HashMap;
+import java.util.Map;
+
+// Answers for exceptions that mean the same thing whichever endpoint raised them. Handlers that turn their own
+// failures into 400s let these through.
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+    // Password hashing is saturated: shed the request rather than queue it on a request thread
+    @ExceptionHandler(BoundedPasswordEncoder.Overloaded.class)
+    public ResponseEntity<Map<String, String>> passwordHashingOverloaded(BoundedPasswordEncoder.Overloaded e) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", e.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "1").body(error);
+    }
+}
@@ -3,6 +3,7 @@ package com.rentman.rentman.controller;
 import com.rentman.rentman.dto.LoginRequest;
 import com.rentman.rentman.dto.RegisterRequest;
 import com.rentman.rentman.entity.User;
+import com.rentman.rentman.security.BoundedPasswordEncoder;
 import com.rentman.rentman.security.JwtUtil;
 import com.rentman.rentman.service.CustomUserDetailsService;
 import com.rentman.rentman.service.UserService;
@@ -13,6 +14,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
@@ -47,12 +49,10 @@ public class AuthController {
             );
 
             SecurityContextHolder.getContext().setAuthentication(authentication);
-            UserDetails userDetails = userDetailsService.loadUserByUsername(loginRequest.getEmail());
-            String jwt = jwtUtil.generateToken(userDetails);
-
-            // Get user details
-            CustomUserDetailsService.CustomUserPrincipal principal = 
-                (CustomUserDetailsService.CustomUserPrincipal) userDetails;
+            // The principal the authentication manager loaded to check the password; no second lookup
+            CustomUserDetailsService.CustomUserPrincipal principal =
+                (CustomUserDetailsService.CustomUserPrincipal) authentication.getPrincipal();
+            String jwt = jwtUtil.generateToken(principal);
             User user = principal.getUser();
 
             Map<String, Object> response = new HashMap<>();
@@ -62,7 +62,7 @@ public class AuthController {
             response.put("user", createUserResponse(user));
 
             return ResponseEntity.ok(response);
-        } catch (Exception e) {
+        } catch (AuthenticationException e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", "Invalid email or password");
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
@@ -86,6 +86,8 @@ public class AuthController {
             response.put("message", "User registered successfully");
 
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (BoundedPasswordEncoder.Overloaded e) {
+            throw e;
         } catch (RuntimeException e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
@@ -113,6 +115,8 @@ public class AuthController {
             response.put("message", "Platform administrator registered successfully");
 
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (BoundedPasswordEncoder.Overloaded e) {
+            throw e;
         } catch (RuntimeException e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
@@ -218,6 +222,8 @@ public class AuthController {
             Map<String, String> error = new HashMap<>();
             error.put("error", "User not authenticated");
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(error);
+        } catch (BoundedPasswordEncoder.Overloaded e) {
+            throw e;
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", "Failed to change password: " + e.getMessage());
@@ -9,7 +9,16 @@ import com.rentman.rentman.entity.Defect;
 import com.rentman.rentman.entity.Invoice;
 import com.rentman.rentman.dto.CompanyRegistrationRequest;
 import com.rentman.rentman.dto.CompanyRegistrationResult;
+import com.rentman.rentman.dto.CursorPage;
+import com.rentman.rentman.dto.KeysetCursor;
+import com.rentman.rentman.dto.VehicleSummaryDto;
+import com.rentman.rentman.security.BoundedPasswordEncoder;
+import com.rentman.rentman.service.CompanyDashboardSnapshot;
 import com.rentman.rentman.service.CompanyService;
+import com.rentman.rentman.service.TextSearchIndex;
+import com.rentman.rentman.service.ExportService;
+import com.rentman.rentman.service.ParallelQueryRunner;
+import com.rentman.rentman.service.SharedCaches;
 import com.rentman.rentman.repository.CompanyRepository;
 import com.rentman.rentman.repository.UserRepository;
 import com.rentman.rentman.repository.VehicleRepository;
@@ -24,22 +33,31 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/companies")
 @CrossOrigin(origins = "*")
 public class CompanyController {
 
+    private static final int MAX_PAGE_SIZE = 200;
+
     @Autowired
     private CompanyRepository companyRepository;
 
@@ -64,6 +82,18 @@ public class CompanyController {
     @Autowired
     private CompanyService companyService;
 
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private CompanyDashboardSnapshot dashboardSnapshot;
+
+    @Autowired
+    private ParallelQueryRunner queryRunner;
+
+    @Autowired
+    private SharedCaches sharedCaches;
+
     // ========== COMPANY MANAGEMENT ==========
 
     // Get all companies
@@ -107,6 +137,7 @@ public class CompanyController {
             }
 
             Company savedCompany = companyRepository.save(company);
+            dashboardSnapshot.invalidate(savedCompany, CompanyDashboardSnapshot.Section.COMPANY);
             return ResponseEntity.status(HttpStatus.CREATED).body(savedCompany);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
@@ -127,6 +158,8 @@ public class CompanyController {
             response.put("message", "Company and admin user registered successfully");
             
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        } catch (BoundedPasswordEncoder.Overloaded e) {
+            throw e;
         } catch (RuntimeException e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
@@ -152,6 +185,8 @@ public class CompanyController {
                 company.setState(companyDetails.getState());
                 company.setPostalCode(companyDetails.getPostalCode());
                 company.setCountry(companyDetails.getCountry());
+                company.setLatitude(companyDetails.getLatitude());
+                company.setLongitude(companyDetails.getLongitude());
                 company.setDescription(companyDetails.getDescription());
                 company.setLogoUrl(companyDetails.getLogoUrl());
                 company.setOperatingHoursStart(companyDetails.getOperatingHoursStart());
@@ -162,6 +197,7 @@ public class CompanyController {
                 company.setEmergencyContact(companyDetails.getEmergencyContact());
 
                 Company updatedCompany = companyRepository.save(company);
+                dashboardSnapshot.invalidate(updatedCompany, CompanyDashboardSnapshot.Section.COMPANY);
                 return ResponseEntity.ok(updatedCompany);
             } else {
                 return ResponseEntity.notFound().build();
@@ -189,6 +225,7 @@ public class CompanyController {
                 }
 
                 Company updatedCompany = companyRepository.save(company);
+                dashboardSnapshot.invalidate(updatedCompany, CompanyDashboardSnapshot.Section.COMPANY);
                 return ResponseEntity.ok(updatedCompany);
             } else {
                 return ResponseEntity.notFound().build();
@@ -218,6 +255,7 @@ public class CompanyController {
                 company.setMaxEmployees(newPlan.getMaxEmployees());
 
                 Company updatedCompany = companyRepository.save(company);
+                dashboardSnapshot.invalidate(updatedCompany, CompanyDashboardSnapshot.Section.COMPANY);
                 return ResponseEntity.ok(updatedCompany);
             } else {
                 return ResponseEntity.notFound().build();
@@ -239,6 +277,7 @@ public class CompanyController {
         try {
             if (companyRepository.existsById(id)) {
                 companyRepository.deleteById(id);
+                dashboardSnapshot.evictCompany(id);
                 Map<String, String> response = new HashMap<>();
                 response.put("message", "Company deleted successfully");
                 return ResponseEntity.ok(response);
@@ -254,10 +293,11 @@ public class CompanyController {
 
     // ========== COMPANY SEARCH AND FILTERING ==========
 
-    // Search companies
+    // Search companies; the name match is substring (default), prefix or fuzzy
     @GetMapping("/search")
     public ResponseEntity<Page<Company>> searchCompanies(
             @RequestParam(required = false) String companyName,
+            @RequestParam(required = false) String match,
             @RequestParam(required = false) String city,
             @RequestParam(required = false) String state,
             @RequestParam(required = false) String country,
@@ -277,8 +317,8 @@ public class CompanyController {
                 Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
             Pageable pageable = PageRequest.of(page, size, sort);
 
-            Page<Company> companies = companyRepository.searchCompanies(
-                companyName, city, state, country, companyStatus, pageable);
+            Page<Company> companies = companyService.searchCompanies(
+                companyName, TextSearchIndex.MatchMode.parse(match), city, state, country, companyStatus, pageable);
 
             return ResponseEntity.ok(companies);
         } catch (IllegalArgumentException e) {
@@ -300,16 +340,16 @@ public class CompanyController {
 
     // Get active companies
     @GetMapping("/active")
-    public ResponseEntity<List<Company>> getActiveCompanies() {
-        List<Company> companies = companyRepository.findByStatusAndIsVerifiedTrue(Company.CompanyStatus.ACTIVE);
-        return ResponseEntity.ok(companies);
+    public ResponseEntity<String> getActiveCompanies() {
+        return SharedCaches.jsonResponse(sharedCaches.getJson(SharedCaches.COMPANY_LISTS, "active",
+                () -> companyRepository.findByStatusAndIsVerifiedTrue(Company.CompanyStatus.ACTIVE)));
     }
 
     // Get featured companies
     @GetMapping("/featured")
-    public ResponseEntity<List<Company>> getFeaturedCompanies() {
-        List<Company> companies = companyRepository.findByIsFeaturedTrueAndStatus(Company.CompanyStatus.ACTIVE);
-        return ResponseEntity.ok(companies);
+    public ResponseEntity<String> getFeaturedCompanies() {
+        return SharedCaches.jsonResponse(sharedCaches.getJson(SharedCaches.COMPANY_LISTS, "featured",
+                () -> companyRepository.findByIsFeaturedTrueAndStatus(Company.CompanyStatus.ACTIVE)));
     }
 
     // Get companies by location
@@ -323,50 +363,12 @@ public class CompanyController {
 
     // ========== COMPANY DASHBOARD DATA ==========
 
-    // Get company dashboard data
+    // Get company dashboard data, served from the materialized snapshot
     @GetMapping("/{id}/dashboard")
     public ResponseEntity<?> getCompanyDashboard(@PathVariable Long id) {
         try {
-            Optional<Company> optionalCompany = companyRepository.findById(id);
-            if (optionalCompany.isPresent()) {
-                Company company = optionalCompany.get();
-                
-                Map<String, Object> dashboard = new HashMap<>();
-                dashboard.put("company", company);
-
-                // Get statistics
-                Object[] vehicleStats = vehicleRepository.getVehicleStatisticsByCompany(id);
-                Object[] reservationStats = reservationRepository.getReservationStatisticsByCompany(id);
-                Object[] userStats = userRepository.getUserStatisticsByCompany(id);
-                Object[] maintenanceStats = maintenanceRepository.getMaintenanceStatisticsByCompany(id);
-                Object[] defectStats = defectRepository.getDefectStatisticsByCompany(id);
-                Object[] invoiceStats = invoiceRepository.getInvoiceStatisticsByCompany(id);
-
-                dashboard.put("vehicleStatistics", vehicleStats);
-                dashboard.put("reservationStatistics", reservationStats);
-                dashboard.put("userStatistics", userStats);
-                dashboard.put("maintenanceStatistics", maintenanceStats);
-                dashboard.put("defectStatistics", defectStats);
-                dashboard.put("invoiceStatistics", invoiceStats);
-
-                // Get recent activities
-                LocalDateTime thirtyDaysAgo = LocalDateTime.now().minusDays(30);
-                dashboard.put("recentReservations", reservationRepository.findRecentReservationsByCompany(id, thirtyDaysAgo));
-                dashboard.put("recentVehicles", vehicleRepository.findVehiclesByCompanyAndCreatedDateRange(id, thirtyDaysAgo, LocalDateTime.now()));
-                dashboard.put("recentEmployees", userRepository.findUsersByCompanyAndCreatedDateRange(id, thirtyDaysAgo, LocalDateTime.now()));
-
-                // Get upcoming activities
-                LocalDate today = LocalDate.now();
-                LocalDate nextWeek = today.plusDays(7);
-                dashboard.put("upcomingReservations", reservationRepository.findUpcomingReservationsByCompany(id, today, nextWeek));
-                dashboard.put("todayPickups", reservationRepository.findReservationsPendingPickupByCompany(id, today));
-                dashboard.put("todayReturns", reservationRepository.findReservationsPendingReturnByCompany(id, today));
-
-                // Get alerts
-                dashboard.put("overdueReservations", reservationRepository.findOverdueReservationsByCompany(id, today));
-                dashboard.put("vehiclesNeedingMaintenance", vehicleRepository.findVehiclesNeedingMaintenanceByCompany(id, today));
-                dashboard.put("criticalDefects", defectRepository.findCriticalDefectsByCompany(id));
-
+            Map<String, Object> dashboard = dashboardSnapshot.getDashboard(id);
+            if (dashboard != null) {
                 return ResponseEntity.ok(dashboard);
             } else {
                 return ResponseEntity.notFound().build();
@@ -387,6 +389,17 @@ public class CompanyController {
         return ResponseEntity.ok(employees);
     }
 
+    // Get company employees one keyset page at a time, newest first
+    @GetMapping("/{id}/employees/page")
+    public ResponseEntity<?> getCompanyEmployeesPage(@PathVariable Long id,
+                                                     @RequestParam(required = false) String cursor,
+                                                     @RequestParam(defaultValue = "50") int size) {
+        return keysetPage(cursor, size,
+                pageable -> userRepository.findCompanyPage(id, pageable),
+                (createdAt, lastId, pageable) -> userRepository.findCompanyPageAfter(id, createdAt, lastId, pageable),
+                User::getCreatedAt, User::getId);
+    }
+
     // Get company employees by role
     @GetMapping("/{id}/employees/role/{role}")
     public ResponseEntity<List<User>> getCompanyEmployeesByRole(@PathVariable Long id, @PathVariable String role) {
@@ -403,17 +416,28 @@ public class CompanyController {
 
     // Get company vehicles
     @GetMapping("/{id}/vehicles")
-    public ResponseEntity<List<Vehicle>> getCompanyVehicles(@PathVariable Long id) {
-        List<Vehicle> vehicles = vehicleRepository.findByCompanyIdOrderByCreatedAtDesc(id);
+    public ResponseEntity<List<VehicleSummaryDto>> getCompanyVehicles(@PathVariable Long id) {
+        List<VehicleSummaryDto> vehicles = vehicleRepository.findCompanySummaries(id);
         return ResponseEntity.ok(vehicles);
     }
 
+    // Get company vehicles one keyset page at a time, newest first
+    @GetMapping("/{id}/vehicles/page")
+    public ResponseEntity<?> getCompanyVehiclesPage(@PathVariable Long id,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(defaultValue = "50") int size) {
+        return keysetPage(cursor, size,
+                pageable -> vehicleRepository.findCompanyPage(id, pageable),
+                (createdAt, lastId, pageable) -> vehicleRepository.findCompanyPageAfter(id, createdAt, lastId, pageable),
+                Vehicle::getCreatedAt, Vehicle::getId);
+    }
+
     // Get company vehicles by status
     @GetMapping("/{id}/vehicles/status/{status}")
-    public ResponseEntity<List<Vehicle>> getCompanyVehiclesByStatus(@PathVariable Long id, @PathVariable String status) {
+    public ResponseEntity<List<VehicleSummaryDto>> getCompanyVehiclesByStatus(@PathVariable Long id, @PathVariable String status) {
         try {
             Vehicle.VehicleStatus vehicleStatus = Vehicle.VehicleStatus.valueOf(status.toUpperCase());
-            List<Vehicle> vehicles = vehicleRepository.findByCompanyIdAndStatusOrderByCreatedAtDesc(id, vehicleStatus);
+            List<VehicleSummaryDto> vehicles = vehicleRepository.findCompanySummariesByStatus(id, vehicleStatus);
             return ResponseEntity.ok(vehicles);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
@@ -425,22 +449,30 @@ public class CompanyController {
     // Get company reservations
     @GetMapping("/{id}/reservations")
     public ResponseEntity<List<Reservation>> getCompanyReservations(@PathVariable Long id) {
+        // Vehicle, customer and company are fetched with the reservations, so serializing them costs no extra queries
         List<Reservation> reservations = reservationRepository.findByCompanyIdOrderByCreatedAtDesc(id);
-        // Trigger lazy loading for relationships
-        for (Reservation reservation : reservations) {
-            if (reservation.getVehicle() != null) {
-                reservation.getVehicle().getMake();
-            }
-            if (reservation.getCustomer() != null) {
-                reservation.getCustomer().getFirstName();
-            }
-            if (reservation.getCompany() != null) {
-                reservation.getCompany().getCompanyName();
-            }
-        }
         return ResponseEntity.ok(reservations);
     }
 
+    // Get company reservations one keyset page at a time, newest first
+    @GetMapping("/{id}/reservations/page")
+    public ResponseEntity<?> getCompanyReservationsPage(@PathVariable Long id,
+                                                        @RequestParam(required = false) String cursor,
+                                                        @RequestParam(defaultValue = "50") int size) {
+        return keysetPage(cursor, size,
+                pageable -> reservationRepository.findCompanyPage(id, pageable),
+                (createdAt, lastId, pageable) -> reservationRepository.findCompanyPageAfter(id, createdAt, lastId, pageable),
+                Reservation::getCreatedAt, Reservation::getId);
+    }
+
+    // Stream the full company reservation history as NDJSON or CSV without loading it into memory
+    @GetMapping("/{id}/reservations/export")
+    public ResponseEntity<?> exportCompanyReservations(@PathVariable Long id,
+                                                       @RequestParam(defaultValue = "ndjson") String format) {
+        return streamExport("company-" + id + "-reservations", format,
+                (exportFormat, out) -> exportService.exportReservations(id, exportFormat, out));
+    }
+
     // Get company reservations by status
     @GetMapping("/{id}/reservations/status/{status}")
     public ResponseEntity<List<Reservation>> getCompanyReservationsByStatus(@PathVariable Long id, @PathVariable String status) {
@@ -462,6 +494,25 @@ public class CompanyController {
         return ResponseEntity.ok(maintenance);
     }
 
+    // Get company maintenance one keyset page at a time, newest first
+    @GetMapping("/{id}/maintenance/page")
+    public ResponseEntity<?> getCompanyMaintenancePage(@PathVariable Long id,
+                                                       @RequestParam(required = false) String cursor,
+                                                       @RequestParam(defaultValue = "50") int size) {
+        return keysetPage(cursor, size,
+                pageable -> maintenanceRepository.findCompanyPage(id, pageable),
+                (createdAt, lastId, pageable) -> maintenanceRepository.findCompanyPageAfter(id, createdAt, lastId, pageable),
+                Maintenance::getCreatedAt, Maintenance::getId);
+    }
+
+    // Stream the full company maintenance history as NDJSON or CSV without loading it into memory
+    @GetMapping("/{id}/maintenance/export")
+    public ResponseEntity<?> exportCompanyMaintenance(@PathVariable Long id,
+                                                      @RequestParam(defaultValue = "ndjson") String format) {
+        return streamExport("company-" + id + "-maintenance", format,
+                (exportFormat, out) -> exportService.exportMaintenance(id, exportFormat, out));
+    }
+
     // Get company maintenance by status
     @GetMapping("/{id}/maintenance/status/{status}")
     public ResponseEntity<List<Maintenance>> getCompanyMaintenanceByStatus(@PathVariable Long id, @PathVariable String status) {
@@ -483,6 +534,17 @@ public class CompanyController {
         return ResponseEntity.ok(defects);
     }
 
+    // Get company defects one keyset page at a time, newest first
+    @GetMapping("/{id}/defects/page")
+    public ResponseEntity<?> getCompanyDefectsPage(@PathVariable Long id,
+                                                   @RequestParam(required = false) String cursor,
+                                                   @RequestParam(defaultValue = "50") int size) {
+        return keysetPage(cursor, size,
+                pageable -> defectRepository.findCompanyPage(id, pageable),
+                (createdAt, lastId, pageable) -> defectRepository.findCompanyPageAfter(id, createdAt, lastId, pageable),
+                Defect::getCreatedAt, Defect::getId);
+    }
+
     // Get company defects by status
     @GetMapping("/{id}/defects/status/{status}")
     public ResponseEntity<List<Defect>> getCompanyDefectsByStatus(@PathVariable Long id, @PathVariable String status) {
@@ -504,6 +566,25 @@ public class CompanyController {
         return ResponseEntity.ok(invoices);
     }
 
+    // Get company invoices one keyset page at a time, newest first
+    @GetMapping("/{id}/invoices/page")
+    public ResponseEntity<?> getCompanyInvoicesPage(@PathVariable Long id,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(defaultValue = "50") int size) {
+        return keysetPage(cursor, size,
+                pageable -> invoiceRepository.findCompanyPage(id, pageable),
+                (createdAt, lastId, pageable) -> invoiceRepository.findCompanyPageAfter(id, createdAt, lastId, pageable),
+                Invoice::getCreatedAt, Invoice::getId);
+    }
+
+    // Stream every company invoice as NDJSON or CSV without loading them into memory
+    @GetMapping("/{id}/invoices/export")
+    public ResponseEntity<?> exportCompanyInvoices(@PathVariable Long id,
+                                                   @RequestParam(defaultValue = "ndjson") String format) {
+        return streamExport("company-" + id + "-invoices", format,
+                (exportFormat, out) -> exportService.exportInvoices(id, exportFormat, out));
+    }
+
     // Get company invoices by status
     @GetMapping("/{id}/invoices/status/{status}")
     public ResponseEntity<List<Invoice>> getCompanyInvoicesByStatus(@PathVariable Long id, @PathVariable String status) {
@@ -522,24 +603,28 @@ public class CompanyController {
     @GetMapping("/{id}/statistics")
     public ResponseEntity<?> getCompanyStatistics(@PathVariable Long id) {
         try {
-            Map<String, Object> statistics = new HashMap<>();
-
-            // Get all statistics
-            Object[] vehicleStats = vehicleRepository.getVehicleStatisticsByCompany(id);
-            Object[] reservationStats = reservationRepository.getReservationStatisticsByCompany(id);
-            Object[] userStats = userRepository.getUserStatisticsByCompany(id);
-            Object[] maintenanceStats = maintenanceRepository.getMaintenanceStatisticsByCompany(id);
-            Object[] defectStats = defectRepository.getDefectStatisticsByCompany(id);
-            Object[] invoiceStats = invoiceRepository.getInvoiceStatisticsByCompany(id);
-
-            statistics.put("vehicles", vehicleStats);
-            statistics.put("reservations", reservationStats);
-            statistics.put("users", userStats);
-            statistics.put("maintenance", maintenanceStats);
-            statistics.put("defects", defectStats);
-            statistics.put("invoices", invoiceStats);
-
-            return ResponseEntity.ok(statistics);
+            // A partial result (some query failed or timed out) is returned but not cached
+            String json = sharedCaches.getJson(SharedCaches.COMPANY_STATISTICS, id, () -> {
+                // Independent aggregate queries, run in parallel
+                Map<String, Supplier<?>> queries = new LinkedHashMap<>();
+                queries.put("vehicles", () -> vehicleRepository.getVehicleStatisticsByCompany(id));
+                queries.put("reservations", () -> reservationRepository.getReservationStatisticsByCompany(id));
+                queries.put("users", () -> userRepository.getUserStatisticsByCompany(id));
+                queries.put("maintenance", () -> maintenanceRepository.getMaintenanceStatisticsByCompany(id));
+                queries.put("defects", () -> defectRepository.getDefectStatisticsByCompany(id));
+                queries.put("invoices", () -> invoiceRepository.getInvoiceStatisticsByCompany(id));
+
+                ParallelQueryRunner.QueryResults results = queryRunner.run(queries);
+
+                Map<String, Object> statistics = new HashMap<>(results.values());
+                statistics.put("timings", results.timings());
+                if (!results.isComplete()) {
+                    statistics.put("unavailable", results.failed());
+                }
+                return statistics;
+            }, statistics -> !((Map<?, ?>) statistics).containsKey("unavailable"));
+
+            return SharedCaches.jsonResponse(json);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", "Failed to get statistics: " + e.getMessage());
@@ -583,24 +668,87 @@ public class CompanyController {
     @GetMapping("/statistics/platform")
     public ResponseEntity<?> getPlatformStatistics() {
         try {
-            Map<String, Object> statistics = new HashMap<>();
+            String json = sharedCaches.getJson(SharedCaches.PLATFORM_STATISTICS, "platform", () -> {
+                Map<String, Object> statistics = new HashMap<>();
 
-            // Get platform-wide statistics
-            Object[] companyStats = companyRepository.getCompanyStatistics();
-            Object[] platformRevenue = invoiceRepository.getPlatformRevenueStatistics();
+                // Get platform-wide statistics
+                Object[] companyStats = companyRepository.getCompanyStatistics();
+                Object[] platformRevenue = invoiceRepository.getPlatformRevenueStatistics();
 
-            statistics.put("companies", companyStats);
-            statistics.put("revenue", platformRevenue);
+                statistics.put("companies", companyStats);
+                statistics.put("revenue", platformRevenue);
 
-            // Get recent activities
-            LocalDateTime thirtyDaysAgo = LocalDateTime.now().minusDays(30);
-            statistics.put("recentCompanies", companyRepository.findCompaniesCreatedBetween(thirtyDaysAgo, LocalDateTime.now()));
+                // Get recent activities
+                LocalDateTime thirtyDaysAgo = LocalDateTime.now().minusDays(30);
+                statistics.put("recentCompanies", companyRepository.findCompaniesCreatedBetween(thirtyDaysAgo, LocalDateTime.now()));
+                return statistics;
+            });
 
-            return ResponseEntity.ok(statistics);
+            return SharedCaches.jsonResponse(json);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", "Failed to get platform statistics: " + e.getMessage());
             return ResponseEntity.badRequest().body(error);
         }
     }
+
+    // ========== KEYSET PAGINATION ==========
+
+    @FunctionalInterface
+    private interface PageAfter<T> {
+        List<T> find(LocalDateTime createdAt, Long id, Pageable pageable);
+    }
+
+    // Page ordered by (createdAt DESC, id DESC) that seeks past the cursor instead of skipping rows, so every page
+    // costs the same as the first. Each paged list has a findCompanyPage / findCompanyPageAfter pair in its
+    // repository: the first page, then the rows strictly after the cursor's (createdAt, id), both fetching what
+    // the list serializes so a page is one query. The id breaks ties between rows created in the same instant.
+    private <T> ResponseEntity<?> keysetPage(String cursor, int size,
+                                             Function<Pageable, List<T>> firstPage, PageAfter<T> pageAfter,
+                                             Function<T, LocalDateTime> createdAt, Function<T, Long> id) {
+        try {
+            int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+            // One extra row tells whether another page exists
+            Pageable limit = PageRequest.of(0, pageSize + 1);
+
+            List<T> rows;
+            if (cursor == null || cursor.isEmpty()) {
+                rows = firstPage.apply(limit);
+            } else {
+                KeysetCursor position = KeysetCursor.decode(cursor);
+                rows = pageAfter.find(position.createdAt(), position.id(), limit);
+            }
+            return ResponseEntity.ok(CursorPage.of(rows, pageSize, createdAt, id));
+        } catch (IllegalArgumentException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    // ========== STREAMING EXPORTS ==========
+
+    @FunctionalInterface
+    private interface ExportWriter {
+        long write(ExportService.Format format, OutputStream out);
+    }
+
+    // The body is written on an async request thread after this method returns, inside the export's own transaction
+    private ResponseEntity<?> streamExport(String fileName, String format, ExportWriter writer) {
+        ExportService.Format exportFormat;
+        try {
+            exportFormat = ExportService.Format.parse(format);
+        } catch (RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+
+        StreamingResponseBody body = out -> writer.write(exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + fileName + "." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
 }
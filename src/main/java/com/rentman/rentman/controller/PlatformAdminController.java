@@ -4,16 +4,32 @@ import com.rentman.rentman.entity.Company;
 import com.rentman.rentman.entity.User;
 import com.rentman.rentman.repository.CompanyRepository;
 import com.rentman.rentman.repository.UserRepository;
+import com.rentman.rentman.security.JwtAuthenticationFilter;
+import com.rentman.rentman.service.AvailabilityIndex;
+import com.rentman.rentman.service.BillingRunService;
+import com.rentman.rentman.service.CompanyDashboardSnapshot;
 import com.rentman.rentman.service.CustomUserDetailsService;
+import com.rentman.rentman.service.ExportService;
+import com.rentman.rentman.service.GeoSearchIndex;
+import com.rentman.rentman.service.InvoiceOverdueSweeper;
+import com.rentman.rentman.service.LastLoginRecorder;
+import com.rentman.rentman.service.SuggestionService;
+import com.rentman.rentman.service.TextSearchIndex;
+import com.rentman.rentman.service.VehicleFacetIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
@@ -33,6 +49,42 @@ public class PlatformAdminController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private AvailabilityIndex availabilityIndex;
+
+    @Autowired
+    private CompanyDashboardSnapshot dashboardSnapshot;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    @Autowired
+    private VehicleFacetIndex facetIndex;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private InvoiceOverdueSweeper overdueSweeper;
+
+    @Autowired
+    private BillingRunService billingRunService;
+
+    @Autowired
+    private LastLoginRecorder lastLoginRecorder;
+
+    @Autowired
+    private TextSearchIndex textSearchIndex;
+
+    @Autowired
+    private SuggestionService suggestionService;
+
+    @Autowired
+    private GeoSearchIndex geoSearchIndex;
+
     // ========== AUTHORIZATION HELPER ==========
 
     private User getCurrentUser() {
@@ -149,6 +201,7 @@ public class PlatformAdminController {
             company.setIsVerified(true);
 
             Company approvedCompany = companyRepository.save(company);
+            dashboardSnapshot.invalidate(approvedCompany, CompanyDashboardSnapshot.Section.COMPANY);
 
             logger.info("Platform admin {} approved company {} (ID: {})", 
                 currentUser.getEmail(), company.getCompanyName(), company.getId());
@@ -194,6 +247,7 @@ public class PlatformAdminController {
             // Note: You might want to add a 'rejectionReason' field to Company entity
 
             Company rejectedCompany = companyRepository.save(company);
+            dashboardSnapshot.invalidate(rejectedCompany, CompanyDashboardSnapshot.Section.COMPANY);
 
             logger.info("Platform admin {} rejected company {} (ID: {}) - Reason: {}", 
                 currentUser.getEmail(), company.getCompanyName(), company.getId(), reason);
@@ -236,6 +290,7 @@ public class PlatformAdminController {
             company.setStatus(Company.CompanyStatus.SUSPENDED);
 
             Company suspendedCompany = companyRepository.save(company);
+            dashboardSnapshot.invalidate(suspendedCompany, CompanyDashboardSnapshot.Section.COMPANY);
 
             logger.info("Platform admin {} suspended company {} (ID: {}) - Reason: {}", 
                 currentUser.getEmail(), company.getCompanyName(), company.getId(), reason);
@@ -273,6 +328,7 @@ public class PlatformAdminController {
             company.setStatus(Company.CompanyStatus.ACTIVE);
 
             Company reactivatedCompany = companyRepository.save(company);
+            dashboardSnapshot.invalidate(reactivatedCompany, CompanyDashboardSnapshot.Section.COMPANY);
 
             logger.info("Platform admin {} reactivated company {} (ID: {})", 
                 currentUser.getEmail(), company.getCompanyName(), company.getId());
@@ -361,5 +417,397 @@ public class PlatformAdminController {
             return ResponseEntity.badRequest().body(error);
         }
     }
-}
 
+    // ========== SYSTEM INDEXES ==========
+
+    // Get availability index statistics and a consistency check against the database
+    @GetMapping("/system/availability-index")
+    public ResponseEntity<?> getAvailabilityIndexStatus() {
+        try {
+            User currentUser = getCurrentUser();
+            if (!isPlatformAdmin(currentUser)) {
+                return unauthorizedResponse();
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("statistics", availabilityIndex.getStatistics());
+            response.put("consistency", availabilityIndex.checkConsistency());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            logger.error("Failed to get availability index status: {}", e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Failed to get availability index status: " + e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    // Rebuild the availability index from the database
+    @PostMapping("/system/availability-index/rebuild")
+    public ResponseEntity<?> rebuildAvailabilityIndex() {
+        try {
+            User currentUser = getCurrentUser();
+            if (!isPlatformAdmin(currentUser)) {
+                return unauthorizedResponse();
+            }
+
+            availabilityIndex.rebuild();
+            logger.info("Platform admin {} rebuilt the availability index", currentUser.getEmail());
+
+            return ResponseEntity.ok(availabilityIndex.getStatistics());
+        } catch (Exception e) {
+            logger.error("Failed to rebuild availability index: {}", e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Failed to rebuild availability index: " + e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    // Get hit/miss statistics of the verified token and principal caches
+    @GetMapping("/system/auth-caches")
+    public ResponseEntity<?> getAuthCacheStatistics() {
+        try {
+            User currentUser = getCurrentUser();
+            if (!isPlatformAdmin(currentUser)) {
+                return unauthorizedResponse();
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("verifiedTokens", jwtAuthenticationFilter.getTokenCacheStatistics());
+            response.put("principals", userDetailsService.getPrincipalCacheStatistics());
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            logger.error("Failed to get auth cache statistics: {}", e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Failed to get auth cache statistics: " + e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    // Get company dashboard snapshot statistics
+    @GetMapping("/system/dashboard-snapshots")
+    public ResponseEntity<?> getDashboardSnapshotStatistics() {
+        try {
+            User currentUser = getCurrentUser();
+            if (!isPlatformAdmin(currentUser)) {
+                return unauthorizedResponse();
+            }
+
+            return ResponseEntity.ok(dashboardSnapshot.getStatistics());
+        } catch (Exception e) {
+            logger.error("Failed to get dashboard snapshot statistics: {}", e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Failed to get dashboard snapshot statistics: " + e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    // Get vehicle facet index statistics
+    @GetMapping("/system/facet-index")
+    public ResponseEntity<?> getFacetIndexStatistics() {
+        try {
+            User currentUser = getCurrentUser();
+            if (!isPlatformAdmin(currentUser)) {
+                return unauthorizedResponse();
+            }
+
+            return ResponseEntity.ok(facetIndex.getStatistics());
+        } catch (Exception e) {
+            logger.error("Failed to get facet index statistics: {}", e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Failed to get facet index statistics: " + e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    // Rebuild the vehicle facet index from the database
+    @PostMapping("/system/facet-index/rebuild")
+    public ResponseEntity<?> rebuildFacetIndex() {
+        try {
+            User currentUser = getCurrentUser();
+            if (!isPlatformAdmin(currentUser)) {
+                return unauthorizedResponse();
+            }
+
+            facetIndex.rebuild();
+            logger.info("Platform admin {} rebuilt the vehicle facet index", currentUser.getEmail());
+
+            return ResponseEntity.ok(facetIndex.getStatistics());
+        } catch (Exception e) {
+            logger.error("Failed to rebuild facet index: {}", e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Failed to rebuild facet index: " + e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    // Get text search index statistics, including the lag between commits and their indexing
+    @GetMapping("/system/text-search-index")
+    public ResponseEntity<?> getTextSearchIndexStatistics() {
+        try {
+            User currentUser = getCurrentUser();
+            if (!isPlatformAdmin(currentUser)) {
+                return unauthorizedResponse();
+            }
+
+            return ResponseEntity.ok(textSearchIndex.getStatistics());
+        } catch (Exception e) {
+            logger.error("Failed to get text search index statistics: {}", e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Failed to get text search index statistics: " + e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    // Rebuild the text search index from the database
+    @PostMapping("/system/text-search-index/rebuild")
+    public ResponseEntity<?> rebuildTextSearchIndex() {
+        try {
+            User currentUser = getCurrentUser();
+            if (!isPlatformAdmin(currentUser)) {
+                return unauthorizedResponse();
+            }
+
+            textSearchIndex.rebuild();
+            logger.info("Platform admin {} rebuilt the text search index", currentUser.getEmail());
+
+            return ResponseEntity.ok(textSearchIndex.getStatistics());
+        } catch (Exception e) {
+            logger.error("Failed to rebuild text search index: {}", e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Failed to rebuild text search index: " + e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    // Get type-ahead suggestion trie statistics
+    @GetMapping("/system/suggestions")
+    public ResponseEntity<?> getSuggestionStatistics() {
+        try {
+            User currentUser = getCurrentUser();
+            if (!isPlatformAdmin(currentUser)) {
+                return unauthorizedResponse();
+            }
+
+            return ResponseEntity.ok(suggestionService.getStatistics());
+        } catch (Exception e) {
+            logger.error("Failed to get suggestion statistics: {}", e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Failed to get suggestion statistics: " + e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    // Rebuild the type-ahead suggestion tries from the database
+    @PostMapping("/system/suggestions/rebuild")
+    public ResponseEntity<?> rebuildSuggestions() {
+        try {
+            User currentUser = getCurrentUser();
+            if (!isPlatformAdmin(currentUser)) {
+                return unauthorizedResponse();
+            }
+
+            suggestionService.rebuild();
+            logger.info("Platform admin {} rebuilt the suggestion tries", currentUser.getEmail());
+
+            return ResponseEntity.ok(suggestionService.getStatistics());
+        } catch (Exception e) {
+            logger.error("Failed to rebuild suggestion tries: {}", e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Failed to rebuild suggestion tries: " + e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    // Get near-me geo index statistics
+    @GetMapping("/system/geo-index")
+    public ResponseEntity<?> getGeoIndexStatistics() {
+        try {
+            User currentUser = getCurrentUser();
+            if (!isPlatformAdmin(currentUser)) {
+                return unauthorizedResponse();
+            }
+
+            return ResponseEntity.ok(geoSearchIndex.getStatistics());
+        } catch (Exception e) {
+            logger.error("Failed to get geo index statistics: {}", e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Failed to get geo index statistics: " + e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    // Rebuild the near-me geo index from the database
+    @PostMapping("/system/geo-index/rebuild")
+    public ResponseEntity<?> rebuildGeoIndex() {
+        try {
+            User currentUser = getCurrentUser();
+            if (!isPlatformAdmin(currentUser)) {
+                return unauthorizedResponse();
+            }
+
+            geoSearchIndex.rebuild();
+            logger.info("Platform admin {} rebuilt the geo index", currentUser.getEmail());
+
+            return ResponseEntity.ok(geoSearchIndex.getStatistics());
+        } catch (Exception e) {
+            logger.error("Failed to rebuild geo index: {}", e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Failed to rebuild geo index: " + e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    // Get the last login write-behind statistics (pending, written and flushed counts)
+    @GetMapping("/system/last-login")
+    public ResponseEntity<?> getLastLoginStatistics() {
+        try {
+            User currentUser = getCurrentUser();
+            if (!isPlatformAdmin(currentUser)) {
+                return unauthorizedResponse();
+            }
+
+            return ResponseEntity.ok(lastLoginRecorder.getStatistics());
+        } catch (Exception e) {
+            logger.error("Failed to get last login statistics: {}", e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Failed to get last login statistics: " + e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    // Write the pending last login times now instead of waiting for the schedule
+    @PostMapping("/system/last-login/flush")
+    public ResponseEntity<?> flushLastLogins() {
+        try {
+            User currentUser = getCurrentUser();
+            if (!isPlatformAdmin(currentUser)) {
+                return unauthorizedResponse();
+            }
+
+            int rows = lastLoginRecorder.flush();
+            logger.info("Platform admin {} flushed {} last login times", currentUser.getEmail(), rows);
+
+            return ResponseEntity.ok(lastLoginRecorder.getStatistics());
+        } catch (Exception e) {
+            logger.error("Failed to flush last login times: {}", e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Failed to flush last login times: " + e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    // Get the overdue invoice sweeper statistics, including rows per second of the last run
+    @GetMapping("/system/overdue-sweeper")
+    public ResponseEntity<?> getOverdueSweeperStatistics() {
+        try {
+            User currentUser = getCurrentUser();
+            if (!isPlatformAdmin(currentUser)) {
+                return unauthorizedResponse();
+            }
+
+            return ResponseEntity.ok(overdueSweeper.getStatistics());
+        } catch (Exception e) {
+            logger.error("Failed to get overdue sweeper statistics: {}", e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Failed to get overdue sweeper statistics: " + e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    // Run the overdue invoice sweep now instead of waiting for the schedule
+    @PostMapping("/system/overdue-sweeper/run")
+    public ResponseEntity<?> runOverdueSweeper() {
+        try {
+            User currentUser = getCurrentUser();
+            if (!isPlatformAdmin(currentUser)) {
+                return unauthorizedResponse();
+            }
+
+            InvoiceOverdueSweeper.SweepResult result = overdueSweeper.sweep();
+            logger.info("Platform admin {} ran the overdue invoice sweep: {} invoices", currentUser.getEmail(), result.rows());
+
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            logger.error("Failed to run overdue invoice sweep: {}", e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Failed to run overdue invoice sweep: " + e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    // ========== BILLING ==========
+
+    // Start the monthly subscription billing run for the month of periodStart (default: the current month)
+    @PostMapping("/billing-runs")
+    public ResponseEntity<?> startBillingRun(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate periodStart) {
+        try {
+            User currentUser = getCurrentUser();
+            if (!isPlatformAdmin(currentUser)) {
+                return unauthorizedResponse();
+            }
+
+            LocalDate period = periodStart != null ? periodStart : LocalDate.now().withDayOfMonth(1);
+            Map<String, Object> progress = billingRunService.startRun(period);
+            logger.info("Platform admin {} started the billing run for {}", currentUser.getEmail(), period);
+
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(progress);
+        } catch (Exception e) {
+            logger.error("Failed to start billing run: {}", e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Failed to start billing run: " + e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    // Get the progress and throughput of the running (or last) billing run
+    @GetMapping("/billing-runs/current")
+    public ResponseEntity<?> getBillingRunProgress() {
+        try {
+            User currentUser = getCurrentUser();
+            if (!isPlatformAdmin(currentUser)) {
+                return unauthorizedResponse();
+            }
+
+            return ResponseEntity.ok(billingRunService.getProgress());
+        } catch (Exception e) {
+            logger.error("Failed to get billing run progress: {}", e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Failed to get billing run progress: " + e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    // ========== DATA EXPORTS ==========
+
+    // Stream the platform-wide reservation, invoice or maintenance history as NDJSON or CSV
+    @GetMapping("/exports/{dataset}")
+    public ResponseEntity<?> exportDataset(@PathVariable String dataset,
+                                           @RequestParam(defaultValue = "ndjson") String format) {
+        try {
+            User currentUser = getCurrentUser();
+            if (!isPlatformAdmin(currentUser)) {
+                return unauthorizedResponse();
+            }
+
+            ExportService.Format exportFormat = ExportService.Format.parse(format);
+            StreamingResponseBody body = switch (dataset.toLowerCase()) {
+                case "reservations" -> out -> exportService.exportReservations(null, exportFormat, out);
+                case "invoices" -> out -> exportService.exportInvoices(null, exportFormat, out);
+                case "maintenance" -> out -> exportService.exportMaintenance(null, exportFormat, out);
+                default -> throw new RuntimeException("Unknown export dataset: " + dataset);
+            };
+            logger.info("Platform admin {} started a {} export of {}", currentUser.getEmail(), exportFormat, dataset);
+
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                    .header(HttpHeaders.CONTENT_DISPOSITION,
+                            "attachment; filename=\"" + dataset.toLowerCase() + "." + exportFormat.getExtension() + "\"")
+                    .body(body);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+}
@@ -1,10 +1,18 @@
 package com.rentman.rentman.controller;
 
+import com.rentman.rentman.dto.VehicleSummaryDto;
 import com.rentman.rentman.entity.Vehicle;
 import com.rentman.rentman.entity.Company;
 import com.rentman.rentman.repository.VehicleRepository;
 import com.rentman.rentman.repository.CompanyRepository;
-import com.rentman.rentman.repository.ReservationRepository;
+import com.rentman.rentman.repository.VehicleSpecifications;
+import com.rentman.rentman.service.CompanyService;
+import com.rentman.rentman.service.GeoSearchIndex;
+import com.rentman.rentman.service.SharedCaches;
+import com.rentman.rentman.service.SuggestionService;
+import com.rentman.rentman.service.TextSearchIndex;
+import com.rentman.rentman.service.VehicleFacetIndex;
+import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,14 +20,18 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/search")
@@ -35,16 +47,32 @@ public class SearchController {
     private CompanyRepository companyRepository;
 
     @Autowired
-    private ReservationRepository reservationRepository;
+    private VehicleFacetIndex facetIndex;
+
+    @Autowired
+    private TextSearchIndex textSearchIndex;
+
+    @Autowired
+    private SuggestionService suggestionService;
+
+    @Autowired
+    private GeoSearchIndex geoSearchIndex;
+
+    @Autowired
+    private CompanyService companyService;
+
+    @Autowired
+    private SharedCaches sharedCaches;
 
     // ========== VEHICLE SEARCH ==========
 
     // Advanced vehicle search for customers
     @GetMapping("/vehicles")
     public ResponseEntity<?> searchVehicles(
-            // Basic filters
+            // Basic filters; make and model match as substring (default), prefix or fuzzy
             @RequestParam(required = false) String make,
             @RequestParam(required = false) String model,
+            @RequestParam(required = false) String match,
             @RequestParam(required = false) String type,
             @RequestParam(required = false) Integer minYear,
             @RequestParam(required = false) Integer maxYear,
@@ -82,7 +110,8 @@ public class SearchController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "dailyRate") String sortBy,
-            @RequestParam(defaultValue = "asc") String sortDir) {
+            @RequestParam(defaultValue = "asc") String sortDir,
+            HttpServletRequest request) {
 
         try {
             // Convert type string to enum
@@ -91,109 +120,56 @@ public class SearchController {
                 vehicleType = Vehicle.VehicleType.valueOf(type.toUpperCase());
             }
 
-            // Get all available vehicles and apply filters
-            List<Vehicle> vehicles = vehicleRepository.findByStatus(Vehicle.VehicleStatus.AVAILABLE);
-            logger.info("=== SEARCH VEHICLES DEBUG ===");
-            logger.info("Found {} available vehicles", vehicles.size());
-            
-            // Log all vehicles and their company status
-            for (Vehicle vehicle : vehicles) {
-                logger.info("Vehicle: {} {} (ID: {}) - Company: {} (Status: {})", 
-                    vehicle.getMake(), vehicle.getModel(), vehicle.getId(),
-                    vehicle.getCompany() != null ? vehicle.getCompany().getCompanyName() : "NULL",
-                    vehicle.getCompany() != null ? vehicle.getCompany().getStatus() : "NULL");
+            // Make and model are matched against the distinct values by the text search index, so the database
+            // compares with IN instead of scanning with LIKE; only an oversized substring match is left to LIKE
+            TextSearchIndex.MatchMode matchMode = TextSearchIndex.MatchMode.parse(match);
+            List<String> makes = resolveNames(make, matchMode, textSearchIndex::searchMakes);
+            List<String> models = resolveNames(model, matchMode, textSearchIndex::searchModels);
+
+            VehicleSpecifications.SearchCriteria criteria = new VehicleSpecifications.SearchCriteria(
+                vehicleType, makes == null ? make : null, models == null ? model : null, minYear, maxYear,
+                minRate, maxRate, fuelType, transmission, minSeating, maxSeating, color, location, companyId,
+                companyName, city, state, country, airConditioning, gpsNavigation, bluetooth, usbCharging,
+                backupCamera, parkingSensors, sunroof, leatherSeats);
+            Sort sort = buildVehicleSort(sortBy, sortDir);
+
+            Specification<Vehicle> filters = VehicleSpecifications.search(criteria);
+            if (makes != null) {
+                filters = filters.and(VehicleSpecifications.valueIn("make", makes));
             }
-            
-            // Apply filters manually
-            final Vehicle.VehicleType finalVehicleType = vehicleType;
-            List<Vehicle> filteredVehicles = vehicles.stream()
-                .filter(vehicle -> vehicle.getCompany() != null && 
-                        vehicle.getCompany().getStatus() == Company.CompanyStatus.ACTIVE)
-                .filter(vehicle -> (companyId == null || vehicle.getCompany().getId().equals(companyId)))
-                .filter(vehicle -> finalVehicleType == null || vehicle.getType() == finalVehicleType)
-                .filter(vehicle -> make == null || vehicle.getMake().toLowerCase().contains(make.toLowerCase()))
-                .filter(vehicle -> model == null || vehicle.getModel().toLowerCase().contains(model.toLowerCase()))
-                .filter(vehicle -> minRate == null || vehicle.getDailyRate().compareTo(minRate) >= 0)
-                .filter(vehicle -> maxRate == null || vehicle.getDailyRate().compareTo(maxRate) <= 0)
-                .filter(vehicle -> minYear == null || vehicle.getYear() >= minYear)
-                .filter(vehicle -> maxYear == null || vehicle.getYear() <= maxYear)
-                .filter(vehicle -> fuelType == null || fuelType.equals(vehicle.getFuelType()))
-                .filter(vehicle -> transmission == null || transmission.equals(vehicle.getTransmission()))
-                .filter(vehicle -> minSeating == null || vehicle.getSeatingCapacity() >= minSeating)
-                .filter(vehicle -> maxSeating == null || vehicle.getSeatingCapacity() <= maxSeating)
-                .filter(vehicle -> location == null || (vehicle.getCurrentLocation() != null && 
-                        vehicle.getCurrentLocation().toLowerCase().contains(location.toLowerCase())))
-                .filter(vehicle -> airConditioning == null || airConditioning.equals(vehicle.getAirConditioning()))
-                .filter(vehicle -> gpsNavigation == null || gpsNavigation.equals(vehicle.getGpsNavigation()))
-                .filter(vehicle -> bluetooth == null || bluetooth.equals(vehicle.getBluetooth()))
-                .filter(vehicle -> backupCamera == null || backupCamera.equals(vehicle.getBackupCamera()))
-                .filter(vehicle -> sunroof == null || sunroof.equals(vehicle.getSunroof()))
-                .filter(vehicle -> leatherSeats == null || leatherSeats.equals(vehicle.getLeatherSeats()))
-                .toList();
-            
-            logger.info("After filtering: {} vehicles", filteredVehicles.size());
-            vehicles = filteredVehicles;
-
-            // Filter by availability if dates provided
-            if (startDate != null && endDate != null) {
-                vehicles = vehicles.stream()
-                    .filter(vehicle -> isVehicleAvailable(vehicle.getId(), startDate, endDate))
-                    .toList();
+            if (models != null) {
+                filters = filters.and(VehicleSpecifications.valueIn("model", models));
             }
 
-            // Apply company location filters
-            if (city != null || state != null || country != null) {
-                vehicles = vehicles.stream()
-                    .filter(vehicle -> {
-                        Company company = vehicle.getCompany();
-                        if (company == null) return false;
-                        
-                        boolean cityMatch = city == null || city.equalsIgnoreCase(company.getCity());
-                        boolean stateMatch = state == null || state.equalsIgnoreCase(company.getState());
-                        boolean countryMatch = country == null || country.equalsIgnoreCase(company.getCountry());
-                        
-                        return cityMatch && stateMatch && countryMatch;
-                    })
-                    .toList();
-            }
-
-            // Apply company name filter
-            if (companyName != null && !companyName.isEmpty()) {
-                vehicles = vehicles.stream()
-                    .filter(vehicle -> {
-                        Company company = vehicle.getCompany();
-                        return company != null && company.getCompanyName().toLowerCase()
-                            .contains(companyName.toLowerCase());
-                    })
-                    .toList();
+            // Overlapping reservations are excluded in the same query, however many vehicles match
+            boolean availabilitySearch = startDate != null && endDate != null;
+            Specification<Vehicle> specification = availabilitySearch
+                ? filters.and(VehicleSpecifications.availableBetween(startDate, endDate))
+                : filters;
+
+            Supplier<Map<String, Object>> search = () -> {
+                // Result cards only: the summary columns are selected directly, no entities are loaded
+                Page<VehicleSummaryDto> vehiclePage = vehicleRepository.findSummaries(specification, PageRequest.of(page, size, sort));
+                List<VehicleSummaryDto> paginatedVehicles = vehiclePage.getContent();
+                long totalCount = vehiclePage.getTotalElements();
+
+                logger.debug("Vehicle search matched {} vehicles", totalCount);
+
+                // Create response
+                Map<String, Object> response = new HashMap<>();
+                response.put("vehicles", paginatedVehicles);
+                response.put("totalCount", totalCount);
+                response.put("page", page);
+                response.put("size", size);
+                response.put("totalPages", (int) Math.ceil((double) totalCount / size));
+                return response;
+            };
+
+            // Availability depends on reservations, which change too often for the result to be worth sharing
+            if (availabilitySearch) {
+                return ResponseEntity.ok(search.get());
             }
-
-            // Apply color filter
-            if (color != null && !color.isEmpty()) {
-                vehicles = vehicles.stream()
-                    .filter(vehicle -> color.equalsIgnoreCase(vehicle.getColor()))
-                    .toList();
-            }
-
-            // Sort results
-            if (sortBy != null && !sortBy.isEmpty()) {
-                vehicles = sortVehicles(vehicles, sortBy, sortDir);
-            }
-
-            // Apply pagination
-            int start = page * size;
-            int end = Math.min(start + size, vehicles.size());
-            List<Vehicle> paginatedVehicles = vehicles.subList(start, end);
-
-            // Create response
-            Map<String, Object> response = new HashMap<>();
-            response.put("vehicles", paginatedVehicles);
-            response.put("totalCount", vehicles.size());
-            response.put("page", page);
-            response.put("size", size);
-            response.put("totalPages", (int) Math.ceil((double) vehicles.size() / size));
-
-            return ResponseEntity.ok(response);
+            return SharedCaches.jsonResponse(sharedCaches.getJson(SharedCaches.SEARCH, SharedCaches.requestKey(request), search));
         } catch (IllegalArgumentException e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", "Invalid search parameters: " + e.getMessage());
@@ -211,38 +187,42 @@ public class SearchController {
             @RequestParam(required = false) String location,
             @RequestParam(required = false) String type,
             @RequestParam(required = false) BigDecimal maxRate,
-            @RequestParam(defaultValue = "10") int limit) {
+            @RequestParam(defaultValue = "10") int limit,
+            HttpServletRequest request) {
 
         try {
             Vehicle.VehicleType vehicleType = null;
             if (type != null && !type.isEmpty()) {
                 vehicleType = Vehicle.VehicleType.valueOf(type.toUpperCase());
             }
-
-            // Get all available vehicles
-            List<Vehicle> vehicles = vehicleRepository.findByStatus(Vehicle.VehicleStatus.AVAILABLE);
-            
-            // Apply basic filters
             final Vehicle.VehicleType finalVehicleType = vehicleType;
-            vehicles = vehicles.stream()
-                .filter(vehicle -> vehicle.getCompany() != null && 
-                        vehicle.getCompany().getStatus() == Company.CompanyStatus.ACTIVE)
-                .filter(vehicle -> finalVehicleType == null || vehicle.getType() == finalVehicleType)
-                .filter(vehicle -> maxRate == null || vehicle.getDailyRate().compareTo(maxRate) <= 0)
-                .filter(vehicle -> location == null || (vehicle.getCurrentLocation() != null && 
-                        vehicle.getCurrentLocation().toLowerCase().contains(location.toLowerCase())))
-                .toList();
-
-            // Limit results
-            if (vehicles.size() > limit) {
-                vehicles = vehicles.subList(0, limit);
-            }
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("vehicles", vehicles);
-            response.put("count", vehicles.size());
+            String json = sharedCaches.getJson(SharedCaches.SEARCH, SharedCaches.requestKey(request), () -> {
+                // Get all available vehicles
+                List<Vehicle> vehicles = vehicleRepository.findByStatus(Vehicle.VehicleStatus.AVAILABLE);
 
-            return ResponseEntity.ok(response);
+                // Apply basic filters
+                vehicles = vehicles.stream()
+                    .filter(vehicle -> vehicle.getCompany() != null && 
+                            vehicle.getCompany().getStatus() == Company.CompanyStatus.ACTIVE)
+                    .filter(vehicle -> finalVehicleType == null || vehicle.getType() == finalVehicleType)
+                    .filter(vehicle -> maxRate == null || vehicle.getDailyRate().compareTo(maxRate) <= 0)
+                    .filter(vehicle -> location == null || (vehicle.getCurrentLocation() != null && 
+                            vehicle.getCurrentLocation().toLowerCase().contains(location.toLowerCase())))
+                    .toList();
+
+                // Limit results
+                if (vehicles.size() > limit) {
+                    vehicles = vehicles.subList(0, limit);
+                }
+
+                Map<String, Object> response = new HashMap<>();
+                response.put("vehicles", vehicles);
+                response.put("count", vehicles.size());
+                return response;
+            });
+
+            return SharedCaches.jsonResponse(json);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", "Quick search failed: " + e.getMessage());
@@ -267,7 +247,8 @@ public class SearchController {
             @RequestParam(required = false) Integer maxSeating,
             @RequestParam(required = false) String location,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            HttpServletRequest request) {
 
         try {
             Vehicle.VehicleStatus status = null; // Include all statuses for company search
@@ -275,25 +256,29 @@ public class SearchController {
             if (type != null && !type.isEmpty()) {
                 vehicleType = Vehicle.VehicleType.valueOf(type.toUpperCase());
             }
+            final Vehicle.VehicleType finalVehicleType = vehicleType;
 
-            List<Vehicle> vehicles = vehicleRepository.searchVehiclesByCompany(
-                companyId, status, vehicleType, make, model, minRate, maxRate,
-                minYear, maxYear, fuelType, transmission, minSeating, maxSeating, location
-            );
-
-            // Apply pagination
-            int start = page * size;
-            int end = Math.min(start + size, vehicles.size());
-            List<Vehicle> paginatedVehicles = vehicles.subList(start, end);
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("vehicles", paginatedVehicles);
-            response.put("totalCount", vehicles.size());
-            response.put("page", page);
-            response.put("size", size);
-            response.put("totalPages", (int) Math.ceil((double) vehicles.size() / size));
-
-            return ResponseEntity.ok(response);
+            String json = sharedCaches.getJson(SharedCaches.SEARCH, SharedCaches.requestKey(request), () -> {
+                List<Vehicle> vehicles = vehicleRepository.searchVehiclesByCompany(
+                    companyId, status, finalVehicleType, make, model, minRate, maxRate,
+                    minYear, maxYear, fuelType, transmission, minSeating, maxSeating, location
+                );
+
+                // Apply pagination
+                int start = page * size;
+                int end = Math.min(start + size, vehicles.size());
+                List<Vehicle> paginatedVehicles = vehicles.subList(start, end);
+
+                Map<String, Object> response = new HashMap<>();
+                response.put("vehicles", paginatedVehicles);
+                response.put("totalCount", vehicles.size());
+                response.put("page", page);
+                response.put("size", size);
+                response.put("totalPages", (int) Math.ceil((double) vehicles.size() / size));
+                return response;
+            });
+
+            return SharedCaches.jsonResponse(json);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", "Company vehicle search failed: " + e.getMessage());
@@ -303,10 +288,11 @@ public class SearchController {
 
     // ========== COMPANY SEARCH ==========
 
-    // Search companies
+    // Search companies; the name match is substring (default), prefix or fuzzy
     @GetMapping("/companies")
     public ResponseEntity<?> searchCompanies(
             @RequestParam(required = false) String companyName,
+            @RequestParam(required = false) String match,
             @RequestParam(required = false) String city,
             @RequestParam(required = false) String state,
             @RequestParam(required = false) String country,
@@ -314,29 +300,35 @@ public class SearchController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "companyName") String sortBy,
-            @RequestParam(defaultValue = "asc") String sortDir) {
+            @RequestParam(defaultValue = "asc") String sortDir,
+            HttpServletRequest request) {
 
         try {
             Company.CompanyStatus companyStatus = null;
             if (status != null && !status.isEmpty()) {
                 companyStatus = Company.CompanyStatus.valueOf(status.toUpperCase());
             }
+            final Company.CompanyStatus finalCompanyStatus = companyStatus;
+            TextSearchIndex.MatchMode matchMode = TextSearchIndex.MatchMode.parse(match);
 
             Sort sort = sortDir.equalsIgnoreCase("desc") ? 
                 Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
             Pageable pageable = PageRequest.of(page, size, sort);
 
-            Page<Company> companies = companyRepository.searchCompanies(
-                companyName, city, state, country, companyStatus, pageable);
+            String json = sharedCaches.getJson(SharedCaches.SEARCH, SharedCaches.requestKey(request), () -> {
+                Page<Company> companies = companyService.searchCompanies(
+                    companyName, matchMode, city, state, country, finalCompanyStatus, pageable);
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("companies", companies.getContent());
-            response.put("totalCount", companies.getTotalElements());
-            response.put("page", page);
-            response.put("size", size);
-            response.put("totalPages", companies.getTotalPages());
+                Map<String, Object> response = new HashMap<>();
+                response.put("companies", companies.getContent());
+                response.put("totalCount", companies.getTotalElements());
+                response.put("page", page);
+                response.put("size", size);
+                response.put("totalPages", companies.getTotalPages());
+                return response;
+            });
 
-            return ResponseEntity.ok(response);
+            return SharedCaches.jsonResponse(json);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", "Company search failed: " + e.getMessage());
@@ -344,26 +336,63 @@ public class SearchController {
         }
     }
 
-    // Get companies near location
+    // Get companies near a point (lat, lon, radiusKm), nearest first; without coordinates, the active companies
+    // in the given city and state
     @GetMapping("/companies/near")
     public ResponseEntity<?> getCompaniesNearLocation(
-            @RequestParam String city,
-            @RequestParam String state,
-            @RequestParam(defaultValue = "10") int limit) {
+            @RequestParam(required = false) Double lat,
+            @RequestParam(required = false) Double lon,
+            @RequestParam(defaultValue = "25") double radiusKm,
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String state,
+            @RequestParam(defaultValue = "10") int limit,
+            HttpServletRequest request) {
 
         try {
-            List<Company> companies = companyRepository.findCompaniesNearLocation(city, state);
-            
-            if (companies.size() > limit) {
-                companies = companies.subList(0, limit);
+            if (lat != null && lon != null) {
+                List<GeoSearchIndex.Hit> hits = geoSearchIndex.nearbyCompanies(lat, lon, radiusKm, limit);
+                Map<Long, Company> companies = new HashMap<>();
+                companyRepository.findAllById(hits.stream().map(GeoSearchIndex.Hit::id).toList())
+                        .forEach(company -> companies.put(company.getId(), company));
+
+                List<Map<String, Object>> results = new ArrayList<>();
+                for (GeoSearchIndex.Hit hit : hits) {
+                    Company company = companies.get(hit.id());
+                    if (company != null) {
+                        results.add(nearbyResult("company", company, hit));
+                    }
+                }
+
+                Map<String, Object> response = new HashMap<>();
+                response.put("companies", results);
+                response.put("count", results.size());
+                response.put("latitude", lat);
+                response.put("longitude", lon);
+                response.put("radiusKm", radiusKm);
+                return ResponseEntity.ok(response);
             }
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("companies", companies);
-            response.put("count", companies.size());
-            response.put("location", city + ", " + state);
+            if (city == null || state == null) {
+                Map<String, String> error = new HashMap<>();
+                error.put("error", "Either lat and lon or city and state are required");
+                return ResponseEntity.badRequest().body(error);
+            }
 
-            return ResponseEntity.ok(response);
+            String json = sharedCaches.getJson(SharedCaches.SEARCH, SharedCaches.requestKey(request), () -> {
+                List<Company> companies = companyRepository.findCompaniesNearLocation(city, state);
+
+                if (companies.size() > limit) {
+                    companies = companies.subList(0, limit);
+                }
+
+                Map<String, Object> response = new HashMap<>();
+                response.put("companies", companies);
+                response.put("count", companies.size());
+                response.put("location", city + ", " + state);
+                return response;
+            });
+
+            return SharedCaches.jsonResponse(json);
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", "Failed to find companies near location: " + e.getMessage());
@@ -371,20 +400,59 @@ public class SearchController {
         }
     }
 
+    // Get available vehicles near a point, nearest first; a vehicle without its own coordinates is at its
+    // company's branch
+    @GetMapping("/vehicles/near")
+    public ResponseEntity<?> getVehiclesNearLocation(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam(defaultValue = "25") double radiusKm,
+            @RequestParam(defaultValue = "20") int limit) {
+
+        try {
+            List<GeoSearchIndex.Hit> hits = geoSearchIndex.nearbyVehicles(lat, lon, radiusKm, limit);
+            Map<Long, VehicleSummaryDto> vehicles = new HashMap<>();
+            if (!hits.isEmpty()) {
+                List<Long> ids = hits.stream().map(GeoSearchIndex.Hit::id).toList();
+                vehicleRepository.findSummaries(VehicleSpecifications.valueIn("id", ids), PageRequest.of(0, ids.size()))
+                        .forEach(vehicle -> vehicles.put(vehicle.id(), vehicle));
+            }
+
+            List<Map<String, Object>> results = new ArrayList<>();
+            for (GeoSearchIndex.Hit hit : hits) {
+                VehicleSummaryDto vehicle = vehicles.get(hit.id());
+                if (vehicle != null) {
+                    results.add(nearbyResult("vehicle", vehicle, hit));
+                }
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("vehicles", results);
+            response.put("count", results.size());
+            response.put("latitude", lat);
+            response.put("longitude", lon);
+            response.put("radiusKm", radiusKm);
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Failed to find vehicles near location: " + e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
     // ========== SEARCH SUGGESTIONS ==========
 
-    // Get search suggestions for makes
+    // Type-ahead suggestions for makes: with prefix, those starting with it, most popular first; otherwise, as before
+    // prefix existed, those containing query (every make without one) in alphabetical order
     @GetMapping("/suggestions/makes")
-    public ResponseEntity<?> getMakeSuggestions(@RequestParam(required = false) String query) {
+    public ResponseEntity<?> getMakeSuggestions(
+            @RequestParam(required = false) String prefix,
+            @RequestParam(required = false) String query,
+            @RequestParam(defaultValue = "20") int limit) {
         try {
-            List<Vehicle> vehicles = vehicleRepository.findAll();
-            List<String> makes = vehicles.stream()
-                .map(Vehicle::getMake)
-                .distinct()
-                .filter(make -> query == null || make.toLowerCase().contains(query.toLowerCase()))
-                .sorted()
-                .limit(20)
-                .toList();
+            List<String> makes = prefix != null
+                    ? suggestionService.suggestMakes(prefix, limit)
+                    : suggestionService.suggestMakesContaining(query, limit);
 
             return ResponseEntity.ok(makes);
         } catch (Exception e) {
@@ -394,22 +462,18 @@ public class SearchController {
         }
     }
 
-    // Get search suggestions for models
+    // Model suggestions (of the make, if given), prefix and query as for makes
     @GetMapping("/suggestions/models")
     public ResponseEntity<?> getModelSuggestions(
             @RequestParam(required = false) String make,
-            @RequestParam(required = false) String query) {
+            @RequestParam(required = false) String prefix,
+            @RequestParam(required = false) String query,
+            @RequestParam(defaultValue = "20") int limit) {
 
         try {
-            List<Vehicle> vehicles = vehicleRepository.findAll();
-            List<String> models = vehicles.stream()
-                .filter(vehicle -> make == null || vehicle.getMake().equalsIgnoreCase(make))
-                .map(Vehicle::getModel)
-                .distinct()
-                .filter(model -> query == null || model.toLowerCase().contains(query.toLowerCase()))
-                .sorted()
-                .limit(20)
-                .toList();
+            List<String> models = prefix != null
+                    ? suggestionService.suggestModels(make, prefix, limit)
+                    : suggestionService.suggestModelsContaining(make, query, limit);
 
             return ResponseEntity.ok(models);
         } catch (Exception e) {
@@ -419,18 +483,16 @@ public class SearchController {
         }
     }
 
-    // Get search suggestions for locations
+    // "City, State" location suggestions, prefix and query as for makes
     @GetMapping("/suggestions/locations")
-    public ResponseEntity<?> getLocationSuggestions(@RequestParam(required = false) String query) {
+    public ResponseEntity<?> getLocationSuggestions(
+            @RequestParam(required = false) String prefix,
+            @RequestParam(required = false) String query,
+            @RequestParam(defaultValue = "20") int limit) {
         try {
-            List<Company> companies = companyRepository.findAll();
-            List<String> locations = companies.stream()
-                .map(company -> company.getCity() + ", " + company.getState())
-                .distinct()
-                .filter(location -> query == null || location.toLowerCase().contains(query.toLowerCase()))
-                .sorted()
-                .limit(20)
-                .toList();
+            List<String> locations = prefix != null
+                    ? suggestionService.suggestLocations(prefix, limit)
+                    : suggestionService.suggestLocationsContaining(query, limit);
 
             return ResponseEntity.ok(locations);
         } catch (Exception e) {
@@ -446,67 +508,7 @@ public class SearchController {
     @GetMapping("/filters")
     public ResponseEntity<?> getSearchFilters() {
         try {
-            Map<String, Object> filters = new HashMap<>();
-
-            // Vehicle types
-            filters.put("vehicleTypes", Vehicle.VehicleType.values());
-
-            // Fuel types
-            List<Vehicle> vehicles = vehicleRepository.findAll();
-            List<String> fuelTypes = vehicles.stream()
-                .map(Vehicle::getFuelType)
-                .filter(fuelType -> fuelType != null && !fuelType.isEmpty())
-                .distinct()
-                .sorted()
-                .toList();
-            filters.put("fuelTypes", fuelTypes);
-
-            // Transmissions
-            List<String> transmissions = vehicles.stream()
-                .map(Vehicle::getTransmission)
-                .filter(transmission -> transmission != null && !transmission.isEmpty())
-                .distinct()
-                .sorted()
-                .toList();
-            filters.put("transmissions", transmissions);
-
-            // Colors
-            List<String> colors = vehicles.stream()
-                .map(Vehicle::getColor)
-                .filter(color -> color != null && !color.isEmpty())
-                .distinct()
-                .sorted()
-                .toList();
-            filters.put("colors", colors);
-
-            // Year range
-            int minYear = vehicles.stream().mapToInt(Vehicle::getYear).min().orElse(2000);
-            int maxYear = vehicles.stream().mapToInt(Vehicle::getYear).max().orElse(2024);
-            filters.put("yearRange", Map.of("min", minYear, "max", maxYear));
-
-            // Price range
-            BigDecimal minPrice = vehicles.stream()
-                .map(Vehicle::getDailyRate)
-                .min(BigDecimal::compareTo)
-                .orElse(BigDecimal.ZERO);
-            BigDecimal maxPrice = vehicles.stream()
-                .map(Vehicle::getDailyRate)
-                .max(BigDecimal::compareTo)
-                .orElse(BigDecimal.valueOf(1000));
-            filters.put("priceRange", Map.of("min", minPrice, "max", maxPrice));
-
-            // Seating capacity range
-            int minSeating = vehicles.stream()
-                .mapToInt(vehicle -> vehicle.getSeatingCapacity() != null ? vehicle.getSeatingCapacity() : 2)
-                .min()
-                .orElse(2);
-            int maxSeating = vehicles.stream()
-                .mapToInt(vehicle -> vehicle.getSeatingCapacity() != null ? vehicle.getSeatingCapacity() : 8)
-                .max()
-                .orElse(8);
-            filters.put("seatingRange", Map.of("min", minSeating, "max", maxSeating));
-
-            return ResponseEntity.ok(filters);
+            return ResponseEntity.ok(facetIndex.getFilters());
         } catch (Exception e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", "Failed to get search filters: " + e.getMessage());
@@ -516,41 +518,47 @@ public class SearchController {
 
     // ========== HELPER METHODS ==========
 
-    private boolean isVehicleAvailable(Long vehicleId, LocalDate startDate, LocalDate endDate) {
-        long conflictingReservations = reservationRepository.countConflictingReservations(
-            vehicleId, startDate, endDate);
-        return conflictingReservations == 0;
+    // One near-me result with its distance, rounded to the metre
+    private Map<String, Object> nearbyResult(String name, Object result, GeoSearchIndex.Hit hit) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put(name, result);
+        entry.put("distanceKm", Math.round(hit.distanceKm() * 1000) / 1000.0);
+        return entry;
     }
 
-    private List<Vehicle> sortVehicles(List<Vehicle> vehicles, String sortBy, String sortDir) {
-        boolean ascending = !sortDir.equalsIgnoreCase("desc");
-        
-        return vehicles.stream()
-            .sorted((v1, v2) -> {
-                int comparison = 0;
-                switch (sortBy.toLowerCase()) {
-                    case "dailyrate":
-                        comparison = v1.getDailyRate().compareTo(v2.getDailyRate());
-                        break;
-                    case "year":
-                        comparison = v1.getYear().compareTo(v2.getYear());
-                        break;
-                    case "make":
-                        comparison = v1.getMake().compareTo(v2.getMake());
-                        break;
-                    case "model":
-                        comparison = v1.getModel().compareTo(v2.getModel());
-                        break;
-                    case "averagerating":
-                        BigDecimal rating1 = v1.getAverageRating() != null ? v1.getAverageRating() : BigDecimal.ZERO;
-                        BigDecimal rating2 = v2.getAverageRating() != null ? v2.getAverageRating() : BigDecimal.ZERO;
-                        comparison = rating1.compareTo(rating2);
-                        break;
-                    default:
-                        comparison = v1.getDailyRate().compareTo(v2.getDailyRate());
-                }
-                return ascending ? comparison : -comparison;
-            })
-            .toList();
+    // Stored values matching a make or model filter, or null when there is no filter or a substring matches more
+    // values than fit in one IN list
+    private List<String> resolveNames(String query, TextSearchIndex.MatchMode matchMode, NameLookup lookup) {
+        if (query == null || query.isBlank()) {
+            return null;
+        }
+        int maxValues = textSearchIndex.getMaxFilterValues();
+        List<String> values = lookup.search(query, matchMode, maxValues + 1);
+        if (values.size() > maxValues) {
+            return matchMode == TextSearchIndex.MatchMode.SUBSTRING ? null : values.subList(0, maxValues);
+        }
+        return values;
+    }
+
+    private interface NameLookup {
+        List<String> search(String query, TextSearchIndex.MatchMode mode, int limit);
+    }
+
+    // Map the public sortBy values onto entity attributes; id keeps page boundaries stable
+    private Sort buildVehicleSort(String sortBy, String sortDir) {
+        if (sortBy == null || sortBy.isEmpty()) {
+            return Sort.by("id");
+        }
+
+        String property = switch (sortBy.toLowerCase()) {
+            case "year" -> "year";
+            case "make" -> "make";
+            case "model" -> "model";
+            case "averagerating" -> "averageRating";
+            default -> "dailyRate";
+        };
+        Sort sort = Sort.by(property);
+        sort = sortDir.equalsIgnoreCase("desc") ? sort.descending() : sort.ascending();
+        return sort.and(Sort.by("id"));
     }
 }
@@ -2,8 +2,10 @@ package com.rentman.rentman.controller;
 
 import com.rentman.rentman.dto.UserRegistrationDto;
 import com.rentman.rentman.entity.User;
+import com.rentman.rentman.security.BoundedPasswordEncoder;
 import com.rentman.rentman.service.UserService;
 import com.rentman.rentman.service.CustomUserDetailsService;
+import com.rentman.rentman.service.TextSearchIndex;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -42,6 +44,8 @@ public class UserController {
 
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
 
+        } catch (BoundedPasswordEncoder.Overloaded e) {
+            throw e;
         } catch (RuntimeException e) {
             Map<String, String> error = new HashMap<>();
             error.put("error", e.getMessage());
@@ -186,11 +190,18 @@ public class UserController {
         }
     }
 
-    // Search users by name
+    // Search users by name; match is substring (default), prefix or fuzzy
     @GetMapping("/search")
-    public ResponseEntity<List<User>> searchUsers(@RequestParam String name) {
-        List<User> users = userService.searchUsersByName(name);
-        return ResponseEntity.ok(users);
+    public ResponseEntity<List<User>> searchUsers(@RequestParam String name,
+                                                  @RequestParam(required = false) String match,
+                                                  @RequestParam(required = false) Integer limit) {
+        try {
+            List<User> users = userService.searchUsersByName(name, TextSearchIndex.MatchMode.parse(match),
+                    limit == null ? Integer.MAX_VALUE : limit);
+            return ResponseEntity.ok(users);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     // Get user statistics
@@ -2,19 +2,28 @@ package com.rentman.rentman.controller;
 
 import com.rentman.rentman.entity.Vehicle;
 import com.rentman.rentman.entity.Company;
+import com.rentman.rentman.dto.VehicleImportResult;
 import com.rentman.rentman.dto.VehicleResponseDto;
+import com.rentman.rentman.dto.VehicleSummaryDto;
 import com.rentman.rentman.repository.VehicleRepository;
 import com.rentman.rentman.repository.CompanyRepository;
+import com.rentman.rentman.service.CompanyDashboardSnapshot;
 import com.rentman.rentman.service.CustomUserDetailsService;
+import com.rentman.rentman.service.ExportService;
+import com.rentman.rentman.service.VehicleFacetIndex;
+import com.rentman.rentman.service.VehicleImportService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import java.io.InputStream;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -32,6 +41,15 @@ public class VehicleController {
     @Autowired
     private CompanyRepository companyRepository;
 
+    @Autowired
+    private CompanyDashboardSnapshot dashboardSnapshot;
+
+    @Autowired
+    private VehicleFacetIndex facetIndex;
+
+    @Autowired
+    private VehicleImportService vehicleImportService;
+
     // Helper method to get current user's company ID
     private Long getCurrentUserCompanyId() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -129,17 +147,17 @@ public class VehicleController {
 
     // Get available vehicles
     @GetMapping("/available")
-    public ResponseEntity<List<Vehicle>> getAvailableVehicles() {
-        List<Vehicle> vehicles = vehicleRepository.findByStatus(Vehicle.VehicleStatus.AVAILABLE);
+    public ResponseEntity<List<VehicleSummaryDto>> getAvailableVehicles() {
+        List<VehicleSummaryDto> vehicles = vehicleRepository.findSummariesByStatus(Vehicle.VehicleStatus.AVAILABLE);
         return ResponseEntity.ok(vehicles);
     }
 
     // Get vehicles by type
     @GetMapping("/type/{type}")
-    public ResponseEntity<List<Vehicle>> getVehiclesByType(@PathVariable String type) {
+    public ResponseEntity<List<VehicleSummaryDto>> getVehiclesByType(@PathVariable String type) {
         try {
             Vehicle.VehicleType vehicleType = Vehicle.VehicleType.valueOf(type.toUpperCase());
-            List<Vehicle> vehicles = vehicleRepository.findByType(vehicleType);
+            List<VehicleSummaryDto> vehicles = vehicleRepository.findSummariesByType(vehicleType);
             return ResponseEntity.ok(vehicles);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
@@ -166,6 +184,8 @@ public class VehicleController {
             vehicle.setCompany(company);
             
             Vehicle savedVehicle = vehicleRepository.save(vehicle);
+            dashboardSnapshot.vehicleChanged(company);
+            facetIndex.record(savedVehicle);
             
             // Convert to DTO to avoid circular references
             VehicleResponseDto responseDto = VehicleResponseDto.fromVehicle(savedVehicle);
@@ -179,6 +199,37 @@ public class VehicleController {
         }
     }
 
+    // Bulk import vehicles for the current user's company from a CSV (header row of field names) or NDJSON body.
+    // The format comes from ?format=csv|ndjson or else the Content-Type; rows that fail are reported, not fatal.
+    @PostMapping("/import")
+    public ResponseEntity<?> importVehicles(@RequestParam(required = false) String format,
+                                            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+                                            InputStream body) {
+        try {
+            Long companyId = getCurrentUserCompanyId();
+            if (companyId == null) {
+                return ResponseEntity.badRequest().body("User must belong to a company to import vehicles");
+            }
+
+            ExportService.Format importFormat;
+            if (format != null) {
+                importFormat = ExportService.Format.parse(format);
+            } else if (contentType != null && contentType.startsWith(ExportService.Format.CSV.getContentType())) {
+                importFormat = ExportService.Format.CSV;
+            } else {
+                importFormat = ExportService.Format.NDJSON;
+            }
+
+            VehicleImportResult result = vehicleImportService.importVehicles(companyId, importFormat, body);
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            logger.error("Vehicle import failed: {}", e.getMessage(), e);
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Failed to import vehicles: " + e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
     // Update vehicle
     @PutMapping("/{id}")
     public ResponseEntity<?> updateVehicle(@PathVariable Long id, @Valid @RequestBody Vehicle vehicleDetails) {
@@ -212,8 +263,12 @@ public class VehicleController {
                 vehicle.setMileage(vehicleDetails.getMileage());
                 vehicle.setDescription(vehicleDetails.getDescription());
                 vehicle.setImageUrl(vehicleDetails.getImageUrl());
+                vehicle.setCurrentLatitude(vehicleDetails.getCurrentLatitude());
+                vehicle.setCurrentLongitude(vehicleDetails.getCurrentLongitude());
 
                 Vehicle updatedVehicle = vehicleRepository.save(vehicle);
+                dashboardSnapshot.vehicleChanged(updatedVehicle.getCompany());
+                facetIndex.record(updatedVehicle);
                 VehicleResponseDto responseDto = VehicleResponseDto.fromVehicle(updatedVehicle);
                 return ResponseEntity.ok(responseDto);
             } else {
@@ -246,6 +301,8 @@ public class VehicleController {
                 }
                 
                 vehicleRepository.deleteById(id);
+                dashboardSnapshot.vehicleChanged(vehicle.getCompany());
+                facetIndex.forget(id);
                 return ResponseEntity.noContent().build();
             } else {
                 return ResponseEntity.notFound().build();
@@ -280,6 +337,8 @@ public class VehicleController {
                     Vehicle.VehicleStatus newStatus = Vehicle.VehicleStatus.valueOf(status.toUpperCase());
                     vehicle.setStatus(newStatus);
                     Vehicle updatedVehicle = vehicleRepository.save(vehicle);
+                    dashboardSnapshot.vehicleChanged(updatedVehicle.getCompany());
+                    facetIndex.record(updatedVehicle);
                     VehicleResponseDto responseDto = VehicleResponseDto.fromVehicle(updatedVehicle);
                     return ResponseEntity.ok(responseDto);
                 } catch (IllegalArgumentException e) {
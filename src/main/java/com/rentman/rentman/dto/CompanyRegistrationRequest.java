@@ -1,6 +1,8 @@
 package com.rentman.rentman.dto;
 
 import com.rentman.rentman.entity.Company;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -45,6 +47,15 @@ public class CompanyRegistrationRequest {
     
     @NotBlank(message = "Country is required")
     private String country;
+
+    // Optional branch coordinates for the near-me search
+    @DecimalMin(value = "-90.0", message = "Latitude must be between -90 and 90")
+    @DecimalMax(value = "90.0", message = "Latitude must be between -90 and 90")
+    private Double latitude;
+
+    @DecimalMin(value = "-180.0", message = "Longitude must be between -180 and 180")
+    @DecimalMax(value = "180.0", message = "Longitude must be between -180 and 180")
+    private Double longitude;
     
     // Business Information
     private String businessType;
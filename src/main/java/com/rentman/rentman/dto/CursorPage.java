@@ -0,0 +1,22 @@
+package com.rentman.rentman.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+// One page of a keyset-paginated list; pass nextCursor back as ?cursor= to fetch the following page
+public record CursorPage<T>(List<T> items, int size, String nextCursor, boolean hasMore) {
+
+    // Rows were fetched with a limit of size + 1; the extra row only signals that another page exists
+    public static <T> CursorPage<T> of(List<T> rows, int size,
+                                       Function<T, LocalDateTime> createdAt, Function<T, Long> id) {
+        boolean hasMore = rows.size() > size;
+        List<T> items = hasMore ? rows.subList(0, size) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            T last = items.get(items.size() - 1);
+            nextCursor = new KeysetCursor(createdAt.apply(last), id.apply(last)).encode();
+        }
+        return new CursorPage<>(items, items.size(), nextCursor, hasMore);
+    }
+}
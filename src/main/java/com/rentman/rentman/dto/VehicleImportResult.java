@@ -0,0 +1,31 @@
+package com.rentman.rentman.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class VehicleImportResult {
+    private String format;
+    private long rowsRead;
+    private long imported;
+    private long failed;
+    private int chunks;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+    // At most the first maxErrors row errors; errorsTruncated tells whether more were dropped
+    private List<RowError> errors = new ArrayList<>();
+    private boolean errorsTruncated;
+
+    @Data
+    @AllArgsConstructor
+    public static class RowError {
+        // 1-based data row number, not counting the CSV header
+        private long row;
+        private String licensePlate;
+        private String error;
+    }
+}
@@ -31,6 +31,8 @@ public class VehicleResponseDto {
     private Long companyId;
     private String companyName;
     private String currentLocation;
+    private Double currentLatitude;
+    private Double currentLongitude;
     private String pickupLocation;
     private Boolean isFeatured;
     private Boolean isAvailableForRental;
@@ -84,6 +86,8 @@ public class VehicleResponseDto {
         dto.setCompanyId(vehicle.getCompany() != null ? vehicle.getCompany().getId() : null);
         dto.setCompanyName(vehicle.getCompany() != null ? vehicle.getCompany().getCompanyName() : null);
         dto.setCurrentLocation(vehicle.getCurrentLocation());
+        dto.setCurrentLatitude(vehicle.getCurrentLatitude());
+        dto.setCurrentLongitude(vehicle.getCurrentLongitude());
         dto.setPickupLocation(vehicle.getPickupLocation());
         dto.setIsFeatured(vehicle.getIsFeatured());
         dto.setIsAvailableForRental(vehicle.getIsAvailableForRental());
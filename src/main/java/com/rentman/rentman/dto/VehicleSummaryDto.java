@@ -0,0 +1,26 @@
+package com.rentman.rentman.dto;
+
+import com.rentman.rentman.entity.Vehicle;
+import java.math.BigDecimal;
+
+// The fields a vehicle list or search result card shows. Selected directly in JPQL
+// (VehicleRepository.SUMMARY_SELECT), so no entity, description or company is loaded per row;
+// VehicleResponseDto remains the full representation for single-vehicle responses.
+public record VehicleSummaryDto(
+        Long id,
+        String make,
+        String model,
+        Integer year,
+        String licensePlate,
+        Vehicle.VehicleType type,
+        Vehicle.VehicleStatus status,
+        BigDecimal dailyRate,
+        String fuelType,
+        String transmission,
+        Integer seatingCapacity,
+        String imageUrl,
+        String currentLocation,
+        BigDecimal averageRating,
+        Long companyId,
+        String companyName) {
+}
@@ -0,0 +1,83 @@
+package com.rentman.rentman.entity;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Unique, time-ordered business numbers (reservation, invoice, defect, maintenance numbers).
+// Snowflake layout: 41 bits of milliseconds since 2024-01-01 UTC, 10 bits of node ID, 12 bits of sequence.
+// The application's instance, on the configured node ID, is a bean (see BusinessNumberConfig) that the services
+// use to number entities before saving them.
+public class BusinessNumberGenerator {
+
+    private static final long EPOCH_MILLIS = 1704067200000L;
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    public static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int DIGITS = 19;
+
+    // For the @PrePersist callbacks of entities saved without a number. It knows nothing of the configured node ID,
+    // so it runs on a random one and can, rarely, repeat a number issued elsewhere; the unique number columns then
+    // reject the insert instead of storing a duplicate.
+    private static final BusinessNumberGenerator FALLBACK =
+            new BusinessNumberGenerator(ThreadLocalRandom.current().nextLong(MAX_NODE_ID + 1));
+
+    private final long nodeId;
+
+    // (milliseconds since epoch << SEQUENCE_BITS) | sequence. Incrementing past the sequence mask carries
+    // into the timestamp, so bursts above 4096 per millisecond or a clock step backwards never repeat a value.
+    private final AtomicLong lastState = new AtomicLong();
+
+    public BusinessNumberGenerator(long nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("rentman.node-id must be between 0 and " + MAX_NODE_ID);
+        }
+        this.nodeId = nodeId;
+    }
+
+    static BusinessNumberGenerator fallback() {
+        return FALLBACK;
+    }
+
+    public long nextId() {
+        long now = System.currentTimeMillis() - EPOCH_MILLIS;
+        while (true) {
+            long previous = lastState.get();
+            long next = (previous >>> SEQUENCE_BITS) < now ? now << SEQUENCE_BITS : previous + 1;
+            if (lastState.compareAndSet(previous, next)) {
+                return ((next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS))
+                        | (nodeId << SEQUENCE_BITS)
+                        | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    // Prefix followed by the zero-padded ID, so numbers sort in creation order
+    public String next(String prefix) {
+        long id = nextId();
+        int length = prefix.length();
+        char[] chars = new char[length + DIGITS];
+        prefix.getChars(0, length, chars, 0);
+        for (int i = chars.length - 1; i >= length; i--) {
+            chars[i] = (char) ('0' + id % 10);
+            id /= 10;
+        }
+        return new String(chars);
+    }
+
+    public String nextReservationNumber() {
+        return next("RES");
+    }
+
+    public String nextInvoiceNumber() {
+        return next("INV");
+    }
+
+    public String nextDefectNumber() {
+        return next("DEF");
+    }
+
+    public String nextMaintenanceNumber() {
+        return next("MAINT");
+    }
+}
@@ -9,14 +9,18 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "defect")
+@Table(name = "defect", indexes = {
+        // Keyset pagination of a company's records, newest first
+        @Index(name = "idx_defect_company_created", columnList = "company_id, created_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Defect {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "defect_seq")
+    @SequenceGenerator(name = "defect_seq", sequenceName = "defect_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -152,7 +156,7 @@ public class Defect {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
         if (defectNumber == null) {
-            defectNumber = generateDefectNumber();
+            defectNumber = BusinessNumberGenerator.fallback().nextDefectNumber();
         }
         if (reportedDate == null) {
             reportedDate = LocalDate.now();
@@ -165,10 +169,6 @@ public class Defect {
     }
 
     // Business logic methods
-    private String generateDefectNumber() {
-        return "DEF" + System.currentTimeMillis();
-    }
-
     public boolean isCritical() {
         return severity == DefectSeverity.CRITICAL;
     }
@@ -11,14 +11,24 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "invoice")
+@Table(name = "invoice", indexes = {
+        // Keyset pagination of a company's records, newest first
+        @Index(name = "idx_invoice_company_created", columnList = "company_id, created_at, id"),
+        // Company overdue listing and the platform-wide overdue sweep
+        @Index(name = "idx_invoice_company_status_due", columnList = "company_id, status, due_date"),
+        @Index(name = "idx_invoice_status_due", columnList = "status, due_date")
+        // One invoice of a type per company and billing period, so billing runs on several nodes cannot double-bill:
+        // uk_invoice_company_type_period in schema-sqlserver.sql. It is a unique index filtered to invoices with a
+        // billing period, which a JPA unique constraint cannot express; SQL Server would treat the NULLs as equal.
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Invoice {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "invoice_seq")
+    @SequenceGenerator(name = "invoice_seq", sequenceName = "invoice_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "invoice_number", unique = true, nullable = false)
@@ -129,7 +139,7 @@ public class Invoice {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
         if (invoiceNumber == null) {
-            invoiceNumber = generateInvoiceNumber();
+            invoiceNumber = BusinessNumberGenerator.fallback().nextInvoiceNumber();
         }
         calculateAmounts();
     }
@@ -141,10 +151,6 @@ public class Invoice {
     }
 
     // Business logic methods
-    private String generateInvoiceNumber() {
-        return "INV" + System.currentTimeMillis();
-    }
-
     private void calculateAmounts() {
         if (subtotal != null) {
             // Calculate total amount
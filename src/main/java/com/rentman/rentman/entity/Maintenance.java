@@ -10,14 +10,18 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "maintenance")
+@Table(name = "maintenance", indexes = {
+        // Keyset pagination of a company's records, newest first
+        @Index(name = "idx_maintenance_company_created", columnList = "company_id, created_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Maintenance {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "maintenance_seq")
+    @SequenceGenerator(name = "maintenance_seq", sequenceName = "maintenance_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -144,7 +148,7 @@ public class Maintenance {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
         if (maintenanceNumber == null) {
-            maintenanceNumber = generateMaintenanceNumber();
+            maintenanceNumber = BusinessNumberGenerator.fallback().nextMaintenanceNumber();
         }
     }
 
@@ -154,10 +158,6 @@ public class Maintenance {
     }
 
     // Business logic methods
-    private String generateMaintenanceNumber() {
-        return "MAINT" + System.currentTimeMillis();
-    }
-
     public boolean isOverdue() {
         return status == MaintenanceStatus.SCHEDULED && 
                scheduledDate != null && 
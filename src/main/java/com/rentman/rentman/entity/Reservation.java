@@ -12,14 +12,18 @@ import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 
 @Entity
-@Table(name = "reservation")
+@Table(name = "reservation", indexes = {
+        // Keyset pagination of a company's records, newest first
+        @Index(name = "idx_reservation_company_created", columnList = "company_id, created_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Reservation {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "reservation_seq")
+    @SequenceGenerator(name = "reservation_seq", sequenceName = "reservation_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "reservation_number", unique = true, nullable = false)
@@ -173,9 +177,9 @@ public class Reservation {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
 
-        // Generate reservation number if not set
+        // Services assign the number; this covers entities saved without one
         if (reservationNumber == null) {
-            reservationNumber = generateReservationNumber();
+            reservationNumber = BusinessNumberGenerator.fallback().nextReservationNumber();
         }
 
         // Calculate total days and amounts
@@ -191,10 +195,6 @@ public class Reservation {
     }
 
     // Business logic methods
-    private String generateReservationNumber() {
-        return "RES" + System.currentTimeMillis();
-    }
-
     private void calculateTotalDays() {
         if (startDate != null && endDate != null) {
             totalDays = (int) ChronoUnit.DAYS.between(startDate, endDate);
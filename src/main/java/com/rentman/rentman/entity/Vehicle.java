@@ -1,25 +1,36 @@
 package com.rentman.rentman.entity;
 
 import jakarta.persistence.*;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "vehicle")
+@Table(name = "vehicle", indexes = {
+        // Keyset pagination of a company's records, newest first
+        @Index(name = "idx_vehicle_company_created", columnList = "company_id, created_at, id")
+})
+// Read-mostly; cached in the second-level cache (region "vehicle"), with a short expiry for status changes
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "vehicle")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Vehicle {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "vehicle_seq")
+    @SequenceGenerator(name = "vehicle_seq", sequenceName = "vehicle_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Make is required")
@@ -80,6 +91,17 @@ public class Vehicle {
     @Column(name = "current_location")
     private String currentLocation;
 
+    // Current coordinates (WGS84 degrees); a vehicle without them is searched at its company's branch
+    @DecimalMin(value = "-90.0", message = "Latitude must be between -90 and 90")
+    @DecimalMax(value = "90.0", message = "Latitude must be between -90 and 90")
+    @Column(name = "current_latitude")
+    private Double currentLatitude;
+
+    @DecimalMin(value = "-180.0", message = "Longitude must be between -180 and 180")
+    @DecimalMax(value = "180.0", message = "Longitude must be between -180 and 180")
+    @Column(name = "current_longitude")
+    private Double currentLongitude;
+
     @Column(name = "pickup_location")
     private String pickupLocation;
 
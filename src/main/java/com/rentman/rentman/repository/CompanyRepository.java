@@ -1,13 +1,18 @@
 package com.rentman.rentman.repository;
 
 import com.rentman.rentman.entity.Company;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -38,10 +43,12 @@ public interface CompanyRepository extends JpaRepository<Company, Long> {
     // Find by status
     List<Company> findByStatus(Company.CompanyStatus status);
 
-    // Find active companies
+    // Find active companies (query cache; Hibernate invalidates it on any company write)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Company> findByStatusAndIsVerifiedTrue(Company.CompanyStatus status);
 
-    // Find featured companies
+    // Find featured companies (query cache)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Company> findByIsFeaturedTrueAndStatus(Company.CompanyStatus status);
 
     // Find by subscription plan
@@ -86,6 +93,31 @@ public interface CompanyRepository extends JpaRepository<Company, Long> {
                                 @Param("status") Company.CompanyStatus status,
                                 Pageable pageable);
 
+    // Same filters as searchCompanies, with the name already resolved to company ids by the text search index
+    @Query("SELECT c FROM Company c WHERE c.id IN :ids AND " +
+           "(:city IS NULL OR LOWER(c.city) LIKE LOWER(CONCAT('%', :city, '%'))) AND " +
+           "(:state IS NULL OR LOWER(c.state) LIKE LOWER(CONCAT('%', :state, '%'))) AND " +
+           "(:country IS NULL OR LOWER(c.country) LIKE LOWER(CONCAT('%', :country, '%'))) AND " +
+           "(:status IS NULL OR c.status = :status)")
+    Page<Company> searchCompaniesByIds(@Param("ids") Collection<Long> ids,
+                                       @Param("city") String city,
+                                       @Param("state") String state,
+                                       @Param("country") String country,
+                                       @Param("status") Company.CompanyStatus status,
+                                       Pageable pageable);
+
+    // Those of the ids passing the same filters, in no particular order
+    @Query("SELECT c.id FROM Company c WHERE c.id IN :ids AND " +
+           "(:city IS NULL OR LOWER(c.city) LIKE LOWER(CONCAT('%', :city, '%'))) AND " +
+           "(:state IS NULL OR LOWER(c.state) LIKE LOWER(CONCAT('%', :state, '%'))) AND " +
+           "(:country IS NULL OR LOWER(c.country) LIKE LOWER(CONCAT('%', :country, '%'))) AND " +
+           "(:status IS NULL OR c.status = :status)")
+    List<Long> filterCompanyIds(@Param("ids") Collection<Long> ids,
+                                @Param("city") String city,
+                                @Param("state") String state,
+                                @Param("country") String country,
+                                @Param("status") Company.CompanyStatus status);
+
     // Count companies by status
     long countByStatus(Company.CompanyStatus status);
 
@@ -122,4 +154,27 @@ public interface CompanyRepository extends JpaRepository<Company, Long> {
 
     // Find recent companies (top N)
     List<Company> findTop10ByOrderByCreatedAtDesc();
+
+    // Location of every company: [id, city, state]
+    @Query("SELECT c.id, c.city, c.state FROM Company c")
+    List<Object[]> findLocationRows();
+
+    // Name of every company: [id, companyName]
+    @Query("SELECT c.id, c.companyName FROM Company c")
+    List<Object[]> findNameRows();
+
+    // Coordinates and status of every company: [id, latitude, longitude, status]
+    @Query("SELECT c.id, c.latitude, c.longitude, c.status FROM Company c")
+    List<Object[]> findGeoRows();
+
+    // Next page (by id) of active, subscribed companies that have no subscription invoice for the billing period yet
+    @Query("SELECT c FROM Company c WHERE c.id > :afterId AND c.status = 'ACTIVE' AND c.monthlyFee > 0 " +
+           "AND (c.subscriptionEndDate IS NULL OR c.subscriptionEndDate >= :periodStartTime) " +
+           "AND NOT EXISTS (SELECT i.id FROM Invoice i WHERE i.company = c AND i.type = 'SUBSCRIPTION' " +
+           "AND i.billingPeriodStart = :periodStart) " +
+           "ORDER BY c.id")
+    List<Company> findDueForBilling(@Param("afterId") Long afterId,
+                                    @Param("periodStart") LocalDate periodStart,
+                                    @Param("periodStartTime") LocalDateTime periodStartTime,
+                                    Pageable pageable);
 }
@@ -3,6 +3,7 @@ package com.rentman.rentman.repository;
 import com.rentman.rentman.entity.Defect;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -21,13 +22,27 @@ public interface DefectRepository extends JpaRepository<Defect, Long> {
     // Find by vehicle
     List<Defect> findByVehicleIdOrderByCreatedAtDesc(Long vehicleId);
 
-    // Find by company
+    // Find by company, with vehicle and company fetched in the same query
+    @EntityGraph(attributePaths = {"vehicle", "company"})
     List<Defect> findByCompanyIdOrderByCreatedAtDesc(Long companyId);
 
+    // Keyset pages (see CompanyController.keysetPage) with the reported vehicle fetched
+    @Query("SELECT d FROM Defect d JOIN FETCH d.vehicle JOIN FETCH d.company WHERE d.company.id = :companyId ORDER BY d.createdAt DESC, d.id DESC")
+    List<Defect> findCompanyPage(@Param("companyId") Long companyId, Pageable pageable);
+
+    @Query("SELECT d FROM Defect d JOIN FETCH d.vehicle JOIN FETCH d.company WHERE d.company.id = :companyId " +
+           "AND (d.createdAt < :createdAt OR (d.createdAt = :createdAt AND d.id < :id)) " +
+           "ORDER BY d.createdAt DESC, d.id DESC")
+    List<Defect> findCompanyPageAfter(@Param("companyId") Long companyId,
+                                      @Param("createdAt") LocalDateTime createdAt,
+                                      @Param("id") Long id,
+                                      Pageable pageable);
+
     // Find by vehicle and status
     List<Defect> findByVehicleIdAndStatusOrderByCreatedAtDesc(Long vehicleId, Defect.DefectStatus status);
 
     // Find by company and status
+    @EntityGraph(attributePaths = {"vehicle", "company"})
     List<Defect> findByCompanyIdAndStatusOrderByCreatedAtDesc(Long companyId, Defect.DefectStatus status);
 
     // Find by status
@@ -1,10 +1,15 @@
 package com.rentman.rentman.repository;
 
 import com.rentman.rentman.entity.Invoice;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.math.BigDecimal;
@@ -12,6 +17,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
@@ -19,10 +25,40 @@ public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
     // Find by invoice number
     Optional<Invoice> findByInvoiceNumber(String invoiceNumber);
 
-    // Find by company
+    // Find by company, with company and reservation fetched in the same query
+    @EntityGraph(attributePaths = {"company", "reservation"})
     List<Invoice> findByCompanyIdOrderByCreatedAtDesc(Long companyId);
 
+    // Keyset pages (see CompanyController.keysetPage); not every invoice has a reservation, hence the left join
+    @Query("SELECT i FROM Invoice i JOIN FETCH i.company LEFT JOIN FETCH i.reservation WHERE i.company.id = :companyId ORDER BY i.createdAt DESC, i.id DESC")
+    List<Invoice> findCompanyPage(@Param("companyId") Long companyId, Pageable pageable);
+
+    @Query("SELECT i FROM Invoice i JOIN FETCH i.company LEFT JOIN FETCH i.reservation WHERE i.company.id = :companyId " +
+           "AND (i.createdAt < :createdAt OR (i.createdAt = :createdAt AND i.id < :id)) " +
+           "ORDER BY i.createdAt DESC, i.id DESC")
+    List<Invoice> findCompanyPageAfter(@Param("companyId") Long companyId,
+                                       @Param("createdAt") LocalDateTime createdAt,
+                                       @Param("id") Long id,
+                                       Pageable pageable);
+
+    // Export cursors: rows are read from an open JDBC result set in fetch-size batches as the stream is consumed,
+    // read-only so Hibernate keeps no dirty-checking snapshots. Must be consumed inside a transaction and closed.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT i FROM Invoice i WHERE i.company.id = :companyId ORDER BY i.id")
+    Stream<Invoice> streamByCompanyId(@Param("companyId") Long companyId);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT i FROM Invoice i ORDER BY i.id")
+    Stream<Invoice> streamAll();
+
     // Find by company and status
+    @EntityGraph(attributePaths = {"company", "reservation"})
     List<Invoice> findByCompanyIdAndStatusOrderByCreatedAtDesc(Long companyId, Invoice.InvoiceStatus status);
 
     // Find by company and type
@@ -34,10 +70,29 @@ public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
     // Find by type
     List<Invoice> findByType(Invoice.InvoiceType type);
 
-    // Find overdue invoices
-    @Query("SELECT i FROM Invoice i WHERE i.status IN ('PENDING', 'SENT') AND i.dueDate < :currentDate")
+    // Find overdue invoices: already swept to OVERDUE, or still PENDING/SENT past their due date
+    @Query("SELECT i FROM Invoice i WHERE i.status = 'OVERDUE' " +
+           "OR (i.status IN ('PENDING', 'SENT') AND i.dueDate < :currentDate)")
     List<Invoice> findOverdueInvoices(@Param("currentDate") LocalDate currentDate);
 
+    // Find overdue invoices of one company, seeking on (company_id, status, due_date)
+    @Query("SELECT i FROM Invoice i WHERE i.company.id = :companyId " +
+           "AND i.status IN ('PENDING', 'SENT', 'OVERDUE') " +
+           "AND (i.status = 'OVERDUE' OR i.dueDate < :currentDate) " +
+           "ORDER BY i.dueDate")
+    List<Invoice> findOverdueInvoicesByCompany(@Param("companyId") Long companyId,
+                                               @Param("currentDate") LocalDate currentDate);
+
+    // Next batch of SENT invoices past their due date as (id, company id) rows, seeking on (status, due_date)
+    @Query("SELECT i.id, i.company.id FROM Invoice i WHERE i.status = 'SENT' AND i.dueDate < :currentDate ORDER BY i.id")
+    List<Object[]> findSentPastDueRows(@Param("currentDate") LocalDate currentDate, Pageable pageable);
+
+    // Move one batch to OVERDUE in a single statement; the status guard skips invoices paid or cancelled meanwhile
+    @Modifying
+    @Query("UPDATE Invoice i SET i.status = com.rentman.rentman.entity.Invoice.InvoiceStatus.OVERDUE, i.updatedAt = :now " +
+           "WHERE i.id IN :ids AND i.status = 'SENT'")
+    int markSentAsOverdue(@Param("ids") List<Long> ids, @Param("now") LocalDateTime now);
+
     // Find invoices by date range
     @Query("SELECT i FROM Invoice i WHERE i.invoiceDate BETWEEN :startDate AND :endDate")
     List<Invoice> findInvoicesByDateRange(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
@@ -1,10 +1,14 @@
 package com.rentman.rentman.repository;
 
 import com.rentman.rentman.entity.Maintenance;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.math.BigDecimal;
@@ -12,6 +16,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface MaintenanceRepository extends JpaRepository<Maintenance, Long> {
@@ -22,13 +27,43 @@ public interface MaintenanceRepository extends JpaRepository<Maintenance, Long>
     // Find by vehicle
     List<Maintenance> findByVehicleIdOrderByCreatedAtDesc(Long vehicleId);
 
-    // Find by company
+    // Find by company, with vehicle and company fetched in the same query
+    @EntityGraph(attributePaths = {"vehicle", "company"})
     List<Maintenance> findByCompanyIdOrderByCreatedAtDesc(Long companyId);
 
+    // Keyset pages (see CompanyController.keysetPage) with the serviced vehicle fetched
+    @Query("SELECT m FROM Maintenance m JOIN FETCH m.vehicle JOIN FETCH m.company WHERE m.company.id = :companyId ORDER BY m.createdAt DESC, m.id DESC")
+    List<Maintenance> findCompanyPage(@Param("companyId") Long companyId, Pageable pageable);
+
+    @Query("SELECT m FROM Maintenance m JOIN FETCH m.vehicle JOIN FETCH m.company WHERE m.company.id = :companyId " +
+           "AND (m.createdAt < :createdAt OR (m.createdAt = :createdAt AND m.id < :id)) " +
+           "ORDER BY m.createdAt DESC, m.id DESC")
+    List<Maintenance> findCompanyPageAfter(@Param("companyId") Long companyId,
+                                           @Param("createdAt") LocalDateTime createdAt,
+                                           @Param("id") Long id,
+                                           Pageable pageable);
+
+    // Export cursors: rows are read from an open JDBC result set in fetch-size batches as the stream is consumed,
+    // read-only so Hibernate keeps no dirty-checking snapshots. Must be consumed inside a transaction and closed.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT m FROM Maintenance m WHERE m.company.id = :companyId ORDER BY m.id")
+    Stream<Maintenance> streamByCompanyId(@Param("companyId") Long companyId);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT m FROM Maintenance m ORDER BY m.id")
+    Stream<Maintenance> streamAll();
+
     // Find by vehicle and status
     List<Maintenance> findByVehicleIdAndStatusOrderByCreatedAtDesc(Long vehicleId, Maintenance.MaintenanceStatus status);
 
     // Find by company and status
+    @EntityGraph(attributePaths = {"vehicle", "company"})
     List<Maintenance> findByCompanyIdAndStatusOrderByCreatedAtDesc(Long companyId, Maintenance.MaintenanceStatus status);
 
     // Find by status
@@ -3,8 +3,13 @@ package com.rentman.rentman.repository;
 import com.rentman.rentman.entity.Reservation;
 import com.rentman.rentman.entity.User;
 import com.rentman.rentman.entity.Vehicle;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.math.BigDecimal;
@@ -12,6 +17,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ReservationRepository extends JpaRepository<Reservation, Long> {
@@ -22,27 +28,32 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
     // Find reservations by customer
     List<Reservation> findByCustomerOrderByCreatedAtDesc(User customer);
 
-    // Find reservations by customer ID
+    // Find reservations by customer ID, with vehicle, customer and company fetched in the same query
+    @EntityGraph(attributePaths = {"vehicle", "customer", "company"})
     List<Reservation> findByCustomerIdOrderByCreatedAtDesc(Long customerId);
 
     // Find reservations by vehicle
     List<Reservation> findByVehicleOrderByStartDateDesc(Vehicle vehicle);
 
     // Find reservations by vehicle ID
+    @EntityGraph(attributePaths = {"vehicle", "customer", "company"})
     List<Reservation> findByVehicleIdOrderByStartDateDesc(Long vehicleId);
 
     // Find reservations by status
+    @EntityGraph(attributePaths = {"vehicle", "customer", "company"})
     List<Reservation> findByStatusOrderByCreatedAtDesc(Reservation.ReservationStatus status);
 
     // Find reservations by date range
     List<Reservation> findByStartDateBetween(LocalDate startDate, LocalDate endDate);
 
     // Find current active reservations
+    @EntityGraph(attributePaths = {"vehicle", "customer", "company"})
     @Query("SELECT r FROM Reservation r WHERE r.status IN ('CONFIRMED', 'IN_PROGRESS') " +
             "AND r.startDate <= :today AND r.endDate >= :today")
     List<Reservation> findCurrentActiveReservations(@Param("today") LocalDate today);
 
     // Find upcoming reservations (next 7 days)
+    @EntityGraph(attributePaths = {"vehicle", "customer", "company"})
     @Query("SELECT r FROM Reservation r WHERE r.status = 'CONFIRMED' " +
             "AND r.startDate BETWEEN :today AND :nextWeek ORDER BY r.startDate ASC")
     List<Reservation> findUpcomingReservations(@Param("today") LocalDate today,
@@ -56,17 +67,35 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
                                       @Param("startDate") LocalDate startDate,
                                       @Param("endDate") LocalDate endDate);
 
+    // Check vehicle availability for date range, ignoring one reservation (used when it is being changed)
+    @Query("SELECT COUNT(r) FROM Reservation r WHERE r.vehicle.id = :vehicleId " +
+            "AND r.id <> :excludedReservationId " +
+            "AND r.status IN ('CONFIRMED', 'IN_PROGRESS') " +
+            "AND NOT (r.endDate < :startDate OR r.startDate > :endDate)")
+    long countConflictingReservationsExcluding(@Param("vehicleId") Long vehicleId,
+                                               @Param("startDate") LocalDate startDate,
+                                               @Param("endDate") LocalDate endDate,
+                                               @Param("excludedReservationId") Long excludedReservationId);
+
+    // Date ranges of blocking reservations ending on or after the given date: [id, vehicleId, startDate, endDate]
+    @Query("SELECT r.id, r.vehicle.id, r.startDate, r.endDate FROM Reservation r " +
+            "WHERE r.status IN ('CONFIRMED', 'IN_PROGRESS') AND r.endDate >= :fromDate")
+    List<Object[]> findBlockingReservationRanges(@Param("fromDate") LocalDate fromDate);
+
     // Find overdue reservations
+    @EntityGraph(attributePaths = {"vehicle", "customer", "company"})
     @Query("SELECT r FROM Reservation r WHERE r.endDate < :today " +
             "AND r.status IN ('CONFIRMED', 'IN_PROGRESS')")
     List<Reservation> findOverdueReservations(@Param("today") LocalDate today);
 
     // Find reservations pending pickup (start date is today)
+    @EntityGraph(attributePaths = {"vehicle", "customer", "company"})
     @Query("SELECT r FROM Reservation r WHERE r.status = 'CONFIRMED' " +
             "AND r.startDate = :today")
     List<Reservation> findReservationsPendingPickup(@Param("today") LocalDate today);
 
     // Find reservations pending return (end date is today)
+    @EntityGraph(attributePaths = {"vehicle", "customer", "company"})
     @Query("SELECT r FROM Reservation r WHERE r.status = 'IN_PROGRESS' " +
             "AND r.endDate = :today")
     List<Reservation> findReservationsPendingReturn(@Param("today") LocalDate today);
@@ -127,6 +156,12 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
             "GROUP BY r.vehicle ORDER BY reservationCount DESC")
     List<Object[]> findPopularVehicles();
 
+    // Popular vehicles by id: [vehicleId, reservationCount], the counts of findPopularVehicles without the vehicles
+    @Query("SELECT r.vehicle.id, COUNT(r) FROM Reservation r " +
+            "WHERE r.status = 'COMPLETED' " +
+            "GROUP BY r.vehicle.id")
+    List<Object[]> findPopularVehicleIds();
+
     // Find reservations by location
     List<Reservation> findByPickupLocationContainingIgnoreCase(String location);
     List<Reservation> findByReturnLocationContainingIgnoreCase(String location);
@@ -134,10 +169,40 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
     // Find reservations handled by employee
     List<Reservation> findByHandledByEmployeeOrderByCreatedAtDesc(User employee);
 
-    // Find reservations by company
+    // Find reservations by company, with vehicle, customer and company fetched in the same query
+    @EntityGraph(attributePaths = {"vehicle", "customer", "company"})
     List<Reservation> findByCompanyIdOrderByCreatedAtDesc(Long companyId);
 
+    // Keyset pages (see CompanyController.keysetPage); vehicle, customer and company are fetched for serialization
+    @Query("SELECT r FROM Reservation r JOIN FETCH r.vehicle JOIN FETCH r.customer JOIN FETCH r.company WHERE r.company.id = :companyId ORDER BY r.createdAt DESC, r.id DESC")
+    List<Reservation> findCompanyPage(@Param("companyId") Long companyId, Pageable pageable);
+
+    @Query("SELECT r FROM Reservation r JOIN FETCH r.vehicle JOIN FETCH r.customer JOIN FETCH r.company WHERE r.company.id = :companyId " +
+           "AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)) " +
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    List<Reservation> findCompanyPageAfter(@Param("companyId") Long companyId,
+                                           @Param("createdAt") LocalDateTime createdAt,
+                                           @Param("id") Long id,
+                                           Pageable pageable);
+
+    // Export cursors: rows are read from an open JDBC result set in fetch-size batches as the stream is consumed,
+    // read-only so Hibernate keeps no dirty-checking snapshots. Must be consumed inside a transaction and closed.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT r FROM Reservation r WHERE r.company.id = :companyId ORDER BY r.id")
+    Stream<Reservation> streamByCompanyId(@Param("companyId") Long companyId);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT r FROM Reservation r ORDER BY r.id")
+    Stream<Reservation> streamAll();
+
     // Find reservations by company and status
+    @EntityGraph(attributePaths = {"vehicle", "customer", "company"})
     List<Reservation> findByCompanyIdAndStatusOrderByCreatedAtDesc(Long companyId, Reservation.ReservationStatus status);
 
     // Find reservations by company and date range
@@ -1,6 +1,7 @@
 package com.rentman.rentman.repository;
 
 import com.rentman.rentman.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -44,6 +45,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
             "LOWER(CONCAT(u.firstName, ' ', u.lastName)) LIKE LOWER(CONCAT('%', :name, '%'))")
     List<User> findByFullNameContaining(@Param("name") String name);
 
+    // Name of every user: [id, firstName, lastName]
+    @Query("SELECT u.id, u.firstName, u.lastName FROM User u")
+    List<Object[]> findNameRows();
+
     // Find users by first or last name
     List<User> findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCase(
             String firstName, String lastName);
@@ -81,6 +86,18 @@ public interface UserRepository extends JpaRepository<User, Long> {
     // Find users by company
     List<User> findByCompanyIdOrderByCreatedAtDesc(Long companyId);
 
+    // Keyset pages of the company's employees (see CompanyController.keysetPage)
+    @Query("SELECT u FROM User u WHERE u.company.id = :companyId ORDER BY u.createdAt DESC, u.id DESC")
+    List<User> findCompanyPage(@Param("companyId") Long companyId, Pageable pageable);
+
+    @Query("SELECT u FROM User u WHERE u.company.id = :companyId " +
+           "AND (u.createdAt < :createdAt OR (u.createdAt = :createdAt AND u.id < :id)) " +
+           "ORDER BY u.createdAt DESC, u.id DESC")
+    List<User> findCompanyPageAfter(@Param("companyId") Long companyId,
+                                    @Param("createdAt") LocalDateTime createdAt,
+                                    @Param("id") Long id,
+                                    Pageable pageable);
+
     // Find users by company and role
     List<User> findByCompanyIdAndRoleOrderByCreatedAtDesc(Long companyId, User.UserRole role);
 
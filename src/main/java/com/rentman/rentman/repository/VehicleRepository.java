@@ -1,26 +1,55 @@
 package com.rentman.rentman.repository;
 
+import com.rentman.rentman.dto.VehicleSummaryDto;
 import com.rentman.rentman.entity.Vehicle;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface VehicleRepository extends JpaRepository<Vehicle, Long> {
+public interface VehicleRepository extends JpaRepository<Vehicle, Long>, JpaSpecificationExecutor<Vehicle>,
+        VehicleSummaryRepository {
+
+    // List/search card projection; append the WHERE and ORDER BY clauses
+    String SUMMARY_SELECT = "SELECT new com.rentman.rentman.dto.VehicleSummaryDto(v.id, v.make, v.model, v.year, " +
+            "v.licensePlate, v.type, v.status, v.dailyRate, v.fuelType, v.transmission, v.seatingCapacity, " +
+            "v.imageUrl, v.currentLocation, v.averageRating, c.id, c.companyName) FROM Vehicle v JOIN v.company c ";
 
     // Find by license plate
     Optional<Vehicle> findByLicensePlate(String licensePlate);
 
+    // Which of the given license plates are already registered (one query per import chunk)
+    @Query("SELECT v.licensePlate FROM Vehicle v WHERE v.licensePlate IN :licensePlates")
+    List<String> findExistingLicensePlates(@Param("licensePlates") Collection<String> licensePlates);
+
+    // Find by ID holding a row lock until the transaction ends; serializes bookings per vehicle
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT v FROM Vehicle v WHERE v.id = :id")
+    Optional<Vehicle> findByIdForUpdate(@Param("id") Long id);
+
     // Find all available vehicles
     List<Vehicle> findByStatus(Vehicle.VehicleStatus status);
 
     // Find vehicles by type
     List<Vehicle> findByType(Vehicle.VehicleType type);
 
+    // Summaries of vehicles with a status / of a type, for the public list endpoints
+    @Query(SUMMARY_SELECT + "WHERE v.status = :status ORDER BY v.id")
+    List<VehicleSummaryDto> findSummariesByStatus(@Param("status") Vehicle.VehicleStatus status);
+
+    @Query(SUMMARY_SELECT + "WHERE v.type = :type ORDER BY v.id")
+    List<VehicleSummaryDto> findSummariesByType(@Param("type") Vehicle.VehicleType type);
+
     // Find vehicles by make and model
     List<Vehicle> findByMakeAndModel(String make, String model);
 
@@ -49,6 +78,26 @@ public interface VehicleRepository extends JpaRepository<Vehicle, Long> {
     // Find vehicles by company
     List<Vehicle> findByCompanyIdOrderByCreatedAtDesc(Long companyId);
 
+    // Summaries of a company's vehicles, newest first, optionally of one status
+    @Query(SUMMARY_SELECT + "WHERE c.id = :companyId ORDER BY v.createdAt DESC, v.id DESC")
+    List<VehicleSummaryDto> findCompanySummaries(@Param("companyId") Long companyId);
+
+    @Query(SUMMARY_SELECT + "WHERE c.id = :companyId AND v.status = :status ORDER BY v.createdAt DESC, v.id DESC")
+    List<VehicleSummaryDto> findCompanySummariesByStatus(@Param("companyId") Long companyId,
+                                                         @Param("status") Vehicle.VehicleStatus status);
+
+    // Keyset pages (see CompanyController.keysetPage)
+    @Query("SELECT v FROM Vehicle v WHERE v.company.id = :companyId ORDER BY v.createdAt DESC, v.id DESC")
+    List<Vehicle> findCompanyPage(@Param("companyId") Long companyId, Pageable pageable);
+
+    @Query("SELECT v FROM Vehicle v WHERE v.company.id = :companyId " +
+           "AND (v.createdAt < :createdAt OR (v.createdAt = :createdAt AND v.id < :id)) " +
+           "ORDER BY v.createdAt DESC, v.id DESC")
+    List<Vehicle> findCompanyPageAfter(@Param("companyId") Long companyId,
+                                       @Param("createdAt") LocalDateTime createdAt,
+                                       @Param("id") Long id,
+                                       Pageable pageable);
+
     // Find vehicles by company and status
     List<Vehicle> findByCompanyIdAndStatusOrderByCreatedAtDesc(Long companyId, Vehicle.VehicleStatus status);
 
@@ -221,4 +270,17 @@ public interface VehicleRepository extends JpaRepository<Vehicle, Long> {
     List<Vehicle> findVehiclesByCompanyAndCreatedDateRange(@Param("companyId") Long companyId, 
                                                          @Param("startDate") java.time.LocalDateTime startDate, 
                                                          @Param("endDate") java.time.LocalDateTime endDate);
-}
\ No newline at end of file
+
+    // Facet columns of every vehicle: [id, make, model, year, dailyRate, fuelType, transmission, color, seatingCapacity]
+    @Query("SELECT v.id, v.make, v.model, v.year, v.dailyRate, v.fuelType, v.transmission, v.color, v.seatingCapacity " +
+           "FROM Vehicle v")
+    List<Object[]> findFacetRows();
+
+    // Suggestion columns of every vehicle: [id, make, model, companyId]
+    @Query("SELECT v.id, v.make, v.model, v.company.id FROM Vehicle v")
+    List<Object[]> findSuggestionRows();
+
+    // Coordinates, company and status of every vehicle: [id, currentLatitude, currentLongitude, companyId, status]
+    @Query("SELECT v.id, v.currentLatitude, v.currentLongitude, v.company.id, v.status FROM Vehicle v")
+    List<Object[]> findGeoRows();
+}
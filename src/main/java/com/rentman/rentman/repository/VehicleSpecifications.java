@@ -0,0 +1,172 @@
+package com.rentman.rentman.repository;
+
+import com.rentman.rentman.entity.Company;
+import com.rentman.rentman.entity.Reservation;
+import com.rentman.rentman.entity.Vehicle;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// Dynamic criteria for the customer vehicle search, evaluated entirely in the database
+public final class VehicleSpecifications {
+
+    private VehicleSpecifications() {
+    }
+
+    // Filters accepted by the customer vehicle search; null fields are ignored
+    public record SearchCriteria(
+            Vehicle.VehicleType type,
+            String make,
+            String model,
+            Integer minYear,
+            Integer maxYear,
+            BigDecimal minRate,
+            BigDecimal maxRate,
+            String fuelType,
+            String transmission,
+            Integer minSeating,
+            Integer maxSeating,
+            String color,
+            String location,
+            Long companyId,
+            String companyName,
+            String city,
+            String state,
+            String country,
+            Boolean airConditioning,
+            Boolean gpsNavigation,
+            Boolean bluetooth,
+            Boolean usbCharging,
+            Boolean backupCamera,
+            Boolean parkingSensors,
+            Boolean sunroof,
+            Boolean leatherSeats) {
+    }
+
+    // Available vehicles of active companies matching every non-null criterion.
+    // The company is fetch-joined for an entity query so it serializes without extra loads;
+    // count and projection queries join it plainly.
+    public static Specification<Vehicle> search(SearchCriteria criteria) {
+        return (root, query, cb) -> {
+            Join<Vehicle, Company> company;
+            if (query.getResultType() == Vehicle.class) {
+                company = (Join<Vehicle, Company>) root.<Vehicle, Company>fetch("company", JoinType.INNER);
+            } else {
+                company = root.join("company", JoinType.INNER);
+            }
+
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.equal(root.get("status"), Vehicle.VehicleStatus.AVAILABLE));
+            predicates.add(cb.equal(company.get("status"), Company.CompanyStatus.ACTIVE));
+
+            if (criteria.companyId() != null) {
+                predicates.add(cb.equal(company.get("id"), criteria.companyId()));
+            }
+            if (criteria.type() != null) {
+                predicates.add(cb.equal(root.get("type"), criteria.type()));
+            }
+            addContainsIgnoreCase(predicates, cb, root, "make", criteria.make());
+            addContainsIgnoreCase(predicates, cb, root, "model", criteria.model());
+            addContainsIgnoreCase(predicates, cb, root, "currentLocation", criteria.location());
+            if (criteria.minRate() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("dailyRate"), criteria.minRate()));
+            }
+            if (criteria.maxRate() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("dailyRate"), criteria.maxRate()));
+            }
+            if (criteria.minYear() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("year"), criteria.minYear()));
+            }
+            if (criteria.maxYear() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("year"), criteria.maxYear()));
+            }
+            if (criteria.fuelType() != null) {
+                predicates.add(cb.equal(root.get("fuelType"), criteria.fuelType()));
+            }
+            if (criteria.transmission() != null) {
+                predicates.add(cb.equal(root.get("transmission"), criteria.transmission()));
+            }
+            if (criteria.minSeating() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("seatingCapacity"), criteria.minSeating()));
+            }
+            if (criteria.maxSeating() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("seatingCapacity"), criteria.maxSeating()));
+            }
+            addEqualsIgnoreCase(predicates, cb, root, "color", criteria.color());
+
+            // Feature flags
+            addFlag(predicates, cb, root, "airConditioning", criteria.airConditioning());
+            addFlag(predicates, cb, root, "gpsNavigation", criteria.gpsNavigation());
+            addFlag(predicates, cb, root, "bluetooth", criteria.bluetooth());
+            addFlag(predicates, cb, root, "usbCharging", criteria.usbCharging());
+            addFlag(predicates, cb, root, "backupCamera", criteria.backupCamera());
+            addFlag(predicates, cb, root, "parkingSensors", criteria.parkingSensors());
+            addFlag(predicates, cb, root, "sunroof", criteria.sunroof());
+            addFlag(predicates, cb, root, "leatherSeats", criteria.leatherSeats());
+
+            // Company filters
+            addContainsIgnoreCase(predicates, cb, company, "companyName", criteria.companyName());
+            addEqualsIgnoreCase(predicates, cb, company, "city", criteria.city());
+            addEqualsIgnoreCase(predicates, cb, company, "state", criteria.state());
+            addEqualsIgnoreCase(predicates, cb, company, "country", criteria.country());
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    // Vehicles with no CONFIRMED or IN_PROGRESS reservation overlapping the given dates (anti-join)
+    public static Specification<Vehicle> availableBetween(LocalDate startDate, LocalDate endDate) {
+        return (root, query, cb) -> {
+            Subquery<Long> conflicts = query.subquery(Long.class);
+            Root<Reservation> reservation = conflicts.from(Reservation.class);
+            conflicts.select(reservation.get("id"))
+                .where(
+                    cb.equal(reservation.get("vehicle"), root),
+                    reservation.get("status").in(
+                        Reservation.ReservationStatus.CONFIRMED, Reservation.ReservationStatus.IN_PROGRESS),
+                    cb.greaterThanOrEqualTo(reservation.get("endDate"), startDate),
+                    cb.lessThanOrEqualTo(reservation.get("startDate"), endDate));
+            return cb.not(cb.exists(conflicts));
+        };
+    }
+
+    // Vehicles whose attribute is one of the given values exactly, e.g. the makes a text search resolved to;
+    // no vehicle matches an empty collection
+    public static Specification<Vehicle> valueIn(String attribute, Collection<?> values) {
+        return (root, query, cb) -> values.isEmpty() ? cb.disjunction() : root.get(attribute).in(values);
+    }
+
+    private static void addContainsIgnoreCase(List<Predicate> predicates,
+                                              CriteriaBuilder cb,
+                                              From<?, ?> from, String attribute, String value) {
+        if (value != null && !value.isEmpty()) {
+            predicates.add(cb.like(cb.lower(from.get(attribute)), "%" + value.toLowerCase() + "%"));
+        }
+    }
+
+    private static void addEqualsIgnoreCase(List<Predicate> predicates,
+                                            CriteriaBuilder cb,
+                                            From<?, ?> from, String attribute, String value) {
+        if (value != null && !value.isEmpty()) {
+            predicates.add(cb.equal(cb.lower(from.get(attribute)), value.toLowerCase()));
+        }
+    }
+
+    private static void addFlag(List<Predicate> predicates,
+                                CriteriaBuilder cb,
+                                From<?, ?> from, String attribute, Boolean value) {
+        if (value != null) {
+            predicates.add(cb.equal(from.get(attribute), value));
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.rentman.rentman.repository;
+
+import com.rentman.rentman.dto.VehicleSummaryDto;
+import com.rentman.rentman.entity.Vehicle;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+// Specification queries that select VehicleSummaryDto instead of entities (implemented in VehicleSummaryRepositoryImpl)
+public interface VehicleSummaryRepository {
+
+    // One page of summaries of the vehicles matching the specification, with the total count
+    Page<VehicleSummaryDto> findSummaries(Specification<Vehicle> specification, Pageable pageable);
+}
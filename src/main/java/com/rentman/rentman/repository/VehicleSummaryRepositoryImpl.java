@@ -0,0 +1,75 @@
+package com.rentman.rentman.repository;
+
+import com.rentman.rentman.dto.VehicleSummaryDto;
+import com.rentman.rentman.entity.Company;
+import com.rentman.rentman.entity.Vehicle;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import java.util.List;
+
+// Criteria version of VehicleRepository.SUMMARY_SELECT, for the dynamic vehicle search
+class VehicleSummaryRepositoryImpl implements VehicleSummaryRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<VehicleSummaryDto> findSummaries(Specification<Vehicle> specification, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<VehicleSummaryDto> query = cb.createQuery(VehicleSummaryDto.class);
+        Root<Vehicle> vehicle = query.from(Vehicle.class);
+        Predicate predicate = specification.toPredicate(vehicle, query, cb);
+        // Reuse the specification's company join rather than adding a second one
+        Join<Vehicle, Company> company = companyJoin(vehicle);
+
+        query.select(cb.construct(VehicleSummaryDto.class,
+                vehicle.get("id"), vehicle.get("make"), vehicle.get("model"), vehicle.get("year"),
+                vehicle.get("licensePlate"), vehicle.get("type"), vehicle.get("status"), vehicle.get("dailyRate"),
+                vehicle.get("fuelType"), vehicle.get("transmission"), vehicle.get("seatingCapacity"),
+                vehicle.get("imageUrl"), vehicle.get("currentLocation"), vehicle.get("averageRating"),
+                company.get("id"), company.get("companyName")));
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), vehicle, cb));
+
+        List<VehicleSummaryDto> content = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+        // The count query only runs when the page does not already tell the total
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(specification));
+    }
+
+    private long count(Specification<Vehicle> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Vehicle> vehicle = query.from(Vehicle.class);
+        Predicate predicate = specification.toPredicate(vehicle, query, cb);
+        query.select(cb.count(vehicle));
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Join<Vehicle, Company> companyJoin(Root<Vehicle> vehicle) {
+        return vehicle.getJoins().stream()
+                .filter(join -> join.getAttribute().getName().equals("company"))
+                .map(join -> (Join<Vehicle, Company>) join)
+                .findFirst()
+                .orElseGet(() -> vehicle.join("company", JoinType.INNER));
+    }
+}
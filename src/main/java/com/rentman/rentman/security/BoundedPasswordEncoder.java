@@ -0,0 +1,154 @@
+package com.rentman.rentman.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Runs the delegate's hashing (BCrypt) on a fixed pool of threads with a bounded queue, so a login storm uses at
+// most `threads` cores and cannot tie up every request thread. Callers still wait for their own result, but only
+// while queued behind at most `queueCapacity` others; beyond that, or past the wait timeout, they get Overloaded.
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+
+    private final Timer queueWait;
+    private final Timer matchesTimer;
+    private final Timer encodeTimer;
+    private final Counter rejected;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, long timeoutMillis,
+                                  MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.timeoutMillis = timeoutMillis;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        if (meterRegistry != null) {
+            Gauge.builder("rentman.password.queue", executor, pool -> pool.getQueue().size())
+                    .description("Password hashes waiting for a thread")
+                    .register(meterRegistry);
+            Gauge.builder("rentman.password.active", executor, ThreadPoolExecutor::getActiveCount)
+                    .description("Password hashes in progress")
+                    .register(meterRegistry);
+        }
+        this.queueWait = timer(meterRegistry, "rentman.password.wait", null);
+        this.matchesTimer = timer(meterRegistry, "rentman.password.hash", "matches");
+        this.encodeTimer = timer(meterRegistry, "rentman.password.hash", "encode");
+        this.rejected = meterRegistry == null ? null : Counter.builder("rentman.password.rejected")
+                .description("Password hashes shed because the queue was full or the wait timed out")
+                .register(meterRegistry);
+    }
+
+    // Thrown instead of hashing when the pool is saturated; callers answer 429
+    public static class Overloaded extends RuntimeException {
+        public Overloaded() {
+            super("Too many concurrent sign-in requests, please retry shortly");
+        }
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> delegate.encode(rawPassword), encodeTimer);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> delegate.matches(rawPassword, encodedPassword), matchesTimer);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T submit(Callable<T> hash, Timer hashTimer) {
+        long submitted = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long started = System.nanoTime();
+                record(queueWait, started - submitted);
+                try {
+                    return hash.call();
+                } finally {
+                    record(hashTimer, System.nanoTime() - started);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            increment(rejected);
+            throw new Overloaded();
+        }
+
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Still queued: drop it so the thread is not spent on an answer nobody waits for
+            future.cancel(false);
+            executor.remove((Runnable) future);
+            increment(rejected);
+            throw new Overloaded();
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new Overloaded();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String name, String operation) {
+        if (meterRegistry == null) {
+            return null;
+        }
+        Timer.Builder builder = Timer.builder(name).publishPercentiles(0.5, 0.95, 0.99);
+        if (operation != null) {
+            builder.tag("operation", operation);
+        }
+        return builder.register(meterRegistry);
+    }
+
+    private static void record(Timer timer, long nanos) {
+        if (timer != null) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static void increment(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+}
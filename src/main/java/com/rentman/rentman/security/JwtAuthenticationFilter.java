@@ -1,6 +1,9 @@
 package com.rentman.rentman.security;
 
 import com.rentman.rentman.service.CustomUserDetailsService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,14 +11,23 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -28,6 +40,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private CustomUserDetailsService userDetailsService;
 
+    // Tokens whose signature was already verified, keyed by SHA-256 of the token
+    private final Cache<String, VerifiedToken> verifiedTokens;
+
+    public JwtAuthenticationFilter(@Value("${security.token-cache.max-size:10000}") long maxSize,
+                                   @Value("${security.token-cache.ttl-seconds:600}") long ttlSeconds) {
+        this.verifiedTokens = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, 
                                   FilterChain filterChain) throws ServletException, IOException {
@@ -35,21 +59,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         final String authorizationHeader = request.getHeader("Authorization");
 
         String username = null;
-        String jwt = null;
 
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
+            String jwt = authorizationHeader.substring(7);
             try {
-                username = jwtUtil.extractUsername(jwt);
+                username = verifyToken(jwt);
             } catch (Exception e) {
                 logger.error("JWT token is invalid or expired", e);
             }
         }
 
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+            UserDetails userDetails = loadActiveUser(username);
 
-            if (jwtUtil.validateToken(jwt, userDetails)) {
+            if (userDetails != null && username.equals(userDetails.getUsername())) {
                 UsernamePasswordAuthenticationToken authToken = 
                     new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -59,4 +82,54 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    // Returns the token subject, parsing the JWT only the first time it is seen
+    private String verifyToken(String jwt) {
+        String key = hash(jwt);
+        VerifiedToken cached = verifiedTokens.getIfPresent(key);
+        if (cached != null) {
+            if (cached.expiresAt() > System.currentTimeMillis()) {
+                return cached.username();
+            }
+            verifiedTokens.invalidate(key);
+            return null;
+        }
+
+        JwtUtil.TokenClaims claims = jwtUtil.parseToken(jwt);
+        verifiedTokens.put(key, new VerifiedToken(claims.subject(), claims.expiration().getTime()));
+        return claims.subject();
+    }
+
+    // The token's user, or null when it was deleted, disabled or locked after the token was issued. Changes to a user
+    // evict its cached principal, so a still-valid token stops working on the next request.
+    private UserDetails loadActiveUser(String username) {
+        try {
+            UserDetails userDetails = userDetailsService.loadCachedUserByUsername(username);
+            return userDetails.isEnabled() && userDetails.isAccountNonLocked() ? userDetails : null;
+        } catch (UsernameNotFoundException e) {
+            return null;
+        }
+    }
+
+    public Map<String, Object> getTokenCacheStatistics() {
+        CacheStats stats = verifiedTokens.stats();
+        Map<String, Object> result = new HashMap<>();
+        result.put("size", verifiedTokens.estimatedSize());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("evictions", stats.evictionCount());
+        return result;
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record VerifiedToken(String username, long expiresAt) {
+    }
 }
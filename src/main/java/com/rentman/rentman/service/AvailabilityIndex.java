@@ -0,0 +1,296 @@
+package com.rentman.rentman.service;
+
+import com.rentman.rentman.entity.Reservation;
+import com.rentman.rentman.repository.ReservationRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// In-memory calendar of blocking (CONFIRMED / IN_PROGRESS) reservations per vehicle.
+// Answers overlap queries without SQL once warmed; ranges before the warm-up horizon fall back to the database.
+// Rebuilds and committed changes run in order on a single indexer thread: a rebuild loads a new calendar off to the
+// side and publishes it in one swap, and changes committed while it loaded are applied to it afterwards.
+@Component
+public class AvailabilityIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvailabilityIndex.class);
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    // Null until the first rebuild; replaced whole by each rebuild, then updated only by the indexer thread
+    private volatile Snapshot snapshot;
+
+    private final ExecutorService indexer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "availability-indexer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicInteger pendingUpdates = new AtomicInteger();
+
+    // Metrics
+    private final AtomicLong indexHits = new AtomicLong();
+    private final AtomicLong databaseFallbacks = new AtomicLong();
+    private final AtomicLong rebuildCount = new AtomicLong();
+    private volatile long lastRebuildMillis;
+    private volatile LocalDateTime lastRebuildAt;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            logger.error("Failed to warm up availability index, falling back to database checks: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        indexer.shutdownNow();
+    }
+
+    // Reload every blocking reservation that ends today or later
+    public void rebuild() {
+        onIndexer(this::reload, "rebuild");
+    }
+
+    // Wait until the changes committed so far are applied
+    public void awaitPendingUpdates() {
+        onIndexer(() -> null, "catch up");
+    }
+
+    // Same semantics as ReservationRepository.countConflictingReservations == 0
+    public boolean isAvailable(Long vehicleId, LocalDate startDate, LocalDate endDate) {
+        Snapshot current = snapshot;
+        if (current == null || startDate.isBefore(current.horizon())) {
+            databaseFallbacks.incrementAndGet();
+            return reservationRepository.countConflictingReservations(vehicleId, startDate, endDate) == 0;
+        }
+
+        indexHits.incrementAndGet();
+        VehicleCalendar vehicleCalendar = current.vehicles().get(vehicleId);
+        return vehicleCalendar == null || !vehicleCalendar.overlaps(startDate, endDate);
+    }
+
+    // Reflect the reservation's current state once the surrounding transaction commits
+    public void record(Reservation reservation) {
+        Booking booking = new Booking(reservation.getId(), reservation.getVehicle().getId(),
+                reservation.getStartDate(), reservation.getEndDate());
+        boolean blocking = reservation.isActive();
+
+        afterCommit(() -> enqueue(current -> {
+            current.remove(booking.reservationId());
+            if (blocking) {
+                current.add(booking);
+            }
+        }));
+    }
+
+    // Drop a reservation from the index once the surrounding transaction commits
+    public void forget(Long reservationId) {
+        afterCommit(() -> enqueue(current -> current.remove(reservationId)));
+    }
+
+    // Compare the index with the database and report any drift. Runs after the changes committed so far are applied,
+    // so only changes committed while it runs can show up as drift.
+    public Map<String, Object> checkConsistency() {
+        return onIndexer(this::compare, "consistency check");
+    }
+
+    public Map<String, Object> getStatistics() {
+        Snapshot current = snapshot;
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("ready", current != null);
+        stats.put("horizon", current != null ? current.horizon() : null);
+        stats.put("indexedVehicles", current != null ? current.vehicles().size() : 0);
+        stats.put("indexedReservations", current != null ? current.bookings().size() : 0);
+        stats.put("pendingUpdates", pendingUpdates.get());
+        stats.put("indexHits", indexHits.get());
+        stats.put("databaseFallbacks", databaseFallbacks.get());
+        stats.put("rebuildCount", rebuildCount.get());
+        stats.put("lastRebuildMillis", lastRebuildMillis);
+        stats.put("lastRebuildAt", lastRebuildAt);
+        return stats;
+    }
+
+    // ========== INTERNALS ==========
+
+    // Indexer thread only
+    private Void reload() {
+        long started = System.nanoTime();
+        LocalDate today = LocalDate.now();
+
+        Snapshot loaded = new Snapshot(today);
+        for (Object[] row : reservationRepository.findBlockingReservationRanges(today)) {
+            loaded.add(toBooking(row));
+        }
+        snapshot = loaded;
+
+        lastRebuildMillis = (System.nanoTime() - started) / 1_000_000;
+        lastRebuildAt = LocalDateTime.now();
+        rebuildCount.incrementAndGet();
+        logger.info("Availability index rebuilt with {} reservations for {} vehicles in {} ms",
+                loaded.bookings().size(), loaded.vehicles().size(), lastRebuildMillis);
+        return null;
+    }
+
+    // Indexer thread only
+    private Map<String, Object> compare() {
+        Snapshot current = snapshot;
+        LocalDate checkFrom = current != null ? current.horizon() : LocalDate.now();
+        Map<Long, Booking> indexed = current != null ? current.bookings() : Map.of();
+        Map<Long, Booking> expected = new HashMap<>();
+        for (Object[] row : reservationRepository.findBlockingReservationRanges(checkFrom)) {
+            Booking booking = toBooking(row);
+            expected.put(booking.reservationId(), booking);
+        }
+
+        long missing = expected.values().stream()
+                .filter(booking -> !booking.equals(indexed.get(booking.reservationId())))
+                .count();
+        long stale = indexed.values().stream()
+                .filter(booking -> !booking.endDate().isBefore(checkFrom))
+                .filter(booking -> !expected.containsKey(booking.reservationId()))
+                .count();
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("checkedFrom", checkFrom);
+        result.put("databaseReservations", expected.size());
+        result.put("missingOrChanged", missing);
+        result.put("stale", stale);
+        result.put("consistent", missing == 0 && stale == 0);
+        return result;
+    }
+
+    // A change to a calendar that is not built yet is dropped: the first rebuild reads it from the database
+    private void enqueue(Consumer<Snapshot> change) {
+        pendingUpdates.incrementAndGet();
+        indexer.execute(() -> {
+            try {
+                Snapshot current = snapshot;
+                if (current != null) {
+                    change.accept(current);
+                }
+            } catch (RuntimeException e) {
+                logger.error("Failed to apply a change to the availability index: {}", e.getMessage());
+            } finally {
+                pendingUpdates.decrementAndGet();
+            }
+        });
+    }
+
+    private <T> T onIndexer(Callable<T> task, String action) {
+        try {
+            return indexer.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during availability index " + action, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Availability index " + action + " failed: " + e.getCause().getMessage(),
+                    e.getCause());
+        }
+    }
+
+    private static Booking toBooking(Object[] row) {
+        return new Booking((Long) row[0], (Long) row[1], (LocalDate) row[2], (LocalDate) row[3]);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    record Booking(Long reservationId, Long vehicleId, LocalDate startDate, LocalDate endDate) {
+    }
+
+    // Blocking reservations ending on or after the horizon, by reservation and by vehicle. Written by the indexer
+    // thread only; the concurrent maps and the synchronized vehicle calendars make it safe to read from any thread.
+    record Snapshot(LocalDate horizon, Map<Long, VehicleCalendar> vehicles, Map<Long, Booking> bookings) {
+
+        Snapshot(LocalDate horizon) {
+            this(horizon, new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+        }
+
+        void add(Booking booking) {
+            bookings.put(booking.reservationId(), booking);
+            vehicles.computeIfAbsent(booking.vehicleId(), id -> new VehicleCalendar()).add(booking);
+        }
+
+        void remove(Long reservationId) {
+            Booking previous = bookings.remove(reservationId);
+            if (previous != null) {
+                VehicleCalendar vehicleCalendar = vehicles.get(previous.vehicleId());
+                if (vehicleCalendar != null) {
+                    vehicleCalendar.remove(previous);
+                }
+            }
+        }
+    }
+
+    // Bookings of one vehicle ordered by start date. Overlap lookups only scan starts within
+    // the longest booked span before the requested end, so they stay O(log n + k).
+    static class VehicleCalendar {
+
+        private final NavigableMap<LocalDate, Map<Long, LocalDate>> byStart = new TreeMap<>();
+        private long longestSpanDays = 0;
+
+        synchronized void add(Booking booking) {
+            byStart.computeIfAbsent(booking.startDate(), date -> new HashMap<>())
+                    .put(booking.reservationId(), booking.endDate());
+            longestSpanDays = Math.max(longestSpanDays,
+                    ChronoUnit.DAYS.between(booking.startDate(), booking.endDate()));
+        }
+
+        synchronized void remove(Booking booking) {
+            Map<Long, LocalDate> sameStart = byStart.get(booking.startDate());
+            if (sameStart != null) {
+                sameStart.remove(booking.reservationId());
+                if (sameStart.isEmpty()) {
+                    byStart.remove(booking.startDate());
+                }
+            }
+        }
+
+        // Inclusive overlap, matching "NOT (r.endDate < start OR r.startDate > end)"
+        synchronized boolean overlaps(LocalDate startDate, LocalDate endDate) {
+            LocalDate earliestStart = startDate.minusDays(longestSpanDays);
+            for (Map<Long, LocalDate> sameStart : byStart.subMap(earliestStart, true, endDate, true).values()) {
+                for (LocalDate bookedEnd : sameStart.values()) {
+                    if (!bookedEnd.isBefore(startDate)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.rentman.rentman.service;
+
+import com.rentman.rentman.entity.BusinessNumberGenerator;
+import com.rentman.rentman.entity.Company;
+import com.rentman.rentman.entity.Invoice;
+import com.rentman.rentman.entity.InvoiceItem;
+import com.rentman.rentman.repository.CompanyRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.exception.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Month-end subscription billing for every due company. Companies are read a page at a time, their invoices and
+// items built in memory and inserted as JDBC batches, one transaction per page. A run is restartable: companies
+// already invoiced for the period are skipped, so re-running after a failure bills only the remainder. The
+// uk_invoice_company_type_period index keeps runs on several nodes from billing a company twice: a page that
+// collides with another node's invoices is rolled back and billed again without the companies it already billed.
+@Service
+public class BillingRunService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BillingRunService.class);
+
+    private static final String BILLING_PERIOD_CONSTRAINT = "uk_invoice_company_type_period";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private CompanyRepository companyRepository;
+
+    @Autowired
+    private BusinessNumberGenerator businessNumberGenerator;
+
+    @Autowired
+    private CompanyDashboardSnapshot dashboardSnapshot;
+
+    private final TransactionTemplate pageTransaction;
+    private final int pageSize;
+
+    private final AtomicReference<BillingRun> currentRun = new AtomicReference<>();
+    private volatile BillingRun lastRun;
+
+    public BillingRunService(PlatformTransactionManager transactionManager,
+                             @Value("${rentman.billing.page-size:200}") int pageSize) {
+        this.pageTransaction = new TransactionTemplate(transactionManager);
+        this.pageSize = pageSize;
+    }
+
+    // Bill the current calendar month; disabled unless rentman.billing.cron is set
+    @Scheduled(cron = "${rentman.billing.cron:-}")
+    public void scheduledRun() {
+        try {
+            run(LocalDate.now().withDayOfMonth(1));
+        } catch (Exception e) {
+            logger.error("Scheduled billing run failed: {}", e.getMessage());
+        }
+    }
+
+    // Start a run for the month beginning at periodStart on a background thread and return its initial progress
+    public Map<String, Object> startRun(LocalDate periodStart) {
+        BillingRun run = begin(periodStart);
+        Thread.ofVirtual().name("billing-run-" + periodStart).start(() -> execute(run));
+        return run.toMap();
+    }
+
+    // Run a billing run on the calling thread and return its final progress
+    public Map<String, Object> run(LocalDate periodStart) {
+        BillingRun run = begin(periodStart);
+        execute(run);
+        if (run.failure != null) {
+            throw new RuntimeException("Billing run failed: " + run.failure);
+        }
+        return run.toMap();
+    }
+
+    // Progress of the run in flight, or of the last finished run
+    public Map<String, Object> getProgress() {
+        BillingRun run = currentRun.get();
+        if (run == null) {
+            run = lastRun;
+        }
+        Map<String, Object> progress = run == null ? new HashMap<>() : run.toMap();
+        progress.put("pageSize", pageSize);
+        return progress;
+    }
+
+    // ========== RUN EXECUTION ==========
+
+    private BillingRun begin(LocalDate periodStart) {
+        if (periodStart.getDayOfMonth() != 1) {
+            throw new RuntimeException("Billing period must start on the first day of a month: " + periodStart);
+        }
+        BillingRun run = new BillingRun(periodStart, periodStart.plusMonths(1).minusDays(1));
+        if (!currentRun.compareAndSet(null, run)) {
+            throw new RuntimeException("A billing run is already in progress for " + currentRun.get().periodStart);
+        }
+        return run;
+    }
+
+    private void execute(BillingRun run) {
+        logger.info("Billing run for {} to {} started", run.periodStart, run.periodEnd);
+        try {
+            while (true) {
+                Integer billed;
+                try {
+                    billed = pageTransaction.execute(status -> billPage(run));
+                } catch (RuntimeException e) {
+                    if (!isAlreadyBilled(e)) {
+                        throw e;
+                    }
+                    run.pagesRetried++;
+                    logger.info("Billing run for {}: a company after {} was billed concurrently, retrying the page",
+                            run.periodStart, run.lastCompanyId);
+                    continue;
+                }
+                run.pages++;
+                if (billed == null || billed < pageSize) {
+                    break;
+                }
+            }
+            run.finish(null);
+            logger.info("Billing run for {} finished: {} companies invoiced in {} pages, {} ms ({} invoices/s)",
+                    run.periodStart, run.invoicesCreated, run.pages, run.elapsedMillis(),
+                    String.format("%.1f", run.invoicesPerSecond()));
+        } catch (Exception e) {
+            run.finish(e.getMessage());
+            logger.error("Billing run for {} failed after {} invoices (last company {}): {}",
+                    run.periodStart, run.invoicesCreated, run.lastCompanyId, e.getMessage());
+        } finally {
+            lastRun = run;
+            currentRun.set(null);
+        }
+    }
+
+    // One page of companies: build every invoice in memory, then persist them all in one flush so Hibernate
+    // sends the invoice and item inserts as JDBC batches (sequence ids, hibernate.jdbc.batch_size, order_inserts)
+    private int billPage(BillingRun run) {
+        List<Company> companies = companyRepository.findDueForBilling(run.lastCompanyId, run.periodStart,
+                run.periodStart.atStartOfDay(), PageRequest.of(0, pageSize));
+        for (Company company : companies) {
+            entityManager.persist(buildSubscriptionInvoice(company, run.periodStart, run.periodEnd));
+            dashboardSnapshot.invalidate(company.getId(), CompanyDashboardSnapshot.Section.INVOICES);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        if (!companies.isEmpty()) {
+            run.lastCompanyId = companies.get(companies.size() - 1).getId();
+            run.invoicesCreated += companies.size();
+        }
+        return companies.size();
+    }
+
+    // Whether the failure is another run's invoice for the same company and period, committed before ours
+    private static boolean isAlreadyBilled(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null
+                    && violation.getConstraintName().toLowerCase().contains(BILLING_PERIOD_CONSTRAINT)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Same invoice and item as InvoiceService.createSubscriptionInvoice, with amounts computed from the item in memory
+    private Invoice buildSubscriptionInvoice(Company company, LocalDate periodStart, LocalDate periodEnd) {
+        LocalDate today = LocalDate.now();
+        Invoice invoice = new Invoice();
+        invoice.setCompany(company);
+        invoice.setInvoiceNumber(businessNumberGenerator.nextInvoiceNumber());
+        invoice.setType(Invoice.InvoiceType.SUBSCRIPTION);
+        invoice.setStatus(Invoice.InvoiceStatus.PENDING);
+        invoice.setDescription("Monthly subscription fee for " + company.getCompanyName());
+        invoice.setBillingPeriodStart(periodStart);
+        invoice.setBillingPeriodEnd(periodEnd);
+        invoice.setInvoiceDate(today);
+        invoice.setDueDate(today.plusDays(30));
+
+        InvoiceItem item = new InvoiceItem();
+        item.setInvoice(invoice);
+        item.setItemName("Subscription Fee - " + company.getSubscriptionPlan().getDisplayName());
+        item.setDescription("Monthly subscription for " + periodStart + " to " + periodEnd);
+        item.setQuantity(1);
+        item.setUnitPrice(company.getMonthlyFee());
+        item.setTotalPrice(company.getMonthlyFee());
+        item.setItemType(InvoiceItem.ItemType.SUBSCRIPTION_FEE);
+        item.setReferenceId(company.getId());
+        item.setReferenceType("COMPANY");
+        invoice.setInvoiceItems(List.of(item));
+
+        InvoiceService.applyInvoiceAmounts(invoice, company.getMonthlyFee());
+        return invoice;
+    }
+
+    private static class BillingRun {
+
+        private final LocalDate periodStart;
+        private final LocalDate periodEnd;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final long startedNanos = System.nanoTime();
+        private volatile long lastCompanyId = 0;
+        private volatile long invoicesCreated = 0;
+        private volatile int pages = 0;
+        private volatile int pagesRetried = 0;
+        private volatile LocalDateTime finishedAt;
+        private volatile long finishedNanos;
+        private volatile String failure;
+
+        BillingRun(LocalDate periodStart, LocalDate periodEnd) {
+            this.periodStart = periodStart;
+            this.periodEnd = periodEnd;
+        }
+
+        void finish(String failure) {
+            this.failure = failure;
+            this.finishedNanos = System.nanoTime();
+            this.finishedAt = LocalDateTime.now();
+        }
+
+        long elapsedMillis() {
+            long end = finishedAt == null ? System.nanoTime() : finishedNanos;
+            return TimeUnit.NANOSECONDS.toMillis(end - startedNanos);
+        }
+
+        double invoicesPerSecond() {
+            return invoicesCreated * 1000.0 / Math.max(1, elapsedMillis());
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>();
+            map.put("periodStart", periodStart);
+            map.put("periodEnd", periodEnd);
+            map.put("status", finishedAt == null ? "RUNNING" : failure == null ? "COMPLETED" : "FAILED");
+            map.put("invoicesCreated", invoicesCreated);
+            map.put("pages", pages);
+            map.put("pagesRetried", pagesRetried);
+            map.put("lastCompanyId", lastCompanyId);
+            map.put("startedAt", startedAt);
+            map.put("finishedAt", finishedAt);
+            map.put("elapsedMillis", elapsedMillis());
+            map.put("invoicesPerSecond", Math.round(invoicesPerSecond() * 10) / 10.0);
+            map.put("failure", failure);
+            return map;
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package com.rentman.rentman.service;
+
+import com.rentman.rentman.entity.Company;
+import com.rentman.rentman.repository.CompanyRepository;
+import com.rentman.rentman.repository.DefectRepository;
+import com.rentman.rentman.repository.InvoiceRepository;
+import com.rentman.rentman.repository.MaintenanceRepository;
+import com.rentman.rentman.repository.ReservationRepository;
+import com.rentman.rentman.repository.UserRepository;
+import com.rentman.rentman.repository.VehicleRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Materialized company dashboard, kept per company as independent sections.
+// Service state transitions invalidate only the sections they affect once their transaction commits,
+// so a read reloads just those sections; clean sections are served from memory until the TTL expires.
+// Stale sections are loaded through ParallelQueryRunner, one call per dashboard entry.
+@Component
+public class CompanyDashboardSnapshot {
+
+    public enum Section {
+        COMPANY, VEHICLES, RESERVATIONS, USERS, MAINTENANCE, DEFECTS, INVOICES
+    }
+
+    @Autowired
+    private CompanyRepository companyRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MaintenanceRepository maintenanceRepository;
+
+    @Autowired
+    private DefectRepository defectRepository;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private ParallelQueryRunner queryRunner;
+
+    @Autowired
+    private SharedCaches sharedCaches;
+
+    private final long ttlMillis;
+    private final Map<Long, CompanySnapshot> snapshots = new ConcurrentHashMap<>();
+
+    // Metrics
+    private final AtomicLong snapshotHits = new AtomicLong();
+    private final AtomicLong sectionLoads = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public CompanyDashboardSnapshot(@Value("${rentman.dashboard.snapshot-ttl-seconds:30}") long ttlSeconds) {
+        this.ttlMillis = ttlSeconds * 1000;
+    }
+
+    // Full dashboard for a company, or null if the company does not exist
+    public Map<String, Object> getDashboard(Long companyId) {
+        CompanySnapshot snapshot = snapshots.computeIfAbsent(companyId, id -> new CompanySnapshot());
+        LocalDate today = LocalDate.now();
+
+        Map<String, Object> dashboard = snapshot.readIfFresh(today, ttlMillis);
+        if (dashboard != null) {
+            snapshotHits.incrementAndGet();
+            return dashboard;
+        }
+
+        synchronized (snapshot) {
+            dashboard = snapshot.refresh(companyId, today, ttlMillis);
+        }
+        if (dashboard == null) {
+            snapshots.remove(companyId, snapshot);
+        }
+        return dashboard;
+    }
+
+    // ========== STATE TRANSITIONS ==========
+
+    // Reservations, maintenance and defects move vehicles between statuses, so the dashboard's vehicle counts go
+    // stale, but cached search results are left to expire: clearing them on every booking would empty the search
+    // cache on all nodes many times per TTL
+    public void reservationChanged(Company company) {
+        invalidate(company, false, Section.RESERVATIONS, Section.VEHICLES);
+    }
+
+    public void maintenanceChanged(Company company) {
+        invalidate(company, false, Section.MAINTENANCE, Section.VEHICLES);
+    }
+
+    public void defectChanged(Company company) {
+        invalidate(company, false, Section.DEFECTS, Section.VEHICLES);
+    }
+
+    public void invoiceChanged(Company company) {
+        invalidate(company, Section.INVOICES);
+    }
+
+    public void vehicleChanged(Company company) {
+        invalidate(company, Section.VEHICLES);
+    }
+
+    public void userChanged(Company company) {
+        invalidate(company, Section.USERS);
+    }
+
+    // Drop the sections once the surrounding transaction commits, so a concurrent read cannot cache pre-commit data.
+    // Company and vehicle changes also clear the cached search results.
+    public void invalidate(Company company, Section... sections) {
+        invalidate(company, true, sections);
+    }
+
+    public void invalidate(Long companyId, Section... sections) {
+        invalidate(companyId, true, sections);
+    }
+
+    private void invalidate(Company company, boolean searchable, Section... sections) {
+        if (company != null) {
+            invalidate(company.getId(), searchable, sections);
+        }
+    }
+
+    private void invalidate(Long companyId, boolean searchable, Section... sections) {
+        if (companyId == null) {
+            return;
+        }
+        Runnable action = () -> {
+            CompanySnapshot snapshot = snapshots.get(companyId);
+            if (snapshot != null) {
+                for (Section section : sections) {
+                    snapshot.invalidate(section);
+                }
+            }
+            // Responses cached across nodes that depend on the same data
+            sharedCaches.companyDataChanged(companyId, searchable, sections);
+            invalidations.incrementAndGet();
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    public void evictCompany(Long companyId) {
+        snapshots.remove(companyId);
+        invalidate(companyId, Section.values());
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("companies", snapshots.size());
+        stats.put("ttlSeconds", ttlMillis / 1000);
+        stats.put("snapshotHits", snapshotHits.get());
+        stats.put("sectionLoads", sectionLoads.get());
+        stats.put("invalidations", invalidations.get());
+        return stats;
+    }
+
+    // ========== SECTION LOADING ==========
+
+    // Independent repository calls behind one section, keyed by their dashboard entry
+    private Map<String, Supplier<?>> sectionQueries(Long companyId, Section section, LocalDate today) {
+        Map<String, Supplier<?>> queries = new LinkedHashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime thirtyDaysAgo = now.minusDays(30);
+
+        switch (section) {
+            case COMPANY -> queries.put("company", () -> companyRepository.findById(companyId).orElse(null));
+            case VEHICLES -> {
+                queries.put("vehicleStatistics", () -> vehicleRepository.getVehicleStatisticsByCompany(companyId));
+                queries.put("recentVehicles", withCompany(companyId, () -> vehicleRepository.findVehiclesByCompanyAndCreatedDateRange(companyId, thirtyDaysAgo, now)));
+                queries.put("vehiclesNeedingMaintenance", withCompany(companyId, () -> vehicleRepository.findVehiclesNeedingMaintenanceByCompany(companyId, today)));
+            }
+            case RESERVATIONS -> {
+                queries.put("reservationStatistics", () -> reservationRepository.getReservationStatisticsByCompany(companyId));
+                queries.put("recentReservations", withCompany(companyId, () -> reservationRepository.findRecentReservationsByCompany(companyId, thirtyDaysAgo)));
+                queries.put("upcomingReservations", withCompany(companyId, () -> reservationRepository.findUpcomingReservationsByCompany(companyId, today, today.plusDays(7))));
+                queries.put("todayPickups", withCompany(companyId, () -> reservationRepository.findReservationsPendingPickupByCompany(companyId, today)));
+                queries.put("todayReturns", withCompany(companyId, () -> reservationRepository.findReservationsPendingReturnByCompany(companyId, today)));
+                queries.put("overdueReservations", withCompany(companyId, () -> reservationRepository.findOverdueReservationsByCompany(companyId, today)));
+            }
+            case USERS -> {
+                queries.put("userStatistics", () -> userRepository.getUserStatisticsByCompany(companyId));
+                queries.put("recentEmployees", withCompany(companyId, () -> userRepository.findUsersByCompanyAndCreatedDateRange(companyId, thirtyDaysAgo, now)));
+            }
+            case MAINTENANCE -> queries.put("maintenanceStatistics", () -> maintenanceRepository.getMaintenanceStatisticsByCompany(companyId));
+            case DEFECTS -> {
+                queries.put("defectStatistics", () -> defectRepository.getDefectStatisticsByCompany(companyId));
+                queries.put("criticalDefects", withCompany(companyId, () -> defectRepository.findCriticalDefectsByCompany(companyId)));
+            }
+            case INVOICES -> queries.put("invoiceStatistics", () -> invoiceRepository.getInvoiceStatisticsByCompany(companyId));
+        }
+        return queries;
+    }
+
+    // Load the company into the persistence context first, so entity lists serialize their company
+    // as they did when the whole dashboard was read in one request; a cache hit when run sequentially
+    private Supplier<?> withCompany(Long companyId, Supplier<?> query) {
+        return () -> {
+            companyRepository.findById(companyId);
+            return query.get();
+        };
+    }
+
+    private record SectionData(Map<String, Object> values, Map<String, Long> timings, LocalDate day, long loadedAtMillis) {
+
+        boolean isFresh(LocalDate today, long ttlMillis) {
+            return day.equals(today) && System.currentTimeMillis() - loadedAtMillis < ttlMillis;
+        }
+    }
+
+    // Sections of one company. Each section carries a generation that invalidation bumps,
+    // so a load that raced with a commit never overwrites the invalidation with older data.
+    private class CompanySnapshot {
+
+        private final Map<Section, SectionData> sections = new ConcurrentHashMap<>();
+        private final Map<Section, AtomicLong> generations = new EnumMap<>(Section.class);
+
+        CompanySnapshot() {
+            for (Section section : Section.values()) {
+                generations.put(section, new AtomicLong());
+            }
+        }
+
+        Map<String, Object> readIfFresh(LocalDate today, long ttlMillis) {
+            Map<String, Object> dashboard = new HashMap<>();
+            Map<String, Long> timings = new LinkedHashMap<>();
+            for (Section section : Section.values()) {
+                SectionData data = sections.get(section);
+                if (data == null || !data.isFresh(today, ttlMillis)) {
+                    return null;
+                }
+                dashboard.putAll(data.values());
+                timings.putAll(data.timings());
+            }
+            dashboard.put("timings", timings);
+            return dashboard;
+        }
+
+        // Reload stale sections only, together with the company. A section whose calls all
+        // succeeded is cached; one with a failed or timed-out call is returned partially and retried on the next read.
+        Map<String, Object> refresh(Long companyId, LocalDate today, long ttlMillis) {
+            Map<Section, SectionData> current = new EnumMap<>(Section.class);
+            List<Section> stale = new ArrayList<>();
+            for (Section section : Section.values()) {
+                SectionData data = sections.get(section);
+                if (data == null || !data.isFresh(today, ttlMillis)) {
+                    stale.add(section);
+                } else {
+                    current.put(section, data);
+                }
+            }
+            if (!stale.isEmpty() && !stale.contains(Section.COMPANY)) {
+                stale.add(0, Section.COMPANY);
+            }
+
+            Map<Section, Long> startGenerations = new EnumMap<>(Section.class);
+            Map<Section, Set<String>> keysBySection = new EnumMap<>(Section.class);
+            Map<String, Supplier<?>> queries = new LinkedHashMap<>();
+            for (Section section : stale) {
+                startGenerations.put(section, generations.get(section).get());
+                Map<String, Supplier<?>> sectionQueries = sectionQueries(companyId, section, today);
+                keysBySection.put(section, sectionQueries.keySet());
+                queries.putAll(sectionQueries);
+            }
+            sectionLoads.addAndGet(stale.size());
+            ParallelQueryRunner.QueryResults results = queryRunner.run(queries);
+
+            if (!results.failed().contains("company") && results.values().get("company") == null) {
+                sections.clear();
+                return null;
+            }
+
+            Map<String, Object> dashboard = new HashMap<>();
+            Map<String, Long> timings = new LinkedHashMap<>();
+            for (Section section : Section.values()) {
+                SectionData data = current.get(section);
+                if (keysBySection.containsKey(section)) {
+                    Map<String, Object> values = new HashMap<>();
+                    Map<String, Long> sectionTimings = new LinkedHashMap<>();
+                    for (String key : keysBySection.get(section)) {
+                        values.put(key, results.values().get(key));
+                        sectionTimings.put(key, results.timings().get(key));
+                    }
+                    data = new SectionData(Collections.unmodifiableMap(values), Collections.unmodifiableMap(sectionTimings),
+                            today, System.currentTimeMillis());
+                    if (keysBySection.get(section).stream().noneMatch(results.failed()::contains)) {
+                        sections.put(section, data);
+                        if (generations.get(section).get() != startGenerations.get(section)) {
+                            sections.remove(section, data);
+                        }
+                    }
+                }
+                dashboard.putAll(data.values());
+                timings.putAll(data.timings());
+            }
+            dashboard.put("timings", timings);
+            if (!results.isComplete()) {
+                dashboard.put("unavailable", results.failed());
+            }
+            return dashboard;
+        }
+
+        void invalidate(Section section) {
+            generations.get(section).incrementAndGet();
+            sections.remove(section);
+        }
+    }
+}
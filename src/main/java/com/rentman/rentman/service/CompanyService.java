@@ -19,8 +19,11 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @Transactional
@@ -41,6 +44,12 @@ public class CompanyService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private CompanyDashboardSnapshot dashboardSnapshot;
+
+    @Autowired
+    private TextSearchIndex textSearchIndex;
+
     // ========== COMPANY CRUD OPERATIONS ==========
 
     public Company createCompany(Company company) {
@@ -74,7 +83,7 @@ public class CompanyService {
         company.setMaxEmployees(plan.getMaxEmployees());
         company.setMonthlyFee(plan.getMonthlyFee());
 
-        return companyRepository.save(company);
+        return saveCompany(company);
     }
 
     // Register company with admin user
@@ -117,6 +126,8 @@ public class CompanyService {
         company.setState(request.getState());
         company.setPostalCode(request.getPostalCode());
         company.setCountry(request.getCountry());
+        company.setLatitude(request.getLatitude());
+        company.setLongitude(request.getLongitude());
         company.setBusinessType(request.getBusinessType());
         company.setDescription(request.getDescription());
         company.setContactPersonName(request.getContactPersonName());
@@ -133,6 +144,7 @@ public class CompanyService {
         company.setMonthlyFee(plan.getMonthlyFee());
 
         Company savedCompany = companyRepository.save(company);
+        dashboardSnapshot.invalidate(savedCompany, CompanyDashboardSnapshot.Section.COMPANY);
 
         // Create admin user
         User adminUser = new User();
@@ -185,6 +197,8 @@ public class CompanyService {
         company.setState(companyDetails.getState());
         company.setPostalCode(companyDetails.getPostalCode());
         company.setCountry(companyDetails.getCountry());
+        company.setLatitude(companyDetails.getLatitude());
+        company.setLongitude(companyDetails.getLongitude());
         company.setDescription(companyDetails.getDescription());
         company.setLogoUrl(companyDetails.getLogoUrl());
         company.setOperatingHoursStart(companyDetails.getOperatingHoursStart());
@@ -194,7 +208,7 @@ public class CompanyService {
         company.setContactPersonTitle(companyDetails.getContactPersonTitle());
         company.setEmergencyContact(companyDetails.getEmergencyContact());
 
-        return companyRepository.save(company);
+        return saveCompany(company);
     }
 
     public Company getCompanyById(Long id) {
@@ -208,7 +222,47 @@ public class CompanyService {
 
     public Page<Company> searchCompanies(String companyName, String city, String state, 
                                        String country, Company.CompanyStatus status, Pageable pageable) {
-        return companyRepository.searchCompanies(companyName, city, state, country, status, pageable);
+        return searchCompanies(companyName, TextSearchIndex.MatchMode.SUBSTRING, city, state, country, status, pageable);
+    }
+
+    // The name is matched by the text search index and handed to the database as ids; a substring matching more
+    // companies than fit in one IN list is left to the LIKE query. Other modes have no LIKE equivalent: their
+    // matches are run through the remaining filters an IN list at a time, best first, and the best of those that
+    // pass are kept, so the cut never drops a company the filters ask for in favour of one they reject.
+    public Page<Company> searchCompanies(String companyName, TextSearchIndex.MatchMode match, String city, String state,
+                                         String country, Company.CompanyStatus status, Pageable pageable) {
+        if (companyName == null || companyName.isBlank()) {
+            return companyRepository.searchCompanies(null, city, state, country, status, pageable);
+        }
+        int maxIds = textSearchIndex.getMaxFilterValues();
+        List<Long> ids = textSearchIndex.searchCompanies(companyName, match, maxIds + 1);
+        if (ids.size() > maxIds) {
+            if (match == TextSearchIndex.MatchMode.SUBSTRING) {
+                return companyRepository.searchCompanies(companyName, city, state, country, status, pageable);
+            }
+            ids = filterBestMatches(textSearchIndex.searchCompanies(companyName, match, Integer.MAX_VALUE),
+                    maxIds, city, state, country, status);
+        }
+        if (ids.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        return companyRepository.searchCompaniesByIds(ids, city, state, country, status, pageable);
+    }
+
+    // Up to maxIds of the ranked ids that pass the filters, in rank order
+    private List<Long> filterBestMatches(List<Long> ranked, int maxIds, String city, String state, String country,
+                                         Company.CompanyStatus status) {
+        List<Long> passing = new ArrayList<>();
+        for (int from = 0; from < ranked.size() && passing.size() < maxIds; from += maxIds) {
+            List<Long> chunk = ranked.subList(from, Math.min(from + maxIds, ranked.size()));
+            Set<Long> passed = new HashSet<>(companyRepository.filterCompanyIds(chunk, city, state, country, status));
+            for (Long id : chunk) {
+                if (passed.contains(id) && passing.size() < maxIds) {
+                    passing.add(id);
+                }
+            }
+        }
+        return passing;
     }
 
     public void deleteCompany(Long id) {
@@ -233,6 +287,7 @@ public class CompanyService {
         }
 
         companyRepository.deleteById(id);
+        dashboardSnapshot.evictCompany(id);
     }
 
     // ========== COMPANY STATUS MANAGEMENT ==========
@@ -246,7 +301,7 @@ public class CompanyService {
             // TODO: Set approvedBy to current admin user ID
         }
 
-        return companyRepository.save(company);
+        return saveCompany(company);
     }
 
     public Company approveCompany(Long id, Long approvedByUserId) {
@@ -256,7 +311,7 @@ public class CompanyService {
         company.setApprovedBy(approvedByUserId);
         company.setIsVerified(true);
 
-        return companyRepository.save(company);
+        return saveCompany(company);
     }
 
     public Company suspendCompany(Long id, String reason) {
@@ -264,7 +319,7 @@ public class CompanyService {
         company.setStatus(Company.CompanyStatus.SUSPENDED);
         // TODO: Add suspension reason to company entity
 
-        return companyRepository.save(company);
+        return saveCompany(company);
     }
 
     // ========== SUBSCRIPTION MANAGEMENT ==========
@@ -292,7 +347,7 @@ public class CompanyService {
         company.setMaxVehicles(plan.getMaxVehicles());
         company.setMaxEmployees(plan.getMaxEmployees());
 
-        return companyRepository.save(company);
+        return saveCompany(company);
     }
 
     public Company renewSubscription(Long id, int months) {
@@ -304,7 +359,7 @@ public class CompanyService {
             company.setSubscriptionEndDate(company.getSubscriptionEndDate().plusMonths(months));
         }
 
-        return companyRepository.save(company);
+        return saveCompany(company);
     }
 
     // ========== COMPANY ANALYTICS ==========
@@ -324,9 +379,14 @@ public class CompanyService {
     // ========== COMPANY VALIDATION ==========
 
     public boolean canAddVehicle(Long companyId) {
+        return getRemainingVehicleCapacity(companyId) > 0;
+    }
+
+    // How many more vehicles the company's plan allows
+    public long getRemainingVehicleCapacity(Long companyId) {
         Company company = getCompanyById(companyId);
         long currentVehicleCount = vehicleRepository.countByCompanyId(companyId);
-        return currentVehicleCount < company.getMaxVehicles();
+        return Math.max(0, company.getMaxVehicles() - currentVehicleCount);
     }
 
     public boolean canAddEmployee(Long companyId) {
@@ -381,33 +441,10 @@ public class CompanyService {
     // ========== COMPANY DASHBOARD DATA ==========
 
     public java.util.Map<String, Object> getCompanyDashboard(Long companyId) {
-        Company company = getCompanyById(companyId);
-        
-        java.util.Map<String, Object> dashboard = new java.util.HashMap<>();
-        dashboard.put("company", company);
-
-        // Get statistics
-        Object[] vehicleStats = vehicleRepository.getVehicleStatisticsByCompany(companyId);
-        Object[] reservationStats = reservationRepository.getReservationStatisticsByCompany(companyId);
-        Object[] userStats = userRepository.getUserStatisticsByCompany(companyId);
-
-        dashboard.put("vehicleStatistics", vehicleStats);
-        dashboard.put("reservationStatistics", reservationStats);
-        dashboard.put("userStatistics", userStats);
-
-        // Get recent activities
-        LocalDateTime thirtyDaysAgo = LocalDateTime.now().minusDays(30);
-        dashboard.put("recentReservations", reservationRepository.findRecentReservationsByCompany(companyId, thirtyDaysAgo));
-        dashboard.put("recentVehicles", vehicleRepository.findVehiclesByCompanyAndCreatedDateRange(companyId, thirtyDaysAgo, LocalDateTime.now()));
-        dashboard.put("recentEmployees", userRepository.findUsersByCompanyAndCreatedDateRange(companyId, thirtyDaysAgo, LocalDateTime.now()));
-
-        // Get upcoming activities
-        java.time.LocalDate today = java.time.LocalDate.now();
-        java.time.LocalDate nextWeek = today.plusDays(7);
-        dashboard.put("upcomingReservations", reservationRepository.findUpcomingReservationsByCompany(companyId, today, nextWeek));
-        dashboard.put("todayPickups", reservationRepository.findReservationsPendingPickupByCompany(companyId, today));
-        dashboard.put("todayReturns", reservationRepository.findReservationsPendingReturnByCompany(companyId, today));
-
+        java.util.Map<String, Object> dashboard = dashboardSnapshot.getDashboard(companyId);
+        if (dashboard == null) {
+            throw new RuntimeException("Company not found with ID: " + companyId);
+        }
         return dashboard;
     }
 
@@ -455,6 +492,13 @@ public class CompanyService {
 
     // ========== HELPER METHODS ==========
 
+    // Save a changed company and refresh the company section of its dashboard snapshot
+    private Company saveCompany(Company company) {
+        Company savedCompany = companyRepository.save(company);
+        dashboardSnapshot.invalidate(savedCompany, CompanyDashboardSnapshot.Section.COMPANY);
+        return savedCompany;
+    }
+
     public boolean existsByBusinessRegistrationNumber(String businessRegistrationNumber) {
         return companyRepository.existsByBusinessRegistrationNumber(businessRegistrationNumber);
     }
@@ -1,8 +1,13 @@
 package com.rentman.rentman.service;
 
+import com.rentman.rentman.config.TwoLevelCacheManager;
 import com.rentman.rentman.entity.User;
 import com.rentman.rentman.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -10,18 +15,51 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
+    // Name of the principal cache on the cache invalidation channel
+    public static final String PRINCIPAL_CACHE = "principals";
+
     @Autowired
     private UserRepository userRepository;
 
+    // Principals of recently authenticated users, so token-authenticated requests skip the database. Each node
+    // keeps its own; entries are evicted on every node (over the cache invalidation channel) by UserService
+    // whenever the user changes, and expire after the TTL regardless.
+    private final Cache<String, CustomUserPrincipal> principalCache;
+    private final TwoLevelCacheManager cacheManager;
+
+    public CustomUserDetailsService(@Value("${security.principal-cache.ttl-seconds:300}") long ttlSeconds,
+                                    @Value("${security.principal-cache.max-size:10000}") long maxSize,
+                                    TwoLevelCacheManager cacheManager) {
+        this.principalCache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        this.cacheManager = cacheManager;
+        cacheManager.registerLocalOnly(PRINCIPAL_CACHE, email -> {
+            if (email != null) {
+                principalCache.invalidate(email);
+            } else {
+                principalCache.invalidateAll();
+            }
+        });
+    }
+
+    // Always reads the database; used for password authentication
     @Override
     @Transactional
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
@@ -31,6 +69,50 @@ public class CustomUserDetailsService implements UserDetailsService {
         return new CustomUserPrincipal(user);
     }
 
+    // Cached lookup for requests that already carry a verified token
+    public UserDetails loadCachedUserByUsername(String email) throws UsernameNotFoundException {
+        CustomUserPrincipal cached = principalCache.getIfPresent(email);
+        if (cached != null) {
+            return cached;
+        }
+
+        CustomUserPrincipal principal = (CustomUserPrincipal) loadUserByUsername(email);
+        principalCache.put(email, principal);
+        return principal;
+    }
+
+    // Drops the user's principal on this node and the others. Inside a transaction it is dropped again once the
+    // change has committed, so a request reloading the user in between cannot cache the old row.
+    public void evictUser(String email) {
+        if (email == null) {
+            return;
+        }
+        evictEverywhere(email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictEverywhere(email);
+                }
+            });
+        }
+    }
+
+    private void evictEverywhere(String email) {
+        principalCache.invalidate(email);
+        cacheManager.evictOnOtherNodes(PRINCIPAL_CACHE, email);
+    }
+
+    public Map<String, Object> getPrincipalCacheStatistics() {
+        CacheStats stats = principalCache.stats();
+        Map<String, Object> result = new HashMap<>();
+        result.put("size", principalCache.estimatedSize());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("evictions", stats.evictionCount());
+        return result;
+    }
+
     public static class CustomUserPrincipal implements UserDetails {
         private final User user;
 
@@ -1,5 +1,6 @@
 package com.rentman.rentman.service;
 
+import com.rentman.rentman.entity.BusinessNumberGenerator;
 import com.rentman.rentman.entity.Defect;
 import com.rentman.rentman.entity.Vehicle;
 import com.rentman.rentman.entity.Company;
@@ -32,6 +33,12 @@ public class DefectService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private BusinessNumberGenerator businessNumberGenerator;
+
+    @Autowired
+    private CompanyDashboardSnapshot dashboardSnapshot;
+
     // ========== DEFECT CRUD OPERATIONS ==========
 
     public Defect createDefect(Defect defect) {
@@ -47,6 +54,10 @@ public class DefectService {
         }
 
         // Set default values
+        if (defect.getDefectNumber() == null) {
+            defect.setDefectNumber(businessNumberGenerator.nextDefectNumber());
+        }
+
         if (defect.getStatus() == null) {
             defect.setStatus(Defect.DefectStatus.REPORTED);
         }
@@ -60,7 +71,7 @@ public class DefectService {
             defect.setSeverity(Defect.DefectSeverity.CRITICAL);
         }
 
-        Defect savedDefect = defectRepository.save(defect);
+        Defect savedDefect = saveDefect(defect);
 
         // Update vehicle status if defect puts it out of service
         if (defect.getVehicleOutOfService() != null && defect.getVehicleOutOfService()) {
@@ -96,7 +107,7 @@ public class DefectService {
         defect.setFollowUpDate(defectDetails.getFollowUpDate());
         defect.setFollowUpNotes(defectDetails.getFollowUpNotes());
 
-        return defectRepository.save(defect);
+        return saveDefect(defect);
     }
 
     public Defect getDefectById(Long id) {
@@ -117,6 +128,7 @@ public class DefectService {
         }
 
         defectRepository.deleteById(id);
+        dashboardSnapshot.defectChanged(defect.getCompany());
     }
 
     // ========== DEFECT STATUS MANAGEMENT ==========
@@ -135,7 +147,7 @@ public class DefectService {
         defect.setStatus(Defect.DefectStatus.INVESTIGATING);
         defect.setInvestigationStartDate(LocalDate.now());
 
-        return defectRepository.save(defect);
+        return saveDefect(defect);
     }
 
     public Defect startInvestigation(Long id, Long employeeId) {
@@ -154,7 +166,7 @@ public class DefectService {
             defect.setAssignedToEmployee(employee);
         }
 
-        return defectRepository.save(defect);
+        return saveDefect(defect);
     }
 
     public Defect completeInvestigation(Long id, String rootCause, String investigationNotes, Long employeeId) {
@@ -175,7 +187,7 @@ public class DefectService {
             defect.setAssignedToEmployee(employee);
         }
 
-        return defectRepository.save(defect);
+        return saveDefect(defect);
     }
 
     public Defect resolveDefect(Long id, String resolutionNotes, Integer actualDowntimeDays, Long employeeId) {
@@ -203,7 +215,7 @@ public class DefectService {
             vehicleRepository.save(vehicle);
         }
 
-        return defectRepository.save(defect);
+        return saveDefect(defect);
     }
 
     public Defect closeDefect(Long id, String notes) {
@@ -216,7 +228,7 @@ public class DefectService {
         defect.setStatus(Defect.DefectStatus.CLOSED);
         defect.setInvestigationNotes(defect.getInvestigationNotes() + "\nClosed: " + notes);
 
-        return defectRepository.save(defect);
+        return saveDefect(defect);
     }
 
     public Defect cancelDefect(Long id, String reason) {
@@ -236,7 +248,7 @@ public class DefectService {
             vehicleRepository.save(vehicle);
         }
 
-        return defectRepository.save(defect);
+        return saveDefect(defect);
     }
 
     // ========== DEFECT REPORTING ==========
@@ -446,6 +458,13 @@ public class DefectService {
 
     // ========== HELPER METHODS ==========
 
+    // A defect can take its vehicle out of service, so its company's fleet counts are refreshed with the defects
+    private Defect saveDefect(Defect defect) {
+        Defect savedDefect = defectRepository.save(defect);
+        dashboardSnapshot.defectChanged(savedDefect.getCompany());
+        return savedDefect;
+    }
+
     public long countDefectsByStatus(Long companyId, Defect.DefectStatus status) {
         return defectRepository.countByCompanyIdAndStatus(companyId, status);
     }
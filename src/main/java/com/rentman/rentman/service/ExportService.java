@@ -0,0 +1,286 @@
+package com.rentman.rentman.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rentman.rentman.entity.Invoice;
+import com.rentman.rentman.entity.Maintenance;
+import com.rentman.rentman.entity.Reservation;
+import com.rentman.rentman.repository.InvoiceRepository;
+import com.rentman.rentman.repository.MaintenanceRepository;
+import com.rentman.rentman.repository.ReservationRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.temporal.TemporalAccessor;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+// Full-history exports written row by row from a database cursor, so memory stays flat however many rows there are.
+// Every export method must be called from the thread that writes the response (e.g. inside a StreamingResponseBody).
+@Service
+public class ExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportService.class);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private MaintenanceRepository maintenanceRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Rows written between persistence-context clears and output flushes
+    @Value("${rentman.export.chunk-size:1000}")
+    private int chunkSize;
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format parse(String value) {
+            try {
+                return Format.valueOf(value.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("Unsupported export format: " + value + " (expected ndjson or csv)");
+            }
+        }
+    }
+
+    // ========== EXPORTS ==========
+
+    // A null companyId exports every company's rows. Returns the number of rows written.
+    @Transactional(readOnly = true)
+    public long exportReservations(Long companyId, Format format, OutputStream out) {
+        try (Stream<Reservation> rows = companyId == null
+                ? reservationRepository.streamAll()
+                : reservationRepository.streamByCompanyId(companyId)) {
+            return write("reservations", rows, RESERVATION_COLUMNS, format, out);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long exportInvoices(Long companyId, Format format, OutputStream out) {
+        try (Stream<Invoice> rows = companyId == null
+                ? invoiceRepository.streamAll()
+                : invoiceRepository.streamByCompanyId(companyId)) {
+            return write("invoices", rows, INVOICE_COLUMNS, format, out);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long exportMaintenance(Long companyId, Format format, OutputStream out) {
+        try (Stream<Maintenance> rows = companyId == null
+                ? maintenanceRepository.streamAll()
+                : maintenanceRepository.streamByCompanyId(companyId)) {
+            return write("maintenance", rows, MAINTENANCE_COLUMNS, format, out);
+        }
+    }
+
+    // ========== COLUMNS ==========
+
+    // Associations are exported as ids only; reading the id of a lazy proxy does not load it
+    private static final List<Column<Reservation>> RESERVATION_COLUMNS = List.of(
+            new Column<>("id", Reservation::getId),
+            new Column<>("reservationNumber", Reservation::getReservationNumber),
+            new Column<>("companyId", r -> idOf(r.getCompany(), c -> c.getId())),
+            new Column<>("customerId", r -> idOf(r.getCustomer(), c -> c.getId())),
+            new Column<>("vehicleId", r -> idOf(r.getVehicle(), v -> v.getId())),
+            new Column<>("status", Reservation::getStatus),
+            new Column<>("startDate", Reservation::getStartDate),
+            new Column<>("endDate", Reservation::getEndDate),
+            new Column<>("actualStartDate", Reservation::getActualStartDate),
+            new Column<>("actualEndDate", Reservation::getActualEndDate),
+            new Column<>("totalDays", Reservation::getTotalDays),
+            new Column<>("dailyRate", Reservation::getDailyRate),
+            new Column<>("subtotal", Reservation::getSubtotal),
+            new Column<>("taxAmount", Reservation::getTaxAmount),
+            new Column<>("discountAmount", Reservation::getDiscountAmount),
+            new Column<>("totalAmount", Reservation::getTotalAmount),
+            new Column<>("amountPaid", Reservation::getAmountPaid),
+            new Column<>("pickupMileage", Reservation::getPickupMileage),
+            new Column<>("returnMileage", Reservation::getReturnMileage),
+            new Column<>("createdAt", Reservation::getCreatedAt),
+            new Column<>("completedAt", Reservation::getCompletedAt),
+            new Column<>("cancelledAt", Reservation::getCancelledAt));
+
+    private static final List<Column<Invoice>> INVOICE_COLUMNS = List.of(
+            new Column<>("id", Invoice::getId),
+            new Column<>("invoiceNumber", Invoice::getInvoiceNumber),
+            new Column<>("companyId", i -> idOf(i.getCompany(), c -> c.getId())),
+            new Column<>("reservationId", i -> idOf(i.getReservation(), r -> r.getId())),
+            new Column<>("type", Invoice::getType),
+            new Column<>("status", Invoice::getStatus),
+            new Column<>("invoiceDate", Invoice::getInvoiceDate),
+            new Column<>("dueDate", Invoice::getDueDate),
+            new Column<>("paidDate", Invoice::getPaidDate),
+            new Column<>("subtotal", Invoice::getSubtotal),
+            new Column<>("taxAmount", Invoice::getTaxAmount),
+            new Column<>("discountAmount", Invoice::getDiscountAmount),
+            new Column<>("totalAmount", Invoice::getTotalAmount),
+            new Column<>("amountPaid", Invoice::getAmountPaid),
+            new Column<>("balanceDue", Invoice::getBalanceDue),
+            new Column<>("platformCommission", Invoice::getPlatformCommission),
+            new Column<>("processingFee", Invoice::getProcessingFee),
+            new Column<>("netAmount", Invoice::getNetAmount),
+            new Column<>("paymentMethod", Invoice::getPaymentMethod),
+            new Column<>("paymentReference", Invoice::getPaymentReference),
+            new Column<>("billingPeriodStart", Invoice::getBillingPeriodStart),
+            new Column<>("billingPeriodEnd", Invoice::getBillingPeriodEnd),
+            new Column<>("createdAt", Invoice::getCreatedAt));
+
+    private static final List<Column<Maintenance>> MAINTENANCE_COLUMNS = List.of(
+            new Column<>("id", Maintenance::getId),
+            new Column<>("maintenanceNumber", Maintenance::getMaintenanceNumber),
+            new Column<>("companyId", m -> idOf(m.getCompany(), c -> c.getId())),
+            new Column<>("vehicleId", m -> idOf(m.getVehicle(), v -> v.getId())),
+            new Column<>("type", Maintenance::getType),
+            new Column<>("status", Maintenance::getStatus),
+            new Column<>("title", Maintenance::getTitle),
+            new Column<>("scheduledDate", Maintenance::getScheduledDate),
+            new Column<>("startDate", Maintenance::getStartDate),
+            new Column<>("completionDate", Maintenance::getCompletionDate),
+            new Column<>("currentMileage", Maintenance::getCurrentMileage),
+            new Column<>("estimatedCost", Maintenance::getEstimatedCost),
+            new Column<>("actualCost", Maintenance::getActualCost),
+            new Column<>("laborCost", Maintenance::getLaborCost),
+            new Column<>("partsCost", Maintenance::getPartsCost),
+            new Column<>("serviceProvider", Maintenance::getServiceProvider),
+            new Column<>("nextMaintenanceDate", Maintenance::getNextMaintenanceDate),
+            new Column<>("createdAt", Maintenance::getCreatedAt));
+
+    // ========== WRITING ==========
+
+    private <T> long write(String name, Stream<T> rows, List<Column<T>> columns, Format format, OutputStream out) {
+        long started = System.nanoTime();
+        long count = 0;
+        try {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            JsonGenerator json = objectMapper.createGenerator(writer);
+            // One object per line: no separator between root values, each row ends with its own newline
+            json.setRootValueSeparator(null);
+            if (format == Format.CSV) {
+                writeCsvHeader(writer, columns);
+            }
+
+            Iterator<T> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                T row = iterator.next();
+                if (format == Format.CSV) {
+                    writeCsvRow(writer, columns, row);
+                } else {
+                    writeJsonRow(json, columns, row);
+                }
+                count++;
+                // Drop the rows written so far from the persistence context and hand the bytes to the client
+                if (count % chunkSize == 0) {
+                    entityManager.clear();
+                    json.flush();
+                    writer.flush();
+                }
+            }
+            json.flush();
+            writer.flush();
+        } catch (IOException e) {
+            // Usually the client went away; the transaction and cursor are released by the caller
+            throw new UncheckedIOException("Export of " + name + " aborted after " + count + " rows", e);
+        } finally {
+            entityManager.clear();
+        }
+
+        logger.info("Exported {} {} rows as {} in {} ms", count, name, format,
+                (System.nanoTime() - started) / 1_000_000);
+        return count;
+    }
+
+    private static <T> void writeJsonRow(JsonGenerator json, List<Column<T>> columns, T row) throws IOException {
+        json.writeStartObject();
+        for (Column<T> column : columns) {
+            json.writeFieldName(column.name());
+            Object value = column.value().apply(row);
+            // Dates and enums as the same ISO / name strings the CSV export uses
+            if (value instanceof TemporalAccessor || value instanceof Enum<?>) {
+                json.writeString(value.toString());
+            } else {
+                json.writeObject(value);
+            }
+        }
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    private static <T> void writeCsvHeader(Writer writer, List<Column<T>> columns) throws IOException {
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(columns.get(i).name());
+        }
+        writer.write("\r\n");
+    }
+
+    private static <T> void writeCsvRow(Writer writer, List<Column<T>> columns, T row) throws IOException {
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value = columns.get(i).value().apply(row);
+            if (value != null) {
+                writer.write(csvEscape(value.toString()));
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    // RFC 4180 quoting: fields containing a separator, quote or line break are quoted and quotes doubled
+    static String csvEscape(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    private static <A> Long idOf(A association, Function<A, Long> id) {
+        return association == null ? null : id.apply(association);
+    }
+
+    private record Column<T>(String name, Function<T, Object> value) {
+    }
+}
@@ -0,0 +1,382 @@
+package com.rentman.rentman.service;
+
+import com.rentman.rentman.entity.Company;
+import com.rentman.rentman.entity.Vehicle;
+import com.rentman.rentman.repository.CompanyRepository;
+import com.rentman.rentman.repository.VehicleRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.springframework.stereotype.Service;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+// Near-me search over company branches and vehicles from a fixed latitude/longitude grid held in memory. A query only
+// opens the cells overlapping the bounding box of its circle and checks great-circle distances for the points filed
+// there, so it touches a few hundred candidates at most however many branches there are. A vehicle without its own
+// coordinates is filed at its company's branch. Committed company and vehicle changes move the points through
+// Hibernate post-commit events (see PostCommitIndex).
+@Service
+public class GeoSearchIndex extends PostCommitIndex {
+
+    public static final double MAX_RADIUS_KM = 500;
+    public static final int MAX_LIMIT = 100;
+
+    static final double EARTH_RADIUS_KM = 6371.0088;
+
+    // Quarter-degree cells: about 28 km high, narrowing towards the poles
+    private static final double CELL_DEGREES = 0.25;
+    private static final int ROWS = 720;
+    private static final int COLUMNS = 1440;
+
+    private final CompanyRepository companyRepository;
+    private final VehicleRepository vehicleRepository;
+
+    private Map<Long, CompanyEntry> companies = new HashMap<>();
+    private Map<Long, VehicleEntry> vehicles = new HashMap<>();
+    private Map<Long, Set<Long>> vehiclesByCompany = new HashMap<>();
+    private Map<Long, Set<Long>> companyCells = new HashMap<>();
+    private Map<Long, Set<Long>> vehicleCells = new HashMap<>();
+    private Map<Long, Long> vehicleCellOf = new HashMap<>();
+
+    public record Hit(Long id, double distanceKm) {
+    }
+
+    public GeoSearchIndex(CompanyRepository companyRepository, VehicleRepository vehicleRepository,
+                          EntityManagerFactory entityManagerFactory) {
+        super("geo index", "geo-indexer", entityManagerFactory, Vehicle.class, Company.class);
+        this.companyRepository = companyRepository;
+        this.vehicleRepository = vehicleRepository;
+    }
+
+    // ========== QUERIES ==========
+
+    // Active companies whose branch lies within the radius, nearest first
+    public List<Hit> nearbyCompanies(double latitude, double longitude, double radiusKm, int limit) {
+        validate(latitude, longitude, radiusKm);
+        ensureReady();
+        synchronized (this) {
+            return nearest(companyCells, latitude, longitude, radiusKm, limit,
+                    companyId -> companies.get(companyId).position(),
+                    companyId -> companies.get(companyId).active);
+        }
+    }
+
+    // Available vehicles of active companies within the radius, nearest first
+    public List<Hit> nearbyVehicles(double latitude, double longitude, double radiusKm, int limit) {
+        validate(latitude, longitude, radiusKm);
+        ensureReady();
+        synchronized (this) {
+            return nearest(vehicleCells, latitude, longitude, radiusKm, limit, this::position, vehicleId -> {
+                VehicleEntry vehicle = vehicles.get(vehicleId);
+                CompanyEntry company = vehicle.companyId == null ? null : companies.get(vehicle.companyId);
+                return vehicle.available && company != null && company.active;
+            });
+        }
+    }
+
+    public synchronized Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        putIndexStatistics(stats);
+        stats.put("companies", companies.size());
+        stats.put("vehicles", vehicles.size());
+        stats.put("placedCompanies", companyCells.values().stream().mapToInt(Set::size).sum());
+        stats.put("placedVehicles", vehicleCellOf.size());
+        stats.put("occupiedCells", companyCells.size() + vehicleCells.size());
+        stats.put("cellDegrees", CELL_DEGREES);
+        return stats;
+    }
+
+    // ========== UPDATES ==========
+
+    // Every company and vehicle position from the database
+    @Override
+    protected String load() {
+        List<Object[]> companyRows = companyRepository.findGeoRows();
+        List<Object[]> vehicleRows = vehicleRepository.findGeoRows();
+
+        synchronized (this) {
+            companies = new HashMap<>();
+            vehicles = new HashMap<>();
+            vehiclesByCompany = new HashMap<>();
+            companyCells = new HashMap<>();
+            vehicleCells = new HashMap<>();
+            vehicleCellOf = new HashMap<>();
+            for (Object[] row : companyRows) {
+                companyChanged((Long) row[0], (Double) row[1], (Double) row[2],
+                        row[3] == Company.CompanyStatus.ACTIVE);
+            }
+            for (Object[] row : vehicleRows) {
+                vehicleChanged((Long) row[0], (Double) row[1], (Double) row[2], (Long) row[3],
+                        row[4] == Vehicle.VehicleStatus.AVAILABLE);
+            }
+        }
+        return companyRows.size() + " companies and " + vehicleRows.size() + " vehicles";
+    }
+
+    @Override
+    protected void inserted(PostInsertEvent event) {
+        changed(event.getEntity());
+    }
+
+    @Override
+    protected void updated(PostUpdateEvent event) {
+        changed(event.getEntity());
+    }
+
+    @Override
+    protected void deleted(PostDeleteEvent event) {
+        Long id = (Long) event.getId();
+        if (event.getEntity() instanceof Vehicle) {
+            enqueue(() -> vehicleRemoved(id));
+        } else if (event.getEntity() instanceof Company) {
+            enqueue(() -> companyRemoved(id));
+        }
+    }
+
+    synchronized void companyChanged(Long companyId, Double latitude, Double longitude, boolean active) {
+        CompanyEntry previous = companies.get(companyId);
+        CompanyEntry entry = new CompanyEntry(latitude, longitude, active);
+        companies.put(companyId, entry);
+        if (previous != null && previous.position() != null) {
+            unfile(companyCells, cell(previous.position()), companyId);
+        }
+        if (entry.position() != null) {
+            file(companyCells, cell(entry.position()), companyId);
+        }
+        if (previous == null || !Arrays.equals(previous.position(), entry.position())) {
+            for (Long vehicleId : vehiclesByCompany.getOrDefault(companyId, Set.of())) {
+                place(vehicleId);
+            }
+        }
+    }
+
+    synchronized void companyRemoved(Long companyId) {
+        CompanyEntry previous = companies.remove(companyId);
+        if (previous != null && previous.position() != null) {
+            unfile(companyCells, cell(previous.position()), companyId);
+        }
+        for (Long vehicleId : vehiclesByCompany.getOrDefault(companyId, Set.of())) {
+            place(vehicleId);
+        }
+    }
+
+    synchronized void vehicleChanged(Long vehicleId, Double latitude, Double longitude, Long companyId,
+                                     boolean available) {
+        VehicleEntry previous = vehicles.put(vehicleId, new VehicleEntry(latitude, longitude, companyId, available));
+        if (previous != null && !Objects.equals(previous.companyId, companyId)) {
+            detach(previous.companyId, vehicleId);
+        }
+        if (companyId != null) {
+            vehiclesByCompany.computeIfAbsent(companyId, id -> new HashSet<>()).add(vehicleId);
+        }
+        place(vehicleId);
+    }
+
+    synchronized void vehicleRemoved(Long vehicleId) {
+        VehicleEntry previous = vehicles.remove(vehicleId);
+        if (previous != null) {
+            detach(previous.companyId, vehicleId);
+        }
+        Long cell = vehicleCellOf.remove(vehicleId);
+        if (cell != null) {
+            unfile(vehicleCells, cell, vehicleId);
+        }
+    }
+
+    // ========== INTERNALS ==========
+
+    private static void validate(double latitude, double longitude, double radiusKm) {
+        if (!(latitude >= -90 && latitude <= 90)) {
+            throw new IllegalArgumentException("Latitude must be between -90 and 90");
+        }
+        if (!(longitude >= -180 && longitude <= 180)) {
+            throw new IllegalArgumentException("Longitude must be between -180 and 180");
+        }
+        if (!(radiusKm > 0 && radiusKm <= MAX_RADIUS_KM)) {
+            throw new IllegalArgumentException("Radius must be greater than 0 and at most " + (int) MAX_RADIUS_KM + " km");
+        }
+    }
+
+    private List<Hit> nearest(Map<Long, Set<Long>> cells, double latitude, double longitude, double radiusKm,
+                              int limit, Function<Long, double[]> positions, Predicate<Long> eligible) {
+        List<Hit> hits = new ArrayList<>();
+        for (long cell : cellsAround(latitude, longitude, radiusKm)) {
+            Set<Long> ids = cells.get(cell);
+            if (ids == null) {
+                continue;
+            }
+            for (Long id : ids) {
+                double[] position = positions.apply(id);
+                double distance = distanceKm(latitude, longitude, position[0], position[1]);
+                if (distance <= radiusKm && eligible.test(id)) {
+                    hits.add(new Hit(id, distance));
+                }
+            }
+        }
+        hits.sort(Comparator.comparingDouble(Hit::distanceKm).thenComparing(Hit::id));
+        int capped = Math.max(1, Math.min(limit, MAX_LIMIT));
+        return hits.size() > capped ? new ArrayList<>(hits.subList(0, capped)) : hits;
+    }
+
+    // Cells overlapping the bounding box of the circle. Its longitude half-width is the exact extent of a circle on
+    // the sphere; a circle reaching over a pole takes every column of the rows it covers.
+    static List<Long> cellsAround(double latitude, double longitude, double radiusKm) {
+        double angle = radiusKm / EARTH_RADIUS_KM;
+        double latitudeDelta = Math.toDegrees(angle);
+        int firstRow = row(latitude - latitudeDelta);
+        int lastRow = row(latitude + latitudeDelta);
+
+        double cosLatitude = Math.cos(Math.toRadians(latitude));
+        int firstColumn = 0;
+        int lastColumn = COLUMNS - 1;
+        if (Math.sin(angle) < cosLatitude) {
+            double longitudeDelta = Math.toDegrees(Math.asin(Math.sin(angle) / cosLatitude));
+            int from = (int) Math.floor((longitude - longitudeDelta + 180) / CELL_DEGREES);
+            int to = (int) Math.floor((longitude + longitudeDelta + 180) / CELL_DEGREES);
+            if (to - from < COLUMNS) {
+                firstColumn = from;
+                lastColumn = to;
+            }
+        }
+
+        List<Long> cells = new ArrayList<>((lastRow - firstRow + 1) * (lastColumn - firstColumn + 1));
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                cells.add((long) row * COLUMNS + Math.floorMod(column, COLUMNS));
+            }
+        }
+        return cells;
+    }
+
+    // Great-circle distance by the haversine formula
+    static double distanceKm(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double latitudeDelta = Math.toRadians(latitude2 - latitude1);
+        double longitudeDelta = Math.toRadians(longitude2 - longitude1);
+        double a = Math.pow(Math.sin(latitudeDelta / 2), 2) + Math.cos(Math.toRadians(latitude1))
+                * Math.cos(Math.toRadians(latitude2)) * Math.pow(Math.sin(longitudeDelta / 2), 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private static long cell(double[] position) {
+        int column = Math.floorMod((int) Math.floor((position[1] + 180) / CELL_DEGREES), COLUMNS);
+        return (long) row(position[0]) * COLUMNS + column;
+    }
+
+    private static int row(double latitude) {
+        return Math.max(0, Math.min(ROWS - 1, (int) Math.floor((latitude + 90) / CELL_DEGREES)));
+    }
+
+    // Where a vehicle is searched: its own coordinates, else its company's branch, else nowhere
+    private double[] position(Long vehicleId) {
+        VehicleEntry vehicle = vehicles.get(vehicleId);
+        if (vehicle == null) {
+            return null;
+        }
+        if (vehicle.position() != null) {
+            return vehicle.position();
+        }
+        CompanyEntry company = vehicle.companyId == null ? null : companies.get(vehicle.companyId);
+        return company == null ? null : company.position();
+    }
+
+    // Refiles a vehicle under the cell of its current position
+    private void place(Long vehicleId) {
+        Long previous = vehicleCellOf.remove(vehicleId);
+        if (previous != null) {
+            unfile(vehicleCells, previous, vehicleId);
+        }
+        double[] position = position(vehicleId);
+        if (position != null) {
+            long cell = cell(position);
+            file(vehicleCells, cell, vehicleId);
+            vehicleCellOf.put(vehicleId, cell);
+        }
+    }
+
+    private void detach(Long companyId, Long vehicleId) {
+        Set<Long> siblings = companyId == null ? null : vehiclesByCompany.get(companyId);
+        if (siblings != null) {
+            siblings.remove(vehicleId);
+            if (siblings.isEmpty()) {
+                vehiclesByCompany.remove(companyId);
+            }
+        }
+    }
+
+    private static void file(Map<Long, Set<Long>> cells, long cell, Long id) {
+        cells.computeIfAbsent(cell, key -> new HashSet<>()).add(id);
+    }
+
+    private static void unfile(Map<Long, Set<Long>> cells, long cell, Long id) {
+        Set<Long> ids = cells.get(cell);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                cells.remove(cell);
+            }
+        }
+    }
+
+    private static double[] coordinates(Double latitude, Double longitude) {
+        return latitude == null || longitude == null ? null : new double[]{latitude, longitude};
+    }
+
+    // Values read on the committing thread, applied on the indexer
+    private void changed(Object entity) {
+        if (entity instanceof Vehicle vehicle) {
+            Long vehicleId = vehicle.getId();
+            Double latitude = vehicle.getCurrentLatitude();
+            Double longitude = vehicle.getCurrentLongitude();
+            Long companyId = vehicle.getCompany() == null ? null : vehicle.getCompany().getId();
+            boolean available = vehicle.getStatus() == Vehicle.VehicleStatus.AVAILABLE;
+            enqueue(() -> vehicleChanged(vehicleId, latitude, longitude, companyId, available));
+        } else if (entity instanceof Company company) {
+            Long companyId = company.getId();
+            Double latitude = company.getLatitude();
+            Double longitude = company.getLongitude();
+            boolean active = company.getStatus() == Company.CompanyStatus.ACTIVE;
+            enqueue(() -> companyChanged(companyId, latitude, longitude, active));
+        }
+    }
+
+    private static class CompanyEntry {
+        private final double[] position;
+        private final boolean active;
+
+        private CompanyEntry(Double latitude, Double longitude, boolean active) {
+            this.position = coordinates(latitude, longitude);
+            this.active = active;
+        }
+
+        private double[] position() {
+            return position;
+        }
+    }
+
+    private static class VehicleEntry {
+        private final double[] position;
+        private final Long companyId;
+        private final boolean available;
+
+        private VehicleEntry(Double latitude, Double longitude, Long companyId, boolean available) {
+            this.position = coordinates(latitude, longitude);
+            this.companyId = companyId;
+            this.available = available;
+        }
+
+        private double[] position() {
+            return position;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.rentman.rentman.service;
+
+import com.rentman.rentman.repository.InvoiceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Moves SENT invoices past their due date to OVERDUE with one set-based UPDATE per batch,
+// each batch in its own short transaction so row locks are released as the sweep progresses
+@Component
+public class InvoiceOverdueSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(InvoiceOverdueSweeper.class);
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private CompanyDashboardSnapshot dashboardSnapshot;
+
+    private final TransactionTemplate batchTransaction;
+    private final int batchSize;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicLong totalRuns = new AtomicLong();
+    private final AtomicLong totalRows = new AtomicLong();
+    private volatile SweepResult lastRun;
+
+    public InvoiceOverdueSweeper(PlatformTransactionManager transactionManager,
+                                 @Value("${rentman.invoices.overdue-sweep-batch-size:500}") int batchSize) {
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    public record SweepResult(LocalDate asOf, long rows, int batches, long millis, double rowsPerSecond,
+                              LocalDateTime finishedAt) {
+    }
+
+    @Scheduled(cron = "${rentman.invoices.overdue-sweep-cron:0 5 * * * *}")
+    public void scheduledSweep() {
+        try {
+            sweep();
+        } catch (Exception e) {
+            logger.error("Scheduled overdue invoice sweep failed: {}", e.getMessage());
+        }
+    }
+
+    public SweepResult sweep() {
+        if (!running.compareAndSet(false, true)) {
+            throw new RuntimeException("An overdue invoice sweep is already running");
+        }
+        try {
+            LocalDate today = LocalDate.now();
+            long started = System.nanoTime();
+            long rows = 0;
+            int batches = 0;
+            while (true) {
+                BatchResult batch = batchTransaction.execute(status -> sweepBatch(today));
+                batches++;
+                rows += batch.updated();
+                // A short batch was the last one; an all-skipped batch means the rest changed under us
+                if (batch.selected() < batchSize || batch.updated() == 0) {
+                    break;
+                }
+            }
+
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            double rowsPerSecond = rows * 1000.0 / Math.max(1, millis);
+            SweepResult result = new SweepResult(today, rows, batches, millis, rowsPerSecond, LocalDateTime.now());
+            lastRun = result;
+            totalRuns.incrementAndGet();
+            totalRows.addAndGet(rows);
+            logger.info("Overdue invoice sweep moved {} invoices to OVERDUE in {} batches, {} ms ({} rows/s)",
+                    rows, batches, millis, String.format("%.1f", rowsPerSecond));
+            return result;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("running", running.get());
+        stats.put("batchSize", batchSize);
+        stats.put("totalRuns", totalRuns.get());
+        stats.put("totalRows", totalRows.get());
+        stats.put("lastRun", lastRun);
+        return stats;
+    }
+
+    private BatchResult sweepBatch(LocalDate today) {
+        List<Object[]> rows = invoiceRepository.findSentPastDueRows(today, PageRequest.of(0, batchSize));
+        if (rows.isEmpty()) {
+            return new BatchResult(0, 0);
+        }
+
+        List<Long> ids = new ArrayList<>(rows.size());
+        Set<Long> companyIds = new HashSet<>();
+        for (Object[] row : rows) {
+            ids.add((Long) row[0]);
+            companyIds.add((Long) row[1]);
+        }
+        int updated = invoiceRepository.markSentAsOverdue(ids, LocalDateTime.now());
+        for (Long companyId : companyIds) {
+            dashboardSnapshot.invalidate(companyId, CompanyDashboardSnapshot.Section.INVOICES);
+        }
+        return new BatchResult(rows.size(), updated);
+    }
+
+    private record BatchResult(int selected, int updated) {
+    }
+}
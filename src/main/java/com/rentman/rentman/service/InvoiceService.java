@@ -1,5 +1,6 @@
 package com.rentman.rentman.service;
 
+import com.rentman.rentman.entity.BusinessNumberGenerator;
 import com.rentman.rentman.entity.Invoice;
 import com.rentman.rentman.entity.InvoiceItem;
 import com.rentman.rentman.entity.Company;
@@ -33,6 +34,12 @@ public class InvoiceService {
     @Autowired
     private ReservationRepository reservationRepository;
 
+    @Autowired
+    private BusinessNumberGenerator businessNumberGenerator;
+
+    @Autowired
+    private CompanyDashboardSnapshot dashboardSnapshot;
+
     // ========== INVOICE CRUD OPERATIONS ==========
 
     public Invoice createInvoice(Invoice invoice) {
@@ -41,6 +48,10 @@ public class InvoiceService {
                 .orElseThrow(() -> new RuntimeException("Company not found with ID: " + invoice.getCompany().getId()));
 
         // Set default values
+        if (invoice.getInvoiceNumber() == null) {
+            invoice.setInvoiceNumber(businessNumberGenerator.nextInvoiceNumber());
+        }
+
         if (invoice.getStatus() == null) {
             invoice.setStatus(Invoice.InvoiceStatus.PENDING);
         }
@@ -56,7 +67,7 @@ public class InvoiceService {
         // Calculate amounts
         calculateInvoiceAmounts(invoice);
 
-        return invoiceRepository.save(invoice);
+        return saveInvoice(invoice);
     }
 
     public Invoice updateInvoice(Long id, Invoice invoiceDetails) {
@@ -73,7 +84,7 @@ public class InvoiceService {
         // Recalculate amounts
         calculateInvoiceAmounts(invoice);
 
-        return invoiceRepository.save(invoice);
+        return saveInvoice(invoice);
     }
 
     public Invoice getInvoiceById(Long id) {
@@ -98,6 +109,7 @@ public class InvoiceService {
         invoiceItemRepository.deleteAll(items);
 
         invoiceRepository.deleteById(id);
+        dashboardSnapshot.invoiceChanged(invoice.getCompany());
     }
 
     // ========== INVOICE STATUS MANAGEMENT ==========
@@ -112,7 +124,7 @@ public class InvoiceService {
         invoice.setStatus(Invoice.InvoiceStatus.SENT);
         invoice.setSentAt(LocalDateTime.now());
 
-        return invoiceRepository.save(invoice);
+        return saveInvoice(invoice);
     }
 
     public Invoice markAsPaid(Long id, String paymentMethod, String paymentReference, String notes) {
@@ -129,7 +141,7 @@ public class InvoiceService {
         invoice.setPaymentNotes(notes);
         invoice.setAmountPaid(invoice.getTotalAmount());
 
-        return invoiceRepository.save(invoice);
+        return saveInvoice(invoice);
     }
 
     public Invoice markAsOverdue(Long id) {
@@ -141,7 +153,7 @@ public class InvoiceService {
 
         invoice.setStatus(Invoice.InvoiceStatus.OVERDUE);
 
-        return invoiceRepository.save(invoice);
+        return saveInvoice(invoice);
     }
 
     public Invoice cancelInvoice(Long id, String reason) {
@@ -154,7 +166,7 @@ public class InvoiceService {
         invoice.setStatus(Invoice.InvoiceStatus.CANCELLED);
         invoice.setNotes(invoice.getNotes() + "\nCancelled: " + reason);
 
-        return invoiceRepository.save(invoice);
+        return saveInvoice(invoice);
     }
 
     public Invoice refundInvoice(Long id, String reason) {
@@ -167,7 +179,7 @@ public class InvoiceService {
         invoice.setStatus(Invoice.InvoiceStatus.REFUNDED);
         invoice.setNotes(invoice.getNotes() + "\nRefunded: " + reason);
 
-        return invoiceRepository.save(invoice);
+        return saveInvoice(invoice);
     }
 
     // ========== INVOICE CREATION BY TYPE ==========
@@ -304,9 +316,7 @@ public class InvoiceService {
     }
 
     public List<Invoice> getCompanyOverdueInvoices(Long companyId) {
-        return invoiceRepository.findOverdueInvoices(LocalDate.now()).stream()
-                .filter(invoice -> invoice.getCompany().getId().equals(companyId))
-                .toList();
+        return invoiceRepository.findOverdueInvoicesByCompany(companyId, LocalDate.now());
     }
 
     // ========== INVOICE ANALYTICS ==========
@@ -372,7 +382,7 @@ public class InvoiceService {
 
         // Recalculate invoice amounts
         calculateInvoiceAmounts(invoice);
-        invoiceRepository.save(invoice);
+        saveInvoice(invoice);
 
         return savedItem;
     }
@@ -391,7 +401,7 @@ public class InvoiceService {
 
         // Recalculate invoice amounts
         calculateInvoiceAmounts(invoice);
-        invoiceRepository.save(invoice);
+        saveInvoice(invoice);
     }
 
     // ========== INVOICE VALIDATION ==========
@@ -418,12 +428,24 @@ public class InvoiceService {
 
     // ========== HELPER METHODS ==========
 
+    // Every write goes through here so the company's invoice totals and the platform revenue are recomputed
+    private Invoice saveInvoice(Invoice invoice) {
+        Invoice savedInvoice = invoiceRepository.save(invoice);
+        dashboardSnapshot.invoiceChanged(savedInvoice.getCompany());
+        return savedInvoice;
+    }
+
     private void calculateInvoiceAmounts(Invoice invoice) {
         // Calculate subtotal from invoice items
         BigDecimal subtotal = invoiceItemRepository.calculateTotalByInvoice(invoice.getId());
         if (subtotal == null) {
             subtotal = BigDecimal.ZERO;
         }
+        applyInvoiceAmounts(invoice, subtotal);
+    }
+
+    // Tax, total, balance and net amounts for a known item subtotal; shared with the batched billing run
+    static void applyInvoiceAmounts(Invoice invoice, BigDecimal subtotal) {
         invoice.setSubtotal(subtotal);
 
         // Calculate tax (example: 8.5%)
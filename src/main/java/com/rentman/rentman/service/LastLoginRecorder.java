@@ -0,0 +1,115 @@
+package com.rentman.rentman.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Write-behind for app_user.last_login. Logins only note the time in memory (repeat logins of a user coalesce to
+// the latest); flush() writes the pending times as one JDBC batch of a single UPDATE statement per chunk, each chunk
+// in its own short transaction. Runs on a fixed delay and drains whatever is left on shutdown.
+@Component
+public class LastLoginRecorder {
+
+    private static final Logger logger = LoggerFactory.getLogger(LastLoginRecorder.class);
+
+    // Never moves last_login backwards, e.g. behind a save of the whole entity that happened in between
+    private static final String UPDATE_LAST_LOGIN =
+            "UPDATE app_user SET last_login = ? WHERE id = ? AND (last_login IS NULL OR last_login < ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate batchTransaction;
+    private final int batchSize;
+
+    private final Map<Long, LocalDateTime> pending = new ConcurrentHashMap<>();
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private volatile LocalDateTime lastFlush;
+
+    public LastLoginRecorder(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                             @Value("${rentman.last-login.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    public void record(Long userId, LocalDateTime loginTime) {
+        pending.merge(userId, loginTime, (current, next) -> next.isAfter(current) ? next : current);
+        recorded.incrementAndGet();
+    }
+
+    @Scheduled(fixedDelayString = "${rentman.last-login.flush-interval:10s}")
+    public void scheduledFlush() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.error("Last login flush failed, {} logins stay pending: {}", pending.size(), e.getMessage());
+        }
+    }
+
+    // Writes the logins pending at the call; entries are dropped only once written and only if no newer login
+    // replaced them meanwhile, so a failed chunk is retried on the next flush
+    public synchronized int flush() {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        List<Map.Entry<Long, LocalDateTime>> snapshot = new ArrayList<>(pending.size());
+        pending.forEach((userId, loginTime) -> snapshot.add(Map.entry(userId, loginTime)));
+
+        int rows = 0;
+        for (int from = 0; from < snapshot.size(); from += batchSize) {
+            List<Map.Entry<Long, LocalDateTime>> chunk = snapshot.subList(from, Math.min(from + batchSize, snapshot.size()));
+            batchTransaction.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPDATE_LAST_LOGIN, chunk, chunk.size(),
+                    (statement, entry) -> {
+                        Timestamp loginTime = Timestamp.valueOf(entry.getValue());
+                        statement.setTimestamp(1, loginTime);
+                        statement.setLong(2, entry.getKey());
+                        statement.setTimestamp(3, loginTime);
+                    }));
+            chunk.forEach(entry -> pending.remove(entry.getKey(), entry.getValue()));
+            rows += chunk.size();
+        }
+        written.addAndGet(rows);
+        flushes.incrementAndGet();
+        lastFlush = LocalDateTime.now();
+        logger.debug("Flushed {} last login times", rows);
+        return rows;
+    }
+
+    @PreDestroy
+    public void drain() {
+        try {
+            int rows = flush();
+            if (rows > 0) {
+                logger.info("Flushed {} pending last login times on shutdown", rows);
+            }
+        } catch (Exception e) {
+            logger.error("Could not flush {} pending last login times on shutdown: {}", pending.size(), e.getMessage());
+        }
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("pending", pending.size());
+        stats.put("recorded", recorded.get());
+        stats.put("written", written.get());
+        stats.put("flushes", flushes.get());
+        stats.put("batchSize", batchSize);
+        stats.put("lastFlush", lastFlush);
+        return stats;
+    }
+}
@@ -1,5 +1,6 @@
 package com.rentman.rentman.service;
 
+import com.rentman.rentman.entity.BusinessNumberGenerator;
 import com.rentman.rentman.entity.Maintenance;
 import com.rentman.rentman.entity.Vehicle;
 import com.rentman.rentman.entity.Company;
@@ -33,6 +34,12 @@ public class MaintenanceService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private BusinessNumberGenerator businessNumberGenerator;
+
+    @Autowired
+    private CompanyDashboardSnapshot dashboardSnapshot;
+
     // ========== MAINTENANCE CRUD OPERATIONS ==========
 
     public Maintenance createMaintenance(Maintenance maintenance) {
@@ -48,6 +55,10 @@ public class MaintenanceService {
         }
 
         // Set default values
+        if (maintenance.getMaintenanceNumber() == null) {
+            maintenance.setMaintenanceNumber(businessNumberGenerator.nextMaintenanceNumber());
+        }
+
         if (maintenance.getStatus() == null) {
             maintenance.setStatus(Maintenance.MaintenanceStatus.SCHEDULED);
         }
@@ -61,7 +72,7 @@ public class MaintenanceService {
             maintenance.setCurrentMileage(vehicle.getMileage());
         }
 
-        Maintenance savedMaintenance = maintenanceRepository.save(maintenance);
+        Maintenance savedMaintenance = saveMaintenance(maintenance);
 
         // Update vehicle status if maintenance is in progress
         if (maintenance.getStatus() == Maintenance.MaintenanceStatus.IN_PROGRESS) {
@@ -88,7 +99,7 @@ public class MaintenanceService {
         maintenance.setRecurrenceIntervalMonths(maintenanceDetails.getRecurrenceIntervalMonths());
         maintenance.setRecurrenceIntervalMiles(maintenanceDetails.getRecurrenceIntervalMiles());
 
-        return maintenanceRepository.save(maintenance);
+        return saveMaintenance(maintenance);
     }
 
     public Maintenance getMaintenanceById(Long id) {
@@ -109,6 +120,7 @@ public class MaintenanceService {
         }
 
         maintenanceRepository.deleteById(id);
+        dashboardSnapshot.maintenanceChanged(maintenance.getCompany());
     }
 
     // ========== MAINTENANCE STATUS MANAGEMENT ==========
@@ -134,7 +146,7 @@ public class MaintenanceService {
         vehicle.setStatus(Vehicle.VehicleStatus.MAINTENANCE);
         vehicleRepository.save(vehicle);
 
-        return maintenanceRepository.save(maintenance);
+        return saveMaintenance(maintenance);
     }
 
     public Maintenance completeMaintenance(Long id, BigDecimal actualCost, BigDecimal laborCost, 
@@ -177,7 +189,7 @@ public class MaintenanceService {
         
         vehicleRepository.save(vehicle);
 
-        return maintenanceRepository.save(maintenance);
+        return saveMaintenance(maintenance);
     }
 
     public Maintenance cancelMaintenance(Long id, String reason) {
@@ -197,7 +209,7 @@ public class MaintenanceService {
             vehicleRepository.save(vehicle);
         }
 
-        return maintenanceRepository.save(maintenance);
+        return saveMaintenance(maintenance);
     }
 
     // ========== MAINTENANCE SCHEDULING ==========
@@ -363,6 +375,13 @@ public class MaintenanceService {
 
     // ========== HELPER METHODS ==========
 
+    // Scheduled or finished maintenance moves the vehicle's status too; refresh both dashboard sections
+    private Maintenance saveMaintenance(Maintenance maintenance) {
+        Maintenance savedMaintenance = maintenanceRepository.save(maintenance);
+        dashboardSnapshot.maintenanceChanged(savedMaintenance.getCompany());
+        return savedMaintenance;
+    }
+
     public long countMaintenanceByStatus(Long companyId, Maintenance.MaintenanceStatus status) {
         return maintenanceRepository.countByCompanyIdAndStatus(companyId, status);
     }
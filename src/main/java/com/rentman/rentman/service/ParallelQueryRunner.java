@@ -0,0 +1,147 @@
+package com.rentman.rentman.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+// Runs independent read-only repository calls, either fanned out to virtual threads
+// (latency of the slowest call) or one after another in a single transaction (latency of the sum).
+// Virtual threads are unbounded but connections are not: across all requests, at most
+// rentman.dashboard.max-concurrent-queries calls hold a pooled connection at once, and the rest wait for a permit
+// until their deadline.
+@Component
+public class ParallelQueryRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParallelQueryRunner.class);
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final TransactionTemplate readOnlyTransaction;
+    private final Semaphore connectionPermits;
+    private final long timeoutMillis;
+    private final boolean parallel;
+
+    public ParallelQueryRunner(PlatformTransactionManager transactionManager,
+                               @Value("${rentman.dashboard.query-timeout-ms:5000}") long timeoutMillis,
+                               @Value("${rentman.dashboard.max-concurrent-queries:4}") int maxConcurrentQueries,
+                               @Value("${rentman.dashboard.parallel-queries:true}") boolean parallel) {
+        if (maxConcurrentQueries < 1) {
+            throw new IllegalArgumentException("rentman.dashboard.max-concurrent-queries must be at least 1");
+        }
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // Applied as the JDBC query timeout of every statement in the transaction. Cancelling a timed-out call only
+        // interrupts its thread, which does not stop a running statement; this does, and releases its permit.
+        this.readOnlyTransaction.setTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(timeoutMillis + 999)));
+        this.connectionPermits = new Semaphore(maxConcurrentQueries, true);
+        this.timeoutMillis = timeoutMillis;
+        this.parallel = parallel;
+    }
+
+    // Values of the calls that succeeded, elapsed milliseconds per call, and the calls that failed or timed out
+    public record QueryResults(Map<String, Object> values, Map<String, Long> timings, Set<String> failed) {
+
+        public boolean isComplete() {
+            return failed.isEmpty();
+        }
+    }
+
+    public QueryResults run(Map<String, Supplier<?>> queries) {
+        return parallel ? runInParallel(queries) : runSequentially(queries);
+    }
+
+    // Each call runs on its own virtual thread in its own read-only transaction, once it gets a connection permit.
+    // All calls share one deadline; calls still waiting or running at the deadline are cancelled and reported as failed.
+    public QueryResults runInParallel(Map<String, Supplier<?>> queries) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        Map<String, Future<TimedValue>> futures = new LinkedHashMap<>();
+        for (Map.Entry<String, Supplier<?>> query : queries.entrySet()) {
+            Supplier<?> supplier = query.getValue();
+            futures.put(query.getKey(), executor.submit(() -> {
+                long started = System.nanoTime();
+                if (!connectionPermits.tryAcquire(Math.max(0, deadline - started), TimeUnit.NANOSECONDS)) {
+                    throw new TimeoutException("no connection permit before the deadline");
+                }
+                try {
+                    Object value = readOnlyTransaction.execute(status -> supplier.get());
+                    return new TimedValue(value, elapsedMillis(started));
+                } finally {
+                    connectionPermits.release();
+                }
+            }));
+        }
+
+        Map<String, Object> values = new HashMap<>();
+        Map<String, Long> timings = new LinkedHashMap<>();
+        Set<String> failed = new LinkedHashSet<>();
+        for (Map.Entry<String, Future<TimedValue>> entry : futures.entrySet()) {
+            String key = entry.getKey();
+            Future<TimedValue> future = entry.getValue();
+            try {
+                TimedValue result = future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                values.put(key, result.value());
+                timings.put(key, result.millis());
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                failed.add(key);
+                timings.put(key, timeoutMillis);
+                logger.warn("Query {} timed out after {} ms", key, timeoutMillis);
+            } catch (ExecutionException e) {
+                failed.add(key);
+                logger.warn("Query {} failed: {}", key, e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                failed.add(key);
+            }
+        }
+        return new QueryResults(values, timings, failed);
+    }
+
+    // All calls on the calling thread in one read-only transaction, sharing one persistence context
+    public QueryResults runSequentially(Map<String, Supplier<?>> queries) {
+        Map<String, Object> values = new HashMap<>();
+        Map<String, Long> timings = new LinkedHashMap<>();
+        Set<String> failed = new LinkedHashSet<>();
+        readOnlyTransaction.executeWithoutResult(status -> {
+            for (Map.Entry<String, Supplier<?>> query : queries.entrySet()) {
+                long started = System.nanoTime();
+                values.put(query.getKey(), query.getValue().get());
+                timings.put(query.getKey(), elapsedMillis(started));
+            }
+        });
+        return new QueryResults(values, timings, failed);
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static long elapsedMillis(long startedNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos);
+    }
+
+    private record TimedValue(Object value, long millis) {
+    }
+}
@@ -0,0 +1,283 @@
+package com.rentman.rentman.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// Base of the in-memory indexes fed by Hibernate post-commit events. Rebuilds and committed changes run in order on
+// one indexer thread per index: a rebuild reads the database there, so a change committed while it reads is applied
+// after it instead of being overwritten by it, and concurrent first uses queue behind a single rebuild. Commits never
+// wait for the index; the delay between a commit and its application is reported as the index lag.
+// Subclasses guard their structures with their own monitor, which the indexer holds while applying a change.
+public abstract class PostCommitIndex {
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    private final String name;
+    private final EntityManagerFactory entityManagerFactory;
+    private final Set<Class<?>> entityTypes;
+
+    private final ExecutorService indexer;
+    private final AtomicInteger pendingUpdates = new AtomicInteger();
+    private final AtomicLong appliedUpdates = new AtomicLong();
+    private final AtomicLong maxLagNanos = new AtomicLong();
+    private volatile long lastLagNanos;
+    private volatile Timer lagTimer;
+
+    private boolean ready = false;
+    private volatile long lastRebuildMillis;
+    private volatile LocalDateTime lastRebuildAt;
+
+    // name appears in logs and errors ("text search index"); threadName names the indexer thread
+    protected PostCommitIndex(String name, String threadName, EntityManagerFactory entityManagerFactory,
+                              Class<?>... entityTypes) {
+        this.name = name;
+        this.entityManagerFactory = entityManagerFactory;
+        this.entityTypes = Set.of(entityTypes);
+        this.indexer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Hibernate takes one listener per class and event type, so the indexes of a session factory share one
+    @PostConstruct
+    public void registerEntityListeners() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        synchronized (EntityEvents.class) {
+            EntityEvents events = registeredEvents(registry);
+            if (events == null) {
+                events = new EntityEvents();
+                registry.appendListeners(EventType.POST_COMMIT_INSERT, events);
+                registry.appendListeners(EventType.POST_COMMIT_UPDATE, events);
+                registry.appendListeners(EventType.POST_COMMIT_DELETE, events);
+            }
+            events.indexes.add(this);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            logger.error("Failed to warm up the {}, it will be built on first use: {}", name, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        indexer.shutdownNow();
+    }
+
+    // Reload everything from the database, after the changes committed so far
+    public void rebuild() {
+        onIndexer(this::reload, "rebuild");
+    }
+
+    // Wait until the changes committed so far are applied
+    public void awaitPendingUpdates() {
+        try {
+            indexer.submit(() -> { }).get(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            throw new IllegalStateException("The " + name + " did not catch up: " + e.getMessage(), e);
+        }
+    }
+
+    // ========== SUBCLASS HOOKS ==========
+
+    // Indexer thread only: read the database, then replace the structures under the index's monitor. Returns what
+    // was loaded, for the log ("12 companies and 40 vehicles").
+    protected abstract String load();
+
+    // Committing thread: take what the change needs from the event and enqueue it. Called only for the entity types
+    // given to the constructor.
+    protected abstract void inserted(PostInsertEvent event);
+
+    protected abstract void updated(PostUpdateEvent event);
+
+    protected abstract void deleted(PostDeleteEvent event);
+
+    // Apply a committed change on the indexer thread, under the index's monitor
+    protected void enqueue(Runnable change) {
+        long committedAt = System.nanoTime();
+        pendingUpdates.incrementAndGet();
+        indexer.execute(() -> {
+            try {
+                synchronized (this) {
+                    change.run();
+                }
+            } catch (RuntimeException e) {
+                logger.error("Failed to apply a change to the {}: {}", name, e.getMessage());
+            } finally {
+                pendingUpdates.decrementAndGet();
+                appliedUpdates.incrementAndGet();
+                long lag = System.nanoTime() - committedAt;
+                lastLagNanos = lag;
+                maxLagNanos.accumulateAndGet(lag, Math::max);
+                Timer timer = lagTimer;
+                if (timer != null) {
+                    timer.record(lag, TimeUnit.NANOSECONDS);
+                }
+            }
+        });
+    }
+
+    // Build the index on first use; callers arriving together wait for the same rebuild
+    protected void ensureReady() {
+        if (!isReady()) {
+            onIndexer(() -> isReady() ? null : reload(), "rebuild");
+        }
+    }
+
+    // <prefix>.pending gauge and <prefix>.lag timer
+    protected void registerMetrics(MeterRegistry registry, String prefix) {
+        Gauge.builder(prefix + ".pending", pendingUpdates, AtomicInteger::get)
+                .description("Committed changes waiting to be applied to the " + name)
+                .register(registry);
+        lagTimer = Timer.builder(prefix + ".lag")
+                .description("Delay between a commit and its application to the " + name)
+                .register(registry);
+    }
+
+    protected void putIndexStatistics(Map<String, Object> stats) {
+        stats.put("ready", isReady());
+        stats.put("pendingUpdates", pendingUpdates.get());
+        stats.put("appliedUpdates", appliedUpdates.get());
+        stats.put("lastLagMillis", lastLagNanos / 1_000_000.0);
+        stats.put("maxLagMillis", maxLagNanos.get() / 1_000_000.0);
+        stats.put("lastRebuildMillis", lastRebuildMillis);
+        stats.put("lastRebuildAt", lastRebuildAt);
+    }
+
+    // ========== INTERNALS ==========
+
+    private synchronized boolean isReady() {
+        return ready;
+    }
+
+    private Void reload() {
+        long started = System.nanoTime();
+        String loaded = load();
+        synchronized (this) {
+            ready = true;
+        }
+        lastRebuildMillis = (System.nanoTime() - started) / 1_000_000;
+        lastRebuildAt = LocalDateTime.now();
+        logger.info("Rebuilt the {} with {} in {} ms", name, loaded, lastRebuildMillis);
+        return null;
+    }
+
+    private boolean follows(EntityPersister persister) {
+        return entityTypes.contains(persister.getMappedClass());
+    }
+
+    private static EntityEvents registeredEvents(EventListenerRegistry registry) {
+        for (Object listener : registry.getEventListenerGroup(EventType.POST_COMMIT_INSERT).listeners()) {
+            if (listener instanceof EntityEvents events) {
+                return events;
+            }
+        }
+        return null;
+    }
+
+    private <T> T onIndexer(Callable<T> task, String action) {
+        try {
+            return indexer.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during " + name + " " + action, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("The " + name + " " + action + " failed: " + e.getCause().getMessage(),
+                    e.getCause());
+        }
+    }
+
+    // Hands each committed change to the indexes following its entity type
+    private static class EntityEvents implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+            PostCommitDeleteEventListener {
+
+        private final List<PostCommitIndex> indexes = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            dispatch(event.getPersister(), index -> index.inserted(event));
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            dispatch(event.getPersister(), index -> index.updated(event));
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            dispatch(event.getPersister(), index -> index.deleted(event));
+        }
+
+        // A rolled back change never reached the database, so there is nothing to apply
+        @Override
+        public void onPostInsertCommitFailed(PostInsertEvent event) {
+        }
+
+        @Override
+        public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        }
+
+        @Override
+        public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        }
+
+        @Override
+        public boolean requiresPostCommitHandling(EntityPersister persister) {
+            return indexes.stream().anyMatch(index -> index.follows(persister));
+        }
+
+        // One index failing to take a change does not keep it from the others
+        private void dispatch(EntityPersister persister, Consumer<PostCommitIndex> hook) {
+            for (PostCommitIndex index : indexes) {
+                if (index.follows(persister)) {
+                    try {
+                        hook.accept(index);
+                    } catch (RuntimeException e) {
+                        index.logger.error("Failed to take a committed change into the {}: {}", index.name,
+                                e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.rentman.rentman.service;
 
 import com.rentman.rentman.dto.ReservationCreateDto;
+import com.rentman.rentman.entity.BusinessNumberGenerator;
 import com.rentman.rentman.entity.Reservation;
 import com.rentman.rentman.entity.User;
 import com.rentman.rentman.entity.Vehicle;
@@ -32,6 +33,15 @@ public class ReservationService {
     @Autowired
     private VehicleRepository vehicleRepository;
 
+    @Autowired
+    private AvailabilityIndex availabilityIndex;
+
+    @Autowired
+    private BusinessNumberGenerator businessNumberGenerator;
+
+    @Autowired
+    private CompanyDashboardSnapshot dashboardSnapshot;
+
     // Create new reservation
     public Reservation createReservation(ReservationCreateDto createDto) {
         // Validate customer exists
@@ -43,8 +53,8 @@ public class ReservationService {
             throw new RuntimeException("User is not a customer");
         }
 
-        // Validate vehicle exists
-        Vehicle vehicle = vehicleRepository.findById(createDto.getVehicleId())
+        // Validate vehicle exists and lock it so concurrent bookings for it are checked one at a time
+        Vehicle vehicle = vehicleRepository.findByIdForUpdate(createDto.getVehicleId())
                 .orElseThrow(() -> new RuntimeException("Vehicle not found with ID: " + createDto.getVehicleId()));
 
         // Validate vehicle is available
@@ -56,12 +66,13 @@ public class ReservationService {
         validateReservationDates(createDto.getStartDate(), createDto.getEndDate());
 
         // Check vehicle availability for the requested dates
-        if (!isVehicleAvailable(createDto.getVehicleId(), createDto.getStartDate(), createDto.getEndDate())) {
+        if (hasConflictingReservation(vehicle.getId(), createDto.getStartDate(), createDto.getEndDate(), null)) {
             throw new RuntimeException("Vehicle is not available for the selected dates");
         }
 
         // Create reservation
         Reservation reservation = new Reservation();
+        reservation.setReservationNumber(businessNumberGenerator.nextReservationNumber());
         reservation.setCustomer(customer);
         reservation.setVehicle(vehicle);
         reservation.setCompany(vehicle.getCompany()); // Set company from vehicle
@@ -87,15 +98,15 @@ public class ReservationService {
 
         // Save reservation
         Reservation savedReservation = reservationRepository.save(reservation);
+        availabilityIndex.record(savedReservation);
+        dashboardSnapshot.reservationChanged(savedReservation.getCompany());
 
         return savedReservation;
     }
 
     // Check vehicle availability
     public boolean isVehicleAvailable(Long vehicleId, LocalDate startDate, LocalDate endDate) {
-        long conflictingReservations = reservationRepository.countConflictingReservations(
-                vehicleId, startDate, endDate);
-        return conflictingReservations == 0;
+        return availabilityIndex.isAvailable(vehicleId, startDate, endDate);
     }
 
     // Confirm reservation
@@ -116,10 +127,20 @@ public class ReservationService {
             reservation.setHandledByEmployee(employee);
         }
 
+        // Confirming makes the reservation blocking, so re-check the dates under the vehicle lock
+        lockVehicle(reservation.getVehicle().getId());
+        if (hasConflictingReservation(reservation.getVehicle().getId(),
+                reservation.getStartDate(), reservation.getEndDate(), reservation.getId())) {
+            throw new RuntimeException("Vehicle is no longer available for the selected dates");
+        }
+
         reservation.setStatus(Reservation.ReservationStatus.CONFIRMED);
         reservation.setConfirmedAt(LocalDateTime.now());
 
-        return reservationRepository.save(reservation);
+        Reservation savedReservation = reservationRepository.save(reservation);
+        availabilityIndex.record(savedReservation);
+        dashboardSnapshot.reservationChanged(savedReservation.getCompany());
+        return savedReservation;
     }
 
     // Start reservation (vehicle pickup)
@@ -148,7 +169,10 @@ public class ReservationService {
         vehicle.setStatus(Vehicle.VehicleStatus.RENTED);
         vehicleRepository.save(vehicle);
 
-        return reservationRepository.save(reservation);
+        Reservation savedReservation = reservationRepository.save(reservation);
+        dashboardSnapshot.reservationChanged(savedReservation.getCompany());
+
+        return savedReservation;
     }
 
     // Complete reservation (vehicle return)
@@ -191,7 +215,10 @@ public class ReservationService {
 
         vehicleRepository.save(vehicle);
 
-        return reservationRepository.save(reservation);
+        Reservation savedReservation = reservationRepository.save(reservation);
+        availabilityIndex.record(savedReservation);
+        dashboardSnapshot.reservationChanged(savedReservation.getCompany());
+        return savedReservation;
     }
 
     // Cancel reservation
@@ -213,7 +240,10 @@ public class ReservationService {
             vehicleRepository.save(vehicle);
         }
 
-        return reservationRepository.save(reservation);
+        Reservation savedReservation = reservationRepository.save(reservation);
+        availabilityIndex.record(savedReservation);
+        dashboardSnapshot.reservationChanged(savedReservation.getCompany());
+        return savedReservation;
     }
 
     // Get all reservations
@@ -234,20 +264,8 @@ public class ReservationService {
 
     // Get customer's reservations
     public List<Reservation> getCustomerReservations(Long customerId) {
-        List<Reservation> reservations = reservationRepository.findByCustomerIdOrderByCreatedAtDesc(customerId);
-        // Trigger lazy loading for vehicle and company relationships
-        for (Reservation reservation : reservations) {
-            if (reservation.getVehicle() != null) {
-                reservation.getVehicle().getMake(); // Initialize vehicle proxy
-                if (reservation.getVehicle().getCompany() != null) {
-                    reservation.getVehicle().getCompany().getCompanyName(); // Initialize company proxy
-                }
-            }
-            if (reservation.getCompany() != null) {
-                reservation.getCompany().getCompanyName(); // Initialize company proxy
-            }
-        }
-        return reservations;
+        // Vehicle, customer and company come back in the same query (entity graph on the repository method)
+        return reservationRepository.findByCustomerIdOrderByCreatedAtDesc(customerId);
     }
 
     // Get vehicle's reservations
@@ -303,8 +321,9 @@ public class ReservationService {
 
             validateReservationDates(updatedReservation.getStartDate(), updatedReservation.getEndDate());
 
-            if (!isVehicleAvailable(reservation.getVehicle().getId(),
-                    updatedReservation.getStartDate(), updatedReservation.getEndDate())) {
+            lockVehicle(reservation.getVehicle().getId());
+            if (hasConflictingReservation(reservation.getVehicle().getId(),
+                    updatedReservation.getStartDate(), updatedReservation.getEndDate(), reservation.getId())) {
                 throw new RuntimeException("Vehicle is not available for the new dates");
             }
         }
@@ -325,7 +344,10 @@ public class ReservationService {
         // Recalculate costs
         calculateAdditionalCosts(reservation);
 
-        return reservationRepository.save(reservation);
+        Reservation savedReservation = reservationRepository.save(reservation);
+        availabilityIndex.record(savedReservation);
+        dashboardSnapshot.reservationChanged(savedReservation.getCompany());
+        return savedReservation;
     }
 
     // Delete reservation (only if pending)
@@ -337,6 +359,8 @@ public class ReservationService {
         }
 
         reservationRepository.delete(reservation);
+        availabilityIndex.forget(id);
+        dashboardSnapshot.reservationChanged(reservation.getCompany());
     }
 
     // Calculate revenue for date range
@@ -397,6 +421,22 @@ public class ReservationService {
         }
     }
 
+    private void lockVehicle(Long vehicleId) {
+        vehicleRepository.findByIdForUpdate(vehicleId)
+                .orElseThrow(() -> new RuntimeException("Vehicle not found with ID: " + vehicleId));
+    }
+
+    // Authoritative overlap check against the database. Callers hold the vehicle row lock,
+    // so no other booking for the vehicle can commit between this check and our own commit.
+    private boolean hasConflictingReservation(Long vehicleId, LocalDate startDate, LocalDate endDate,
+                                              Long excludedReservationId) {
+        long conflicts = excludedReservationId == null
+                ? reservationRepository.countConflictingReservations(vehicleId, startDate, endDate)
+                : reservationRepository.countConflictingReservationsExcluding(
+                        vehicleId, startDate, endDate, excludedReservationId);
+        return conflicts > 0;
+    }
+
     private void calculateAdditionalCosts(Reservation reservation) {
         BigDecimal additionalCosts = BigDecimal.ZERO;
 
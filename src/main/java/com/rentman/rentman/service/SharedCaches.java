@@ -0,0 +1,114 @@
+package com.rentman.rentman.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+// Read-heavy API responses cached across nodes (see CacheConfig). Values are the response bodies rendered to JSON
+// once, so a hit on any node skips both the queries and the entity serialization. Entries expire after their TTL
+// and are invalidated from CompanyDashboardSnapshot whenever company data changes.
+@Service
+public class SharedCaches {
+
+    // Vehicle and company search results, keyed by request path and parameters
+    public static final String SEARCH = "search";
+    // /api/companies/active and /featured
+    public static final String COMPANY_LISTS = "companyLists";
+    // /api/companies/{id}/statistics, keyed by company id
+    public static final String COMPANY_STATISTICS = "companyStatistics";
+    // /api/companies/statistics/platform
+    public static final String PLATFORM_STATISTICS = "platformStatistics";
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Cached JSON of the loader's value, computed on a miss
+    public String getJson(String cacheName, Object key, Supplier<?> loader) {
+        return getJson(cacheName, key, loader, value -> true);
+    }
+
+    // As above, but a value failing the predicate (e.g. a partial result) is returned without being cached
+    public String getJson(String cacheName, Object key, Supplier<?> loader, Predicate<Object> cacheable) {
+        AtomicReference<String> uncached = new AtomicReference<>();
+        try {
+            String json = cache(cacheName).get(key, () -> {
+                Object value = loader.get();
+                String rendered = objectMapper.writeValueAsString(value);
+                if (cacheable.test(value)) {
+                    return rendered;
+                }
+                uncached.set(rendered);
+                return null;
+            });
+            return json != null ? json : uncached.get();
+        } catch (Cache.ValueRetrievalException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof JsonProcessingException) {
+                throw new RuntimeException("Failed to serialize response: " + e.getCause().getMessage(), e.getCause());
+            }
+            throw e;
+        }
+    }
+
+    // Cache key for a request: its path and query parameters in name order, so parameter order does not matter
+    public static String requestKey(HttpServletRequest request) {
+        StringBuilder key = new StringBuilder(request.getRequestURI());
+        Map<String, String[]> parameters = new TreeMap<>(request.getParameterMap());
+        char separator = '?';
+        for (Map.Entry<String, String[]> parameter : parameters.entrySet()) {
+            for (String value : parameter.getValue()) {
+                key.append(separator).append(parameter.getKey()).append('=').append(value);
+                separator = '&';
+            }
+        }
+        return key.toString();
+    }
+
+    // 200 response for a body returned by getJson
+    public static ResponseEntity<String> jsonResponse(String json) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(json);
+    }
+
+    // ========== INVALIDATION ==========
+
+    // Called once the transaction that changed these dashboard sections of the company has committed. Search results
+    // are cleared only for changes to searchable company or vehicle data; a vehicle's status moving with a
+    // reservation, maintenance or defect (searchable false) shows up in search once the entries expire.
+    public void companyDataChanged(Long companyId, boolean searchable, CompanyDashboardSnapshot.Section... sections) {
+        List<CompanyDashboardSnapshot.Section> changed = Arrays.asList(sections);
+        boolean company = changed.contains(CompanyDashboardSnapshot.Section.COMPANY);
+
+        cache(COMPANY_STATISTICS).evict(companyId);
+        if (searchable && (company || changed.contains(CompanyDashboardSnapshot.Section.VEHICLES))) {
+            cache(SEARCH).clear();
+        }
+        if (company) {
+            cache(COMPANY_LISTS).clear();
+        }
+        if (company || changed.contains(CompanyDashboardSnapshot.Section.INVOICES)) {
+            cache(PLATFORM_STATISTICS).clear();
+        }
+    }
+
+    private Cache cache(String name) {
+        return cacheManager.getCache(name);
+    }
+}
@@ -0,0 +1,494 @@
+package com.rentman.rentman.service;
+
+import com.rentman.rentman.entity.Company;
+import com.rentman.rentman.entity.Reservation;
+import com.rentman.rentman.entity.Vehicle;
+import com.rentman.rentman.repository.CompanyRepository;
+import com.rentman.rentman.repository.ReservationRepository;
+import com.rentman.rentman.repository.VehicleRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.springframework.stereotype.Service;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+
+// Type-ahead suggestions for makes, models and locations from prefix tries held in memory. A term ranks by the
+// vehicles holding it plus their completed reservations (the popularity behind findPopularVehicles); a location by
+// the same for the vehicles of its companies. Committed vehicle, company and reservation changes update the tries
+// through Hibernate post-commit events (see PostCommitIndex), so a keystroke never reaches the database.
+@Service
+public class SuggestionService extends PostCommitIndex {
+
+    public static final int MAX_LIMIT = 50;
+
+    private final VehicleRepository vehicleRepository;
+    private final CompanyRepository companyRepository;
+    private final ReservationRepository reservationRepository;
+
+    private PrefixTrie makes = new PrefixTrie();
+    private PrefixTrie models = new PrefixTrie();
+    private Map<String, PrefixTrie> modelsByMake = new HashMap<>();
+    private PrefixTrie locations = new PrefixTrie();
+    private Map<Long, VehicleEntry> vehicles = new HashMap<>();
+    private Map<Long, CompanyEntry> companies = new HashMap<>();
+
+    public SuggestionService(VehicleRepository vehicleRepository, CompanyRepository companyRepository,
+                             ReservationRepository reservationRepository, EntityManagerFactory entityManagerFactory) {
+        super("suggestion tries", "suggestion-indexer", entityManagerFactory,
+                Vehicle.class, Company.class, Reservation.class);
+        this.vehicleRepository = vehicleRepository;
+        this.companyRepository = companyRepository;
+        this.reservationRepository = reservationRepository;
+    }
+
+    // ========== QUERIES ==========
+
+    // Makes starting with the prefix (case-insensitive), most popular first
+    public List<String> suggestMakes(String prefix, int limit) {
+        ensureReady();
+        synchronized (this) {
+            return makes.top(prefix, clamp(limit));
+        }
+    }
+
+    // Models of the given make starting with the prefix, or of every make when none is given
+    public List<String> suggestModels(String make, String prefix, int limit) {
+        ensureReady();
+        synchronized (this) {
+            if (make == null || make.isEmpty()) {
+                return models.top(prefix, clamp(limit));
+            }
+            PrefixTrie forMake = modelsByMake.get(PrefixTrie.key(make));
+            return forMake == null ? List.of() : forMake.top(prefix, clamp(limit));
+        }
+    }
+
+    // "City, State" locations starting with the prefix, most popular first
+    public List<String> suggestLocations(String prefix, int limit) {
+        ensureReady();
+        synchronized (this) {
+            return locations.top(prefix, clamp(limit));
+        }
+    }
+
+    // Makes containing the fragment (every make when null), alphabetically: the original /suggestions/makes?query=
+    public List<String> suggestMakesContaining(String fragment, int limit) {
+        ensureReady();
+        synchronized (this) {
+            return makes.containing(fragment, clamp(limit));
+        }
+    }
+
+    public List<String> suggestModelsContaining(String make, String fragment, int limit) {
+        ensureReady();
+        synchronized (this) {
+            if (make == null || make.isEmpty()) {
+                return models.containing(fragment, clamp(limit));
+            }
+            PrefixTrie forMake = modelsByMake.get(PrefixTrie.key(make));
+            return forMake == null ? List.of() : forMake.containing(fragment, clamp(limit));
+        }
+    }
+
+    public List<String> suggestLocationsContaining(String fragment, int limit) {
+        ensureReady();
+        synchronized (this) {
+            return locations.containing(fragment, clamp(limit));
+        }
+    }
+
+    public synchronized Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        putIndexStatistics(stats);
+        stats.put("indexedVehicles", vehicles.size());
+        stats.put("indexedCompanies", companies.size());
+        stats.put("makes", makes.size());
+        stats.put("models", models.size());
+        stats.put("locations", locations.size());
+        stats.put("trieNodes", makes.nodeCount() + models.nodeCount() + locations.nodeCount());
+        return stats;
+    }
+
+    // ========== UPDATES ==========
+
+    // Every vehicle, company location and completed reservation count from the database
+    @Override
+    protected String load() {
+        List<Object[]> vehicleRows = vehicleRepository.findSuggestionRows();
+        List<Object[]> companyRows = companyRepository.findLocationRows();
+        List<Object[]> popularityRows = reservationRepository.findPopularVehicleIds();
+
+        Map<Long, Long> reservationCounts = new HashMap<>();
+        for (Object[] row : popularityRows) {
+            reservationCounts.put((Long) row[0], (Long) row[1]);
+        }
+
+        synchronized (this) {
+            makes = new PrefixTrie();
+            models = new PrefixTrie();
+            modelsByMake = new HashMap<>();
+            locations = new PrefixTrie();
+            vehicles = new HashMap<>();
+            companies = new HashMap<>();
+            for (Object[] row : companyRows) {
+                companyChanged((Long) row[0], location((String) row[1], (String) row[2]));
+            }
+            for (Object[] row : vehicleRows) {
+                Long vehicleId = (Long) row[0];
+                VehicleEntry entry = new VehicleEntry((String) row[1], (String) row[2], (Long) row[3],
+                        reservationCounts.getOrDefault(vehicleId, 0L));
+                vehicles.put(vehicleId, entry);
+                apply(entry, 1);
+            }
+        }
+        return vehicleRows.size() + " vehicles and " + companyRows.size() + " companies";
+    }
+
+    @Override
+    protected void inserted(PostInsertEvent event) {
+        Object entity = event.getEntity();
+        if (entity instanceof Reservation reservation) {
+            if (reservation.getStatus() == Reservation.ReservationStatus.COMPLETED) {
+                Long vehicleId = vehicleId(reservation);
+                enqueue(() -> reservationsChanged(vehicleId, 1));
+            }
+        } else {
+            changed(entity);
+        }
+    }
+
+    @Override
+    protected void updated(PostUpdateEvent event) {
+        Object entity = event.getEntity();
+        if (entity instanceof Reservation reservation) {
+            Object previousStatus = previousValue(event, "status");
+            boolean wasCompleted = previousStatus == Reservation.ReservationStatus.COMPLETED;
+            boolean isCompleted = reservation.getStatus() == Reservation.ReservationStatus.COMPLETED;
+            if (wasCompleted != isCompleted && event.getOldState() != null) {
+                Long vehicleId = vehicleId(reservation);
+                enqueue(() -> reservationsChanged(vehicleId, isCompleted ? 1 : -1));
+            }
+        } else {
+            changed(entity);
+        }
+    }
+
+    @Override
+    protected void deleted(PostDeleteEvent event) {
+        Object entity = event.getEntity();
+        Long id = (Long) event.getId();
+        if (entity instanceof Vehicle) {
+            enqueue(() -> vehicleRemoved(id));
+        } else if (entity instanceof Company) {
+            enqueue(() -> companyRemoved(id));
+        } else if (entity instanceof Reservation reservation
+                && reservation.getStatus() == Reservation.ReservationStatus.COMPLETED) {
+            Long vehicleId = vehicleId(reservation);
+            enqueue(() -> reservationsChanged(vehicleId, -1));
+        }
+    }
+
+    synchronized void vehicleChanged(Long vehicleId, String make, String model, Long companyId) {
+        VehicleEntry previous = vehicles.get(vehicleId);
+        long reservations = 0;
+        if (previous != null) {
+            apply(previous, -1);
+            reservations = previous.reservations();
+        }
+        VehicleEntry entry = new VehicleEntry(make, model, companyId, reservations);
+        vehicles.put(vehicleId, entry);
+        apply(entry, 1);
+    }
+
+    synchronized void vehicleRemoved(Long vehicleId) {
+        VehicleEntry previous = vehicles.remove(vehicleId);
+        if (previous != null) {
+            apply(previous, -1);
+        }
+    }
+
+    synchronized void companyChanged(Long companyId, String location) {
+        CompanyEntry company = companies.computeIfAbsent(companyId, id -> new CompanyEntry());
+        if (Objects.equals(company.location, location)) {
+            return;
+        }
+        if (company.location != null) {
+            locations.adjust(company.location, -1, -company.weight);
+        }
+        company.location = location;
+        locations.adjust(location, 1, company.weight);
+    }
+
+    synchronized void companyRemoved(Long companyId) {
+        CompanyEntry company = companies.remove(companyId);
+        if (company != null && company.location != null) {
+            locations.adjust(company.location, -1, -company.weight);
+        }
+    }
+
+    // A reservation of the vehicle was completed (delta 1) or stopped counting as completed (delta -1)
+    synchronized void reservationsChanged(Long vehicleId, int delta) {
+        VehicleEntry previous = vehicles.get(vehicleId);
+        if (previous == null) {
+            return;
+        }
+        apply(previous, -1);
+        VehicleEntry updated = new VehicleEntry(previous.make(), previous.model(), previous.companyId(),
+                Math.max(0, previous.reservations() + delta));
+        vehicles.put(vehicleId, updated);
+        apply(updated, 1);
+    }
+
+    // ========== INTERNALS ==========
+
+    // Adds (sign 1) or retracts (sign -1) a vehicle's weight: itself plus its completed reservations
+    private void apply(VehicleEntry entry, int sign) {
+        long weight = sign * (1 + entry.reservations());
+        makes.adjust(entry.make(), sign, weight);
+        models.adjust(entry.model(), sign, weight);
+        if (entry.make() != null && !entry.make().isEmpty()) {
+            String makeKey = PrefixTrie.key(entry.make());
+            PrefixTrie forMake = modelsByMake.computeIfAbsent(makeKey, key -> new PrefixTrie());
+            forMake.adjust(entry.model(), sign, weight);
+            if (forMake.size() == 0) {
+                modelsByMake.remove(makeKey);
+            }
+        }
+        if (entry.companyId() != null) {
+            CompanyEntry company = companies.computeIfAbsent(entry.companyId(), id -> new CompanyEntry());
+            company.weight += weight;
+            if (company.location != null) {
+                locations.adjust(company.location, 0, weight);
+            }
+        }
+    }
+
+    private static int clamp(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    private static String location(String city, String state) {
+        return city + ", " + state;
+    }
+
+    record VehicleEntry(String make, String model, Long companyId, long reservations) {
+    }
+
+    // Location of a company and the summed weight of its vehicles, moved together when the location changes
+    private static class CompanyEntry {
+        private String location;
+        private long weight;
+    }
+
+    // Values read on the committing thread, applied on the indexer
+    private void changed(Object entity) {
+        if (entity instanceof Vehicle vehicle) {
+            Long vehicleId = vehicle.getId();
+            String make = vehicle.getMake();
+            String model = vehicle.getModel();
+            Long companyId = vehicle.getCompany() == null ? null : vehicle.getCompany().getId();
+            enqueue(() -> vehicleChanged(vehicleId, make, model, companyId));
+        } else if (entity instanceof Company company) {
+            Long companyId = company.getId();
+            String location = location(company.getCity(), company.getState());
+            enqueue(() -> companyChanged(companyId, location));
+        }
+    }
+
+    private static Long vehicleId(Reservation reservation) {
+        return reservation.getVehicle() == null ? null : reservation.getVehicle().getId();
+    }
+
+    private static Object previousValue(PostUpdateEvent event, String property) {
+        Object[] oldState = event.getOldState();
+        if (oldState == null) {
+            return null;
+        }
+        String[] names = event.getPersister().getPropertyNames();
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(property)) {
+                return oldState[i];
+            }
+        }
+        return null;
+    }
+
+    // Character trie over lower-cased terms. Every node carries the best score in its subtree, so the top terms
+    // under a prefix come out of a best-first walk that only opens the branches able to beat what is already found,
+    // instead of collecting and sorting the whole subtree. Ties go alphabetically.
+    static class PrefixTrie {
+
+        private static final Comparator<Candidate> ORDER = Comparator.comparingLong(Candidate::score).reversed()
+                .thenComparing(Candidate::path)
+                .thenComparing(candidate -> candidate.term() == null);
+
+        private final Node root = new Node();
+        private int terms = 0;
+        private int nodes = 1;
+
+        static String key(String value) {
+            return value.toLowerCase(Locale.ROOT);
+        }
+
+        // Changes how many vehicles or companies hold the value and its score; the term disappears at no holders
+        void adjust(String value, int holdersDelta, long scoreDelta) {
+            if (value == null || value.isEmpty()) {
+                return;
+            }
+            String key = key(value);
+            List<Node> path = new ArrayList<>(key.length() + 1);
+            Node node = root;
+            path.add(node);
+            for (int i = 0; i < key.length(); i++) {
+                Node child = node.children.get(key.charAt(i));
+                if (child == null) {
+                    if (holdersDelta <= 0) {
+                        return;
+                    }
+                    child = new Node();
+                    node.children.put(key.charAt(i), child);
+                    nodes++;
+                }
+                node = child;
+                path.add(node);
+            }
+
+            Term term = node.term;
+            if (term == null) {
+                if (holdersDelta <= 0) {
+                    return;
+                }
+                term = new Term(key);
+                node.term = term;
+                terms++;
+            }
+            term.holders += holdersDelta;
+            term.score += scoreDelta;
+            if (holdersDelta != 0) {
+                term.spellings.merge(value, holdersDelta, Integer::sum);
+                if (term.spellings.get(value) <= 0) {
+                    term.spellings.remove(value);
+                }
+            }
+            if (term.holders <= 0) {
+                node.term = null;
+                terms--;
+            }
+
+            // Refresh the subtree bests from the term up, dropping nodes left empty
+            for (int depth = path.size() - 1; depth >= 0; depth--) {
+                Node current = path.get(depth);
+                if (depth > 0 && current.term == null && current.children.isEmpty()) {
+                    path.get(depth - 1).children.remove(key.charAt(depth - 1));
+                    nodes--;
+                    continue;
+                }
+                long best = current.term == null ? Long.MIN_VALUE : current.term.score;
+                for (Node child : current.children.values()) {
+                    best = Math.max(best, child.best);
+                }
+                current.best = best;
+            }
+        }
+
+        List<String> top(String prefix, int limit) {
+            String key = prefix == null ? "" : key(prefix);
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.children.get(key.charAt(i));
+            }
+            if (node == null) {
+                return List.of();
+            }
+
+            List<String> result = new ArrayList<>(limit);
+            PriorityQueue<Candidate> queue = new PriorityQueue<>(ORDER);
+            queue.add(new Candidate(node.best, key, node, null));
+            while (!queue.isEmpty() && result.size() < limit) {
+                Candidate next = queue.poll();
+                if (next.term() != null) {
+                    result.add(next.term().display());
+                    continue;
+                }
+                Node current = next.node();
+                if (current.term != null) {
+                    queue.add(new Candidate(current.term.score, next.path(), null, current.term));
+                }
+                current.children.forEach((character, child) ->
+                        queue.add(new Candidate(child.best, next.path() + character, child, null)));
+            }
+            return result;
+        }
+
+        // Terms containing the fragment anywhere, in their shown spelling and alphabetical order. Walks every node:
+        // a trie only narrows by prefix.
+        List<String> containing(String fragment, int limit) {
+            String needle = fragment == null ? "" : key(fragment);
+            List<String> found = new ArrayList<>();
+            Deque<Node> pending = new ArrayDeque<>();
+            pending.push(root);
+            while (!pending.isEmpty()) {
+                Node node = pending.pop();
+                if (node.term != null && node.term.key.contains(needle)) {
+                    found.add(node.term.display());
+                }
+                node.children.values().forEach(pending::push);
+            }
+            found.sort(Comparator.naturalOrder());
+            return found.size() > limit ? found.subList(0, limit) : found;
+        }
+
+        int size() {
+            return terms;
+        }
+
+        int nodeCount() {
+            return nodes;
+        }
+
+        private static class Node {
+            private final Map<Character, Node> children = new HashMap<>();
+            private Term term;
+            private long best = Long.MIN_VALUE;
+        }
+
+        // One lower-cased term; shown in its most common spelling
+        private static class Term {
+            private final String key;
+            private final Map<String, Integer> spellings = new HashMap<>();
+            private int holders;
+            private long score;
+
+            private Term(String key) {
+                this.key = key;
+            }
+
+            private String display() {
+                String display = key;
+                int most = 0;
+                for (Map.Entry<String, Integer> spelling : spellings.entrySet()) {
+                    if (spelling.getValue() > most
+                            || (spelling.getValue() == most && spelling.getKey().compareTo(display) < 0)) {
+                        display = spelling.getKey();
+                        most = spelling.getValue();
+                    }
+                }
+                return display;
+            }
+        }
+
+        // A subtree bounded by its best score, or a term with its own score
+        private record Candidate(long score, String path, Node node, Term term) {
+        }
+    }
+}
@@ -0,0 +1,456 @@
+package com.rentman.rentman.service;
+
+import com.rentman.rentman.entity.Company;
+import com.rentman.rentman.entity.User;
+import com.rentman.rentman.entity.Vehicle;
+import com.rentman.rentman.repository.CompanyRepository;
+import com.rentman.rentman.repository.UserRepository;
+import com.rentman.rentman.repository.VehicleRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+// Trigram inverted index over user full names, company names and vehicle makes/models for the name searches, which
+// would otherwise be LIKE '%...%' table scans. Committed inserts, updates and deletes of those entities reach it
+// through Hibernate post-commit events (see PostCommitIndex).
+@Component
+public class TextSearchIndex extends PostCommitIndex {
+
+    public enum MatchMode {
+        SUBSTRING, PREFIX, FUZZY;
+
+        // Request parameter value, case-insensitive; null or empty means SUBSTRING (the LIKE '%...%' semantics)
+        public static MatchMode parse(String value) {
+            return value == null || value.isEmpty() ? SUBSTRING : valueOf(value.toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private final UserRepository userRepository;
+    private final CompanyRepository companyRepository;
+    private final VehicleRepository vehicleRepository;
+    private final int maxFilterValues;
+
+    // Users and companies are indexed by id; vehicles by their distinct make and model values, reference-counted
+    private TrigramIndex<Long> userNames = new TrigramIndex<>();
+    private TrigramIndex<Long> companyNames = new TrigramIndex<>();
+    private TrigramIndex<String> makes = new TrigramIndex<>();
+    private TrigramIndex<String> models = new TrigramIndex<>();
+    private Map<Long, VehicleNames> vehicles = new HashMap<>();
+    private Map<String, Integer> makeCounts = new HashMap<>();
+    private Map<String, Integer> modelCounts = new HashMap<>();
+
+    public TextSearchIndex(UserRepository userRepository, CompanyRepository companyRepository,
+                           VehicleRepository vehicleRepository, EntityManagerFactory entityManagerFactory,
+                           ObjectProvider<MeterRegistry> meterRegistry,
+                           @Value("${rentman.text-search.max-filter-values:1000}") int maxFilterValues) {
+        super("text search index", "text-search-indexer", entityManagerFactory,
+                User.class, Company.class, Vehicle.class);
+        this.userRepository = userRepository;
+        this.companyRepository = companyRepository;
+        this.vehicleRepository = vehicleRepository;
+        this.maxFilterValues = maxFilterValues;
+        meterRegistry.ifAvailable(registry -> registerMetrics(registry, "rentman.text-index"));
+    }
+
+    // ========== QUERIES ==========
+
+    // User ids, best match first
+    public List<Long> searchUsers(String query, MatchMode mode, int limit) {
+        ensureReady();
+        synchronized (this) {
+            return userNames.search(query, mode, limit);
+        }
+    }
+
+    // Company ids, best match first
+    public List<Long> searchCompanies(String query, MatchMode mode, int limit) {
+        ensureReady();
+        synchronized (this) {
+            return companyNames.search(query, mode, limit);
+        }
+    }
+
+    // Distinct vehicle makes as stored, best match first
+    public List<String> searchMakes(String query, MatchMode mode, int limit) {
+        ensureReady();
+        synchronized (this) {
+            return makes.search(query, mode, limit);
+        }
+    }
+
+    // Distinct vehicle models as stored, best match first
+    public List<String> searchModels(String query, MatchMode mode, int limit) {
+        ensureReady();
+        synchronized (this) {
+            return models.search(query, mode, limit);
+        }
+    }
+
+    // Largest id or value list a search filter hands to the database as IN (...); a substring filter matching more
+    // falls back to LIKE, keeping the statement under the driver's parameter limit
+    public int getMaxFilterValues() {
+        return maxFilterValues;
+    }
+
+    public synchronized Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        putIndexStatistics(stats);
+        stats.put("indexedUsers", userNames.size());
+        stats.put("indexedCompanies", companyNames.size());
+        stats.put("indexedVehicles", vehicles.size());
+        stats.put("distinctMakes", makes.size());
+        stats.put("distinctModels", models.size());
+        stats.put("trigrams", userNames.trigramCount() + companyNames.trigramCount()
+                + makes.trigramCount() + models.trigramCount());
+        return stats;
+    }
+
+    // ========== UPDATES ==========
+
+    @Override
+    protected String load() {
+        List<Object[]> userRows = userRepository.findNameRows();
+        List<Object[]> companyRows = companyRepository.findNameRows();
+        List<Object[]> vehicleRows = vehicleRepository.findFacetRows();
+
+        synchronized (this) {
+            userNames = new TrigramIndex<>();
+            companyNames = new TrigramIndex<>();
+            makes = new TrigramIndex<>();
+            models = new TrigramIndex<>();
+            vehicles = new HashMap<>();
+            makeCounts = new HashMap<>();
+            modelCounts = new HashMap<>();
+            for (Object[] row : userRows) {
+                userNames.put((Long) row[0], fullName((String) row[1], (String) row[2]));
+            }
+            for (Object[] row : companyRows) {
+                companyNames.put((Long) row[0], (String) row[1]);
+            }
+            for (Object[] row : vehicleRows) {
+                putVehicle((Long) row[0], new VehicleNames((String) row[1], (String) row[2]));
+            }
+        }
+        return userRows.size() + " users, " + companyRows.size() + " companies and "
+                + vehicleRows.size() + " vehicles";
+    }
+
+    @Override
+    protected void inserted(PostInsertEvent event) {
+        indexed(event.getEntity());
+    }
+
+    @Override
+    protected void updated(PostUpdateEvent event) {
+        indexed(event.getEntity());
+    }
+
+    @Override
+    protected void deleted(PostDeleteEvent event) {
+        Object entity = event.getEntity();
+        Long id = (Long) event.getId();
+        if (entity instanceof User) {
+            enqueue(() -> userNames.remove(id));
+        } else if (entity instanceof Company) {
+            enqueue(() -> companyNames.remove(id));
+        } else if (entity instanceof Vehicle) {
+            enqueue(() -> removeVehicle(id));
+        }
+    }
+
+    private void indexed(Object entity) {
+        if (entity instanceof User user) {
+            Long userId = user.getId();
+            String name = fullName(user.getFirstName(), user.getLastName());
+            enqueue(() -> userNames.put(userId, name));
+        } else if (entity instanceof Company company) {
+            Long companyId = company.getId();
+            String name = company.getCompanyName();
+            enqueue(() -> companyNames.put(companyId, name));
+        } else if (entity instanceof Vehicle vehicle) {
+            Long vehicleId = vehicle.getId();
+            VehicleNames names = new VehicleNames(vehicle.getMake(), vehicle.getModel());
+            enqueue(() -> {
+                removeVehicle(vehicleId);
+                putVehicle(vehicleId, names);
+            });
+        }
+    }
+
+    // ========== INTERNALS ==========
+
+    private void putVehicle(Long vehicleId, VehicleNames names) {
+        vehicles.put(vehicleId, names);
+        adjust(makes, makeCounts, names.make(), 1);
+        adjust(models, modelCounts, names.model(), 1);
+    }
+
+    private void removeVehicle(Long vehicleId) {
+        VehicleNames previous = vehicles.remove(vehicleId);
+        if (previous != null) {
+            adjust(makes, makeCounts, previous.make(), -1);
+            adjust(models, modelCounts, previous.model(), -1);
+        }
+    }
+
+    // A make or model stays searchable while at least one vehicle has it
+    private static void adjust(TrigramIndex<String> index, Map<String, Integer> counts, String value, int delta) {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        int updated = counts.getOrDefault(value, 0) + delta;
+        if (updated > 0) {
+            if (counts.put(value, updated) == null) {
+                index.put(value, value);
+            }
+        } else {
+            counts.remove(value);
+            index.remove(value);
+        }
+    }
+
+    private static String fullName(String firstName, String lastName) {
+        return (firstName == null ? "" : firstName) + " " + (lastName == null ? "" : lastName);
+    }
+
+    record VehicleNames(String make, String model) {
+    }
+
+    // Inverted index from the trigrams of each normalized text (whole and per word, padded with spaces so word
+    // starts and ends have their own trigrams) to the keys holding it. A lookup intersects or counts the posting
+    // sets of the query's trigrams and verifies only those candidates; queries too short to have a trigram are
+    // checked against every text, which stays cheap at the sizes indexed here.
+    static class TrigramIndex<K extends Comparable<K>> {
+
+        private final Map<K, String> texts = new HashMap<>();
+        private final Map<String, Set<K>> postings = new HashMap<>();
+
+        void put(K key, String text) {
+            remove(key);
+            String normalized = normalize(text);
+            if (normalized.isEmpty()) {
+                return;
+            }
+            texts.put(key, normalized);
+            for (String gram : indexTrigrams(normalized)) {
+                postings.computeIfAbsent(gram, g -> new HashSet<>()).add(key);
+            }
+        }
+
+        void remove(K key) {
+            String previous = texts.remove(key);
+            if (previous == null) {
+                return;
+            }
+            for (String gram : indexTrigrams(previous)) {
+                Set<K> keys = postings.get(gram);
+                if (keys != null) {
+                    keys.remove(key);
+                    if (keys.isEmpty()) {
+                        postings.remove(gram);
+                    }
+                }
+            }
+        }
+
+        // SUBSTRING: the text contains the query. PREFIX: the text or one of its words starts with it.
+        // FUZZY: the text, a word or the beginning of either is within one edit of the query (two from six
+        // characters).
+        List<K> search(String query, MatchMode mode, int limit) {
+            String needle = normalize(query);
+            if (needle.isEmpty() || limit <= 0) {
+                return List.of();
+            }
+            if (mode == MatchMode.FUZZY && needle.length() <= 2) {
+                mode = MatchMode.PREFIX;
+            }
+
+            List<Match<K>> matches = new ArrayList<>();
+            switch (mode) {
+                case SUBSTRING -> {
+                    for (K key : candidates(trigrams(needle))) {
+                        String text = texts.get(key);
+                        int at = text.indexOf(needle);
+                        if (at >= 0) {
+                            matches.add(new Match<>(key, text, at));
+                        }
+                    }
+                }
+                case PREFIX -> {
+                    for (K key : candidates(trigrams(" " + needle))) {
+                        String text = texts.get(key);
+                        int at = text.startsWith(needle) ? 0 : text.indexOf(" " + needle);
+                        if (at >= 0) {
+                            matches.add(new Match<>(key, text, at));
+                        }
+                    }
+                }
+                case FUZZY -> {
+                    int maxEdits = needle.length() <= 5 ? 1 : 2;
+                    for (K key : fuzzyCandidates(needle, maxEdits)) {
+                        String text = texts.get(key);
+                        int edits = closestEdits(text, needle, maxEdits);
+                        if (edits <= maxEdits) {
+                            matches.add(new Match<>(key, text, edits));
+                        }
+                    }
+                }
+            }
+            matches.sort(Comparator.<Match<K>>comparingInt(Match::score)
+                    .thenComparing(Match::text)
+                    .thenComparing(Match::key));
+
+            List<K> result = new ArrayList<>(Math.min(limit, matches.size()));
+            for (Match<K> match : matches) {
+                if (result.size() == limit) {
+                    break;
+                }
+                result.add(match.key());
+            }
+            return result;
+        }
+
+        int size() {
+            return texts.size();
+        }
+
+        int trigramCount() {
+            return postings.size();
+        }
+
+        // Keys holding every one of the trigrams
+        private Collection<K> candidates(Set<String> grams) {
+            if (grams.isEmpty()) {
+                return texts.keySet();
+            }
+            List<Set<K>> sets = new ArrayList<>(grams.size());
+            for (String gram : grams) {
+                Set<K> keys = postings.get(gram);
+                if (keys == null) {
+                    return List.of();
+                }
+                sets.add(keys);
+            }
+            sets.sort(Comparator.comparingInt(Set::size));
+            List<K> result = new ArrayList<>();
+            for (K key : sets.get(0)) {
+                boolean everywhere = true;
+                for (int i = 1; i < sets.size() && everywhere; i++) {
+                    everywhere = sets.get(i).contains(key);
+                }
+                if (everywhere) {
+                    result.add(key);
+                }
+            }
+            return result;
+        }
+
+        // Each edit destroys at most three trigrams, so a text within maxEdits shares at least n - 3 * maxEdits
+        // of the query's n trigrams. The query is padded at the start only, as it may match a word's beginning.
+        private Collection<K> fuzzyCandidates(String needle, int maxEdits) {
+            Set<String> grams = trigrams("  " + needle);
+            int required = Math.max(1, grams.size() - 3 * maxEdits);
+            Map<K, Integer> hits = new HashMap<>();
+            for (String gram : grams) {
+                Set<K> keys = postings.get(gram);
+                if (keys != null) {
+                    for (K key : keys) {
+                        hits.merge(key, 1, Integer::sum);
+                    }
+                }
+            }
+            List<K> result = new ArrayList<>();
+            hits.forEach((key, count) -> {
+                if (count >= required) {
+                    result.add(key);
+                }
+            });
+            return result;
+        }
+
+        private static int closestEdits(String text, String needle, int maxEdits) {
+            int best = closestPrefixEdits(text, needle, maxEdits);
+            for (String word : text.split(" ")) {
+                if (best == 0) {
+                    break;
+                }
+                best = Math.min(best, closestPrefixEdits(word, needle, maxEdits));
+            }
+            return best;
+        }
+
+        // Edits between the needle and the value, or a beginning of the value up to maxEdits longer or shorter
+        // than the needle, so a word still being typed matches
+        private static int closestPrefixEdits(String value, String needle, int maxEdits) {
+            int best = editDistance(needle, value);
+            int to = Math.min(value.length() - 1, needle.length() + maxEdits);
+            for (int length = Math.max(1, needle.length() - maxEdits); length <= to && best > 0; length++) {
+                best = Math.min(best, editDistance(needle, value.substring(0, length)));
+            }
+            return best;
+        }
+
+        private static int editDistance(String a, String b) {
+            int[] previous = new int[b.length() + 1];
+            int[] current = new int[b.length() + 1];
+            for (int j = 0; j <= b.length(); j++) {
+                previous[j] = j;
+            }
+            for (int i = 1; i <= a.length(); i++) {
+                current[0] = i;
+                for (int j = 1; j <= b.length(); j++) {
+                    int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                    current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+                }
+                int[] swap = previous;
+                previous = current;
+                current = swap;
+            }
+            return previous[b.length()];
+        }
+
+        private static Set<String> indexTrigrams(String normalized) {
+            Set<String> grams = trigrams("  " + normalized + " ");
+            for (String word : normalized.split(" ")) {
+                grams.addAll(trigrams("  " + word + " "));
+            }
+            return grams;
+        }
+
+        private static Set<String> trigrams(String value) {
+            Set<String> grams = new HashSet<>();
+            for (int i = 0; i + 3 <= value.length(); i++) {
+                grams.add(value.substring(i, i + 3));
+            }
+            return grams;
+        }
+
+        // Lower case without accents, with runs of whitespace collapsed to one space
+        static String normalize(String value) {
+            if (value == null) {
+                return "";
+            }
+            String stripped = Normalizer.normalize(value, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+            return stripped.toLowerCase(Locale.ROOT).trim().replaceAll("\\s+", " ");
+        }
+
+        // Lower scores rank first: where the match starts, or the number of edits for a fuzzy match
+        private record Match<K>(K key, String text, int score) {
+        }
+    }
+}
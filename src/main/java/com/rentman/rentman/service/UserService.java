@@ -11,6 +11,8 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -27,6 +29,18 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private CompanyDashboardSnapshot dashboardSnapshot;
+
+    @Autowired
+    private LastLoginRecorder lastLoginRecorder;
+
+    @Autowired
+    private TextSearchIndex textSearchIndex;
+
     // Register new user
     public User registerUser(UserRegistrationDto registrationDto) {
         // Check if email already exists
@@ -155,10 +169,10 @@ public class UserService {
     public Optional<User> loginUser(String email, String password) {
         Optional<User> user = userRepository.findByEmail(email);
         if (user.isPresent() && passwordEncoder.matches(password, user.get().getPassword())) {
-            // Update last login
+            // Update last login; the row is written by the recorder's next batched flush
             User loginUser = user.get();
             loginUser.setLastLogin(LocalDateTime.now());
-            userRepository.save(loginUser);
+            lastLoginRecorder.record(loginUser.getId(), loginUser.getLastLogin());
             return user;
         }
         return Optional.empty();
@@ -214,7 +228,7 @@ public class UserService {
             user.setEmailNotifications(updatedUser.getEmailNotifications());
             user.setSmsNotifications(updatedUser.getSmsNotifications());
 
-            return userRepository.save(user);
+            return saveAndEvict(user);
         }
         throw new RuntimeException("User not found with id: " + id);
     }
@@ -276,7 +290,7 @@ public class UserService {
             user.setSmsNotifications((Boolean) updates.get("smsNotifications"));
         }
 
-        return userRepository.save(user);
+        return saveAndEvict(user);
     }
 
     // Update user status
@@ -285,23 +299,41 @@ public class UserService {
         if (user.isPresent()) {
             User existingUser = user.get();
             existingUser.setStatus(status);
-            return userRepository.save(existingUser);
+            return saveAndEvict(existingUser);
         }
         throw new RuntimeException("User not found with id: " + id);
     }
 
     // Delete user
     public void deleteUser(Long id) {
-        if (userRepository.existsById(id)) {
-            userRepository.deleteById(id);
-        } else {
-            throw new RuntimeException("User not found with id: " + id);
-        }
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
+        userRepository.delete(user);
+        userDetailsService.evictUser(user.getEmail());
+        dashboardSnapshot.userChanged(user.getCompany());
     }
 
     // Search users by name
     public List<User> searchUsersByName(String name) {
-        return userRepository.findByFullNameContaining(name);
+        return searchUsersByName(name, TextSearchIndex.MatchMode.SUBSTRING, Integer.MAX_VALUE);
+    }
+
+    // Search users by name through the text search index, best match first; only the matches are loaded
+    public List<User> searchUsersByName(String name, TextSearchIndex.MatchMode mode, int limit) {
+        List<Long> ids = textSearchIndex.searchUsers(name, mode, limit);
+        Map<Long, User> users = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += textSearchIndex.getMaxFilterValues()) {
+            List<Long> chunk = ids.subList(from, Math.min(from + textSearchIndex.getMaxFilterValues(), ids.size()));
+            userRepository.findAllById(chunk).forEach(user -> users.put(user.getId(), user));
+        }
+        List<User> result = new ArrayList<>(users.size());
+        for (Long id : ids) {
+            User user = users.get(id);
+            if (user != null) {
+                result.add(user);
+            }
+        }
+        return result;
     }
 
     // Get user statistics
@@ -326,7 +358,7 @@ public class UserService {
         if (user.isPresent()) {
             User existingUser = user.get();
             existingUser.setEmailVerified(true);
-            return userRepository.save(existingUser);
+            return saveAndEvict(existingUser);
         }
         throw new RuntimeException("User not found with id: " + userId);
     }
@@ -337,7 +369,7 @@ public class UserService {
         if (user.isPresent()) {
             User existingUser = user.get();
             existingUser.setPhoneVerified(true);
-            return userRepository.save(existingUser);
+            return saveAndEvict(existingUser);
         }
         throw new RuntimeException("User not found with id: " + userId);
     }
@@ -354,6 +386,14 @@ public class UserService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
         user.setPassword(passwordEncoder.encode(newPassword));
-        userRepository.save(user);
+        saveAndEvict(user);
+    }
+
+    // Save a changed user, drop its cached principal and refresh its company's dashboard employee section
+    private User saveAndEvict(User user) {
+        User savedUser = userRepository.save(user);
+        userDetailsService.evictUser(savedUser.getEmail());
+        dashboardSnapshot.userChanged(savedUser.getCompany());
+        return savedUser;
     }
 }
\ No newline at end of file
@@ -0,0 +1,307 @@
+package com.rentman.rentman.service;
+
+import com.rentman.rentman.entity.Vehicle;
+import com.rentman.rentman.repository.VehicleRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+// Distinct values and ranges behind the search filters, kept as reference-counted sorted sets so vehicle changes
+// apply incrementally and reads never touch the database.
+// Rebuilds and committed changes run in order on a single indexer thread, as in AvailabilityIndex: a rebuild loads
+// new facets off to the side and publishes them in one swap, and changes committed while it loaded follow it.
+@Component
+public class VehicleFacetIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(VehicleFacetIndex.class);
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    // Null until the first rebuild; replaced whole by each rebuild, then updated only by the indexer thread.
+    // Guarded by this, since the sorted sets behind it are not safe for concurrent reads and writes.
+    private Facets facets;
+
+    private final ExecutorService indexer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "vehicle-facet-indexer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicInteger pendingUpdates = new AtomicInteger();
+
+    private volatile long lastRebuildMillis;
+    private volatile LocalDateTime lastRebuildAt;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            logger.error("Failed to warm up vehicle facet index, it will be built on first use: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        indexer.shutdownNow();
+    }
+
+    // Reload every vehicle from the database
+    public void rebuild() {
+        onIndexer(this::reload, "rebuild");
+    }
+
+    // Wait until the changes committed so far are applied
+    public void awaitPendingUpdates() {
+        onIndexer(() -> null, "catch up");
+    }
+
+    // ========== UPDATES ==========
+
+    public void record(Vehicle vehicle) {
+        Long vehicleId = vehicle.getId();
+        VehicleFacets facets = VehicleFacets.of(vehicle);
+        afterCommit(() -> enqueue(current -> {
+            current.remove(vehicleId);
+            current.add(vehicleId, facets);
+        }));
+    }
+
+    public void forget(Long vehicleId) {
+        afterCommit(() -> enqueue(current -> current.remove(vehicleId)));
+    }
+
+    // ========== QUERIES ==========
+
+    // Same shape and defaults as the original stream-based /api/search/filters response
+    public Map<String, Object> getFilters() {
+        ensureReady();
+        synchronized (this) {
+            Counter<Integer> years = facets.years;
+            Counter<BigDecimal> dailyRates = facets.dailyRates;
+            Counter<Integer> seatingCapacities = facets.seatingCapacities;
+            Map<String, Object> filters = new HashMap<>();
+            filters.put("vehicleTypes", Vehicle.VehicleType.values());
+            filters.put("fuelTypes", facets.fuelTypes.values());
+            filters.put("transmissions", facets.transmissions.values());
+            filters.put("colors", facets.colors.values());
+            filters.put("yearRange", Map.of(
+                    "min", years.isEmpty() ? 2000 : years.first(),
+                    "max", years.isEmpty() ? 2024 : years.last()));
+            filters.put("priceRange", Map.of(
+                    "min", dailyRates.isEmpty() ? BigDecimal.ZERO : dailyRates.first(),
+                    "max", dailyRates.isEmpty() ? BigDecimal.valueOf(1000) : dailyRates.last()));
+
+            // Vehicles without a seating capacity count as 2 seats for the minimum and 8 for the maximum
+            int minSeating = seatingCapacities.isEmpty() ? 2 : seatingCapacities.first();
+            int maxSeating = seatingCapacities.isEmpty() ? 8 : seatingCapacities.last();
+            if (facets.vehiclesWithoutSeating > 0) {
+                minSeating = Math.min(minSeating, 2);
+                maxSeating = Math.max(maxSeating, 8);
+            }
+            filters.put("seatingRange", Map.of("min", minSeating, "max", maxSeating));
+            return filters;
+        }
+    }
+
+    public synchronized Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("ready", facets != null);
+        stats.put("indexedVehicles", facets != null ? facets.vehicles.size() : 0);
+        stats.put("distinctMakes", facets != null ? facets.makes.size() : 0);
+        stats.put("distinctModels", facets != null ? facets.models.size() : 0);
+        stats.put("pendingUpdates", pendingUpdates.get());
+        stats.put("lastRebuildMillis", lastRebuildMillis);
+        stats.put("lastRebuildAt", lastRebuildAt);
+        return stats;
+    }
+
+    // ========== INTERNALS ==========
+
+    // Concurrent first uses queue behind one another on the indexer, so only the first of them loads
+    private void ensureReady() {
+        if (!isBuilt()) {
+            onIndexer(() -> isBuilt() ? null : reload(), "rebuild");
+        }
+    }
+
+    private synchronized boolean isBuilt() {
+        return facets != null;
+    }
+
+    // Indexer thread only
+    private Void reload() {
+        long started = System.nanoTime();
+        List<Object[]> vehicleRows = vehicleRepository.findFacetRows();
+
+        Facets loaded = new Facets();
+        for (Object[] row : vehicleRows) {
+            loaded.add((Long) row[0], new VehicleFacets((String) row[1], (String) row[2], (Integer) row[3],
+                    (BigDecimal) row[4], (String) row[5], (String) row[6], (String) row[7], (Integer) row[8]));
+        }
+        synchronized (this) {
+            facets = loaded;
+        }
+
+        lastRebuildMillis = (System.nanoTime() - started) / 1_000_000;
+        lastRebuildAt = LocalDateTime.now();
+        logger.info("Vehicle facet index rebuilt with {} vehicles in {} ms", vehicleRows.size(), lastRebuildMillis);
+        return null;
+    }
+
+    // A change to facets that are not built yet is dropped: the first rebuild reads it from the database
+    private void enqueue(Consumer<Facets> change) {
+        pendingUpdates.incrementAndGet();
+        indexer.execute(() -> {
+            try {
+                synchronized (this) {
+                    if (facets != null) {
+                        change.accept(facets);
+                    }
+                }
+            } catch (RuntimeException e) {
+                logger.error("Failed to apply a change to the vehicle facet index: {}", e.getMessage());
+            } finally {
+                pendingUpdates.decrementAndGet();
+            }
+        });
+    }
+
+    private <T> T onIndexer(Callable<T> task, String action) {
+        try {
+            return indexer.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during vehicle facet index " + action, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Vehicle facet index " + action + " failed: " + e.getCause().getMessage(),
+                    e.getCause());
+        }
+    }
+
+    private static String nonEmpty(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    record VehicleFacets(String make, String model, Integer year, BigDecimal dailyRate,
+                         String fuelType, String transmission, String color, Integer seatingCapacity) {
+
+        static VehicleFacets of(Vehicle vehicle) {
+            return new VehicleFacets(vehicle.getMake(), vehicle.getModel(), vehicle.getYear(), vehicle.getDailyRate(),
+                    vehicle.getFuelType(), vehicle.getTransmission(), vehicle.getColor(), vehicle.getSeatingCapacity());
+        }
+    }
+
+    // Last indexed values per vehicle, so an update can retract what it replaces, and the sorted sets built from them
+    static class Facets {
+
+        private final Map<Long, VehicleFacets> vehicles = new HashMap<>();
+
+        private final Counter<String> makes = new Counter<>();
+        private final Counter<String> models = new Counter<>();
+        private final Counter<String> fuelTypes = new Counter<>();
+        private final Counter<String> transmissions = new Counter<>();
+        private final Counter<String> colors = new Counter<>();
+        private final Counter<Integer> years = new Counter<>();
+        private final Counter<BigDecimal> dailyRates = new Counter<>();
+        private final Counter<Integer> seatingCapacities = new Counter<>();
+        private int vehiclesWithoutSeating = 0;
+
+        void add(Long vehicleId, VehicleFacets facets) {
+            vehicles.put(vehicleId, facets);
+            apply(facets, 1);
+        }
+
+        void remove(Long vehicleId) {
+            VehicleFacets previous = vehicles.remove(vehicleId);
+            if (previous != null) {
+                apply(previous, -1);
+            }
+        }
+
+        private void apply(VehicleFacets facets, int delta) {
+            makes.adjust(facets.make(), delta);
+            models.adjust(facets.model(), delta);
+            fuelTypes.adjust(nonEmpty(facets.fuelType()), delta);
+            transmissions.adjust(nonEmpty(facets.transmission()), delta);
+            colors.adjust(nonEmpty(facets.color()), delta);
+            years.adjust(facets.year(), delta);
+            dailyRates.adjust(facets.dailyRate(), delta);
+            if (facets.seatingCapacity() != null) {
+                seatingCapacities.adjust(facets.seatingCapacity(), delta);
+            } else {
+                vehiclesWithoutSeating += delta;
+            }
+        }
+    }
+
+    // Sorted multiset: a value stays visible while at least one vehicle holds it. Nulls are ignored.
+    static class Counter<T extends Comparable<T>> {
+
+        private final NavigableMap<T, Integer> counts = new TreeMap<>();
+
+        void adjust(T value, int delta) {
+            if (value == null) {
+                return;
+            }
+            int updated = counts.getOrDefault(value, 0) + delta;
+            if (updated > 0) {
+                counts.put(value, updated);
+            } else {
+                counts.remove(value);
+            }
+        }
+
+        List<T> values() {
+            return List.copyOf(counts.keySet());
+        }
+
+        T first() {
+            return counts.firstKey();
+        }
+
+        T last() {
+            return counts.lastKey();
+        }
+
+        boolean isEmpty() {
+            return counts.isEmpty();
+        }
+
+        int size() {
+            return counts.size();
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.rentman.rentman.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rentman.rentman.dto.VehicleImportResult;
+import com.rentman.rentman.entity.Company;
+import com.rentman.rentman.entity.Vehicle;
+import com.rentman.rentman.repository.VehicleRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Bulk vehicle import from a streamed CSV (header row of Vehicle JSON field names) or NDJSON body.
+// The body is read a chunk at a time: rows are parsed and validated in parallel, license plates checked against
+// the database with one query per chunk, and the accepted vehicles inserted as JDBC batches in one transaction.
+@Service
+public class VehicleImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(VehicleImportService.class);
+    private static final TypeReference<Map<String, Object>> ROW_TYPE = new TypeReference<>() {};
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private CompanyService companyService;
+
+    @Autowired
+    private CompanyDashboardSnapshot dashboardSnapshot;
+
+    @Autowired
+    private VehicleFacetIndex facetIndex;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    private final TransactionTemplate chunkTransaction;
+    private final int chunkSize;
+    private final int maxErrors;
+
+    public VehicleImportService(PlatformTransactionManager transactionManager,
+                                @Value("${rentman.vehicle-import.chunk-size:500}") int chunkSize,
+                                @Value("${rentman.vehicle-import.max-errors:1000}") int maxErrors) {
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+    }
+
+    public VehicleImportResult importVehicles(Long companyId, ExportService.Format format, InputStream body) throws IOException {
+        long started = System.nanoTime();
+        Company company = companyService.getCompanyById(companyId);
+        // The plan limit is checked once; rows beyond the remaining capacity are rejected individually
+        ImportState state = new ImportState(company, companyService.getRemainingVehicleCapacity(companyId));
+        state.result.setFormat(format.name());
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        String[] header = null;
+        if (format == ExportService.Format.CSV) {
+            String headerLine = reader.readLine();
+            if (headerLine == null) {
+                throw new RuntimeException("CSV import needs a header row of vehicle field names");
+            }
+            // Spreadsheet exports often start with a UTF-8 byte order mark
+            header = parseCsvLine(headerLine.replace("\uFEFF", ""));
+        }
+
+        List<RawRow> chunk = new ArrayList<>(chunkSize);
+        long rowNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            chunk.add(new RawRow(++rowNumber, line));
+            if (chunk.size() == chunkSize) {
+                processChunk(chunk, header, format, state);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            processChunk(chunk, header, format, state);
+        }
+
+        VehicleImportResult result = state.result;
+        result.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        result.setRowsPerSecond(Math.round(result.getRowsRead() * 10000.0 / Math.max(1, result.getElapsedMillis())) / 10.0);
+        if (result.getImported() > 0) {
+            dashboardSnapshot.vehicleChanged(company);
+        }
+        logger.info("Vehicle import for company {}: {} rows, {} imported, {} failed in {} ms ({} rows/s)",
+                companyId, result.getRowsRead(), result.getImported(), result.getFailed(),
+                result.getElapsedMillis(), result.getRowsPerSecond());
+        return result;
+    }
+
+    // ========== CHUNK PROCESSING ==========
+
+    private void processChunk(List<RawRow> chunk, String[] header, ExportService.Format format, ImportState state) {
+        VehicleImportResult result = state.result;
+        result.setRowsRead(result.getRowsRead() + chunk.size());
+        result.setChunks(result.getChunks() + 1);
+
+        // Parsing and bean validation are independent per row
+        List<ParsedRow> parsed = chunk.parallelStream()
+                .map(raw -> parse(raw, header, format))
+                .toList();
+
+        Set<String> plates = parsed.stream()
+                .filter(row -> row.error() == null)
+                .map(ParsedRow::licensePlate)
+                .collect(Collectors.toSet());
+        Set<String> registered = plates.isEmpty() ? Set.of() : vehicleRepository.findExistingLicensePlates(plates).stream()
+                .map(plate -> plate.toUpperCase(Locale.ROOT))
+                .collect(Collectors.toSet());
+
+        List<ParsedRow> accepted = new ArrayList<>();
+        for (ParsedRow row : parsed) {
+            String plateKey = row.licensePlate() == null ? null : row.licensePlate().toUpperCase(Locale.ROOT);
+            if (row.error() != null) {
+                state.reject(row, row.error(), maxErrors);
+            } else if (registered.contains(plateKey)) {
+                state.reject(row, "License plate is already registered", maxErrors);
+            } else if (!state.seenPlates.add(plateKey)) {
+                state.reject(row, "License plate appears more than once in this import", maxErrors);
+            } else if (state.remainingCapacity <= 0) {
+                state.reject(row, "Company vehicle limit reached (" + state.company.getMaxVehicles() + " vehicles)", maxErrors);
+            } else {
+                accepted.add(row);
+                state.remainingCapacity--;
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        try {
+            chunkTransaction.executeWithoutResult(status -> {
+                Company companyRef = entityManager.getReference(Company.class, state.company.getId());
+                for (ParsedRow row : accepted) {
+                    Vehicle vehicle = row.vehicle();
+                    vehicle.setCompany(companyRef);
+                    entityManager.persist(vehicle);
+                    facetIndex.record(vehicle);
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+            result.setImported(result.getImported() + accepted.size());
+        } catch (RuntimeException e) {
+            // e.g. a plate registered concurrently: the chunk rolled back, so none of its rows were imported
+            logger.warn("Vehicle import chunk of {} rows failed: {}", accepted.size(), e.getMessage());
+            state.remainingCapacity += accepted.size();
+            for (ParsedRow row : accepted) {
+                state.seenPlates.remove(row.licensePlate().toUpperCase(Locale.ROOT));
+                state.reject(row, "Insert failed: " + describe(e), maxErrors);
+            }
+        }
+    }
+
+    private ParsedRow parse(RawRow raw, String[] header, ExportService.Format format) {
+        try {
+            Map<String, Object> fields;
+            if (format == ExportService.Format.CSV) {
+                String[] values = parseCsvLine(raw.line());
+                if (values.length != header.length) {
+                    return ParsedRow.failed(raw.row(), null,
+                            "Expected " + header.length + " columns but found " + values.length);
+                }
+                fields = new LinkedHashMap<>();
+                for (int i = 0; i < header.length; i++) {
+                    // Empty cells keep the entity defaults
+                    if (!values[i].isEmpty()) {
+                        fields.put(header[i].trim(), values[i]);
+                    }
+                }
+            } else {
+                fields = objectMapper.readValue(raw.line(), ROW_TYPE);
+            }
+
+            // Same binding as POST /api/vehicles; the id and company always come from the import itself
+            Vehicle vehicle = objectMapper.convertValue(fields, Vehicle.class);
+            vehicle.setId(null);
+            vehicle.setCompany(null);
+            String plate = vehicle.getLicensePlate() == null ? null : vehicle.getLicensePlate().trim();
+            vehicle.setLicensePlate(plate);
+
+            Set<ConstraintViolation<Vehicle>> violations = validator.validate(vehicle);
+            if (!violations.isEmpty()) {
+                String messages = violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; "));
+                return ParsedRow.failed(raw.row(), plate, messages);
+            }
+            if (vehicle.getType() == null) {
+                return ParsedRow.failed(raw.row(), plate, "Vehicle type is required");
+            }
+            return new ParsedRow(raw.row(), vehicle, plate, null);
+        } catch (IOException | IllegalArgumentException e) {
+            return ParsedRow.failed(raw.row(), null, "Invalid row: " + describe(e));
+        }
+    }
+
+    // ========== HELPERS ==========
+
+    // One RFC 4180 record on a single line: comma separated, fields optionally quoted with "" as an escaped quote
+    static String[] parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+
+    // First line of the most specific message, short enough to return per row
+    private static String describe(Throwable e) {
+        Throwable cause = e;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        String message = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+        int newline = message.indexOf('\n');
+        if (newline >= 0) {
+            message = message.substring(0, newline);
+        }
+        return message.length() > 200 ? message.substring(0, 200) + "..." : message;
+    }
+
+    private record RawRow(long row, String line) {
+    }
+
+    private record ParsedRow(long row, Vehicle vehicle, String licensePlate, String error) {
+
+        static ParsedRow failed(long row, String licensePlate, String error) {
+            return new ParsedRow(row, null, licensePlate, error);
+        }
+    }
+
+    private static class ImportState {
+
+        private final Company company;
+        private final VehicleImportResult result = new VehicleImportResult();
+        // Upper-cased plates accepted so far, to catch duplicates within the file
+        private final Set<String> seenPlates = new HashSet<>();
+        private long remainingCapacity;
+
+        ImportState(Company company, long remainingCapacity) {
+            this.company = company;
+            this.remainingCapacity = remainingCapacity;
+        }
+
+        void reject(ParsedRow row, String error, int maxErrors) {
+            result.setFailed(result.getFailed() + 1);
+            if (result.getErrors().size() < maxErrors) {
+                result.getErrors().add(new VehicleImportResult.RowError(row.row(), row.licensePlate(), error));
+            } else {
+                result.setErrorsTruncated(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+-- One-off migration of an existing RentMan database from IDENTITY ids to the sequences the entities use
+-- (<table>_seq, INCREMENT BY 50 to match allocationSize with the pooled-lo optimizer).
+--
+-- Run once with sqlcmd or SSMS while the application is stopped, before starting a version with sequence ids.
+-- Safe to re-run: tables whose id is no longer an identity only get their sequence re-positioned.
+-- Indexes that include the id column are dropped here and recreated by ddl-auto=update on the next start.
+
+SET XACT_ABORT ON;
+SET NOCOUNT ON;
+GO
+
+CREATE TABLE #foreign_keys (name SYSNAME, definition NVARCHAR(MAX));
+GO
+
+CREATE PROCEDURE #identity_to_sequence @table SYSNAME, @sequence SYSNAME
+AS
+BEGIN
+    DECLARE @object_id INT = OBJECT_ID(@table);
+    DECLARE @sql NVARCHAR(MAX);
+    IF @object_id IS NULL
+        RETURN;
+
+    IF COLUMNPROPERTY(@object_id, 'id', 'IsIdentity') = 1
+    BEGIN
+        -- Remember, then drop, the foreign keys referencing this table; they are recreated at the end
+        INSERT INTO #foreign_keys (name, definition)
+        SELECT fk.name,
+               'ALTER TABLE ' + QUOTENAME(OBJECT_SCHEMA_NAME(fk.parent_object_id)) + '.' + QUOTENAME(OBJECT_NAME(fk.parent_object_id))
+               + ' ADD CONSTRAINT ' + QUOTENAME(fk.name) + ' FOREIGN KEY (' + QUOTENAME(pc.name) + ')'
+               + ' REFERENCES ' + QUOTENAME(@table) + ' (id)'
+        FROM sys.foreign_keys fk
+        JOIN sys.foreign_key_columns fkc ON fkc.constraint_object_id = fk.object_id
+        JOIN sys.columns pc ON pc.object_id = fkc.parent_object_id AND pc.column_id = fkc.parent_column_id
+        WHERE fk.referenced_object_id = @object_id;
+
+        SET @sql = NULL;
+        SELECT @sql = STRING_AGG(CAST('ALTER TABLE ' + QUOTENAME(OBJECT_SCHEMA_NAME(parent_object_id)) + '.'
+                                      + QUOTENAME(OBJECT_NAME(parent_object_id)) + ' DROP CONSTRAINT ' + QUOTENAME(name)
+                                      AS NVARCHAR(MAX)), '; ')
+        FROM sys.foreign_keys
+        WHERE referenced_object_id = @object_id;
+        IF @sql IS NOT NULL
+            EXEC sp_executesql @sql;
+
+        -- Secondary indexes containing id (e.g. the keyset pagination indexes)
+        SET @sql = NULL;
+        SELECT @sql = STRING_AGG(CAST('DROP INDEX ' + QUOTENAME(i.name) + ' ON ' + QUOTENAME(@table) AS NVARCHAR(MAX)), '; ')
+        FROM sys.indexes i
+        WHERE i.object_id = @object_id AND i.is_primary_key = 0 AND i.name IS NOT NULL
+          AND EXISTS (SELECT 1
+                      FROM sys.index_columns ic
+                      JOIN sys.columns c ON c.object_id = ic.object_id AND c.column_id = ic.column_id
+                      WHERE ic.object_id = i.object_id AND ic.index_id = i.index_id AND c.name = 'id');
+        IF @sql IS NOT NULL
+            EXEC sp_executesql @sql;
+
+        -- Replace the identity column with a plain BIGINT column holding the same values
+        DECLARE @pk SYSNAME = (SELECT name FROM sys.key_constraints WHERE parent_object_id = @object_id AND type = 'PK');
+        SET @sql = 'ALTER TABLE ' + QUOTENAME(@table) + ' DROP CONSTRAINT ' + QUOTENAME(@pk);
+        EXEC sp_executesql @sql;
+        SET @sql = 'ALTER TABLE ' + QUOTENAME(@table) + ' ADD id_seq BIGINT NULL';
+        EXEC sp_executesql @sql;
+        SET @sql = 'UPDATE ' + QUOTENAME(@table) + ' SET id_seq = id';
+        EXEC sp_executesql @sql;
+        SET @sql = 'ALTER TABLE ' + QUOTENAME(@table) + ' DROP COLUMN id';
+        EXEC sp_executesql @sql;
+        SET @sql = @table + '.id_seq';
+        EXEC sp_rename @sql, 'id', 'COLUMN';
+        SET @sql = 'ALTER TABLE ' + QUOTENAME(@table) + ' ALTER COLUMN id BIGINT NOT NULL';
+        EXEC sp_executesql @sql;
+        SET @sql = 'ALTER TABLE ' + QUOTENAME(@table) + ' ADD CONSTRAINT ' + QUOTENAME(@pk) + ' PRIMARY KEY (id)';
+        EXEC sp_executesql @sql;
+    END
+
+    -- Position the sequence after the highest existing id
+    DECLARE @next BIGINT;
+    SET @sql = 'SELECT @next = ISNULL(MAX(id), 0) + 1 FROM ' + QUOTENAME(@table);
+    EXEC sp_executesql @sql, N'@next BIGINT OUTPUT', @next = @next OUTPUT;
+    IF OBJECT_ID(@sequence, 'SO') IS NULL
+        SET @sql = 'CREATE SEQUENCE ' + QUOTENAME(@sequence) + ' AS BIGINT START WITH ' + CAST(@next AS NVARCHAR(20)) + ' INCREMENT BY 50';
+    ELSE
+        SET @sql = 'ALTER SEQUENCE ' + QUOTENAME(@sequence) + ' RESTART WITH ' + CAST(@next AS NVARCHAR(20)) + ' INCREMENT BY 50';
+    EXEC sp_executesql @sql;
+END
+GO
+
+BEGIN TRANSACTION;
+
+EXEC #identity_to_sequence 'company', 'company_seq';
+EXEC #identity_to_sequence 'app_user', 'app_user_seq';
+EXEC #identity_to_sequence 'vehicle', 'vehicle_seq';
+EXEC #identity_to_sequence 'reservation', 'reservation_seq';
+EXEC #identity_to_sequence 'maintenance', 'maintenance_seq';
+EXEC #identity_to_sequence 'defect', 'defect_seq';
+EXEC #identity_to_sequence 'invoice', 'invoice_seq';
+EXEC #identity_to_sequence 'invoice_item', 'invoice_item_seq';
+
+DECLARE @definition NVARCHAR(MAX);
+DECLARE foreign_key_cursor CURSOR LOCAL FAST_FORWARD FOR SELECT definition FROM #foreign_keys;
+OPEN foreign_key_cursor;
+FETCH NEXT FROM foreign_key_cursor INTO @definition;
+WHILE @@FETCH_STATUS = 0
+BEGIN
+    EXEC sp_executesql @definition;
+    FETCH NEXT FROM foreign_key_cursor INTO @definition;
+END
+CLOSE foreign_key_cursor;
+DEALLOCATE foreign_key_cursor;
+
+COMMIT TRANSACTION;
+GO
+
+DROP PROCEDURE #identity_to_sequence;
+DROP TABLE #foreign_keys;
+GO
@@ -0,0 +1,20 @@
+-- Schema objects ddl-auto=update cannot create. Runs after Hibernate's schema update on every start
+-- (spring.sql.init), so each statement must be safe to repeat. Statements are split on semicolons.
+
+-- One invoice of a type per company and billing period, so billing runs on several nodes cannot invoice a company
+-- twice (see BillingRunService). Filtered to invoices with a billing period: SQL Server treats NULLs as equal in
+-- unique indexes. Replaces the plain idx_invoice_company_type_period index.
+IF EXISTS (SELECT 1 FROM invoice
+           WHERE billing_period_start IS NOT NULL
+           GROUP BY company_id, type, billing_period_start
+           HAVING COUNT(*) > 1)
+    RAISERROR('Duplicate invoices for the same company, type and billing period; resolve them before starting', 16, 1);
+
+IF EXISTS (SELECT 1 FROM sys.indexes
+           WHERE object_id = OBJECT_ID('invoice') AND name = 'idx_invoice_company_type_period')
+    DROP INDEX idx_invoice_company_type_period ON invoice;
+
+IF NOT EXISTS (SELECT 1 FROM sys.indexes
+               WHERE object_id = OBJECT_ID('invoice') AND name = 'uk_invoice_company_type_period')
+    CREATE UNIQUE INDEX uk_invoice_company_type_period ON invoice (company_id, type, billing_period_start)
+        WHERE billing_period_start IS NOT NULL;
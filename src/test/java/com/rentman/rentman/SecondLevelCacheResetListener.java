@@ -0,0 +1,18 @@
+package com.rentman.rentman;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.test.context.TestContext;
+import org.springframework.test.context.support.AbstractTestExecutionListener;
+
+// The Caffeine JCache manager behind the Hibernate second-level cache is JVM-wide, so test contexts on different
+// in-memory databases would share regions and read each other's entities by id. Every test starts with a cold cache.
+public class SecondLevelCacheResetListener extends AbstractTestExecutionListener {
+
+    @Override
+    public void beforeTestMethod(TestContext testContext) {
+        if (testContext.hasApplicationContext()) {
+            testContext.getApplicationContext().getBeanProvider(EntityManagerFactory.class)
+                    .ifAvailable(entityManagerFactory -> entityManagerFactory.getCache().evictAll());
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.rentman.rentman;
+
+import com.rentman.rentman.service.AvailabilityIndex;
+import com.rentman.rentman.service.GeoSearchIndex;
+import com.rentman.rentman.service.LastLoginRecorder;
+import com.rentman.rentman.service.SuggestionService;
+import com.rentman.rentman.service.TextSearchIndex;
+import com.rentman.rentman.service.VehicleFacetIndex;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestContext;
+import org.springframework.test.context.support.AbstractTestExecutionListener;
+import javax.sql.DataSource;
+import java.util.List;
+
+// Integration test classes share one context and one database, so each class starts from empty tables and from
+// in-memory indexes and caches rebuilt over them, as if it had a database of its own. Sequences are not reset:
+// ids are never reused, so nothing held by id can be mistaken for a row of a later class.
+public class TestDatabaseResetListener extends AbstractTestExecutionListener {
+
+    @Override
+    public void beforeTestClass(TestContext testContext) {
+        ApplicationContext context = testContext.getApplicationContext();
+
+        // Let work queued by the previous class finish before its rows disappear
+        context.getBean(LastLoginRecorder.class).flush();
+        context.getBean(TextSearchIndex.class).awaitPendingUpdates();
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+        List<String> tables = jdbcTemplate.queryForList("SELECT TABLE_NAME FROM INFORMATION_SCHEMA.TABLES "
+                + "WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_TYPE = 'BASE TABLE'", String.class);
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        try {
+            for (String table : tables) {
+                jdbcTemplate.execute("TRUNCATE TABLE \"" + table + "\"");
+            }
+        } finally {
+            jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+        }
+
+        context.getBean(EntityManagerFactory.class).getCache().evictAll();
+        CacheManager cacheManager = context.getBean(CacheManager.class);
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+        context.getBean(AvailabilityIndex.class).rebuild();
+        context.getBean(VehicleFacetIndex.class).rebuild();
+        context.getBean(TextSearchIndex.class).rebuild();
+        context.getBean(SuggestionService.class).rebuild();
+        context.getBean(GeoSearchIndex.class).rebuild();
+    }
+}
@@ -0,0 +1,109 @@
+package com.rentman.rentman;
+
+import com.rentman.rentman.entity.Company;
+import com.rentman.rentman.entity.Invoice;
+import com.rentman.rentman.entity.Maintenance;
+import com.rentman.rentman.entity.Reservation;
+import com.rentman.rentman.entity.User;
+import com.rentman.rentman.entity.Vehicle;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Unsaved entities with every required column set, for integration tests to adjust and save. Codes and numbers only
+// have to be unique within a test class, since each class starts on an empty database.
+public final class TestFixtures {
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private TestFixtures() {
+    }
+
+    // The prefix followed by a number no earlier call returned
+    public static String uniqueCode(String prefix) {
+        return prefix + SEQUENCE.incrementAndGet();
+    }
+
+    // Active company "<code> Rentals" in Springfield, IL
+    public static Company company(String code) {
+        Company company = new Company();
+        company.setCompanyName(code + " Rentals");
+        company.setBusinessRegistrationNumber("BRN-" + code);
+        company.setTaxId("TAX-" + code);
+        company.setEmail("fleet-" + code.toLowerCase() + "@rentman.test");
+        company.setPhoneNumber("555-0100");
+        company.setWebsite("https://" + code.toLowerCase() + ".rentman.test");
+        company.setStreetAddress("1 Main St");
+        company.setCity("Springfield");
+        company.setState("IL");
+        company.setPostalCode("62701");
+        company.setCountry("USA");
+        company.setStatus(Company.CompanyStatus.ACTIVE);
+        return company;
+    }
+
+    // Available 2023 Toyota Corolla at 40 a day
+    public static Vehicle vehicle(Company company, String licensePlate) {
+        Vehicle vehicle = new Vehicle();
+        vehicle.setMake("Toyota");
+        vehicle.setModel("Corolla");
+        vehicle.setYear(2023);
+        vehicle.setLicensePlate(licensePlate);
+        vehicle.setType(Vehicle.VehicleType.CAR);
+        vehicle.setDailyRate(BigDecimal.valueOf(40));
+        vehicle.setCompany(company);
+        return vehicle;
+    }
+
+    // Active customer "<code>@rentman.test" with the plain password "secret123"
+    public static User customer(String code) {
+        User customer = new User();
+        customer.setFirstName("Casey");
+        customer.setLastName("Customer");
+        customer.setEmail(code.toLowerCase() + "@rentman.test");
+        customer.setPassword("secret123");
+        customer.setPhoneNumber("555-0101");
+        customer.setRole(User.UserRole.CUSTOMER);
+        return customer;
+    }
+
+    // Pending reservation of the vehicle at its daily rate
+    public static Reservation reservation(Vehicle vehicle, User customer, String number,
+                                          LocalDate startDate, LocalDate endDate) {
+        Reservation reservation = new Reservation();
+        reservation.setReservationNumber(number);
+        reservation.setCustomer(customer);
+        reservation.setVehicle(vehicle);
+        reservation.setCompany(vehicle.getCompany());
+        reservation.setStartDate(startDate);
+        reservation.setEndDate(endDate);
+        reservation.setDailyRate(vehicle.getDailyRate());
+        return reservation;
+    }
+
+    // Routine oil change of the vehicle scheduled a week from today
+    public static Maintenance maintenance(Vehicle vehicle, String number) {
+        Maintenance maintenance = new Maintenance();
+        maintenance.setMaintenanceNumber(number);
+        maintenance.setType(Maintenance.MaintenanceType.ROUTINE);
+        maintenance.setTitle("Oil change");
+        maintenance.setScheduledDate(LocalDate.now().plusDays(7));
+        maintenance.setEstimatedCost(BigDecimal.valueOf(120));
+        maintenance.setVehicle(vehicle);
+        maintenance.setCompany(vehicle.getCompany());
+        return maintenance;
+    }
+
+    // Subscription invoice of 100 issued 30 days before it is due
+    public static Invoice invoice(Company company, String number, Invoice.InvoiceStatus status, LocalDate dueDate) {
+        Invoice invoice = new Invoice();
+        invoice.setCompany(company);
+        invoice.setInvoiceNumber(number);
+        invoice.setType(Invoice.InvoiceType.SUBSCRIPTION);
+        invoice.setStatus(status);
+        invoice.setInvoiceDate(dueDate.minusDays(30));
+        invoice.setDueDate(dueDate);
+        invoice.setSubtotal(BigDecimal.valueOf(100));
+        return invoice;
+    }
+}
@@ -0,0 +1,199 @@
+package com.rentman.rentman.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.BatchStrategies;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import redis.embedded.RedisServer;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Two "nodes" (cache managers with their own connections and listeners) sharing one embedded Redis
+class TwoLevelCacheManagerTest {
+
+    private static final String CACHE = "search";
+
+    private RedisServer redisServer;
+    private final List<LettuceConnectionFactory> connectionFactories = new ArrayList<>();
+    private final List<RedisMessageListenerContainer> listenerContainers = new ArrayList<>();
+
+    private SimpleMeterRegistry meterRegistryB;
+    private TwoLevelCacheManager nodeA;
+    private TwoLevelCacheManager nodeB;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redisServer = new RedisServer(port);
+        redisServer.start();
+
+        nodeA = newNode(port, new SimpleMeterRegistry());
+        meterRegistryB = new SimpleMeterRegistry();
+        nodeB = newNode(port, meterRegistryB);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        listenerContainers.forEach(container -> {
+            try {
+                container.destroy();
+            } catch (Exception ignored) {
+                // Redis may already be gone
+            }
+        });
+        connectionFactories.forEach(LettuceConnectionFactory::destroy);
+        if (redisServer.isActive()) {
+            redisServer.stop();
+        }
+    }
+
+    @Test
+    void valueLoadedOnOneNodeIsARemoteHitOnTheOther() {
+        assertEquals("{\"page\":0}", nodeA.getCache(CACHE).get("/api/search/vehicles", () -> "{\"page\":0}"));
+
+        AtomicInteger loads = new AtomicInteger();
+        String value = nodeB.getCache(CACHE).get("/api/search/vehicles", () -> {
+            loads.incrementAndGet();
+            return "reloaded";
+        });
+
+        assertEquals("{\"page\":0}", value);
+        assertEquals(0, loads.get());
+        assertEquals(1.0, meterRegistryB.get("rentman.cache.requests")
+                .tags("cache", CACHE, "result", "remote-hit").counter().count());
+    }
+
+    @Test
+    void evictOnOneNodeDropsTheLocalCopyOnTheOther() {
+        nodeA.getCache(CACHE).get("key", () -> "v1");
+        nodeB.getCache(CACHE).get("key", () -> "unused");
+        assertEquals("v1", localValue(nodeB, "key"));
+
+        nodeA.getCache(CACHE).evict("key");
+
+        awaitTrue(() -> localValue(nodeB, "key") == null);
+        assertEquals("v2", nodeB.getCache(CACHE).get("key", () -> "v2"));
+    }
+
+    @Test
+    void clearOnOneNodeDropsEveryLocalCopyOnTheOther() {
+        nodeA.getCache(CACHE).get("first", () -> "1");
+        nodeA.getCache(CACHE).get("second", () -> "2");
+        nodeB.getCache(CACHE).get("first", () -> "unused");
+        nodeB.getCache(CACHE).get("second", () -> "unused");
+
+        nodeA.getCache(CACHE).clear();
+
+        awaitTrue(() -> localValue(nodeB, "first") == null && localValue(nodeB, "second") == null);
+        assertNull(nodeB.getCache(CACHE).get("first"));
+    }
+
+    @Test
+    void localOnlyCacheIsEvictedOnTheOtherNodes() {
+        List<String> evictedOnA = new CopyOnWriteArrayList<>();
+        List<String> evictedOnB = new CopyOnWriteArrayList<>();
+        nodeA.registerLocalOnly("principals", evictedOnA::add);
+        nodeB.registerLocalOnly("principals", evictedOnB::add);
+
+        nodeA.evictOnOtherNodes("principals", "user@example.com");
+
+        awaitTrue(() -> evictedOnB.contains("user@example.com"));
+        assertTrue(evictedOnA.isEmpty());
+    }
+
+    @Test
+    void fallsBackToTheLocalTierWhileRedisIsDown() throws IOException {
+        redisServer.stop();
+
+        AtomicInteger loads = new AtomicInteger();
+        Cache cache = nodeA.getCache(CACHE);
+        assertEquals("v", cache.get("key", () -> {
+            loads.incrementAndGet();
+            return "v";
+        }));
+        assertFalse(nodeA.isRemoteAvailable());
+
+        // Served from the local tier without touching Redis again
+        assertEquals("v", cache.get("key", () -> {
+            loads.incrementAndGet();
+            return "reloaded";
+        }));
+        assertEquals(1, loads.get());
+    }
+
+    private TwoLevelCacheManager newNode(int port, SimpleMeterRegistry meterRegistry) throws Exception {
+        LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration("localhost", port),
+                LettuceClientConfiguration.builder().commandTimeout(Duration.ofMillis(500)).build());
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        connectionFactories.add(connectionFactory);
+
+        RedisCacheManager remote = RedisCacheManager
+                .builder(RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory, BatchStrategies.scan(1000)))
+                .cacheDefaults(RedisCacheConfiguration.defaultCacheConfig()
+                        .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(RedisSerializer.string()))
+                        .disableCachingNullValues()
+                        .entryTtl(Duration.ofMinutes(1)))
+                .build();
+        remote.initializeCaches();
+
+        TwoLevelCacheManager node = new TwoLevelCacheManager(remote, new StringRedisTemplate(connectionFactory),
+                meterRegistry, Map.of(), Duration.ofMinutes(1), Duration.ofSeconds(30), 100, Duration.ofMinutes(1));
+
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(node, new ChannelTopic(TwoLevelCacheManager.INVALIDATION_CHANNEL));
+        container.afterPropertiesSet();
+        container.start();
+        listenerContainers.add(container);
+        return node;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object localValue(TwoLevelCacheManager node, String key) {
+        return ((com.github.benmanes.caffeine.cache.Cache<String, Object>) node.getCache(CACHE).getNativeCache())
+                .getIfPresent(key);
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Invalidation was not received within 5 s");
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
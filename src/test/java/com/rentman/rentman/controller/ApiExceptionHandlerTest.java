@@ -0,0 +1,55 @@
+package com.rentman.rentman.controller;
+
+import com.rentman.rentman.dto.UserRegistrationDto;
+import com.rentman.rentman.security.BoundedPasswordEncoder;
+import com.rentman.rentman.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Saturated password hashing answers 429 wherever it surfaces, including endpoints that turn other failures into 400
+class ApiExceptionHandlerTest {
+
+    private final UserService userService = mock(UserService.class);
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        UserController userController = new UserController();
+        ReflectionTestUtils.setField(userController, "userService", userService);
+        mockMvc = MockMvcBuilders.standaloneSetup(userController)
+                .setControllerAdvice(new ApiExceptionHandler())
+                .build();
+        when(userService.loginUser(anyString(), anyString())).thenThrow(new BoundedPasswordEncoder.Overloaded());
+        when(userService.registerUser(any(UserRegistrationDto.class)))
+                .thenThrow(new BoundedPasswordEncoder.Overloaded());
+    }
+
+    @Test
+    void loginIsShedWithRetryAfter() throws Exception {
+        mockMvc.perform(post("/api/users/login").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"a@rentman.test\",\"password\":\"secret123\"}"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @Test
+    void registrationIsShedRatherThanRejected() throws Exception {
+        mockMvc.perform(post("/api/users/register").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\":\"Ada\",\"lastName\":\"Lovelace\",\"email\":\"ada@rentman.test\","
+                                + "\"password\":\"secret123\",\"phoneNumber\":\"555-0100\"}"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+}
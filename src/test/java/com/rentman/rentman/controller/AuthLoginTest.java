@@ -0,0 +1,85 @@
+package com.rentman.rentman.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rentman.rentman.RentManIntegrationTest;
+import com.rentman.rentman.TestFixtures;
+import com.rentman.rentman.entity.User;
+import com.rentman.rentman.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Login loads the user once, in the authentication manager, and issues the token from that principal
+@RentManIntegrationTest
+class AuthLoginTest {
+
+    private static final String EMAIL = "login@rentman.test";
+    private static final String PASSWORD = "secret123";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (userRepository.findByEmail(EMAIL).isEmpty()) {
+            User user = TestFixtures.customer("login");
+            user.setPassword(passwordEncoder.encode(PASSWORD));
+            userRepository.save(user);
+        }
+    }
+
+    @Test
+    void loginLoadsTheUserOnce() throws Exception {
+        statistics.clear();
+        String body = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(credentials(EMAIL, PASSWORD)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        JsonNode response = objectMapper.readTree(body);
+        assertFalse(response.path("token").asText().isEmpty());
+        assertEquals(EMAIL, response.path("user").path("email").asText());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void wrongPasswordIsUnauthorized() throws Exception {
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(credentials(EMAIL, "wrong-password")))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private String credentials(String email, String password) throws Exception {
+        return objectMapper.writeValueAsString(Map.of("email", email, "password", password));
+    }
+}
@@ -0,0 +1,185 @@
+package com.rentman.rentman.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rentman.rentman.RentManIntegrationTest;
+import com.rentman.rentman.TestFixtures;
+import com.rentman.rentman.entity.Company;
+import com.rentman.rentman.entity.Defect;
+import com.rentman.rentman.entity.Invoice;
+import com.rentman.rentman.entity.Reservation;
+import com.rentman.rentman.entity.User;
+import com.rentman.rentman.entity.Vehicle;
+import com.rentman.rentman.repository.CompanyRepository;
+import com.rentman.rentman.repository.DefectRepository;
+import com.rentman.rentman.repository.InvoiceRepository;
+import com.rentman.rentman.repository.MaintenanceRepository;
+import com.rentman.rentman.repository.ReservationRepository;
+import com.rentman.rentman.repository.UserRepository;
+import com.rentman.rentman.repository.VehicleRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Each listing endpoint must cost one SQL statement however many rows it returns: the associations that are
+// serialized (vehicle, customer, company, reservation) come back in the listing query instead of one query per row
+@RentManIntegrationTest
+@WithMockUser(roles = "ADMIN")
+class ListingQueryCountTest {
+
+    private static final int ROWS = 3;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CompanyRepository companyRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private MaintenanceRepository maintenanceRepository;
+
+    @Autowired
+    private DefectRepository defectRepository;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    private Statistics statistics;
+    private Company company;
+    private final List<User> customers = new ArrayList<>();
+
+    // Every row gets its own vehicle and customer, so lazy loading would cost a query per row
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        String code = TestFixtures.uniqueCode("LST");
+        company = companyRepository.save(TestFixtures.company(code));
+        customers.clear();
+        for (int i = 0; i < ROWS; i++) {
+            Vehicle vehicle = vehicleRepository.save(TestFixtures.vehicle(company, "LST-" + code + "-" + i));
+            User customer = userRepository.save(TestFixtures.customer(code + "-" + i));
+            customers.add(customer);
+            Reservation reservation = reservationRepository.save(TestFixtures.reservation(vehicle, customer,
+                    "RES-" + code + "-" + i, LocalDate.now().plusDays(3), LocalDate.now().plusDays(5)));
+            maintenanceRepository.save(TestFixtures.maintenance(vehicle, "MNT-" + code + "-" + i));
+            defectRepository.save(newDefect(vehicle));
+            Invoice invoice = TestFixtures.invoice(company, "INV-" + code + "-" + i, Invoice.InvoiceStatus.PENDING,
+                    LocalDate.now().plusDays(30));
+            invoice.setReservation(i == 0 ? null : reservation);
+            invoiceRepository.save(invoice);
+        }
+    }
+
+    @Test
+    void companyReservationListingsUseOneStatement() throws Exception {
+        for (String path : List.of("/reservations", "/reservations/status/PENDING")) {
+            JsonNode reservations = getWithStatementCount("/api/companies/" + company.getId() + path, 1);
+            assertEquals(ROWS, reservations.size());
+            assertRows(reservations, "vehicle", "make");
+            assertRows(reservations, "customer", "firstName");
+            assertRows(reservations, "company", "companyName");
+        }
+        JsonNode page = getWithStatementCount("/api/companies/" + company.getId() + "/reservations/page", 1);
+        assertRows(page.get("items"), "vehicle", "make");
+    }
+
+    @Test
+    void customerReservationListingUsesOneStatement() throws Exception {
+        JsonNode reservations = getWithStatementCount("/api/reservations/customer/" + customers.get(0).getId(), 1);
+        assertEquals(1, reservations.size());
+        assertRows(reservations, "vehicle", "make");
+        assertRows(reservations, "company", "companyName");
+    }
+
+    @Test
+    void companyMaintenanceAndDefectListingsUseOneStatement() throws Exception {
+        for (String path : List.of("/maintenance", "/maintenance/status/SCHEDULED", "/defects", "/defects/status/REPORTED")) {
+            JsonNode rows = getWithStatementCount("/api/companies/" + company.getId() + path, 1);
+            assertEquals(ROWS, rows.size());
+            assertRows(rows, "vehicle", "make");
+            assertRows(rows, "company", "companyName");
+        }
+        assertRows(getWithStatementCount("/api/companies/" + company.getId() + "/maintenance/page", 1).get("items"), "vehicle", "make");
+        assertRows(getWithStatementCount("/api/companies/" + company.getId() + "/defects/page", 1).get("items"), "vehicle", "make");
+    }
+
+    @Test
+    void companyInvoiceListingsUseOneStatement() throws Exception {
+        for (String path : List.of("/invoices", "/invoices/status/PENDING")) {
+            JsonNode invoices = getWithStatementCount("/api/companies/" + company.getId() + path, 1);
+            assertEquals(ROWS, invoices.size());
+            assertRows(invoices, "company", "companyName");
+            // Invoices without a reservation are returned too (outer join)
+            assertEquals(ROWS - 1, countWith(invoices, "reservation", "reservationNumber"));
+        }
+        JsonNode page = getWithStatementCount("/api/companies/" + company.getId() + "/invoices/page", 1);
+        assertEquals(ROWS - 1, countWith(page.get("items"), "reservation", "reservationNumber"));
+    }
+
+    private JsonNode getWithStatementCount(String url, long expectedStatements) throws Exception {
+        statistics.clear();
+        String body = mockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(expectedStatements, statistics.getPrepareStatementCount(), url);
+        return objectMapper.readTree(body);
+    }
+
+    // Every row carries the association's field
+    private static void assertRows(JsonNode rows, String association, String field) {
+        assertFalse(rows.isEmpty());
+        assertEquals(rows.size(), countWith(rows, association, field), association + "." + field + " must be serialized");
+    }
+
+    private static int countWith(JsonNode rows, String association, String field) {
+        assertFalse(rows.isMissingNode());
+        int count = 0;
+        for (JsonNode row : rows) {
+            JsonNode value = row.path(association).path(field);
+            if (!value.isMissingNode() && !value.isNull()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Saved without a number, so it comes from the entity's @PrePersist fallback
+    private Defect newDefect(Vehicle vehicle) {
+        Defect defect = new Defect();
+        defect.setType(Defect.DefectType.MECHANICAL);
+        defect.setSeverity(Defect.DefectSeverity.LOW);
+        defect.setTitle("Squeaky brakes");
+        defect.setDescription("Front brakes squeak when cold");
+        defect.setVehicle(vehicle);
+        defect.setCompany(company);
+        return defect;
+    }
+}
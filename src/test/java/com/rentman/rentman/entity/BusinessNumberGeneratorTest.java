@@ -0,0 +1,95 @@
+package com.rentman.rentman.entity;
+
+import com.rentman.rentman.config.BusinessNumberConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BusinessNumberGeneratorTest {
+
+    private static final int THREADS = 8;
+    private static final int IDS_PER_THREAD = 100_000;
+
+    @Test
+    void idsAreUniqueAcrossThreads() throws Exception {
+        BusinessNumberGenerator generator = new BusinessNumberGenerator(1);
+        Set<Long> ids = ConcurrentHashMap.newKeySet(THREADS * IDS_PER_THREAD);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                long previous = -1;
+                for (int i = 0; i < IDS_PER_THREAD; i++) {
+                    long id = generator.nextId();
+                    assertTrue(id > previous, "ids must increase within a thread");
+                    ids.add(id);
+                    previous = id;
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(THREADS * IDS_PER_THREAD, ids.size());
+    }
+
+    @Test
+    void nodesNeverCollide() {
+        BusinessNumberGenerator first = new BusinessNumberGenerator(1);
+        BusinessNumberGenerator second = new BusinessNumberGenerator(2);
+
+        for (int i = 0; i < 10_000; i++) {
+            assertNotEquals(first.nextId(), second.nextId());
+        }
+    }
+
+    @Test
+    void numbersArePrefixedFixedWidthAndSortable() {
+        BusinessNumberGenerator generator = new BusinessNumberGenerator(0);
+
+        String earlier = generator.nextReservationNumber();
+        String later = generator.nextReservationNumber();
+
+        assertTrue(earlier.matches("RES\\d{19}"), earlier);
+        assertTrue(earlier.compareTo(later) < 0);
+        assertTrue(generator.nextInvoiceNumber().startsWith("INV"));
+    }
+
+    @Test
+    void rejectsOutOfRangeNodeId() {
+        assertThrows(IllegalArgumentException.class, () -> new BusinessNumberGenerator(1024));
+    }
+
+    @Test
+    void nodeIdIsRequiredOutsideTheDevProfile() {
+        BusinessNumberConfig config = new BusinessNumberConfig();
+        MockEnvironment environment = new MockEnvironment();
+        assertThrows(IllegalStateException.class, () -> config.businessNumberGenerator(null, environment));
+        assertTrue(config.businessNumberGenerator(7L, environment).nextInvoiceNumber().startsWith("INV"));
+
+        environment.setActiveProfiles("dev");
+        assertTrue(config.businessNumberGenerator(null, environment).nextDefectNumber().startsWith("DEF"));
+    }
+
+    @Test
+    void entitiesSavedWithoutANumberAreNumberedWithoutTheContainer() {
+        Maintenance maintenance = new Maintenance();
+        maintenance.onCreate();
+
+        assertTrue(maintenance.getMaintenanceNumber().matches("MAINT\\d{19}"), maintenance.getMaintenanceNumber());
+    }
+}
@@ -0,0 +1,184 @@
+package com.rentman.rentman.repository;
+
+import com.rentman.rentman.RentManIntegrationTest;
+import com.rentman.rentman.TestFixtures;
+import com.rentman.rentman.entity.Company;
+import com.rentman.rentman.entity.Invoice;
+import com.rentman.rentman.entity.InvoiceItem;
+import com.rentman.rentman.entity.Reservation;
+import com.rentman.rentman.entity.User;
+import com.rentman.rentman.entity.Vehicle;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Insert throughput of sequence ids with JDBC batching, against one statement per row (what IDENTITY ids force).
+// The benchmark is skipped by default; run it with:
+//   mvn test -Dtest=InsertBatchingBenchmarkTest -Drentman.benchmark=true [-Drentman.benchmark.rows=100000]
+@RentManIntegrationTest
+class InsertBatchingBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(InsertBatchingBenchmarkTest.class);
+
+    private static final int FLUSH_EVERY = 1000;
+    private static final int ITEMS_PER_INVOICE = 100;
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CompanyRepository companyRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    private Company company;
+    private User customer;
+    private Vehicle vehicle;
+
+    @BeforeEach
+    void setUp() {
+        String code = TestFixtures.uniqueCode("BAT");
+        company = companyRepository.save(TestFixtures.company(code));
+        customer = userRepository.save(TestFixtures.customer(code));
+        vehicle = vehicleRepository.save(TestFixtures.vehicle(company, "BAT-" + code));
+    }
+
+    @Test
+    void insertsAreSentInJdbcBatches() {
+        Statistics statistics = statistics();
+        statistics.clear();
+        insertReservations(200, 50);
+        long batched = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        insertReservations(200, 1);
+        long unbatched = statistics.getPrepareStatementCount();
+
+        // 4 insert batches plus 4 sequence calls, against 200 inserts plus the same sequence calls
+        assertTrue(batched <= 10, "expected batched inserts, prepared " + batched + " statements");
+        assertTrue(unbatched >= 200, "expected one statement per row, prepared " + unbatched);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "rentman.benchmark", matches = "true")
+    void compareInsertThroughput() {
+        int rows = Integer.getInteger("rentman.benchmark.rows", 100_000);
+        // Warm up Hibernate and the JIT before measuring
+        insertReservations(Math.min(rows, 5_000), 50);
+
+        for (int batchSize : new int[]{1, 50}) {
+            long reservationsMillis = insertReservations(rows, batchSize);
+            long itemsMillis = insertInvoiceItems(rows, batchSize);
+            logger.info("batch_size={} {} reservations: {} ms ({} rows/s) | {} invoice items: {} ms ({} rows/s)",
+                    batchSize, rows, reservationsMillis, rowsPerSecond(rows, reservationsMillis),
+                    rows, itemsMillis, rowsPerSecond(rows, itemsMillis));
+        }
+    }
+
+    private static String rowsPerSecond(int rows, long millis) {
+        return String.format("%,.0f", rows * 1000.0 / Math.max(1, millis));
+    }
+
+    // Returns the elapsed milliseconds
+    private long insertReservations(int rows, int batchSize) {
+        return timed(batchSize, () -> {
+            Company companyRef = entityManager.getReference(Company.class, company.getId());
+            User customerRef = entityManager.getReference(User.class, customer.getId());
+            Vehicle vehicleRef = entityManager.getReference(Vehicle.class, vehicle.getId());
+            for (int i = 0; i < rows; i++) {
+                Reservation reservation = new Reservation();
+                reservation.setReservationNumber("RSV-" + SEQUENCE.incrementAndGet());
+                reservation.setCompany(companyRef);
+                reservation.setCustomer(customerRef);
+                reservation.setVehicle(vehicleRef);
+                reservation.setStartDate(LocalDate.of(2025, 1, 1).plusDays(i % 300));
+                reservation.setEndDate(LocalDate.of(2025, 1, 4).plusDays(i % 300));
+                reservation.setDailyRate(BigDecimal.valueOf(40));
+                entityManager.persist(reservation);
+                if ((i + 1) % FLUSH_EVERY == 0) {
+                    flushAndClear();
+                    companyRef = entityManager.getReference(Company.class, company.getId());
+                    customerRef = entityManager.getReference(User.class, customer.getId());
+                    vehicleRef = entityManager.getReference(Vehicle.class, vehicle.getId());
+                }
+            }
+        });
+    }
+
+    private long insertInvoiceItems(int rows, int batchSize) {
+        return timed(batchSize, () -> {
+            Invoice invoice = null;
+            for (int i = 0; i < rows; i++) {
+                if (i % ITEMS_PER_INVOICE == 0) {
+                    invoice = newInvoice();
+                    entityManager.persist(invoice);
+                }
+                InvoiceItem item = new InvoiceItem();
+                item.setInvoice(invoice);
+                item.setItemName("Vehicle Rental");
+                item.setQuantity(1);
+                item.setUnitPrice(BigDecimal.valueOf(40));
+                item.setItemType(InvoiceItem.ItemType.RENTAL_FEE);
+                entityManager.persist(item);
+                // FLUSH_EVERY is a multiple of ITEMS_PER_INVOICE, so the next item starts a new invoice
+                if ((i + 1) % FLUSH_EVERY == 0) {
+                    flushAndClear();
+                }
+            }
+        });
+    }
+
+    private long timed(int batchSize, Runnable work) {
+        long started = System.nanoTime();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+            work.run();
+            flushAndClear();
+        });
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+    }
+
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private Invoice newInvoice() {
+        Invoice invoice = TestFixtures.invoice(entityManager.getReference(Company.class, company.getId()),
+                "INV-" + SEQUENCE.incrementAndGet(), Invoice.InvoiceStatus.PENDING, LocalDate.of(2025, 1, 31));
+        invoice.setType(Invoice.InvoiceType.RESERVATION);
+        invoice.setSubtotal(BigDecimal.valueOf(4000));
+        return invoice;
+    }
+}
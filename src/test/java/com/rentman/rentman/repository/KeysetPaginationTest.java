@@ -0,0 +1,73 @@
+package com.rentman.rentman.repository;
+
+import com.rentman.rentman.RentManIntegrationTest;
+import com.rentman.rentman.TestFixtures;
+import com.rentman.rentman.dto.CursorPage;
+import com.rentman.rentman.dto.KeysetCursor;
+import com.rentman.rentman.entity.Company;
+import com.rentman.rentman.entity.Vehicle;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@RentManIntegrationTest
+class KeysetPaginationTest {
+
+    private static final int VEHICLES = 23;
+    private static final int PAGE_SIZE = 5;
+
+    @Autowired
+    private CompanyRepository companyRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Test
+    void walksEveryVehicleOnceInCreationOrder() {
+        Company company = companyRepository.save(TestFixtures.company("KEY"));
+        Company otherCompany = companyRepository.save(TestFixtures.company("OTHER"));
+        for (int i = 0; i < VEHICLES; i++) {
+            vehicleRepository.save(TestFixtures.vehicle(company, "KEY-" + i));
+        }
+        vehicleRepository.save(TestFixtures.vehicle(otherCompany, "OTHER-1"));
+
+        List<Vehicle> walked = new ArrayList<>();
+        CursorPage<Vehicle> page = CursorPage.of(
+                vehicleRepository.findCompanyPage(company.getId(), PageRequest.of(0, PAGE_SIZE + 1)),
+                PAGE_SIZE, Vehicle::getCreatedAt, Vehicle::getId);
+        walked.addAll(page.items());
+        while (page.hasMore()) {
+            KeysetCursor cursor = KeysetCursor.decode(page.nextCursor());
+            page = CursorPage.of(
+                    vehicleRepository.findCompanyPageAfter(company.getId(), cursor.createdAt(), cursor.id(),
+                            PageRequest.of(0, PAGE_SIZE + 1)),
+                    PAGE_SIZE, Vehicle::getCreatedAt, Vehicle::getId);
+            walked.addAll(page.items());
+        }
+
+        assertNull(page.nextCursor());
+        assertEquals(VEHICLES, walked.size());
+        assertEquals(VEHICLES, walked.stream().map(Vehicle::getId).distinct().count());
+        List<Vehicle> expectedOrder = new ArrayList<>(walked);
+        expectedOrder.sort(Comparator.comparing(Vehicle::getCreatedAt).thenComparing(Vehicle::getId).reversed());
+        assertEquals(expectedOrder, walked);
+    }
+
+    @Test
+    void cursorRoundTripsAndRejectsGarbage() {
+        KeysetCursor cursor = new KeysetCursor(LocalDateTime.of(2025, 3, 1, 10, 0), 42L);
+
+        assertEquals(cursor, KeysetCursor.decode(cursor.encode()));
+        assertFalse(cursor.encode().contains("="));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("not-a-cursor"));
+    }
+}
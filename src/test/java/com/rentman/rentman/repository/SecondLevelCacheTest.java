@@ -0,0 +1,96 @@
+package com.rentman.rentman.repository;
+
+import com.rentman.rentman.RentManIntegrationTest;
+import com.rentman.rentman.TestFixtures;
+import com.rentman.rentman.entity.Company;
+import com.rentman.rentman.entity.Vehicle;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@RentManIntegrationTest
+class SecondLevelCacheTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CompanyRepository companyRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void findByIdIsServedFromTheSecondLevelCache() {
+        String code = TestFixtures.uniqueCode("L2C");
+        Company company = companyRepository.save(TestFixtures.company(code));
+        Vehicle vehicle = vehicleRepository.save(TestFixtures.vehicle(company, "L2-" + code));
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+
+        companyRepository.findById(company.getId()).orElseThrow();
+        vehicleRepository.findById(vehicle.getId()).orElseThrow();
+        long statementsAfterFirstRead = statistics.getPrepareStatementCount();
+        Company cached = companyRepository.findById(company.getId()).orElseThrow();
+        vehicleRepository.findById(vehicle.getId()).orElseThrow();
+
+        assertEquals(statementsAfterFirstRead, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getDomainDataRegionStatistics("company").getHitCount());
+        assertEquals(1, statistics.getDomainDataRegionStatistics("vehicle").getHitCount());
+        assertEquals(code + " Rentals", cached.getCompanyName());
+
+        // Writes through Hibernate update the cached entry
+        cached.setCompanyName(code + " Renamed");
+        companyRepository.save(cached);
+        assertEquals(code + " Renamed", companyRepository.findById(company.getId()).orElseThrow().getCompanyName());
+    }
+
+    @Test
+    void featuredCompaniesQueryIsCachedAndInvalidatedOnWrite() {
+        String code = TestFixtures.uniqueCode("L2Q");
+        Company company = TestFixtures.company(code);
+        company.setIsFeatured(true);
+        company = companyRepository.save(company);
+        statistics.clear();
+
+        assertTrue(isFeatured(company));
+        assertTrue(isFeatured(company));
+        assertEquals(1, statistics.getQueryCacheHitCount());
+
+        company.setIsFeatured(false);
+        companyRepository.save(company);
+
+        assertFalse(isFeatured(company));
+        assertEquals(1, statistics.getQueryCacheHitCount());
+    }
+
+    @Test
+    void cacheStatisticsArePublishedAsMetrics() {
+        assertNotNull(meterRegistry.find("hibernate.second.level.cache.requests").tag("region", "company").meter());
+        assertNotNull(meterRegistry.find("hibernate.cache.query.requests").meter());
+    }
+
+    private boolean isFeatured(Company company) {
+        return companyRepository.findByIsFeaturedTrueAndStatus(Company.CompanyStatus.ACTIVE).stream()
+                .anyMatch(candidate -> candidate.getId().equals(company.getId()));
+    }
+}
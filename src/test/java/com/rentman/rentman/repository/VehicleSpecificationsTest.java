@@ -0,0 +1,354 @@
+package com.rentman.rentman.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rentman.rentman.RentManIntegrationTest;
+import com.rentman.rentman.TestFixtures;
+import com.rentman.rentman.entity.Company;
+import com.rentman.rentman.entity.Reservation;
+import com.rentman.rentman.entity.User;
+import com.rentman.rentman.entity.Vehicle;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.web.servlet.MockMvc;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// The database search against the stream filters and sort it replaced in SearchController.searchVehicles: every
+// criterion must keep exactly the vehicles the old in-memory predicate kept, in the same order, and the availability
+// anti-join must exclude exactly the vehicles the per-vehicle conflict count rejected
+@RentManIntegrationTest
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class VehicleSpecificationsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CompanyRepository companyRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    private static final LocalDate BOOKED_FROM = LocalDate.of(2030, 6, 10);
+    private static final LocalDate BOOKED_TO = LocalDate.of(2030, 6, 15);
+
+    private Company springfield;
+    private Company chicago;
+    private final List<Vehicle> vehicles = new ArrayList<>();
+
+    @BeforeAll
+    void setUp() {
+        springfield = companyRepository.save(newCompany("SPECA", "Northwind Rentals", "Springfield", "USA",
+                Company.CompanyStatus.ACTIVE));
+        chicago = companyRepository.save(newCompany("SPECB", "Lakeside Cars", "Chicago", "USA",
+                Company.CompanyStatus.ACTIVE));
+        Company suspended = companyRepository.save(newCompany("SPECC", "Northwind Outlet", "Springfield", "USA",
+                Company.CompanyStatus.SUSPENDED));
+
+        vehicles.add(save(springfield, "SPEC-1", v -> set(v, "Toyota", "Corolla", 2020, 40, "Gasoline", "Automatic", 5,
+                "Red", "Springfield Downtown", "4.50")));
+        vehicles.add(save(springfield, "SPEC-2", v -> {
+            set(v, "Toyota", "Camry", 2022, 55, "Hybrid", "Automatic", 5, "blue", "Springfield Airport", "4.80");
+            v.setGpsNavigation(true);
+            v.setBluetooth(true);
+            v.setUsbCharging(true);
+        }));
+        vehicles.add(save(springfield, "SPEC-3", v -> {
+            set(v, "Ford", "Focus", 2018, 35, "Gasoline", "Manual", 4, "Blue", null, "0");
+            v.setAirConditioning(false);
+            v.setType(Vehicle.VehicleType.CAR);
+        }));
+        vehicles.add(save(chicago, "SPEC-4", v -> {
+            set(v, "Ford", "Explorer", 2023, 90, "Gasoline", "Automatic", 7, "Black", "Chicago Loop", "3.90");
+            v.setType(Vehicle.VehicleType.SUV);
+            v.setBackupCamera(true);
+            v.setParkingSensors(true);
+            v.setSunroof(true);
+            v.setLeatherSeats(true);
+        }));
+        vehicles.add(save(chicago, "SPEC-5", v -> {
+            set(v, "Tesla", "Model 3", 2024, 55, "Electric", "Automatic", 5, "White", "Chicago O'Hare", "4.80");
+            v.setGpsNavigation(true);
+            v.setUsbCharging(true);
+        }));
+        // Excluded by every search: not available, or its company is not active
+        vehicles.add(save(chicago, "SPEC-6", v -> {
+            set(v, "Toyota", "Corolla", 2021, 42, "Gasoline", "Automatic", 5, "Red", "Chicago Loop", "4.00");
+            v.setStatus(Vehicle.VehicleStatus.MAINTENANCE);
+        }));
+        vehicles.add(save(suspended, "SPEC-7", v -> set(v, "Toyota", "Corolla", 2022, 38, "Gasoline", "Automatic", 5,
+                "Red", "Springfield Downtown", "4.10")));
+
+        // SPEC-1 and SPEC-2 are blocked from the 10th to the 15th; SPEC-3 only has reservations that do not block
+        User customer = userRepository.save(TestFixtures.customer("spec"));
+        reserve(vehicles.get(0), customer, "RSV-SPEC-1", Reservation.ReservationStatus.CONFIRMED);
+        reserve(vehicles.get(1), customer, "RSV-SPEC-2", Reservation.ReservationStatus.IN_PROGRESS);
+        for (Reservation.ReservationStatus status : List.of(Reservation.ReservationStatus.PENDING,
+                Reservation.ReservationStatus.COMPLETED, Reservation.ReservationStatus.CANCELLED,
+                Reservation.ReservationStatus.NO_SHOW, Reservation.ReservationStatus.OVERDUE)) {
+            reserve(vehicles.get(2), customer, "RSV-SPEC-3-" + status, status);
+        }
+    }
+
+    @Test
+    void everyFilterKeepsTheVehiclesTheStreamFilterKept() {
+        assertMatches(f -> { });
+        assertMatches(f -> f.companyId = chicago.getId());
+        assertMatches(f -> f.type = Vehicle.VehicleType.SUV);
+        assertMatches(f -> f.make = "TOY");
+        assertMatches(f -> f.model = "o");
+        assertMatches(f -> f.location = "springfield");
+        assertMatches(f -> {
+            f.minRate = BigDecimal.valueOf(40);
+            f.maxRate = BigDecimal.valueOf(55);
+        });
+        assertMatches(f -> {
+            f.minYear = 2020;
+            f.maxYear = 2022;
+        });
+        assertMatches(f -> f.fuelType = "Gasoline");
+        // Exact, case-sensitive values
+        assertMatches(f -> f.fuelType = "gasoline");
+        assertMatches(f -> f.transmission = "Manual");
+        assertMatches(f -> {
+            f.minSeating = 5;
+            f.maxSeating = 5;
+        });
+        assertMatches(f -> f.color = "BLUE");
+        assertMatches(f -> f.companyName = "north");
+        assertMatches(f -> f.city = "CHICAGO");
+        assertMatches(f -> f.state = "il");
+        assertMatches(f -> f.country = "Canada");
+        assertMatches(f -> f.airConditioning = false);
+        assertMatches(f -> f.gpsNavigation = true);
+        assertMatches(f -> f.bluetooth = true);
+        assertMatches(f -> f.usbCharging = true);
+        assertMatches(f -> f.backupCamera = true);
+        assertMatches(f -> f.parkingSensors = true);
+        assertMatches(f -> f.sunroof = true);
+        assertMatches(f -> f.leatherSeats = false);
+        assertMatches(f -> {
+            f.make = "o";
+            f.city = "springfield";
+            f.maxRate = BigDecimal.valueOf(50);
+            f.usbCharging = false;
+        });
+    }
+
+    @Test
+    void sortKeysOrderLikeTheStreamSort() throws Exception {
+        for (String sortBy : List.of("dailyRate", "year", "make", "model", "averageRating", "unknown")) {
+            for (String sortDir : List.of("asc", "desc")) {
+                List<Long> expected = vehicles.stream()
+                        .filter(new Filters()::matches)
+                        .sorted(streamOrder(sortBy, sortDir).thenComparing(Vehicle::getId))
+                        .map(Vehicle::getId)
+                        .toList();
+                assertEquals(expected, searchIds("sortBy=" + sortBy + "&sortDir=" + sortDir), sortBy + " " + sortDir);
+            }
+        }
+    }
+
+    @Test
+    void searchPagesOverTheSortedMatches() throws Exception {
+        List<Long> all = searchIds("sortBy=year&sortDir=desc");
+        assertEquals(all.subList(0, 2), searchIds("sortBy=year&sortDir=desc&size=2&page=0"));
+        assertEquals(all.subList(2, 4), searchIds("sortBy=year&sortDir=desc&size=2&page=1"));
+        assertEquals(all.subList(4, 5), searchIds("sortBy=year&sortDir=desc&size=2&page=2"));
+    }
+
+    @Test
+    void availabilityExcludesConfirmedAndInProgressOverlapsIncludingBoundaryDays() {
+        List<Long> blocked = List.of(vehicles.get(0).getId(), vehicles.get(1).getId());
+
+        // Ranges are inclusive: sharing the first or the last day is an overlap
+        assertBlocked(blocked, BOOKED_TO, BOOKED_TO.plusDays(3));
+        assertBlocked(blocked, BOOKED_FROM.minusDays(3), BOOKED_FROM);
+        assertBlocked(blocked, BOOKED_FROM.plusDays(2), BOOKED_FROM.plusDays(2));
+        assertBlocked(blocked, BOOKED_FROM.minusDays(1), BOOKED_TO.plusDays(1));
+
+        // The day after the return and the day before the pickup are free
+        assertBlocked(List.of(), BOOKED_TO.plusDays(1), BOOKED_TO.plusDays(3));
+        assertBlocked(List.of(), BOOKED_FROM.minusDays(3), BOOKED_FROM.minusDays(1));
+    }
+
+    // The anti-join removes exactly the given vehicles from the unfiltered search, and agrees with the per-vehicle
+    // conflict count the search used before
+    private void assertBlocked(List<Long> blocked, LocalDate startDate, LocalDate endDate) {
+        List<Long> all = vehicleRepository.findAll(VehicleSpecifications.search(new Filters().toCriteria()), Sort.by("id"))
+                .stream().map(Vehicle::getId).toList();
+        List<Long> available = vehicleRepository.findAll(VehicleSpecifications.search(new Filters().toCriteria())
+                        .and(VehicleSpecifications.availableBetween(startDate, endDate)), Sort.by("id"))
+                .stream().map(Vehicle::getId).toList();
+
+        String range = startDate + ".." + endDate;
+        assertEquals(all.stream().filter(id -> !blocked.contains(id)).toList(), available, range);
+        assertEquals(all.stream()
+                .filter(id -> reservationRepository.countConflictingReservations(id, startDate, endDate) == 0)
+                .toList(), available, range);
+    }
+
+    private void assertMatches(Consumer<Filters> filter) {
+        Filters filters = new Filters();
+        filter.accept(filters);
+        List<Long> expected = vehicles.stream().filter(filters::matches).map(Vehicle::getId).toList();
+        List<Long> actual = vehicleRepository.findAll(VehicleSpecifications.search(filters.toCriteria()), Sort.by("id"))
+                .stream().map(Vehicle::getId).toList();
+        assertEquals(expected, actual, filters.toCriteria().toString());
+    }
+
+    private List<Long> searchIds(String query) throws Exception {
+        String body = mockMvc.perform(get("/api/search/vehicles?" + query))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode rows = objectMapper.readTree(body).path("vehicles");
+        assertFalse(rows.isMissingNode());
+        List<Long> ids = new ArrayList<>();
+        for (JsonNode row : rows) {
+            ids.add(row.path("id").asLong());
+        }
+        return ids;
+    }
+
+    // The comparator of the removed SearchController.sortVehicles
+    private static Comparator<Vehicle> streamOrder(String sortBy, String sortDir) {
+        Comparator<Vehicle> order = switch (sortBy.toLowerCase()) {
+            case "year" -> Comparator.comparing(Vehicle::getYear);
+            case "make" -> Comparator.comparing(Vehicle::getMake);
+            case "model" -> Comparator.comparing(Vehicle::getModel);
+            case "averagerating" -> Comparator.comparing(
+                    v -> v.getAverageRating() != null ? v.getAverageRating() : BigDecimal.ZERO);
+            default -> Comparator.comparing(Vehicle::getDailyRate);
+        };
+        return sortDir.equalsIgnoreCase("desc") ? order.reversed() : order;
+    }
+
+    // Search criteria together with the stream predicate that applied them before the search ran in the database
+    private static class Filters {
+        Vehicle.VehicleType type;
+        String make;
+        String model;
+        Integer minYear;
+        Integer maxYear;
+        BigDecimal minRate;
+        BigDecimal maxRate;
+        String fuelType;
+        String transmission;
+        Integer minSeating;
+        Integer maxSeating;
+        String color;
+        String location;
+        Long companyId;
+        String companyName;
+        String city;
+        String state;
+        String country;
+        Boolean airConditioning;
+        Boolean gpsNavigation;
+        Boolean bluetooth;
+        Boolean usbCharging;
+        Boolean backupCamera;
+        Boolean parkingSensors;
+        Boolean sunroof;
+        Boolean leatherSeats;
+
+        VehicleSpecifications.SearchCriteria toCriteria() {
+            return new VehicleSpecifications.SearchCriteria(type, make, model, minYear, maxYear, minRate, maxRate,
+                    fuelType, transmission, minSeating, maxSeating, color, location, companyId, companyName, city,
+                    state, country, airConditioning, gpsNavigation, bluetooth, usbCharging, backupCamera,
+                    parkingSensors, sunroof, leatherSeats);
+        }
+
+        boolean matches(Vehicle vehicle) {
+            Company company = vehicle.getCompany();
+            return vehicle.getStatus() == Vehicle.VehicleStatus.AVAILABLE
+                    && company.getStatus() == Company.CompanyStatus.ACTIVE
+                    && (companyId == null || company.getId().equals(companyId))
+                    && (type == null || vehicle.getType() == type)
+                    && (make == null || vehicle.getMake().toLowerCase().contains(make.toLowerCase()))
+                    && (model == null || vehicle.getModel().toLowerCase().contains(model.toLowerCase()))
+                    && (minRate == null || vehicle.getDailyRate().compareTo(minRate) >= 0)
+                    && (maxRate == null || vehicle.getDailyRate().compareTo(maxRate) <= 0)
+                    && (minYear == null || vehicle.getYear() >= minYear)
+                    && (maxYear == null || vehicle.getYear() <= maxYear)
+                    && (fuelType == null || fuelType.equals(vehicle.getFuelType()))
+                    && (transmission == null || transmission.equals(vehicle.getTransmission()))
+                    && (minSeating == null || vehicle.getSeatingCapacity() >= minSeating)
+                    && (maxSeating == null || vehicle.getSeatingCapacity() <= maxSeating)
+                    && (location == null || (vehicle.getCurrentLocation() != null
+                            && vehicle.getCurrentLocation().toLowerCase().contains(location.toLowerCase())))
+                    && (airConditioning == null || airConditioning.equals(vehicle.getAirConditioning()))
+                    && (gpsNavigation == null || gpsNavigation.equals(vehicle.getGpsNavigation()))
+                    && (bluetooth == null || bluetooth.equals(vehicle.getBluetooth()))
+                    && (usbCharging == null || usbCharging.equals(vehicle.getUsbCharging()))
+                    && (backupCamera == null || backupCamera.equals(vehicle.getBackupCamera()))
+                    && (parkingSensors == null || parkingSensors.equals(vehicle.getParkingSensors()))
+                    && (sunroof == null || sunroof.equals(vehicle.getSunroof()))
+                    && (leatherSeats == null || leatherSeats.equals(vehicle.getLeatherSeats()))
+                    && (city == null || city.equalsIgnoreCase(company.getCity()))
+                    && (state == null || state.equalsIgnoreCase(company.getState()))
+                    && (country == null || country.equalsIgnoreCase(company.getCountry()))
+                    && (companyName == null || companyName.isEmpty()
+                            || company.getCompanyName().toLowerCase().contains(companyName.toLowerCase()))
+                    && (color == null || color.isEmpty() || color.equalsIgnoreCase(vehicle.getColor()));
+        }
+    }
+
+    private void reserve(Vehicle vehicle, User customer, String number, Reservation.ReservationStatus status) {
+        Reservation reservation = TestFixtures.reservation(vehicle, customer, number, BOOKED_FROM, BOOKED_TO);
+        reservation.setStatus(status);
+        reservationRepository.save(reservation);
+    }
+
+    private Vehicle save(Company company, String plate, Consumer<Vehicle> customizer) {
+        Vehicle vehicle = TestFixtures.vehicle(company, plate);
+        customizer.accept(vehicle);
+        return vehicleRepository.save(vehicle);
+    }
+
+    private static void set(Vehicle vehicle, String make, String model, int year, int dailyRate, String fuelType,
+                            String transmission, int seating, String color, String location, String averageRating) {
+        vehicle.setMake(make);
+        vehicle.setModel(model);
+        vehicle.setYear(year);
+        vehicle.setDailyRate(BigDecimal.valueOf(dailyRate));
+        vehicle.setFuelType(fuelType);
+        vehicle.setTransmission(transmission);
+        vehicle.setSeatingCapacity(seating);
+        vehicle.setColor(color);
+        vehicle.setCurrentLocation(location);
+        vehicle.setAverageRating(new BigDecimal(averageRating));
+    }
+
+    private static Company newCompany(String code, String name, String city, String country,
+                                      Company.CompanyStatus status) {
+        Company company = TestFixtures.company(code);
+        company.setCompanyName(name);
+        company.setCity(city);
+        company.setCountry(country);
+        company.setStatus(status);
+        return company;
+    }
+}
@@ -0,0 +1,190 @@
+package com.rentman.rentman.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rentman.rentman.RentManIntegrationTest;
+import com.rentman.rentman.TestFixtures;
+import com.rentman.rentman.dto.VehicleSummaryDto;
+import com.rentman.rentman.entity.Company;
+import com.rentman.rentman.entity.Vehicle;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Vehicle list/search projections against the entities they replace: same rows, no entity loads, smaller JSON.
+// The payload benchmark is skipped by default; run it with:
+//   mvn test -Dtest=VehicleSummaryProjectionTest -Drentman.benchmark=true [-Drentman.benchmark.rows=5000]
+@RentManIntegrationTest
+class VehicleSummaryProjectionTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(VehicleSummaryProjectionTest.class);
+
+    private static final int ROWS = 20;
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CompanyRepository companyRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Statistics statistics;
+    private Company company;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        company = companyRepository.save(TestFixtures.company(TestFixtures.uniqueCode("SUM")));
+        insertVehicles(ROWS);
+    }
+
+    @Test
+    void companySummariesAreSelectedWithoutLoadingEntities() {
+        statistics.clear();
+        List<VehicleSummaryDto> summaries = vehicleRepository.findCompanySummaries(company.getId());
+
+        assertEquals(ROWS, summaries.size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        VehicleSummaryDto first = summaries.get(0);
+        assertEquals(company.getId(), first.companyId());
+        assertEquals(company.getCompanyName(), first.companyName());
+        assertEquals(ROWS, vehicleRepository.findCompanySummariesByStatus(company.getId(), Vehicle.VehicleStatus.AVAILABLE).size());
+    }
+
+    @Test
+    void searchSummariesMatchTheEntitySearch() {
+        Specification<Vehicle> specification = VehicleSpecifications.search(companyCriteria());
+        PageRequest pageRequest = PageRequest.of(1, 8, Sort.by("dailyRate").descending().and(Sort.by("id")));
+
+        Page<Vehicle> entities = vehicleRepository.findAll(specification, pageRequest);
+        statistics.clear();
+        Page<VehicleSummaryDto> summaries = vehicleRepository.findSummaries(specification, pageRequest);
+
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(entities.getTotalElements(), summaries.getTotalElements());
+        assertEquals(entities.getContent().stream().map(Vehicle::getId).toList(),
+                summaries.getContent().stream().map(VehicleSummaryDto::id).toList());
+    }
+
+    @Test
+    void summaryPayloadIsAFractionOfTheEntityPayload() throws Exception {
+        Payloads payloads = measurePayloads();
+        logger.info("{} vehicles: entities {} bytes, summaries {} bytes",
+                ROWS, payloads.entityBytes(), payloads.summaryBytes());
+        assertTrue(payloads.summaryBytes() * 3 < payloads.entityBytes(),
+                "summaries " + payloads.summaryBytes() + " bytes vs entities " + payloads.entityBytes());
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "rentman.benchmark", matches = "true")
+    void comparePayloadSizeAndAllocation() throws Exception {
+        int rows = Integer.getInteger("rentman.benchmark.rows", 5_000);
+        insertVehicles(rows - ROWS);
+        // Warm up Hibernate, Jackson and the JIT before measuring
+        measurePayloads();
+
+        Payloads payloads = measurePayloads();
+        logger.info("{} vehicles, entities: {} bytes ({} per row), {} ms, {} bytes allocated per row",
+                rows, payloads.entityBytes(), payloads.entityBytes() / rows, payloads.entityMillis(),
+                payloads.entityAllocated() / rows);
+        logger.info("{} vehicles, summaries: {} bytes ({} per row), {} ms, {} bytes allocated per row",
+                rows, payloads.summaryBytes(), payloads.summaryBytes() / rows, payloads.summaryMillis(),
+                payloads.summaryAllocated() / rows);
+        assertTrue(payloads.summaryBytes() * 3 < payloads.entityBytes(),
+                "summaries " + payloads.summaryBytes() + " bytes vs entities " + payloads.entityBytes());
+    }
+
+    private record Payloads(long entityBytes, long entityMillis, long entityAllocated,
+                            long summaryBytes, long summaryMillis, long summaryAllocated) {
+    }
+
+    // Query plus JSON rendering of the company's search results, as entities (the previous response) and as summaries
+    private Payloads measurePayloads() throws Exception {
+        Specification<Vehicle> specification = VehicleSpecifications.search(companyCriteria());
+        PageRequest all = PageRequest.of(0, Integer.MAX_VALUE, Sort.by("id"));
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+
+        long[] entity = measure(() -> transaction.execute(status -> write(vehicleRepository.findAll(specification, all).getContent())));
+        long[] summary = measure(() -> transaction.execute(status -> write(vehicleRepository.findSummaries(specification, all).getContent())));
+        return new Payloads(entity[0], entity[1], entity[2], summary[0], summary[1], summary[2]);
+    }
+
+    // [bytes, elapsed ms, bytes allocated by this thread]
+    private static long[] measure(Supplier<byte[]> render) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().threadId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        byte[] json = render.get();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        return new long[]{json.length, elapsedMillis, threads.getThreadAllocatedBytes(thread) - allocatedBefore};
+    }
+
+    private byte[] write(List<?> rows) {
+        try {
+            return objectMapper.writeValueAsBytes(rows);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private VehicleSpecifications.SearchCriteria companyCriteria() {
+        return new VehicleSpecifications.SearchCriteria(
+                null, null, null, null, null, null, null, null, null,
+                null, null, null, null, company.getId(), null, null, null, null,
+                null, null, null, null, null, null, null, null);
+    }
+
+    private void insertVehicles(int count) {
+        List<Vehicle> vehicles = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            vehicles.add(newVehicle("SUM-" + SEQUENCE.incrementAndGet(), i));
+        }
+        vehicleRepository.saveAll(vehicles);
+    }
+
+    private Vehicle newVehicle(String plate, int index) {
+        Vehicle vehicle = TestFixtures.vehicle(company, plate);
+        vehicle.setModel("RAV4");
+        vehicle.setType(Vehicle.VehicleType.SUV);
+        vehicle.setDailyRate(BigDecimal.valueOf(50 + index % 7));
+        vehicle.setFuelType("Hybrid");
+        vehicle.setTransmission("Automatic");
+        vehicle.setSeatingCapacity(5);
+        vehicle.setCurrentLocation("Springfield Downtown");
+        vehicle.setDescription("Spacious hybrid SUV with adaptive cruise control, lane keeping assist, heated seats, " +
+                "a panoramic roof and plenty of room for luggage. Regularly serviced and cleaned after every rental.");
+        return vehicle;
+    }
+}
@@ -0,0 +1,95 @@
+package com.rentman.rentman.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rentman.rentman.RentManIntegrationTest;
+import com.rentman.rentman.TestFixtures;
+import com.rentman.rentman.entity.User;
+import com.rentman.rentman.repository.UserRepository;
+import com.rentman.rentman.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultMatcher;
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Verified tokens and their principals are cached; a user changed through UserService must lose access on the next
+// request however long the token still has to run
+@RentManIntegrationTest
+class JwtAuthenticationFilterTest {
+
+    private static final String PASSWORD = "secret123";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    void cachedTokenStaysValidAcrossOtherChanges() throws Exception {
+        User user = newUser("jwt-verified");
+        String token = login(user);
+        expectProfile(user, token, status().isOk());
+
+        userService.verifyEmail(user.getId());
+        expectProfile(user, token, status().isOk());
+    }
+
+    @Test
+    void disabledUsersCachedTokenIsRejected() throws Exception {
+        for (User.UserStatus status : new User.UserStatus[]{User.UserStatus.INACTIVE, User.UserStatus.SUSPENDED,
+                User.UserStatus.BANNED}) {
+            User user = newUser("jwt-" + status.name().toLowerCase());
+            String token = login(user);
+            expectProfile(user, token, status().isOk());
+
+            userService.updateUserStatus(user.getId(), status);
+            expectProfile(user, token, status().isForbidden());
+        }
+    }
+
+    @Test
+    void deletedUsersCachedTokenIsRejected() throws Exception {
+        User user = newUser("jwt-deleted");
+        String token = login(user);
+        expectProfile(user, token, status().isOk());
+
+        userService.deleteUser(user.getId());
+        expectProfile(user, token, status().isForbidden());
+    }
+
+    private void expectProfile(User user, String token, ResultMatcher expected) throws Exception {
+        mockMvc.perform(get("/api/users/" + user.getId()).header("Authorization", "Bearer " + token))
+                .andExpect(expected);
+    }
+
+    private String login(User user) throws Exception {
+        String body = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("email", user.getEmail(), "password", PASSWORD))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).path("token").asText();
+    }
+
+    private User newUser(String code) {
+        User user = TestFixtures.customer(code);
+        user.setPassword(passwordEncoder.encode(PASSWORD));
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,52 @@
+package com.rentman.rentman.security;
+
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JwtUtilTest {
+
+    private static final String SECRET = "testSecretKey12345678901234567890123456789";
+
+    private final JwtUtil jwtUtil = new JwtUtil(SECRET, 60_000L);
+    private final UserDetails user = new User("casey@rentman.test", "secret", Collections.emptyList());
+
+    @Test
+    void parseTokenReturnsSubjectExpiryAndClaims() {
+        long before = System.currentTimeMillis();
+        String token = jwtUtil.generateToken(user, Map.of("role", "CUSTOMER"));
+
+        JwtUtil.TokenClaims claims = jwtUtil.parseToken(token);
+
+        assertEquals("casey@rentman.test", claims.subject());
+        assertEquals("CUSTOMER", claims.get("role", String.class));
+        assertTrue(claims.expiration().after(new Date(before)));
+        assertTrue(jwtUtil.validateToken(token, user));
+    }
+
+    @Test
+    void rejectsTokenSignedWithAnotherKey() {
+        JwtUtil other = new JwtUtil("anotherSecretKey123456789012345678901234567", 60_000L);
+        String token = other.generateToken(user);
+
+        assertFalse(jwtUtil.validateToken(token));
+        assertThrows(JwtException.class, () -> jwtUtil.parseToken(token));
+    }
+
+    @Test
+    void rejectsExpiredToken() {
+        JwtUtil expired = new JwtUtil(SECRET, -1_000L);
+        String token = expired.generateToken(user);
+
+        assertFalse(jwtUtil.validateToken(token));
+    }
+}
@@ -0,0 +1,133 @@
+package com.rentman.rentman.service;
+
+import com.rentman.rentman.entity.Reservation;
+import com.rentman.rentman.entity.Vehicle;
+import com.rentman.rentman.repository.ReservationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AvailabilityIndexTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    private final ReservationRepository reservationRepository = mock(ReservationRepository.class);
+    private final AvailabilityIndex index = new AvailabilityIndex();
+    private final List<Object[]> rows = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        // Vehicle 1: a 30-day rental and a weekend; vehicle 2: one week
+        rows.add(new Object[]{100L, 1L, TODAY.plusDays(10), TODAY.plusDays(40)});
+        rows.add(new Object[]{101L, 1L, TODAY.plusDays(50), TODAY.plusDays(52)});
+        rows.add(new Object[]{200L, 2L, TODAY.plusDays(5), TODAY.plusDays(12)});
+        when(reservationRepository.findBlockingReservationRanges(any())).thenAnswer(invocation -> new ArrayList<>(rows));
+        ReflectionTestUtils.setField(index, "reservationRepository", reservationRepository);
+        index.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        index.shutdown();
+    }
+
+    @Test
+    void overlapLooksBackOverTheLongestBookedSpan() {
+        AvailabilityIndex.VehicleCalendar calendar = new AvailabilityIndex.VehicleCalendar();
+        LocalDate start = LocalDate.of(2030, 1, 1);
+        calendar.add(new AvailabilityIndex.Booking(1L, 1L, start, start.plusDays(30)));
+        calendar.add(new AvailabilityIndex.Booking(2L, 1L, start.plusDays(40), start.plusDays(41)));
+
+        // Inside the long booking, 25 days after it started: found only by looking back 30 days
+        assertTrue(calendar.overlaps(start.plusDays(25), start.plusDays(26)));
+        // Inclusive at both ends
+        assertTrue(calendar.overlaps(start.minusDays(3), start));
+        assertTrue(calendar.overlaps(start.plusDays(30), start.plusDays(35)));
+        assertTrue(calendar.overlaps(start.plusDays(41), start.plusDays(45)));
+        // Between and around the bookings
+        assertFalse(calendar.overlaps(start.plusDays(31), start.plusDays(39)));
+        assertFalse(calendar.overlaps(start.minusDays(5), start.minusDays(1)));
+        assertFalse(calendar.overlaps(start.plusDays(42), start.plusDays(60)));
+
+        // The look-back window never shrinks, so lookups stay correct after the long booking goes
+        calendar.remove(new AvailabilityIndex.Booking(1L, 1L, start, start.plusDays(30)));
+        assertFalse(calendar.overlaps(start.plusDays(25), start.plusDays(26)));
+        assertTrue(calendar.overlaps(start.plusDays(39), start.plusDays(40)));
+    }
+
+    @Test
+    void answersFromTheIndexFromTheHorizonOn() {
+        assertFalse(index.isAvailable(1L, TODAY.plusDays(35), TODAY.plusDays(45)));
+        assertTrue(index.isAvailable(1L, TODAY.plusDays(41), TODAY.plusDays(49)));
+        assertFalse(index.isAvailable(2L, TODAY.plusDays(12), TODAY.plusDays(14)));
+        assertTrue(index.isAvailable(3L, TODAY, TODAY.plusDays(100)));
+        verify(reservationRepository, never()).countConflictingReservations(anyLong(), any(), any());
+
+        // Before the horizon the database answers
+        when(reservationRepository.countConflictingReservations(2L, TODAY.minusDays(1), TODAY)).thenReturn(1L);
+        assertFalse(index.isAvailable(2L, TODAY.minusDays(1), TODAY));
+        assertEquals(1L, index.getStatistics().get("databaseFallbacks"));
+    }
+
+    @Test
+    void appliesCommittedChangesInOrder() {
+        index.record(reservation(300L, 2L, TODAY.plusDays(20), TODAY.plusDays(22), Reservation.ReservationStatus.CONFIRMED));
+        // Moved, then cancelled: the last change wins
+        index.record(reservation(200L, 2L, TODAY.plusDays(6), TODAY.plusDays(8), Reservation.ReservationStatus.CONFIRMED));
+        index.record(reservation(200L, 2L, TODAY.plusDays(6), TODAY.plusDays(8), Reservation.ReservationStatus.CANCELLED));
+        index.forget(101L);
+        index.awaitPendingUpdates();
+
+        assertFalse(index.isAvailable(2L, TODAY.plusDays(21), TODAY.plusDays(21)));
+        assertTrue(index.isAvailable(2L, TODAY.plusDays(5), TODAY.plusDays(12)));
+        assertTrue(index.isAvailable(1L, TODAY.plusDays(50), TODAY.plusDays(52)));
+        assertEquals(2, index.getStatistics().get("indexedReservations"));
+        assertEquals(0, index.getStatistics().get("pendingUpdates"));
+    }
+
+    @Test
+    void consistencyCheckReportsMissingChangedAndStaleReservations() {
+        assertEquals(true, index.checkConsistency().get("consistent"));
+
+        // 100 was extended and 102 created behind the index's back; 200 was deleted
+        rows.set(0, new Object[]{100L, 1L, TODAY.plusDays(10), TODAY.plusDays(41)});
+        rows.set(2, new Object[]{102L, 2L, TODAY.plusDays(1), TODAY.plusDays(2)});
+        Map<String, Object> drift = index.checkConsistency();
+        assertEquals(false, drift.get("consistent"));
+        assertEquals(2L, drift.get("missingOrChanged"));
+        assertEquals(1L, drift.get("stale"));
+        assertEquals(3, drift.get("databaseReservations"));
+
+        index.rebuild();
+        assertEquals(true, index.checkConsistency().get("consistent"));
+        assertEquals(2L, index.getStatistics().get("rebuildCount"));
+    }
+
+    private static Reservation reservation(Long id, Long vehicleId, LocalDate startDate, LocalDate endDate,
+                                           Reservation.ReservationStatus status) {
+        Vehicle vehicle = new Vehicle();
+        vehicle.setId(vehicleId);
+        Reservation reservation = new Reservation();
+        reservation.setId(id);
+        reservation.setVehicle(vehicle);
+        reservation.setStartDate(startDate);
+        reservation.setEndDate(endDate);
+        reservation.setStatus(status);
+        return reservation;
+    }
+}
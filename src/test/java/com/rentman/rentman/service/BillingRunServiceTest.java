@@ -0,0 +1,138 @@
+package com.rentman.rentman.service;
+
+import com.rentman.rentman.RentManIntegrationTest;
+import com.rentman.rentman.TestFixtures;
+import com.rentman.rentman.entity.Company;
+import com.rentman.rentman.entity.Invoice;
+import com.rentman.rentman.entity.InvoiceItem;
+import com.rentman.rentman.repository.CompanyRepository;
+import com.rentman.rentman.repository.InvoiceItemRepository;
+import com.rentman.rentman.repository.InvoiceRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+@RentManIntegrationTest
+class BillingRunServiceTest {
+
+    private static final LocalDate PERIOD = LocalDate.of(2025, 3, 1);
+
+    @Autowired
+    private BillingRunService billingRunService;
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Autowired
+    private CompanyRepository companyRepository;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private InvoiceItemRepository invoiceItemRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void billsEveryDueCompanyOnceAcrossPagesAndRestarts() {
+        Company alreadyBilled = companyRepository.save(newCompany("BILL0", Company.CompanyStatus.ACTIVE, 100));
+        for (int i = 1; i <= 5; i++) {
+            companyRepository.save(newCompany("BILL" + i, Company.CompanyStatus.ACTIVE, 100));
+        }
+        companyRepository.save(newCompany("SUSPENDED", Company.CompanyStatus.SUSPENDED, 100));
+        companyRepository.save(newCompany("FREE", Company.CompanyStatus.ACTIVE, 0));
+        // As if an earlier, interrupted run had already invoiced this company
+        invoiceService.createSubscriptionInvoice(alreadyBilled.getId(), PERIOD, PERIOD.plusMonths(1).minusDays(1));
+
+        Map<String, Object> progress = billingRunService.run(PERIOD);
+
+        assertEquals("COMPLETED", progress.get("status"));
+        assertEquals(5L, progress.get("invoicesCreated"));
+        assertEquals(3, progress.get("pages"));
+        assertEquals(6, invoiceRepository.countByType(Invoice.InvoiceType.SUBSCRIPTION));
+
+        Invoice invoice = invoiceRepository.findAll().stream()
+                .filter(candidate -> candidate.getDescription().endsWith("BILL3 Rentals"))
+                .findFirst().orElseThrow();
+        assertEquals(0, new BigDecimal("100.00").compareTo(invoice.getSubtotal()));
+        assertEquals(0, new BigDecimal("108.50").compareTo(invoice.getTotalAmount()));
+        assertEquals(LocalDate.of(2025, 3, 31), invoice.getBillingPeriodEnd());
+        List<InvoiceItem> items = invoiceItemRepository.findByInvoiceIdOrderById(invoice.getId());
+        assertEquals(1, items.size());
+        assertEquals(InvoiceItem.ItemType.SUBSCRIPTION_FEE, items.get(0).getItemType());
+
+        assertEquals(0L, billingRunService.run(PERIOD).get("invoicesCreated"));
+        assertEquals(6, invoiceRepository.countByType(Invoice.InvoiceType.SUBSCRIPTION));
+    }
+
+    @Test
+    void companiesBilledByAnotherNodeDuringThePageAreSkipped() {
+        LocalDate period = LocalDate.of(2025, 4, 1);
+        for (int i = 1; i <= 3; i++) {
+            companyRepository.save(newCompany("RACE" + i, Company.CompanyStatus.ACTIVE, 100));
+        }
+
+        // Another node invoices the last company of the first page after this run has read the page
+        TransactionTemplate otherNode = new TransactionTemplate(transactionManager);
+        otherNode.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        AtomicBoolean raced = new AtomicBoolean();
+        CompanyRepository racingRepository = mock(CompanyRepository.class, delegatesTo(companyRepository));
+        doAnswer(invocation -> {
+            List<Company> page = companyRepository.findDueForBilling(invocation.getArgument(0),
+                    invocation.getArgument(1), invocation.getArgument(2), invocation.getArgument(3));
+            if (!page.isEmpty() && raced.compareAndSet(false, true)) {
+                Long companyId = page.get(page.size() - 1).getId();
+                otherNode.executeWithoutResult(status -> invoiceService.createSubscriptionInvoice(
+                        companyId, period, period.plusMonths(1).minusDays(1)));
+            }
+            return page;
+        }).when(racingRepository).findDueForBilling(any(), any(), any(), any());
+
+        ReflectionTestUtils.setField(billingRunService, "companyRepository", racingRepository);
+        Map<String, Object> progress;
+        try {
+            progress = billingRunService.run(period);
+        } finally {
+            ReflectionTestUtils.setField(billingRunService, "companyRepository", companyRepository);
+        }
+
+        assertEquals("COMPLETED", progress.get("status"));
+        assertEquals(1, progress.get("pagesRetried"));
+        Map<Long, Long> invoicesPerCompany = invoiceRepository.findAll().stream()
+                .filter(invoice -> period.equals(invoice.getBillingPeriodStart()))
+                .collect(Collectors.groupingBy(invoice -> invoice.getCompany().getId(), Collectors.counting()));
+        assertTrue(invoicesPerCompany.values().stream().allMatch(count -> count == 1));
+        assertEquals(invoicesPerCompany.size() - 1L, progress.get("invoicesCreated"));
+    }
+
+    @Test
+    void rejectsPeriodsThatDoNotStartAMonth() {
+        assertThrows(RuntimeException.class, () -> billingRunService.run(LocalDate.of(2025, 3, 15)));
+    }
+
+    private Company newCompany(String code, Company.CompanyStatus status, int monthlyFee) {
+        Company company = TestFixtures.company(code);
+        company.setStatus(status);
+        company.setMonthlyFee(BigDecimal.valueOf(monthlyFee));
+        return company;
+    }
+}
@@ -0,0 +1,100 @@
+package com.rentman.rentman.service;
+
+import com.rentman.rentman.RentManIntegrationTest;
+import com.rentman.rentman.TestFixtures;
+import com.rentman.rentman.dto.ReservationCreateDto;
+import com.rentman.rentman.entity.Company;
+import com.rentman.rentman.entity.User;
+import com.rentman.rentman.entity.Vehicle;
+import com.rentman.rentman.repository.CompanyRepository;
+import com.rentman.rentman.repository.UserRepository;
+import com.rentman.rentman.repository.VehicleRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@RentManIntegrationTest
+class CompanyDashboardSnapshotTest {
+
+    @Autowired
+    private CompanyDashboardSnapshot dashboardSnapshot;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private CompanyRepository companyRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Test
+    void servesRepeatedReadsFromMemoryAndReloadsOnlyChangedSections() {
+        Company company = companyRepository.save(TestFixtures.company("SNAP"));
+        Vehicle vehicle = vehicleRepository.save(TestFixtures.vehicle(company, "SNAP-1"));
+        User customer = userRepository.save(TestFixtures.customer("sam"));
+
+        Map<String, Object> first = dashboardSnapshot.getDashboard(company.getId());
+        assertNotNull(first);
+        assertEquals(0, ((List<?>) first.get("recentReservations")).size());
+
+        long loadsAfterFirstRead = sectionLoads();
+        dashboardSnapshot.getDashboard(company.getId());
+        assertEquals(loadsAfterFirstRead, sectionLoads(), "a clean snapshot must not touch the database");
+
+        ReservationCreateDto dto = new ReservationCreateDto();
+        dto.setCustomerId(customer.getId());
+        dto.setVehicleId(vehicle.getId());
+        dto.setStartDate(LocalDate.now().plusDays(3));
+        dto.setEndDate(LocalDate.now().plusDays(5));
+        reservationService.createReservation(dto);
+
+        Map<String, Object> afterReservation = dashboardSnapshot.getDashboard(company.getId());
+        assertEquals(1, ((List<?>) afterReservation.get("recentReservations")).size());
+        // Company, reservation and vehicle sections only
+        assertEquals(loadsAfterFirstRead + 3, sectionLoads());
+    }
+
+    @Test
+    void onlyCompanyAndVehicleChangesClearCachedSearchResults() {
+        Company company = companyRepository.save(TestFixtures.company("SNAPSEARCH"));
+        Cache search = cacheManager.getCache(SharedCaches.SEARCH);
+        search.put("/api/search/vehicles", "[]");
+
+        dashboardSnapshot.reservationChanged(company);
+        dashboardSnapshot.maintenanceChanged(company);
+        dashboardSnapshot.defectChanged(company);
+        dashboardSnapshot.invoiceChanged(company);
+        assertNotNull(search.get("/api/search/vehicles"));
+
+        dashboardSnapshot.vehicleChanged(company);
+        assertNull(search.get("/api/search/vehicles"));
+
+        search.put("/api/search/vehicles", "[]");
+        dashboardSnapshot.invalidate(company, CompanyDashboardSnapshot.Section.COMPANY);
+        assertNull(search.get("/api/search/vehicles"));
+    }
+
+    @Test
+    void returnsNullForUnknownCompany() {
+        assertNull(dashboardSnapshot.getDashboard(Long.MAX_VALUE));
+    }
+
+    private long sectionLoads() {
+        return (Long) dashboardSnapshot.getStatistics().get("sectionLoads");
+    }
+}
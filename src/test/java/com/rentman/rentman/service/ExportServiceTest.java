@@ -0,0 +1,86 @@
+package com.rentman.rentman.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rentman.rentman.RentManIntegrationTest;
+import com.rentman.rentman.TestFixtures;
+import com.rentman.rentman.entity.Company;
+import com.rentman.rentman.entity.Maintenance;
+import com.rentman.rentman.entity.Vehicle;
+import com.rentman.rentman.repository.CompanyRepository;
+import com.rentman.rentman.repository.MaintenanceRepository;
+import com.rentman.rentman.repository.VehicleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@RentManIntegrationTest
+class ExportServiceTest {
+
+    private static final int ROWS = 5;
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private CompanyRepository companyRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private MaintenanceRepository maintenanceRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Company company;
+    private Vehicle vehicle;
+
+    // Each test exports its own company, so the rows of the other test never show up
+    @BeforeEach
+    void setUp() {
+        String code = TestFixtures.uniqueCode("EXP");
+        company = companyRepository.save(TestFixtures.company(code));
+        vehicle = vehicleRepository.save(TestFixtures.vehicle(company, "EXP-" + code));
+        for (int i = 0; i < ROWS; i++) {
+            Maintenance maintenance = TestFixtures.maintenance(vehicle, "MNT-" + code + "-" + i);
+            if (i == 0) {
+                maintenance.setTitle("Brakes, pads \"front\"");
+            }
+            maintenanceRepository.save(maintenance);
+        }
+    }
+
+    @Test
+    void writesOneJsonObjectPerLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = exportService.exportMaintenance(company.getId(), ExportService.Format.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(ROWS, written);
+        assertEquals(ROWS, lines.length);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertTrue(first.get("maintenanceNumber").asText().endsWith("-0"));
+        assertEquals(company.getId().longValue(), first.get("companyId").asLong());
+        assertEquals(vehicle.getId().longValue(), first.get("vehicleId").asLong());
+        assertEquals(LocalDate.now().plusDays(7).toString(), first.get("scheduledDate").asText());
+    }
+
+    @Test
+    void writesQuotedCsvWithHeader() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportMaintenance(company.getId(), ExportService.Format.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(ROWS + 1, lines.length);
+        assertTrue(lines[0].startsWith("id,maintenanceNumber,companyId,vehicleId,type,status,title,"));
+        assertTrue(lines[1].contains(",\"Brakes, pads \"\"front\"\"\","), lines[1]);
+    }
+}
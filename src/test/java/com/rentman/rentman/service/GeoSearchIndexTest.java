@@ -0,0 +1,117 @@
+package com.rentman.rentman.service;
+
+import com.rentman.rentman.entity.Company;
+import com.rentman.rentman.entity.Vehicle;
+import com.rentman.rentman.repository.CompanyRepository;
+import com.rentman.rentman.repository.VehicleRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GeoSearchIndexTest {
+
+    private static final double SPRINGFIELD_LAT = 39.7817;
+    private static final double SPRINGFIELD_LON = -89.6501;
+    private static final double CHICAGO_LAT = 41.8781;
+    private static final double CHICAGO_LON = -87.6298;
+
+    private final CompanyRepository companyRepository = mock(CompanyRepository.class);
+    private final VehicleRepository vehicleRepository = mock(VehicleRepository.class);
+    private final GeoSearchIndex geoIndex = new GeoSearchIndex(
+            companyRepository, vehicleRepository, mock(EntityManagerFactory.class));
+
+    @BeforeEach
+    void setUp() {
+        List<Object[]> companyRows = new ArrayList<>();
+        companyRows.add(new Object[]{10L, SPRINGFIELD_LAT, SPRINGFIELD_LON, Company.CompanyStatus.ACTIVE});
+        companyRows.add(new Object[]{11L, CHICAGO_LAT, CHICAGO_LON, Company.CompanyStatus.ACTIVE});
+        companyRows.add(new Object[]{12L, 39.8403, -88.9548, Company.CompanyStatus.SUSPENDED});
+        companyRows.add(new Object[]{13L, null, null, Company.CompanyStatus.ACTIVE});
+        List<Object[]> vehicleRows = new ArrayList<>();
+        vehicleRows.add(new Object[]{1L, 39.80, -89.64, 11L, Vehicle.VehicleStatus.AVAILABLE});
+        vehicleRows.add(new Object[]{2L, null, null, 10L, Vehicle.VehicleStatus.AVAILABLE});
+        vehicleRows.add(new Object[]{3L, null, null, 10L, Vehicle.VehicleStatus.RENTED});
+        vehicleRows.add(new Object[]{4L, null, null, 12L, Vehicle.VehicleStatus.AVAILABLE});
+        vehicleRows.add(new Object[]{5L, null, null, 13L, Vehicle.VehicleStatus.AVAILABLE});
+
+        when(companyRepository.findGeoRows()).thenReturn(companyRows);
+        when(vehicleRepository.findGeoRows()).thenReturn(vehicleRows);
+        geoIndex.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        geoIndex.shutdown();
+    }
+
+    @Test
+    void findsActiveCompaniesAndAvailableVehiclesNearestFirst() {
+        // Decatur is 60 km away but suspended; Chicago is 288 km away
+        assertEquals(List.of(10L), ids(geoIndex.nearbyCompanies(SPRINGFIELD_LAT, SPRINGFIELD_LON, 100, 10)));
+        List<GeoSearchIndex.Hit> both = geoIndex.nearbyCompanies(SPRINGFIELD_LAT, SPRINGFIELD_LON, 300, 10);
+        assertEquals(List.of(10L, 11L), ids(both));
+        assertEquals(288.5, both.get(1).distanceKm(), 0.1);
+        assertEquals(List.of(10L), ids(geoIndex.nearbyCompanies(SPRINGFIELD_LAT, SPRINGFIELD_LON, 300, 1)));
+
+        // Vehicle 2 sits at its branch, vehicle 1 has its own position 2.2 km away; 3 is rented, 4 belongs to a
+        // suspended company and 5 has no position at all
+        List<GeoSearchIndex.Hit> vehicles = geoIndex.nearbyVehicles(SPRINGFIELD_LAT, SPRINGFIELD_LON, 100, 10);
+        assertEquals(List.of(2L, 1L), ids(vehicles));
+        assertEquals(0.0, vehicles.get(0).distanceKm(), 0.001);
+        assertEquals(2.2, vehicles.get(1).distanceKm(), 0.1);
+        assertEquals(4, geoIndex.getStatistics().get("placedVehicles"));
+    }
+
+    @Test
+    void movesVehiclesWithTheirCompanyAndAppliesChangesIncrementally() {
+        geoIndex.companyChanged(10L, CHICAGO_LAT, CHICAGO_LON, true);
+        assertEquals(List.of(1L), ids(geoIndex.nearbyVehicles(SPRINGFIELD_LAT, SPRINGFIELD_LON, 10, 10)));
+        assertEquals(List.of(2L), ids(geoIndex.nearbyVehicles(CHICAGO_LAT, CHICAGO_LON, 5, 10)));
+
+        geoIndex.vehicleChanged(3L, null, null, 11L, true);
+        assertEquals(List.of(2L, 3L), ids(geoIndex.nearbyVehicles(CHICAGO_LAT, CHICAGO_LON, 5, 10)));
+
+        geoIndex.vehicleRemoved(2L);
+        assertEquals(List.of(3L), ids(geoIndex.nearbyVehicles(CHICAGO_LAT, CHICAGO_LON, 5, 10)));
+
+        // Without its company a vehicle is neither placed nor eligible
+        geoIndex.companyRemoved(11L);
+        assertEquals(List.of(), ids(geoIndex.nearbyVehicles(CHICAGO_LAT, CHICAGO_LON, 5, 10)));
+        assertEquals(List.of(), ids(geoIndex.nearbyVehicles(SPRINGFIELD_LAT, SPRINGFIELD_LON, 10, 10)));
+        assertEquals(List.of(10L), ids(geoIndex.nearbyCompanies(CHICAGO_LAT, CHICAGO_LON, 5, 10)));
+
+        geoIndex.companyChanged(12L, 39.8403, -88.9548, true);
+        assertEquals(List.of(12L), ids(geoIndex.nearbyCompanies(SPRINGFIELD_LAT, SPRINGFIELD_LON, 100, 10)));
+        assertEquals(List.of(4L), ids(geoIndex.nearbyVehicles(SPRINGFIELD_LAT, SPRINGFIELD_LON, 100, 10)));
+    }
+
+    @Test
+    void searchesAcrossTheAntimeridianAndRejectsBadInput() {
+        geoIndex.companyChanged(20L, 0.0, 179.9, true);
+        geoIndex.companyChanged(21L, 0.0, -179.9, true);
+        geoIndex.companyChanged(22L, 0.0, 179.0, true);
+
+        List<GeoSearchIndex.Hit> hits = geoIndex.nearbyCompanies(0, 180, 50, 10);
+        assertEquals(2, hits.size());
+        assertTrue(hits.stream().allMatch(hit -> Math.abs(hit.distanceKm() - 11.1) < 0.1));
+
+        assertThrows(IllegalArgumentException.class, () -> geoIndex.nearbyCompanies(91, 0, 10, 10));
+        assertThrows(IllegalArgumentException.class, () -> geoIndex.nearbyVehicles(0, 181, 10, 10));
+        assertThrows(IllegalArgumentException.class, () -> geoIndex.nearbyVehicles(0, 0, 0, 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> geoIndex.nearbyVehicles(0, 0, GeoSearchIndex.MAX_RADIUS_KM + 1, 10));
+    }
+
+    private static List<Long> ids(List<GeoSearchIndex.Hit> hits) {
+        return hits.stream().map(GeoSearchIndex.Hit::id).toList();
+    }
+}
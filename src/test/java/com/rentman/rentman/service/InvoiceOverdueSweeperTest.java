@@ -0,0 +1,58 @@
+package com.rentman.rentman.service;
+
+import com.rentman.rentman.RentManIntegrationTest;
+import com.rentman.rentman.TestFixtures;
+import com.rentman.rentman.entity.Company;
+import com.rentman.rentman.entity.Invoice;
+import com.rentman.rentman.repository.CompanyRepository;
+import com.rentman.rentman.repository.InvoiceRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@RentManIntegrationTest
+class InvoiceOverdueSweeperTest {
+
+    @Autowired
+    private InvoiceOverdueSweeper overdueSweeper;
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Autowired
+    private CompanyRepository companyRepository;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Test
+    void movesPastDueSentInvoicesInBatchesAndKeepsThemInTheOverdueList() {
+        Company company = companyRepository.save(TestFixtures.company("SWEEP"));
+        Company otherCompany = companyRepository.save(TestFixtures.company("OTHER"));
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        for (int i = 0; i < 5; i++) {
+            invoiceRepository.save(TestFixtures.invoice(company, "INV-SWEEP-" + i, Invoice.InvoiceStatus.SENT, yesterday));
+        }
+        Invoice notDue = invoiceRepository.save(
+                TestFixtures.invoice(company, "INV-SWEEP-NOT-DUE", Invoice.InvoiceStatus.SENT, LocalDate.now().plusDays(3)));
+        invoiceRepository.save(TestFixtures.invoice(company, "INV-SWEEP-PENDING", Invoice.InvoiceStatus.PENDING, yesterday));
+        invoiceRepository.save(TestFixtures.invoice(otherCompany, "INV-OTHER-1", Invoice.InvoiceStatus.SENT, yesterday));
+
+        InvoiceOverdueSweeper.SweepResult result = overdueSweeper.sweep();
+
+        // Six rows at two per batch: three full batches, then an empty one to confirm nothing is left
+        assertEquals(6, result.rows());
+        assertEquals(4, result.batches());
+        assertEquals(6, invoiceRepository.countByStatus(Invoice.InvoiceStatus.OVERDUE));
+        assertEquals(Invoice.InvoiceStatus.SENT, invoiceRepository.findById(notDue.getId()).orElseThrow().getStatus());
+
+        // The five swept invoices plus the past-due pending one
+        List<Invoice> overdue = invoiceService.getCompanyOverdueInvoices(company.getId());
+        assertEquals(6, overdue.size());
+
+        assertEquals(0, overdueSweeper.sweep().rows());
+    }
+}
@@ -0,0 +1,77 @@
+package com.rentman.rentman.service;
+
+import com.rentman.rentman.RentManIntegrationTest;
+import com.rentman.rentman.TestFixtures;
+import com.rentman.rentman.entity.User;
+import com.rentman.rentman.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@RentManIntegrationTest
+class LastLoginRecorderTest {
+
+    @Autowired
+    private LastLoginRecorder lastLoginRecorder;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    void loginsAreCoalescedInMemoryAndWrittenByTheFlush() {
+        User user = userRepository.save(newUser("flush"));
+        lastLoginRecorder.flush();
+
+        assertTrue(userService.loginUser(user.getEmail(), "secret123").isPresent());
+        assertTrue(userService.loginUser(user.getEmail(), "secret123").isPresent());
+
+        // Nothing is written on the login path
+        assertNull(userRepository.findById(user.getId()).orElseThrow().getLastLogin());
+        assertEquals(1, lastLoginRecorder.getStatistics().get("pending"));
+
+        assertEquals(1, lastLoginRecorder.flush());
+        assertTrue(userRepository.findById(user.getId()).orElseThrow().getLastLogin() != null);
+        assertEquals(0, lastLoginRecorder.getStatistics().get("pending"));
+        assertEquals(0, lastLoginRecorder.flush());
+    }
+
+    @Test
+    void flushWritesInChunksAndNeverMovesLastLoginBackwards() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        User first = userRepository.save(newUser("first"));
+        User second = userRepository.save(newUser("second"));
+        User recent = newUser("recent");
+        recent.setLastLogin(now);
+        recent = userRepository.save(recent);
+        lastLoginRecorder.flush();
+
+        lastLoginRecorder.record(first.getId(), now.minusMinutes(5));
+        lastLoginRecorder.record(first.getId(), now.minusMinutes(1));
+        lastLoginRecorder.record(second.getId(), now.minusMinutes(2));
+        lastLoginRecorder.record(recent.getId(), now.minusHours(1));
+
+        // Three users at two per chunk
+        assertEquals(3, lastLoginRecorder.flush());
+        assertEquals(now.minusMinutes(1), userRepository.findById(first.getId()).orElseThrow().getLastLogin());
+        assertEquals(now.minusMinutes(2), userRepository.findById(second.getId()).orElseThrow().getLastLogin());
+        assertEquals(now, userRepository.findById(recent.getId()).orElseThrow().getLastLogin());
+    }
+
+    private User newUser(String code) {
+        User user = TestFixtures.customer(code);
+        user.setPassword(passwordEncoder.encode("secret123"));
+        return user;
+    }
+}
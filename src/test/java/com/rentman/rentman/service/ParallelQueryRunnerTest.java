@@ -0,0 +1,183 @@
+package com.rentman.rentman.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelQueryRunnerTest {
+
+    private final ParallelQueryRunner runner = new ParallelQueryRunner(new NoOpTransactionManager(), 500, 5, true);
+
+    @AfterEach
+    void shutdown() {
+        runner.shutdown();
+    }
+
+    @Test
+    void callsRunAtTheSameTime() {
+        // Every call waits until all five have started, which only happens if they run in parallel
+        ParallelQueryRunner unhurried = new ParallelQueryRunner(new NoOpTransactionManager(), 30_000, 5, true);
+        CountDownLatch allStarted = new CountDownLatch(5);
+        Map<String, Supplier<?>> queries = new LinkedHashMap<>();
+        for (int i = 0; i < 5; i++) {
+            int value = i;
+            queries.put("query" + i, () -> {
+                allStarted.countDown();
+                awaitOrFail(allStarted);
+                return value;
+            });
+        }
+
+        try {
+            ParallelQueryRunner.QueryResults results = unhurried.run(queries);
+
+            assertTrue(results.isComplete());
+            assertEquals(3, results.values().get("query3"));
+            assertEquals(5, results.timings().size());
+        } finally {
+            unhurried.shutdown();
+        }
+    }
+
+    @Test
+    void returnsPartialResultsWhenCallsTimeOutOrFail() {
+        CountDownLatch released = new CountDownLatch(1);
+        Map<String, Supplier<?>> queries = new LinkedHashMap<>();
+        queries.put("fast", () -> "ok");
+        queries.put("slow", () -> {
+            awaitOrFail(released);
+            return "late";
+        });
+        queries.put("broken", () -> {
+            throw new IllegalStateException("query failed");
+        });
+
+        try {
+            ParallelQueryRunner.QueryResults results = runner.run(queries);
+
+            assertFalse(results.isComplete());
+            assertEquals("ok", results.values().get("fast"));
+            assertEquals(Set.of("slow", "broken"), results.failed());
+            assertEquals(500L, results.timings().get("slow"));
+        } finally {
+            released.countDown();
+        }
+    }
+
+    @Test
+    void concurrentCallsAreBoundedByTheConnectionPermits() {
+        ParallelQueryRunner bounded = new ParallelQueryRunner(new NoOpTransactionManager(), 30_000, 2, true);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        // Calls pass in pairs, so two must hold a permit at once and a third never gets one while they do
+        CyclicBarrier pair = new CyclicBarrier(2);
+        Map<String, Supplier<?>> queries = new LinkedHashMap<>();
+        for (int i = 0; i < 6; i++) {
+            queries.put("query" + i, () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    pair.await(10, TimeUnit.SECONDS);
+                    return "ok";
+                } catch (Exception e) {
+                    throw new IllegalStateException("no second call ran alongside", e);
+                } finally {
+                    running.decrementAndGet();
+                }
+            });
+        }
+
+        try {
+            ParallelQueryRunner.QueryResults results = bounded.run(queries);
+
+            assertTrue(results.isComplete());
+            assertEquals(6, results.values().size());
+            assertEquals(2, maxRunning.get());
+        } finally {
+            bounded.shutdown();
+        }
+    }
+
+    @Test
+    void callsWaitingForAPermitFailAtTheDeadline() {
+        ParallelQueryRunner bounded = new ParallelQueryRunner(new NoOpTransactionManager(), 200, 1, true);
+        CountDownLatch released = new CountDownLatch(1);
+        AtomicInteger started = new AtomicInteger();
+        Map<String, Supplier<?>> queries = new LinkedHashMap<>();
+        for (int i = 0; i < 2; i++) {
+            queries.put("query" + i, () -> {
+                started.incrementAndGet();
+                awaitRelease(released);
+                return "late";
+            });
+        }
+
+        try {
+            // Whichever call takes the only permit keeps it, even once cancelled, until the test is done; the other
+            // never starts
+            ParallelQueryRunner.QueryResults results = bounded.run(queries);
+
+            assertEquals(Set.of("query0", "query1"), results.failed());
+            assertEquals(1, started.get());
+        } finally {
+            released.countDown();
+            bounded.shutdown();
+        }
+    }
+
+    private static void awaitOrFail(CountDownLatch latch) {
+        try {
+            if (!latch.await(10, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("latch did not open");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Ignores cancellation, as a statement the driver cannot stop would
+    private static void awaitRelease(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class NoOpTransactionManager implements PlatformTransactionManager {
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.rentman.rentman.service;
+
+import com.rentman.rentman.RentManIntegrationTest;
+import com.rentman.rentman.TestFixtures;
+import com.rentman.rentman.dto.ReservationCreateDto;
+import com.rentman.rentman.entity.Company;
+import com.rentman.rentman.entity.Reservation;
+import com.rentman.rentman.entity.User;
+import com.rentman.rentman.entity.Vehicle;
+import com.rentman.rentman.repository.CompanyRepository;
+import com.rentman.rentman.repository.ReservationRepository;
+import com.rentman.rentman.repository.UserRepository;
+import com.rentman.rentman.repository.VehicleRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@RentManIntegrationTest
+class ReservationServiceConcurrencyTest {
+
+    private static final int VEHICLES = 3;
+    private static final int BOOKINGS = 2000;
+    private static final int THREADS = 32;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Autowired
+    private CompanyRepository companyRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void parallelBookingsNeverOverlap() throws Exception {
+        Company company = companyRepository.save(TestFixtures.company("CONC"));
+        User customer = userRepository.save(TestFixtures.customer("casey"));
+        List<Long> vehicleIds = new ArrayList<>();
+        for (int i = 0; i < VEHICLES; i++) {
+            vehicleIds.add(vehicleRepository.save(TestFixtures.vehicle(company, "CONC-" + i)).getId());
+        }
+
+        AtomicInteger confirmed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        LocalDate firstDay = LocalDate.now().plusDays(1);
+
+        for (int i = 0; i < BOOKINGS; i++) {
+            futures.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                ReservationCreateDto dto = new ReservationCreateDto();
+                dto.setCustomerId(customer.getId());
+                dto.setVehicleId(vehicleIds.get(random.nextInt(VEHICLES)));
+                dto.setStartDate(firstDay.plusDays(random.nextInt(90)));
+                dto.setEndDate(dto.getStartDate().plusDays(1 + random.nextInt(5)));
+                try {
+                    Reservation reservation = reservationService.createReservation(dto);
+                    reservationService.confirmReservation(reservation.getId(), null);
+                    confirmed.incrementAndGet();
+                } catch (RuntimeException e) {
+                    rejected.incrementAndGet();
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+        assertEquals(BOOKINGS, confirmed.get() + rejected.get());
+        assertTrue(confirmed.get() > 0, "expected some bookings to succeed");
+
+        Map<Long, List<Reservation>> blockingByVehicle = reservationRepository.findAll().stream()
+                .filter(Reservation::isActive)
+                .collect(Collectors.groupingBy(reservation -> reservation.getVehicle().getId()));
+        assertEquals(confirmed.get(), blockingByVehicle.values().stream().mapToInt(List::size).sum());
+
+        for (List<Reservation> reservations : blockingByVehicle.values()) {
+            reservations.sort(Comparator.comparing(Reservation::getStartDate));
+            for (int i = 1; i < reservations.size(); i++) {
+                Reservation previous = reservations.get(i - 1);
+                Reservation current = reservations.get(i);
+                assertTrue(current.getStartDate().isAfter(previous.getEndDate()),
+                        "overlapping reservations " + previous.getId() + " and " + current.getId());
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.rentman.rentman.service;
+
+import com.rentman.rentman.repository.CompanyRepository;
+import com.rentman.rentman.repository.ReservationRepository;
+import com.rentman.rentman.repository.VehicleRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SuggestionServiceTest {
+
+    private final VehicleRepository vehicleRepository = mock(VehicleRepository.class);
+    private final CompanyRepository companyRepository = mock(CompanyRepository.class);
+    private final ReservationRepository reservationRepository = mock(ReservationRepository.class);
+    private final SuggestionService suggestions = new SuggestionService(
+            vehicleRepository, companyRepository, reservationRepository, mock(EntityManagerFactory.class));
+
+    @BeforeEach
+    void setUp() {
+        List<Object[]> vehicleRows = new ArrayList<>();
+        vehicleRows.add(new Object[]{1L, "Toyota", "Corolla", 10L});
+        vehicleRows.add(new Object[]{2L, "Toyota", "Camry", 10L});
+        vehicleRows.add(new Object[]{3L, "Tesla", "Model 3", 11L});
+        vehicleRows.add(new Object[]{4L, "Ford", "Focus", 11L});
+        vehicleRows.add(new Object[]{5L, "Tata", "Nano", 12L});
+        List<Object[]> companyRows = new ArrayList<>();
+        companyRows.add(new Object[]{10L, "Springfield", "IL"});
+        companyRows.add(new Object[]{11L, "Chicago", "IL"});
+        companyRows.add(new Object[]{12L, "Champaign", "IL"});
+        List<Object[]> popularityRows = new ArrayList<>();
+        popularityRows.add(new Object[]{3L, 5L});
+        popularityRows.add(new Object[]{4L, 1L});
+
+        when(vehicleRepository.findSuggestionRows()).thenReturn(vehicleRows);
+        when(companyRepository.findLocationRows()).thenReturn(companyRows);
+        when(reservationRepository.findPopularVehicleIds()).thenReturn(popularityRows);
+        suggestions.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        suggestions.shutdown();
+    }
+
+    @Test
+    void ranksByVehiclesAndCompletedReservations() {
+        // Tesla: one vehicle with five completed reservations; Toyota and Ford tie at two and go alphabetically
+        assertEquals(List.of("Tesla", "Toyota", "Tata"), suggestions.suggestMakes("t", 10));
+        assertEquals(List.of("Tesla", "Ford"), suggestions.suggestMakes(null, 2));
+        assertEquals(List.of("Toyota"), suggestions.suggestMakes("TOY", 10));
+        assertEquals(List.of(), suggestions.suggestMakes("x", 10));
+
+        assertEquals(List.of("Camry", "Corolla"), suggestions.suggestModels("toyota", "c", 10));
+        assertEquals(List.of("Model 3"), suggestions.suggestModels(null, "mo", 10));
+        assertEquals(List.of(), suggestions.suggestModels("Kia", null, 10));
+
+        assertEquals(List.of("Chicago, IL", "Champaign, IL"), suggestions.suggestLocations("ch", 10));
+    }
+
+    @Test
+    void matchesFragmentsAnywhereInAlphabeticalOrder() {
+        assertEquals(List.of("Tata", "Toyota"), suggestions.suggestMakesContaining("TA", 10));
+        assertEquals(List.of("Ford", "Tata"), suggestions.suggestMakesContaining(null, 2));
+        assertEquals(List.of("Corolla"), suggestions.suggestModelsContaining("toyota", "oll", 10));
+        assertEquals(List.of("Champaign, IL", "Chicago, IL", "Springfield, IL"),
+                suggestions.suggestLocationsContaining(", il", 10));
+    }
+
+    @Test
+    void appliesVehicleCompanyAndReservationChangesIncrementally() {
+        suggestions.reservationsChanged(1L, 1);
+        suggestions.reservationsChanged(1L, 1);
+        assertEquals(List.of("Corolla", "Camry"), suggestions.suggestModels("TOYOTA", null, 10));
+
+        suggestions.vehicleChanged(5L, "Tesla", "Model Y", 12L);
+        assertEquals(List.of(), suggestions.suggestMakes("ta", 10));
+        assertEquals(List.of("Model 3", "Model Y"), suggestions.suggestModels("tesla", "model", 10));
+
+        suggestions.companyChanged(11L, "Peoria, IL");
+        assertEquals(List.of("Champaign, IL"), suggestions.suggestLocations("ch", 10));
+        assertEquals(List.of("Peoria, IL"), suggestions.suggestLocations(null, 1));
+
+        suggestions.vehicleRemoved(3L);
+        assertEquals(List.of("Toyota", "Ford", "Tesla"), suggestions.suggestMakes(null, 10));
+        assertEquals(List.of("Springfield, IL", "Peoria, IL", "Champaign, IL"), suggestions.suggestLocations(null, 10));
+
+        suggestions.companyRemoved(12L);
+        assertEquals(List.of(), suggestions.suggestLocations("cha", 10));
+    }
+
+    @Test
+    void showsTheMostCommonSpellingAndPrunesEmptyBranches() {
+        SuggestionService.PrefixTrie trie = new SuggestionService.PrefixTrie();
+        trie.adjust("BMW", 1, 1);
+        trie.adjust("bmw", 1, 1);
+        trie.adjust("BMW", 1, 1);
+        trie.adjust("Bentley", 1, 5);
+
+        assertEquals(List.of("Bentley", "BMW"), trie.top("b", 10));
+        assertEquals(2, trie.size());
+
+        trie.adjust("Bentley", -1, -5);
+        trie.adjust("BMW", -2, -2);
+        assertEquals(List.of("bmw"), trie.top("", 10));
+
+        trie.adjust("bmw", -1, -1);
+        assertEquals(0, trie.size());
+        assertEquals(1, trie.nodeCount());
+    }
+}
@@ -0,0 +1,149 @@
+package com.rentman.rentman.service;
+
+import com.rentman.rentman.RentManIntegrationTest;
+import com.rentman.rentman.TestFixtures;
+import com.rentman.rentman.entity.Company;
+import com.rentman.rentman.entity.User;
+import com.rentman.rentman.entity.Vehicle;
+import com.rentman.rentman.repository.CompanyRepository;
+import com.rentman.rentman.repository.UserRepository;
+import com.rentman.rentman.repository.VehicleRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@RentManIntegrationTest
+class TextSearchIndexTest {
+
+    @Autowired
+    private TextSearchIndex textSearchIndex;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CompanyService companyService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CompanyRepository companyRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Test
+    void matchesSubstringsPrefixesAndTypos() {
+        TextSearchIndex.TrigramIndex<Long> index = new TextSearchIndex.TrigramIndex<>();
+        index.put(1L, "John Smith");
+        index.put(2L, "Joanna Smythe");
+        index.put(3L, "Émile Johnson");
+        index.put(4L, "Al Li");
+
+        assertEquals(List.of(1L, 3L), index.search("JOHN", TextSearchIndex.MatchMode.SUBSTRING, 10));
+        assertEquals(List.of(3L), index.search("mile john", TextSearchIndex.MatchMode.SUBSTRING, 10));
+        assertEquals(List.of(4L), index.search("li", TextSearchIndex.MatchMode.SUBSTRING, 10));
+
+        // Text or word starts only
+        assertEquals(List.of(1L, 2L), index.search("sm", TextSearchIndex.MatchMode.PREFIX, 10));
+        assertEquals(List.of(), index.search("mith", TextSearchIndex.MatchMode.PREFIX, 10));
+
+        // One edit below six characters, two from six; best match first
+        assertEquals(List.of(1L, 2L), index.search("smith", TextSearchIndex.MatchMode.FUZZY, 10));
+        assertEquals(List.of(1L), index.search("jonh smith", TextSearchIndex.MatchMode.FUZZY, 10));
+        assertEquals(List.of(3L), index.search("emile", TextSearchIndex.MatchMode.FUZZY, 10));
+
+        index.put(1L, "Jane Doe");
+        index.remove(2L);
+        assertEquals(List.of(), index.search("smith", TextSearchIndex.MatchMode.SUBSTRING, 10));
+        assertEquals(List.of(1L), index.search("doe", TextSearchIndex.MatchMode.SUBSTRING, 10));
+    }
+
+    @Test
+    void followsCommittedUsersAndServesUserSearch() {
+        User user = userRepository.save(newUser("priya", "Priya", "Ramanathan"));
+        userRepository.save(newUser("pryce", "Pryce", "Roberts"));
+        textSearchIndex.awaitPendingUpdates();
+
+        assertEquals(List.of(user.getId()), ids(userService.searchUsersByName("ramanath")));
+        assertEquals(List.of(user.getId()), ids(userService.searchUsersByName("ramanathn", TextSearchIndex.MatchMode.FUZZY, 10)));
+        assertEquals(2, userService.searchUsersByName("pr", TextSearchIndex.MatchMode.PREFIX, 10).size());
+
+        user.setLastName("Iyer");
+        userRepository.save(user);
+        textSearchIndex.awaitPendingUpdates();
+        assertEquals(List.of(), userService.searchUsersByName("ramanath"));
+        assertEquals(List.of(user.getId()), ids(userService.searchUsersByName("priya iyer")));
+
+        userRepository.deleteById(user.getId());
+        textSearchIndex.awaitPendingUpdates();
+        assertEquals(List.of(), userService.searchUsersByName("iyer"));
+        assertTrue((Long) textSearchIndex.getStatistics().get("appliedUpdates") >= 4);
+    }
+
+    @Test
+    void resolvesCompanyNamesAndVehicleMakes() {
+        Company northwind = companyRepository.save(newCompany("NORTHWIND", "Northwind Rentals", "Springfield"));
+        companyRepository.save(newCompany("NORTHSTAR", "Northstar Cars", "Chicago"));
+        companyRepository.save(newCompany("ACME", "Acme Fleet", "Springfield"));
+        vehicleRepository.save(newVehicle(northwind, "Volkswagen", "Golf", "TXT-1"));
+        vehicleRepository.save(newVehicle(northwind, "Volvo", "XC60", "TXT-2"));
+        textSearchIndex.awaitPendingUpdates();
+
+        Page<Company> byName = companyService.searchCompanies("north", null, null, null, null,
+                PageRequest.of(0, 10, Sort.by("companyName")));
+        assertEquals(2, byName.getTotalElements());
+
+        Page<Company> withCity = companyService.searchCompanies("northwnd", TextSearchIndex.MatchMode.FUZZY,
+                "springfield", null, null, null, PageRequest.of(0, 10, Sort.by("companyName")));
+        assertEquals(List.of(northwind.getId()), withCity.getContent().stream().map(Company::getId).toList());
+
+        assertEquals(0, companyService.searchCompanies("nothing like it", null, null, null, null,
+                PageRequest.of(0, 10)).getTotalElements());
+        assertEquals(2, companyService.searchCompanies(" ", null, "springfield", null, null, null,
+                PageRequest.of(0, 10)).getTotalElements());
+
+        // More prefix matches than fit in one IN list (two in tests): the city filter still finds the one it wants
+        Company northgate = companyRepository.save(newCompany("NORTHGATE", "Northgate Hire", "Boston"));
+        companyRepository.save(newCompany("NORTHFIELD", "Northfield Autos", "Chicago"));
+        textSearchIndex.awaitPendingUpdates();
+        Page<Company> inBoston = companyService.searchCompanies("north", TextSearchIndex.MatchMode.PREFIX,
+                "boston", null, null, null, PageRequest.of(0, 10));
+        assertEquals(List.of(northgate.getId()), inBoston.getContent().stream().map(Company::getId).toList());
+
+        assertEquals(List.of("Volkswagen", "Volvo"), textSearchIndex.searchMakes("vol", TextSearchIndex.MatchMode.PREFIX, 10));
+        assertEquals(List.of("XC60"), textSearchIndex.searchModels("xc", TextSearchIndex.MatchMode.SUBSTRING, 10));
+    }
+
+    private static List<Long> ids(List<User> users) {
+        return users.stream().map(User::getId).toList();
+    }
+
+    private static User newUser(String code, String firstName, String lastName) {
+        User user = TestFixtures.customer(code);
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        return user;
+    }
+
+    private static Vehicle newVehicle(Company company, String make, String model, String licensePlate) {
+        Vehicle vehicle = TestFixtures.vehicle(company, licensePlate);
+        vehicle.setMake(make);
+        vehicle.setModel(model);
+        return vehicle;
+    }
+
+    private static Company newCompany(String code, String name, String city) {
+        Company company = TestFixtures.company(code);
+        company.setCompanyName(name);
+        company.setCity(city);
+        return company;
+    }
+}
@@ -0,0 +1,82 @@
+package com.rentman.rentman.service;
+
+import com.rentman.rentman.entity.Vehicle;
+import com.rentman.rentman.repository.VehicleRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class VehicleFacetIndexTest {
+
+    private final VehicleFacetIndex index = new VehicleFacetIndex();
+    private final VehicleRepository vehicleRepository = mock(VehicleRepository.class);
+
+    @BeforeEach
+    void setUp() {
+        List<Object[]> vehicleRows = new ArrayList<>();
+        vehicleRows.add(new Object[]{1L, "Toyota", "Corolla", 2020, BigDecimal.valueOf(40), "Gasoline", "Automatic", "Red", 5});
+        vehicleRows.add(new Object[]{2L, "Toyota", "Camry", 2022, BigDecimal.valueOf(55), "Hybrid", "Automatic", "", 5});
+        vehicleRows.add(new Object[]{3L, "Ford", "Focus", 2018, BigDecimal.valueOf(35), "Gasoline", "Manual", "Blue", 4});
+
+        when(vehicleRepository.findFacetRows()).thenReturn(vehicleRows);
+        ReflectionTestUtils.setField(index, "vehicleRepository", vehicleRepository);
+        index.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        index.shutdown();
+    }
+
+    @Test
+    void servesDistinctValuesAndRanges() {
+        Map<String, Object> filters = index.getFilters();
+
+        assertEquals(List.of("Gasoline", "Hybrid"), filters.get("fuelTypes"));
+        assertEquals(List.of("Automatic", "Manual"), filters.get("transmissions"));
+        assertEquals(List.of("Blue", "Red"), filters.get("colors"));
+        assertEquals(Map.of("min", 2018, "max", 2022), filters.get("yearRange"));
+        assertEquals(Map.of("min", BigDecimal.valueOf(35), "max", BigDecimal.valueOf(55)), filters.get("priceRange"));
+        assertEquals(Map.of("min", 4, "max", 5), filters.get("seatingRange"));
+        assertEquals(2, index.getStatistics().get("distinctMakes"));
+        assertEquals(3, index.getStatistics().get("distinctModels"));
+    }
+
+    @Test
+    void appliesUpdatesAndDeletesIncrementally() {
+        Vehicle focus = vehicle(3L, "Mazda", "3", 2024, BigDecimal.valueOf(60), null);
+        index.record(focus);
+        index.forget(1L);
+        index.awaitPendingUpdates();
+
+        Map<String, Object> filters = index.getFilters();
+        assertEquals(Map.of("min", 2022, "max", 2024), filters.get("yearRange"));
+        assertEquals(Map.of("min", BigDecimal.valueOf(55), "max", BigDecimal.valueOf(60)), filters.get("priceRange"));
+        // A vehicle without seating capacity counts as 2 for the minimum and 8 for the maximum
+        assertEquals(Map.of("min", 2, "max", 8), filters.get("seatingRange"));
+        // Both gasoline vehicles are gone
+        assertEquals(List.of("Hybrid"), filters.get("fuelTypes"));
+        assertEquals(2, index.getStatistics().get("indexedVehicles"));
+        assertEquals(2, index.getStatistics().get("distinctMakes"));
+    }
+
+    private Vehicle vehicle(Long id, String make, String model, int year, BigDecimal dailyRate, Integer seating) {
+        Vehicle vehicle = new Vehicle();
+        vehicle.setId(id);
+        vehicle.setMake(make);
+        vehicle.setModel(model);
+        vehicle.setYear(year);
+        vehicle.setDailyRate(dailyRate);
+        vehicle.setSeatingCapacity(seating);
+        return vehicle;
+    }
+}
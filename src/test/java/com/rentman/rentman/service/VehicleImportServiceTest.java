@@ -0,0 +1,104 @@
+package com.rentman.rentman.service;
+
+import com.rentman.rentman.RentManIntegrationTest;
+import com.rentman.rentman.TestFixtures;
+import com.rentman.rentman.dto.VehicleImportResult;
+import com.rentman.rentman.entity.Company;
+import com.rentman.rentman.entity.Vehicle;
+import com.rentman.rentman.repository.CompanyRepository;
+import com.rentman.rentman.repository.VehicleRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@RentManIntegrationTest
+class VehicleImportServiceTest {
+
+    @Autowired
+    private VehicleImportService vehicleImportService;
+
+    @Autowired
+    private CompanyRepository companyRepository;
+
+    @Autowired
+    private VehicleRepository vehicleRepository;
+
+    @Test
+    void importsCsvRowsAndReportsTheOnesThatFail() throws IOException {
+        String code = TestFixtures.uniqueCode("IMP");
+        Company company = companyRepository.save(newCompany(code, 50));
+        vehicleRepository.save(TestFixtures.vehicle(company, code + "-TAKEN"));
+
+        String csv = """
+                make,model,year,licensePlate,type,dailyRate,color
+                Toyota,Corolla,2023,%1$s-1,CAR,45.00,"Silver, metallic"
+                Ford,Transit,2022,%1$s-2,VAN,80.00,
+                Honda,Civic,2021,%1$s-5,CAR,40.00,
+                Honda,Jazz,2021,%1$s-5,CAR,40.00,
+                Honda,Civic,2021,%1$s-TAKEN,CAR,40.00,
+                ,Golf,2020,%1$s-3,CAR,42.00,
+                Tesla,Model 3,not-a-year,%1$s-4,CAR,90.00,
+                """.formatted(code);
+
+        VehicleImportResult result = vehicleImportService.importVehicles(company.getId(), ExportService.Format.CSV, stream(csv));
+
+        assertEquals(7, result.getRowsRead());
+        assertEquals(3, result.getImported());
+        assertEquals(4, result.getFailed());
+        assertEquals(4, result.getChunks());
+        assertEquals(List.of(4L, 5L, 6L, 7L), result.getErrors().stream().map(VehicleImportResult.RowError::getRow).toList());
+        assertEquals("License plate appears more than once in this import", result.getErrors().get(0).getError());
+        assertEquals("License plate is already registered", result.getErrors().get(1).getError());
+        assertEquals("Make is required", result.getErrors().get(2).getError());
+        assertTrue(result.getErrors().get(3).getError().startsWith("Invalid row"));
+
+        List<Vehicle> vehicles = vehicleRepository.findByCompanyIdOrderByCreatedAtDesc(company.getId());
+        assertEquals(4, vehicles.size());
+        Vehicle corolla = vehicles.stream().filter(v -> "Corolla".equals(v.getModel())).findFirst().orElseThrow();
+        assertEquals("Silver, metallic", corolla.getColor());
+        assertEquals(Vehicle.VehicleStatus.AVAILABLE, corolla.getStatus());
+    }
+
+    @Test
+    void importsNdjsonUpToTheCompanyVehicleLimit() throws IOException {
+        String code = TestFixtures.uniqueCode("IMP");
+        Company company = companyRepository.save(newCompany(code, 2));
+
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 1; i <= 4; i++) {
+            ndjson.append("{\"make\":\"Kia\",\"model\":\"Rio\",\"year\":2024,\"licensePlate\":\"")
+                    .append(code).append('-').append(i)
+                    .append("\",\"type\":\"CAR\",\"dailyRate\":35}\n");
+        }
+
+        VehicleImportResult result = vehicleImportService.importVehicles(company.getId(), ExportService.Format.NDJSON, stream(ndjson.toString()));
+
+        assertEquals(2, result.getImported());
+        assertEquals(2, result.getFailed());
+        assertTrue(result.getErrors().get(0).getError().startsWith("Company vehicle limit reached"));
+        assertEquals(2, vehicleRepository.countByCompanyId(company.getId()));
+    }
+
+    @Test
+    void parsesQuotedCsvFields() {
+        assertArrayEquals(new String[]{"a", "b, c", "say \"hi\"", ""},
+                VehicleImportService.parseCsvLine("a,\"b, c\",\"say \"\"hi\"\"\","));
+    }
+
+    private ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Company newCompany(String code, int maxVehicles) {
+        Company company = TestFixtures.company(code);
+        company.setMaxVehicles(maxVehicles);
+        return company;
+    }
+}
@@ -0,0 +1,4 @@
+-- H2 counterpart of schema-sqlserver.sql. NULLS DISTINCT stands in for SQL Server's filtered index: the MSSQLServer
+-- mode otherwise treats NULLs as equal, as SQL Server does.
+CREATE UNIQUE NULLS DISTINCT INDEX IF NOT EXISTS uk_invoice_company_type_period
+    ON invoice (company_id, type, billing_period_start);